@@ -44,6 +44,7 @@ val projectName = project.name
 
 val packageName     = "unzip"
 val mainClassName   = "uk.blankaspect.${packageName}.UnzipApp"
+val cliClassName    = "uk.blankaspect.${packageName}.UnzipCli"
 
 val buildDir    = layout.buildDirectory.get().getAsFile().toString()
 val jarDir      = _path(buildDir, "bin")
@@ -130,6 +131,16 @@ tasks.register<JavaExec>("runMainJre") {
 
 //----------------------------------------------------------------------
 
+// Run command-line interface with Gradle's Java launcher.  JavaFX modules are not required.  The arguments are
+// specified with the '--args' option.
+
+tasks.register<JavaExec>("runCli") {
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set(cliClassName)
+}
+
+//----------------------------------------------------------------------
+
 // Run executable JAR with Gradle's Java launcher
 
 tasks.register<JavaExec>("runJar") {
@@ -0,0 +1,480 @@
+/*====================================================================*\
+
+DirectoryCache.java
+
+Class: cache of the entries of directories.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.common.filesystem;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.IOException;
+
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import uk.blankaspect.common.thread.DaemonFactory;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: CACHE OF THE ENTRIES OF DIRECTORIES
+
+
+/**
+ * This class implements a cache of snapshots of the entries of directories.  A snapshot consists of the location and
+ * basic attributes of each directory and regular file in a directory.  Each cached directory is watched with a {@link
+ * WatchService}, and its snapshot is discarded when an entry of the directory is created, deleted or modified, so a
+ * directory is cached only if its file system supports a watch service.
+ * <p>
+ * The cache is bounded by the number of directories and by the total number of entries in all snapshots; when either
+ * bound is exceeded, the least recently used snapshots are discarded.
+ * </p>
+ * <p>
+ * A snapshot is stored in two steps to avoid caching a directory that changes while it is being read: before reading
+ * the directory, a client obtains a {@linkplain #register(Path) version} of the directory, and the snapshot is
+ * {@linkplain #put(Path, long, List) stored} only if no event has been received for the directory in the meantime.
+ * Versions are unique within the cache, so a version that was obtained before a directory was discarded does not match
+ * a version of the directory after it has been registered again.
+ * </p>
+ */
+
+public class DirectoryCache
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The version that is returned by {@link #register(Path)} if a directory cannot be cached. */
+	public static final		long	NO_VERSION	= -1;
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The name of the thread on which events of the watch service are received. */
+	private	String						threadName;
+
+	/** The maximum number of directories whose snapshots are cached. */
+	private	int							maxNumDirectories;
+
+	/** The maximum total number of entries in the cached snapshots. */
+	private	int							maxNumEntries;
+
+	/** The watched directories, in order of last access. */
+	private	Map<Path, Directory>		directories;
+
+	/** A map from watch keys to the watched directories. */
+	private	Map<WatchKey, Directory>	watchKeys;
+
+	/** The total number of entries in the cached snapshots. */
+	private	int							numEntries;
+
+	/** The most recent version of any directory, from which each new version of a directory is derived. */
+	private	long						lastVersion;
+
+	/** The watch service, which is {@code null} until a directory is first registered or after the cache is closed. */
+	private	WatchService				watchService;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a cache of the entries of directories.
+	 *
+	 * @param threadName
+	 *          the name of the thread on which events of the watch service will be received.
+	 * @param maxNumDirectories
+	 *          the maximum number of directories whose snapshots will be cached.
+	 * @param maxNumEntries
+	 *          the maximum total number of entries in the cached snapshots.
+	 */
+
+	public DirectoryCache(
+		String	threadName,
+		int		maxNumDirectories,
+		int		maxNumEntries)
+	{
+		// Initialise instance variables
+		this.threadName = threadName;
+		this.maxNumDirectories = maxNumDirectories;
+		this.maxNumEntries = maxNumEntries;
+		directories = new LinkedHashMap<>(16, 0.75f, true);
+		watchKeys = new HashMap<>();
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the snapshot of the entries of the specified directory.
+	 *
+	 * @param  directory
+	 *           the location of the directory.
+	 * @return the snapshot of the entries of {@code directory}, or {@code null} if the directory is not cached.
+	 */
+
+	public synchronized List<Entry> get(
+		Path	directory)
+	{
+		Directory dir = directories.get(directory);
+		return (dir == null) ? null : dir.entries;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Starts watching the specified directory, if it is not already watched, and returns its current version.  The
+	 * version should be passed to {@link #put(Path, long, List)} when the entries of the directory have been read.
+	 *
+	 * @param  directory
+	 *           the location of the directory.
+	 * @return the current version of {@code directory}, or {@link #NO_VERSION} if the directory cannot be watched.
+	 */
+
+	public synchronized long register(
+		Path	directory)
+	{
+		// If directory is already watched, return its version
+		Directory dir = directories.get(directory);
+		if (dir != null)
+			return dir.version;
+
+		// Register directory with watch service
+		try
+		{
+			if (watchService == null)
+			{
+				WatchService service = directory.getFileSystem().newWatchService();
+				DaemonFactory.create(threadName, () -> receiveEvents(service)).start();
+				watchService = service;
+			}
+			WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+											  StandardWatchEventKinds.ENTRY_DELETE,
+											  StandardWatchEventKinds.ENTRY_MODIFY);
+			dir = new Directory(key, ++lastVersion);
+		}
+		catch (IOException | UnsupportedOperationException | IllegalArgumentException | ClosedWatchServiceException e)
+		{
+			return NO_VERSION;
+		}
+
+		// Add directory
+		directories.put(directory, dir);
+		watchKeys.put(dir.watchKey, dir);
+		trim();
+
+		// Return version
+		return dir.version;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Stores the specified snapshot of the entries of the specified directory if the directory is watched and its
+	 * version is the specified version.
+	 *
+	 * @param directory
+	 *          the location of the directory.
+	 * @param version
+	 *          the version of the directory that was obtained from {@link #register(Path)} before its entries were
+	 *          read.
+	 * @param entries
+	 *          the entries of {@code directory}.
+	 */
+
+	public synchronized void put(
+		Path		directory,
+		long		version,
+		List<Entry>	entries)
+	{
+		Directory dir = directories.get(directory);
+		if ((dir != null) && (dir.version == version) && (version != NO_VERSION))
+		{
+			if (dir.entries != null)
+				numEntries -= dir.entries.size();
+			dir.entries = List.copyOf(entries);
+			numEntries += entries.size();
+			trim();
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Discards the snapshot of the specified directory.
+	 *
+	 * @param directory
+	 *          the location of the directory.
+	 */
+
+	public synchronized void invalidate(
+		Path	directory)
+	{
+		Directory dir = directories.get(directory);
+		if (dir != null)
+			invalidate(dir);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Discards all snapshots, stops watching all directories and closes the watch service.  The cache may be used
+	 * again after it has been closed.
+	 */
+
+	public synchronized void close()
+	{
+		// Discard snapshots
+		directories.clear();
+		watchKeys.clear();
+		numEntries = 0;
+
+		// Close watch service
+		if (watchService != null)
+		{
+			try
+			{
+				watchService.close();
+			}
+			catch (IOException e)
+			{
+				// ignore
+			}
+			watchService = null;
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Discards the snapshot of the specified directory and gives it a new version.
+	 *
+	 * @param dir
+	 *          the directory.
+	 */
+
+	private void invalidate(
+		Directory	dir)
+	{
+		if (dir.entries != null)
+		{
+			numEntries -= dir.entries.size();
+			dir.entries = null;
+		}
+		dir.version = ++lastVersion;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Stops watching the least recently used directories while the number of directories or the total number of
+	 * entries exceeds its bound.
+	 */
+
+	private void trim()
+	{
+		Iterator<Directory> it = directories.values().iterator();
+		while (it.hasNext() && ((directories.size() > maxNumDirectories) || (numEntries > maxNumEntries)))
+		{
+			Directory dir = it.next();
+			if (dir.entries != null)
+				numEntries -= dir.entries.size();
+			dir.watchKey.cancel();
+			watchKeys.remove(dir.watchKey);
+			it.remove();
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Receives events from the specified watch service and discards the snapshots of the directories to which they
+	 * relate.  This method runs on its own thread until the watch service is closed.
+	 *
+	 * @param service
+	 *          the watch service.
+	 */
+
+	private void receiveEvents(
+		WatchService	service)
+	{
+		while (true)
+		{
+			// Wait for events
+			WatchKey key = null;
+			try
+			{
+				key = service.take();
+			}
+			catch (ClosedWatchServiceException | InterruptedException e)
+			{
+				break;
+			}
+
+			// Discard snapshot of directory; stop watching directory if it is no longer valid
+			synchronized (this)
+			{
+				key.pollEvents();
+				Directory dir = watchKeys.get(key);
+				if (dir != null)
+				{
+					invalidate(dir);
+					if (!key.reset())
+					{
+						watchKeys.remove(key);
+						directories.values().remove(dir);
+					}
+				}
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: ENTRY OF A DIRECTORY
+
+
+	/**
+	 * This record encapsulates the location and basic attributes of an entry of a directory.
+	 *
+	 * @param location
+	 *          the location of the entry.
+	 * @param isDirectory
+	 *          {@code true} if the entry is a directory; {@code false} if it is a regular file.
+	 * @param size
+	 *          the size of the entry, or -1 if the entry is a directory.
+	 * @param modificationTime
+	 *          the time at which the entry was last modified.
+	 */
+
+	public record Entry(
+		Path		location,
+		boolean		isDirectory,
+		long		size,
+		FileTime	modificationTime)
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Class methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Reads the attributes of the specified location with a single call to the file system, without following
+		 * symbolic links, and returns an entry for it.
+		 *
+		 * @param  location
+		 *           the location.
+		 * @return an entry for {@code location}, or {@code null} if {@code location} is neither a directory nor a
+		 *         regular file or its attributes could not be read.
+		 */
+
+		public static Entry read(
+			Path	location)
+		{
+			try
+			{
+				BasicFileAttributes attributes =
+						Files.readAttributes(location, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+				if (attributes.isDirectory())
+					return new Entry(location, true, -1, attributes.lastModifiedTime());
+				if (attributes.isRegularFile())
+					return new Entry(location, false, attributes.size(), attributes.lastModifiedTime());
+			}
+			catch (IOException e)
+			{
+				// ignore
+			}
+			return null;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member classes : non-inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: WATCHED DIRECTORY
+
+
+	/**
+	 * This class encapsulates the state of a watched directory.
+	 */
+
+	private static class Directory
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** The key of the registration of the directory with the watch service. */
+		private	WatchKey	watchKey;
+
+		/** The version of the directory, which is replaced when an event is received for the directory. */
+		private	long		version;
+
+		/** The snapshot of the entries of the directory, which is {@code null} if there is no valid snapshot. */
+		private	List<Entry>	entries;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private Directory(
+			WatchKey	watchKey,
+			long		version)
+		{
+			// Initialise instance variables
+			this.watchKey = watchKey;
+			this.version = version;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,292 @@
+/*====================================================================*\
+
+FileWatcher.java
+
+Class: watcher of a file for changes.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.common.filesystem;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.IOException;
+
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+import java.util.Objects;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import uk.blankaspect.common.thread.DaemonFactory;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: WATCHER OF A FILE FOR CHANGES
+
+
+/**
+ * This class implements a watcher that runs a specified action when a file may have changed.  The file is watched
+ * with a {@link WatchService} on its parent directory: when the file is created, modified, deleted or renamed, or
+ * when events may have been lost, the action is run after a <i>settling delay</i>, so that a burst of events from a
+ * single write of the file results in a single run of the action.  If the file system of the file does not support a
+ * watch service, or if the registration of the parent directory becomes invalid (for example, because the directory
+ * was deleted or its file system was unmounted), the action is run at a fixed interval instead, so that it can detect
+ * a change by polling the attributes of the file.
+ * <p>
+ * The action is always run on a single daemon thread of the watcher.  It is also run when a file is {@linkplain
+ * #setFile(Path) set} on the watcher, so that it can record the initial state of the file.
+ * </p>
+ */
+
+public class FileWatcher
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The suffix of the name of the thread on which events of the watch service are received. */
+	private static final	String	WATCH_THREAD_NAME_SUFFIX	= "-watch";
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The name of the thread on which the action is run. */
+	private	String						threadName;
+
+	/** The interval (in milliseconds) between successive runs of the action if the file cannot be watched. */
+	private	long						pollInterval;
+
+	/** The delay (in milliseconds) between the last event for the file and the run of the action. */
+	private	long						settleDelay;
+
+	/** The action that is run when the file may have changed. */
+	private	Runnable					action;
+
+	/** The executor on whose thread the action is run. */
+	private	ScheduledExecutorService	executor;
+
+	/** The watch service, which is {@code null} until a file is first watched. */
+	private	WatchService				watchService;
+
+	/** The file that is watched. */
+	private	Path						file;
+
+	/** The key of the registration of the parent directory of the file with the watch service. */
+	private	WatchKey					watchKey;
+
+	/** The future of the periodic run of the action if the file cannot be watched with the watch service. */
+	private	ScheduledFuture<?>			pollFuture;
+
+	/** The future of the pending run of the action after an event for the file. */
+	private	ScheduledFuture<?>			actionFuture;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a watcher of a file.
+	 *
+	 * @param threadName
+	 *          the name of the thread on which {@code action} is run.
+	 * @param pollInterval
+	 *          the interval (in milliseconds) between successive runs of {@code action} if the file cannot be watched
+	 *          with a watch service.
+	 * @param settleDelay
+	 *          the delay (in milliseconds) between the last event for the file and the run of {@code action}.
+	 * @param action
+	 *          the action that will be run when the file may have changed.
+	 */
+
+	public FileWatcher(
+		String		threadName,
+		long		pollInterval,
+		long		settleDelay,
+		Runnable	action)
+	{
+		// Initialise instance variables
+		this.threadName = threadName;
+		this.pollInterval = pollInterval;
+		this.settleDelay = settleDelay;
+		this.action = action;
+		executor = Executors.newSingleThreadScheduledExecutor(runnable -> DaemonFactory.create(threadName, runnable));
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Sets the file that is watched by this watcher.  The action of this watcher is run once when the file is set.
+	 *
+	 * @param file
+	 *          the file that will be watched.  If it is {@code null}, no file will be watched.
+	 */
+
+	public synchronized void setFile(
+		Path	file)
+	{
+		// Do nothing if file has not changed
+		if (Objects.equals(file, this.file))
+			return;
+
+		// Stop watching current file
+		if (watchKey != null)
+		{
+			watchKey.cancel();
+			watchKey = null;
+		}
+		if (pollFuture != null)
+		{
+			pollFuture.cancel(false);
+			pollFuture = null;
+		}
+
+		// Update instance variable
+		this.file = file;
+
+		// Start watching new file
+		if (file != null)
+		{
+			// Run action to record initial state of file
+			executor.execute(action);
+
+			// Register parent directory of file with watch service; if file system doesn't support a watch service,
+			// poll file instead
+			try
+			{
+				if (watchService == null)
+				{
+					watchService = file.getFileSystem().newWatchService();
+					DaemonFactory.create(threadName + WATCH_THREAD_NAME_SUFFIX, this::receiveEvents).start();
+				}
+				Path directory = file.toAbsolutePath().getParent();
+				watchKey = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+											  StandardWatchEventKinds.ENTRY_MODIFY,
+											  StandardWatchEventKinds.ENTRY_DELETE);
+			}
+			catch (IOException | UnsupportedOperationException | IllegalArgumentException e)
+			{
+				startPolling();
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Stops this watcher.  The action of this watcher will not be run after this method returns.
+	 */
+
+	public synchronized void close()
+	{
+		// Stop executor
+		executor.shutdownNow();
+
+		// Close watch service
+		if (watchService != null)
+		{
+			try
+			{
+				watchService.close();
+			}
+			catch (IOException e)
+			{
+				// ignore
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Runs the action of this watcher at a fixed interval.  This method is called with the lock of this watcher held.
+	 */
+
+	private void startPolling()
+	{
+		if ((pollFuture == null) && !executor.isShutdown())
+			pollFuture = executor.scheduleWithFixedDelay(action, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Receives events from the watch service and schedules a run of the action of this watcher for events that relate
+	 * to the watched file.  If the key of the watched file becomes invalid, the action is run and the file is polled
+	 * from then on.  This method runs on its own thread until the watch service is closed.
+	 */
+
+	private void receiveEvents()
+	{
+		while (true)
+		{
+			// Wait for events
+			WatchKey key = null;
+			try
+			{
+				key = watchService.take();
+			}
+			catch (ClosedWatchServiceException | InterruptedException e)
+			{
+				break;
+			}
+
+			// Schedule action if an event relates to watched file
+			synchronized (this)
+			{
+				boolean current = (key == watchKey);
+				boolean changed = false;
+				for (WatchEvent<?> event : key.pollEvents())
+				{
+					if ((event.kind() == StandardWatchEventKinds.OVERFLOW)
+							|| (current && event.context().equals(file.getFileName())))
+						changed = true;
+				}
+
+				// Reset key; if key of watched file is no longer valid, fall back to polling file
+				if (!key.reset() && current)
+				{
+					watchKey = null;
+					changed = true;
+					startPolling();
+				}
+
+				// Schedule action
+				if (changed && current && !executor.isShutdown())
+				{
+					if (actionFuture != null)
+						actionFuture.cancel(false);
+					actionFuture = executor.schedule(action, settleDelay, TimeUnit.MILLISECONDS);
+				}
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
@@ -66,6 +66,11 @@ import uk.blankaspect.common.jsonxml.JsonXmlUtils;
  *     The {@code parseToXml(\u2026)} methods transform JSON text into a tree of {@linkplain Element XML elements}.
  *     Each XML element corresponds to a JSON value.
  *   </li>
+ *   <li>
+ *     The {@code eventReader(\u2026)} methods return an {@linkplain EventReader event reader} from which the JSON text
+ *     is pulled as a sequence of {@linkplain Event events} without building a tree, so that a large JSON text can be
+ *     processed in constant memory.
+ *   </li>
  * </ul>
  * <p>
  * The input text of the parser is expected to conform to the JSON grammar as specified in <a
@@ -77,6 +82,10 @@ import uk.blankaspect.common.jsonxml.JsonXmlUtils;
  * and parsing of the input text with the generation of the output (a tree of {@linkplain AbstractNode nodes} or
  * {@linkplain Element XML elements} that correspond to JSON values).
  * </p>
+ * <p>
+ * The input text is read in blocks into an internal buffer, so it is not necessary to wrap a {@link Reader} in a
+ * {@link java.io.BufferedReader BufferedReader}.
+ * </p>
  */
 
 public class JsonParser
@@ -106,15 +115,18 @@ public class JsonParser
 	/** The prefix of a four-hex-digit Unicode representation of a character. */
 	private static final	String	UNICODE_PREFIX	= "U+";
 
+	/** The length of the buffer into which the input text is read. */
+	private static final	int		INPUT_BUFFER_LENGTH	= 8192;
+
 	/** Miscellaneous strings. */
 	private static final	String	CHARACTER_NOT_ALLOWED_STR	= "the character %s at index %d is not allowed.";
 	private static final	String	ENDED_PREMATURELY_STR		= "it ended prematurely at index %d.";
-	private static final	String	UNSUPPORTED_OPERATION_STR	= "Unsupported operation";
 	private static final	String	NULL_INPUT_STREAM_STR		= "Null input stream";
 	private static final	String	NULL_READER_STR				= "Null reader";
 	private static final	String	NULL_TEXT_STR				= "Null text";
 	private static final	String	NO_XML_ELEMENT_FACADE_STR	= "No XML element facade";
 	private static final	String	INVALID_PARENT_STR			= "Unexpected error: invalid parent";
+	private static final	String	NOT_START_OF_VALUE_STR		= "The current event is not the start of a value";
 
 	/** Mappings from characters in an escape sequence to their corresponding literal characters. */
 	private static final	char[][]	ESCAPE_MAPPINGS	=
@@ -147,6 +159,17 @@ public class JsonParser
 		DONE
 	}
 
+	/** The states of an event reader. */
+	private enum EventState
+	{
+		VALUE,
+		FIRST_ARRAY_ELEMENT,
+		FIRST_OBJECT_MEMBER,
+		OBJECT_MEMBER,
+		VALUE_END,
+		DONE
+	}
+
 	/** The states of the number validator. */
 	private enum NumberState
 	{
@@ -220,10 +243,27 @@ public class JsonParser
 //  Instance variables
 ////////////////////////////////////////////////////////////////////////
 
-	/** The reader of the character stream that is the source of the JSON text. */
+	/** The reader of the character stream that is the source of the JSON text, or {@code null} if the source is {@link
+		#inputText}. */
 	private	Reader			inputReader;
 
-	/** The last character that was read from {@link #inputReader}. */
+	/** The sequence of characters that is the source of the JSON text, or {@code null} if the source is {@link
+		#inputReader}. */
+	private	CharSequence	inputText;
+
+	/** The index of the next character of {@link #inputText} that will be copied to the input buffer. */
+	private	int				inputTextIndex;
+
+	/** The buffer into which the input text is read. */
+	private	char[]			inputBuffer;
+
+	/** The index of the next character in the input buffer. */
+	private	int				inputBufferIndex;
+
+	/** The number of valid characters in the input buffer. */
+	private	int				inputBufferLength;
+
+	/** The last character that was read from the input buffer. */
 	private	char			inputChar;
 
 	/** Flag: if {@code true}, the end of the input has been reached. */
@@ -272,6 +312,7 @@ public class JsonParser
 		Builder	builder)
 	{
 		// Initialise instance variables
+		inputBuffer = new char[INPUT_BUFFER_LENGTH];
 		tokenBuffer = new StringBuilder();
 		unicodeSeqChars = new char[StringNode.UNICODE_SEQUENCE_LENGTH];
 		xmlElementFacade = builder.elementFacade;
@@ -376,8 +417,12 @@ public class JsonParser
 		if (text == null)
 			throw new IllegalArgumentException(NULL_TEXT_STR);
 
+		// Initialise instance variables
+		inputReader = null;
+		inputText = text;
+
 		// Parse input text and return result
-		return parse(reader(text));
+		return parse(false).node;
 	}
 
 	//------------------------------------------------------------------
@@ -463,6 +508,7 @@ public class JsonParser
 
 		// Initialise instance variables
 		inputReader = reader;
+		inputText = null;
 
 		// Parse input text and return result
 		return parse(false).node;
@@ -494,8 +540,16 @@ public class JsonParser
 		if (text == null)
 			throw new IllegalArgumentException(NULL_TEXT_STR);
 
+		// Test for XML element facade
+		if (xmlElementFacade == null)
+			throw new IllegalStateException(NO_XML_ELEMENT_FACADE_STR);
+
+		// Initialise instance variables
+		inputReader = null;
+		inputText = text;
+
 		// Parse input text and return result
-		return parseToXml(reader(text));
+		return parse(true).xmlElement;
 	}
 
 	//------------------------------------------------------------------
@@ -591,6 +645,7 @@ public class JsonParser
 
 		// Initialise instance variables
 		inputReader = reader;
+		inputText = null;
 
 		// Parse input text and return result
 		return parse(true).xmlElement;
@@ -598,6 +653,111 @@ public class JsonParser
 
 	//------------------------------------------------------------------
 
+	/**
+	 * Creates and returns an {@linkplain EventReader event reader} for the specified text.  The event reader uses the
+	 * state of this parser, which should not be used to parse other text while the event reader is in use.
+	 *
+	 * @param  text
+	 *           the text that will be parsed as JSON text.
+	 * @return an event reader for {@code text}.
+	 * @throws IllegalArgumentException
+	 *           if {@code text} is {@code null}.
+	 */
+
+	public EventReader eventReader(
+		CharSequence	text)
+	{
+		// Validate argument
+		if (text == null)
+			throw new IllegalArgumentException(NULL_TEXT_STR);
+
+		// Initialise instance variables
+		inputReader = null;
+		inputText = text;
+
+		// Create event reader and return it
+		return new EventReader();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns an {@linkplain EventReader event reader} for the text that is composed of characters that
+	 * are read from the specified byte stream using the UTF-8 character encoding.  The event reader uses the state of
+	 * this parser, which should not be used to parse other text while the event reader is in use.
+	 *
+	 * @param  inputStream
+	 *           the byte stream from which the JSON text will be read.
+	 * @return an event reader for the text that is read from {@code inputStream}.
+	 * @throws IllegalArgumentException
+	 *           if {@code inputStream} is {@code null}.
+	 */
+
+	public EventReader eventReader(
+		InputStream	inputStream)
+	{
+		return eventReader(inputStream, StandardCharsets.UTF_8);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns an {@linkplain EventReader event reader} for the text that is composed of characters that
+	 * are read from the specified byte stream using the specified character encoding.  The event reader uses the state
+	 * of this parser, which should not be used to parse other text while the event reader is in use.
+	 *
+	 * @param  inputStream
+	 *           the byte stream from which the JSON text will be read.
+	 * @param  encoding
+	 *           the character encoding of {@code inputStream}; if {@code null}, the UTF-8 encoding will be used.
+	 * @return an event reader for the text that is read from {@code inputStream}.
+	 * @throws IllegalArgumentException
+	 *           if {@code inputStream} is {@code null}.
+	 */
+
+	public EventReader eventReader(
+		InputStream	inputStream,
+		Charset		encoding)
+	{
+		// Validate arguments
+		if (inputStream == null)
+			throw new IllegalArgumentException(NULL_INPUT_STREAM_STR);
+
+		// Create reader for input stream; create event reader for it and return it
+		return eventReader(reader(inputStream, encoding));
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns an {@linkplain EventReader event reader} for the text that is read from a character stream
+	 * by the specified reader.  The event reader uses the state of this parser, which should not be used to parse other
+	 * text while the event reader is in use.
+	 *
+	 * @param  reader
+	 *           the reader of the character stream that is the source of the JSON text.
+	 * @return an event reader for the text that is read by {@code reader}.
+	 * @throws IllegalArgumentException
+	 *           if {@code reader} is {@code null}.
+	 */
+
+	public EventReader eventReader(
+		Reader	reader)
+	{
+		// Validate argument
+		if (reader == null)
+			throw new IllegalArgumentException(NULL_READER_STR);
+
+		// Initialise instance variables
+		inputReader = reader;
+		inputText = null;
+
+		// Create event reader and return it
+		return new EventReader();
+	}
+
+	//------------------------------------------------------------------
+
 	/**
 	 * Parses the text that is read from a character stream by the reader that was set on this parser.  If the text
 	 * conforms to the JSON grammar, the JSON text is transformed into a tree of either {@linkplain AbstractNode nodes}
@@ -617,12 +777,8 @@ public class JsonParser
 		boolean	toXml)
 		throws ParseException
 	{
-		// Reset instance variables
-		index = 0;
-		lineIndex = 0;
-		lineStartIndex = 0;
-		tokenIndex = 0;
-		tokenBuffer.setLength(0);
+		// Reset input
+		resetInput();
 
 		// Initialise local variables
 		Deque<MemberInfo> memberInfoStack = new ArrayDeque<>();
@@ -935,64 +1091,17 @@ public class JsonParser
 					// Get string representation of number
 					String numberStr = tokenBuffer.toString();
 
-					// Process number string
-					try
-					{
-						// If generating XML, add number element to parent ...
-						if (toXml)
-							xmlElement = addChild(xmlElement, ElementKind.NUMBER, numberStr);
-
-						// ... otherwise, parse number
-						else
-						{
-							// Create new instance of BigDecimal from token
-							BigDecimal number = new BigDecimal(numberStr);
-
-							// If number is integer, add node of smallest type ...
-							if (numberStr.indexOf('.') < 0)
-							{
-								try
-								{
-									node = new IntNode(node, number.intValueExact());
-								}
-								catch (ArithmeticException e)
-								{
-									try
-									{
-										node = new LongNode(node, number.longValueExact());
-									}
-									catch (ArithmeticException e0)
-									{
-										if (storeExcessiveIntegerAsFP)
-											node = new DoubleNode(node, number.doubleValue());
-										else
-										{
-											throw new ParseException(ErrorMsg.TOO_LARGE_FOR_INTEGER, lineIndex,
-																	 tokenIndex - lineStartIndex);
-										}
-									}
-								}
-							}
-
-							// ... otherwise, add node for double-precision FP
-							else
-								node = new DoubleNode(node, number.doubleValue());
-						}
+					// Add number
+					if (toXml)
+						xmlElement = addChild(xmlElement, ElementKind.NUMBER, numberStr);
+					else
+						node = createNumberNode(node, numberStr);
 
-						// Push back terminator
-						pushBackChar();
+					// Push back terminator
+					pushBackChar();
 
-						// Set next state
-						state = State.VALUE_END;
-					}
-					catch (NumberFormatException e)
-					{
-						String causeMessage = e.getMessage();
-						throw new ParseException(((causeMessage == null) || causeMessage.isEmpty())
-														? ErrorMsg.NOT_A_VALID_NUMBER + "."
-														: ErrorMsg.NOT_A_VALID_NUMBER + ": " + causeMessage,
-												 lineIndex, tokenIndex - lineStartIndex, numberStr);
-					}
+					// Set next state
+					state = State.VALUE_END;
 					break;
 				}
 
@@ -1289,6 +1398,66 @@ public class JsonParser
 
 	//------------------------------------------------------------------
 
+	/**
+	 * Resets the state of the input and of the lexical analyser before the input text is read from the start.
+	 */
+
+	private void resetInput()
+	{
+		inputTextIndex = 0;
+		inputBufferIndex = 0;
+		inputBufferLength = 0;
+		endOfInput = false;
+		pushedBack = false;
+		index = 0;
+		lineIndex = 0;
+		lineStartIndex = 0;
+		tokenIndex = 0;
+		tokenBuffer.setLength(0);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Fills the input buffer with the next block of characters from the input text.  If the end of the input text has
+	 * been reached, the buffer is left empty.
+	 *
+	 * @throws ParseException
+	 *           if an error occurs when reading from the input stream.
+	 */
+
+	private void fillInputBuffer()
+		throws ParseException
+	{
+		// Reset buffer
+		inputBufferIndex = 0;
+		inputBufferLength = 0;
+
+		// Case: input is a sequence of characters
+		if (inputText != null)
+		{
+			int length = Math.min(inputBuffer.length, inputText.length() - inputTextIndex);
+			for (int i = 0; i < length; i++)
+				inputBuffer[i] = inputText.charAt(inputTextIndex++);
+			inputBufferLength = length;
+		}
+
+		// Case: input is a character stream
+		else
+		{
+			try
+			{
+				inputBufferLength = Math.max(0, inputReader.read(inputBuffer, 0, inputBuffer.length));
+			}
+			catch (IOException e)
+			{
+				throw new ParseException(ErrorMsg.ERROR_READING_FROM_STREAM, e, lineIndex, index - lineStartIndex);
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
 	/**
 	 * Reads and returns the next character from the input stream.  If a character has been {@linkplain #pushBackChar()
 	 * pushed back}, the last character that was read from the input stream is returned.
@@ -1315,25 +1484,19 @@ public class JsonParser
 		// Case: no character is pushed back
 		else
 		{
-			try
-			{
-				// Read next character from input
-				int ch = inputReader.read();
+			// If input buffer is exhausted, refill it
+			if ((inputBufferIndex >= inputBufferLength) && !endOfInput)
+				fillInputBuffer();
 
-				// Set flag to indicate end of input
-				endOfInput = (ch < 0);
+			// Set flag to indicate end of input
+			endOfInput = (inputBufferIndex >= inputBufferLength);
 
-				// If not end of input, increment input index
-				if (!endOfInput)
-					++index;
+			// If not end of input, increment input index
+			if (!endOfInput)
+				++index;
 
-				// Update last character that was read from input
-				inputChar = endOfInput ? ' ' : (char)ch;
-			}
-			catch (IOException e)
-			{
-				throw new ParseException(ErrorMsg.ERROR_READING_FROM_STREAM, e, lineIndex, index - lineStartIndex);
-			}
+			// Update last character that was read from input
+			inputChar = endOfInput ? ' ' : inputBuffer[inputBufferIndex++];
 		}
 
 		// Return last character that was read from input
@@ -1418,6 +1581,65 @@ public class JsonParser
 
 	//------------------------------------------------------------------
 
+	/**
+	 * Creates a node for the specified representation of a JSON number.  If the number is an integer, the node is of
+	 * the smallest type that can hold it; otherwise, the node is a {@link DoubleNode}.
+	 *
+	 * @param  parent
+	 *           the parent of the new node.
+	 * @param  numberStr
+	 *           the representation of the number, which has been validated with {@link #validateNumber()}.
+	 * @return a new node for {@code numberStr}.
+	 * @throws ParseException
+	 *           if {@code numberStr} cannot be parsed or it is an integer that is too large for a {@code long} and
+	 *           excessive integers are not stored as floating-point numbers.
+	 */
+
+	private AbstractNode createNumberNode(
+		AbstractNode	parent,
+		String			numberStr)
+		throws ParseException
+	{
+		try
+		{
+			// Create new instance of BigDecimal from token
+			BigDecimal number = new BigDecimal(numberStr);
+
+			// If number is not integer, return node for double-precision FP
+			if (numberStr.indexOf('.') >= 0)
+				return new DoubleNode(parent, number.doubleValue());
+
+			// Return node of smallest type for integer
+			try
+			{
+				return new IntNode(parent, number.intValueExact());
+			}
+			catch (ArithmeticException e)
+			{
+				try
+				{
+					return new LongNode(parent, number.longValueExact());
+				}
+				catch (ArithmeticException e0)
+				{
+					if (storeExcessiveIntegerAsFP)
+						return new DoubleNode(parent, number.doubleValue());
+					throw new ParseException(ErrorMsg.TOO_LARGE_FOR_INTEGER, lineIndex, tokenIndex - lineStartIndex);
+				}
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			String causeMessage = e.getMessage();
+			throw new ParseException(((causeMessage == null) || causeMessage.isEmpty())
+											? ErrorMsg.NOT_A_VALID_NUMBER + "."
+											: ErrorMsg.NOT_A_VALID_NUMBER + ": " + causeMessage,
+									 lineIndex, tokenIndex - lineStartIndex, numberStr);
+		}
+	}
+
+	//------------------------------------------------------------------
+
 	/**
 	 * Throws a {@link ParseException} when the validation of a JSON number with {@link #validateNumber(CharSequence)}
 	 * fails at the specified character.  The detail message of the exception contains a reference to the index of the
@@ -1793,84 +2015,133 @@ public class JsonParser
 
 	//------------------------------------------------------------------
 
-	/**
-	 * Creates and returns a new instance of a {@linkplain Reader reader} for the specified text.
-	 *
-	 * @param  text
-	 *           the text for which a reader is desired.
-	 * @return a new instance of a {@linkplain Reader reader} for {@code text}.
-	 */
-
-	private Reader reader(
-		CharSequence	text)
-	{
-		return new Reader()
-		{
-			@Override
-			public int read()
-				throws IOException
-			{
-				return (index < text.length()) ? text.charAt(index) : -1;
-			}
-
-			@Override
-			public int read(
-				char[]	buffer,
-				int		offset,
-				int		length)
-				throws IOException
-			{
-				throw new IOException(UNSUPPORTED_OPERATION_STR);
-			}
-
-			@Override
-			public void close()
-				throws IOException
-			{
-				throw new IOException(UNSUPPORTED_OPERATION_STR);
-			}
-		};
-	}
-
-	//------------------------------------------------------------------
-
 ////////////////////////////////////////////////////////////////////////
-//  Member records
+//  Enumerated types
 ////////////////////////////////////////////////////////////////////////
 
 
-	// RECORD: INFORMATION ABOUT A MEMBER OF A JSON OBJECT
+	// ENUMERATION: PARSER EVENT
 
 
 	/**
-	 * This record encapsulates information about a member of a JSON object.
-	 *
-	 * @param name
-	 *          the name of a member of a JSON object.
-	 * @param index
-	 *          the index of the name of the member in the input text.
-	 * @param lineIndex
-	 *          the index of the line containing the name of the member in the input text.
+	 * This is an enumeration of the events that are returned by an {@linkplain EventReader event reader}.
 	 */
 
-	private record MemberInfo(
-		String	name,
-		int		index,
-		int		lineIndex)
-	{ }
+	public enum Event
+	{
 
-	//==================================================================
+	////////////////////////////////////////////////////////////////////
+	//  Constants
+	////////////////////////////////////////////////////////////////////
 
+		/**
+		 * The start of a JSON object.
+		 */
+		START_OBJECT,
 
-	// RECORD: RESULT OF PARSING JSON TEXT
+		/**
+		 * The end of a JSON object.
+		 */
+		END_OBJECT,
 
+		/**
+		 * The start of a JSON array.
+		 */
+		START_ARRAY,
 
-	/**
-	 * This record is a pairing of the result of transforming some JSON text to a tree of {@linkplain AbstractNode
-	 * nodes} and the result of transforming some JSON text to a tree of {@linkplain Element XML elements}.  The
-	 * inapplicable element of the pair is {@code null}.
-	 *
-	 * @param node
+		/**
+		 * The end of a JSON array.
+		 */
+		END_ARRAY,
+
+		/**
+		 * The name of a member of a JSON object.
+		 */
+		KEY,
+
+		/**
+		 * A JSON string value.
+		 */
+		VALUE_STRING,
+
+		/**
+		 * A JSON number value.
+		 */
+		VALUE_NUMBER,
+
+		/**
+		 * The JSON literal value {@code true}.
+		 */
+		VALUE_TRUE,
+
+		/**
+		 * The JSON literal value {@code false}.
+		 */
+		VALUE_FALSE,
+
+		/**
+		 * The JSON literal value {@code null}.
+		 */
+		VALUE_NULL;
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns {@code true} if this event is the start of a JSON value.
+		 *
+		 * @return {@code true} if this event is the start of a JSON value.
+		 */
+
+		public boolean isValueStart()
+		{
+			return (this != END_OBJECT) && (this != END_ARRAY) && (this != KEY);
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: INFORMATION ABOUT A MEMBER OF A JSON OBJECT
+
+
+	/**
+	 * This record encapsulates information about a member of a JSON object.
+	 *
+	 * @param name
+	 *          the name of a member of a JSON object.
+	 * @param index
+	 *          the index of the name of the member in the input text.
+	 * @param lineIndex
+	 *          the index of the line containing the name of the member in the input text.
+	 */
+
+	private record MemberInfo(
+		String	name,
+		int		index,
+		int		lineIndex)
+	{ }
+
+	//==================================================================
+
+
+	// RECORD: RESULT OF PARSING JSON TEXT
+
+
+	/**
+	 * This record is a pairing of the result of transforming some JSON text to a tree of {@linkplain AbstractNode
+	 * nodes} and the result of transforming some JSON text to a tree of {@linkplain Element XML elements}.  The
+	 * inapplicable element of the pair is {@code null}.
+	 *
+	 * @param node
 	 *          the root of a tree of {@link AbstractNode}s.
 	 * @param xmlElement
 	 *          the root of a tree of {@link Element}s.
@@ -2109,6 +2380,594 @@ public class JsonParser
 
 	//==================================================================
 
+////////////////////////////////////////////////////////////////////////
+//  Member classes : inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: EVENT READER
+
+
+	/**
+	 * This class implements a pull parser that reads JSON text as a sequence of {@linkplain Event events}.  Unlike the
+	 * {@code parse(\u2026)} methods of the enclosing parser, an event reader does not build a tree of the JSON text, so
+	 * the memory that it occupies does not depend on the length of the text.  A client may nonetheless {@linkplain
+	 * #readValue() build a tree} for an individual value, such as each element of a large array.
+	 * <p>
+	 * An event reader reports any text other than whitespace after the root value as extraneous.  In this respect it
+	 * is stricter than the {@code parse(\u2026)} methods, which, for compatibility with existing clients, ignore the
+	 * character that immediately follows the root value and do not always report text after a root array or object.
+	 * An event reader does not test whether the names of the members of an object are unique, except when it builds a
+	 * tree for an object.
+	 * </p>
+	 */
+
+	public class EventReader
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** The state of this event reader. */
+		private	EventState		state;
+
+		/** A stack of the start events of the arrays and objects that enclose the current position in the text. */
+		private	Deque<Event>	containers;
+
+		/** The current event. */
+		private	Event			event;
+
+		/** The text of the current event. */
+		private	String			text;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Creates a new instance of an event reader for the input that has been set on the enclosing parser.
+		 */
+
+		private EventReader()
+		{
+			// Initialise instance variables
+			state = EventState.VALUE;
+			containers = new ArrayDeque<>();
+
+			// Reset input
+			resetInput();
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Reads the input text as far as the next event and returns the event.
+		 *
+		 * @return the next event, or {@code null} if the end of the JSON text has been reached.
+		 * @throws ParseException
+		 *           if an error occurs when parsing the input text.
+		 */
+
+		public Event next()
+			throws ParseException
+		{
+			// Test whether parsing is complete
+			if (state == EventState.DONE)
+				return null;
+
+			// Read input as far as next event
+			while (true)
+			{
+				// Get next character from input stream
+				char ch = nextChar();
+
+				// Case: character is whitespace
+				if (isWhitespace(ch))
+				{
+					// If end of input stream, test whether parsing is complete ...
+					if (endOfInput)
+					{
+						// If root value has not ended, input stream has ended prematurely
+						if ((state != EventState.VALUE_END) || !containers.isEmpty())
+						{
+							throw new ParseException(ErrorMsg.PREMATURE_END_OF_TEXT, lineIndex,
+													 index - lineStartIndex);
+						}
+
+						// Parsing is complete
+						state = EventState.DONE;
+						return setEvent(null, null);
+					}
+
+					// ... otherwise, if character is LF, start new line
+					newLine(ch);
+					continue;
+				}
+
+				// Update index of current token
+				tokenIndex = index - 1;
+
+				// Execute finite-state machine
+				switch (state)
+				{
+					case VALUE:
+						return startValue(ch);
+
+					case FIRST_ARRAY_ELEMENT:
+						if (ch == JsonConstants.ARRAY_END_CHAR)
+							return endContainer(Event.END_ARRAY);
+						return startValue(ch);
+
+					case FIRST_OBJECT_MEMBER:
+						if (ch == JsonConstants.OBJECT_END_CHAR)
+							return endContainer(Event.END_OBJECT);
+						return readName(ch);
+
+					case OBJECT_MEMBER:
+						return readName(ch);
+
+					case VALUE_END:
+					{
+						// Test for extraneous text after root value
+						if (containers.isEmpty())
+						{
+							throw new ParseException(ErrorMsg.EXTRANEOUS_TEXT, lineIndex,
+													 tokenIndex - lineStartIndex);
+						}
+
+						// Case: value is element of array
+						if (containers.peekFirst() == Event.START_ARRAY)
+						{
+							switch (ch)
+							{
+								case JsonConstants.ARRAY_ELEMENT_SEPARATOR_CHAR:
+									state = EventState.VALUE;
+									break;
+
+								case JsonConstants.ARRAY_END_CHAR:
+									return endContainer(Event.END_ARRAY);
+
+								default:
+									throw new ParseException(ErrorMsg.END_OF_ARRAY_EXPECTED, lineIndex,
+															 tokenIndex - lineStartIndex);
+							}
+						}
+
+						// Case: value is member of object
+						else
+						{
+							switch (ch)
+							{
+								case JsonConstants.OBJECT_MEMBER_SEPARATOR_CHAR:
+									state = EventState.OBJECT_MEMBER;
+									break;
+
+								case JsonConstants.OBJECT_END_CHAR:
+									return endContainer(Event.END_OBJECT);
+
+								default:
+									throw new ParseException(ErrorMsg.END_OF_OBJECT_EXPECTED, lineIndex,
+															 tokenIndex - lineStartIndex);
+							}
+						}
+						break;
+					}
+
+					case DONE:
+						return null;
+				}
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the current event, which is the event that was last returned by {@link #next()}.
+		 *
+		 * @return the current event, or {@code null} if {@link #next()} has not been called or the end of the JSON text
+		 *         has been reached.
+		 */
+
+		public Event getEvent()
+		{
+			return event;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the text of the current event.  The text of a {@link Event#KEY KEY} or a {@link Event#VALUE_STRING
+		 * VALUE_STRING} event is the unescaped content of the string; the text of a {@link Event#VALUE_NUMBER
+		 * VALUE_NUMBER} event is the representation of the number in the input text, which may be passed to {@link
+		 * BigDecimal#BigDecimal(String)}; the text of a literal value is the literal.
+		 *
+		 * @return the text of the current event, or {@code null} if the current event is the start or end of an array
+		 *         or object.
+		 */
+
+		public String getText()
+		{
+			return text;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the number of arrays and objects that enclose the current position in the JSON text.  The start event
+		 * of an array or object is within it, and its end event is outside it.
+		 *
+		 * @return the number of arrays and objects that enclose the current position in the JSON text.
+		 */
+
+		public int getDepth()
+		{
+			return containers.size();
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Reads the JSON value that starts with the current event, and returns a tree of {@linkplain AbstractNode
+		 * nodes} that corresponds to it.  When this method returns, the current event is the last event of the value.
+		 *
+		 * @return the root of a tree of nodes that corresponds to the value that starts with the current event.
+		 * @throws IllegalStateException
+		 *           if the current event is not the start of a value.
+		 * @throws ParseException
+		 *           if an error occurs when parsing the input text.
+		 */
+
+		public AbstractNode readValue()
+			throws ParseException
+		{
+			// Test for start of value
+			if ((event == null) || !event.isValueStart())
+				throw new IllegalStateException(NOT_START_OF_VALUE_STR);
+
+			// Read value and return it
+			return readValue(null, event);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Reads and discards the JSON value that starts with the current event.  When this method returns, the current
+		 * event is the last event of the value.
+		 *
+		 * @throws IllegalStateException
+		 *           if the current event is not the start of a value.
+		 * @throws ParseException
+		 *           if an error occurs when parsing the input text.
+		 */
+
+		public void skipValue()
+			throws ParseException
+		{
+			// Test for start of value
+			if ((event == null) || !event.isValueStart())
+				throw new IllegalStateException(NOT_START_OF_VALUE_STR);
+
+			// If value is array or object, read events until it ends
+			int depth = containers.size();
+			if ((event == Event.START_ARRAY) || (event == Event.START_OBJECT))
+			{
+				while (containers.size() >= depth)
+					next();
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Sets the current event and its text, and returns the event.
+		 *
+		 * @param  event
+		 *           the event.
+		 * @param  text
+		 *           the text of the event.
+		 * @return {@code event}.
+		 */
+
+		private Event setEvent(
+			Event	event,
+			String	text)
+		{
+			this.event = event;
+			this.text = text;
+			return event;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Ends the innermost array or object and returns the specified end event.
+		 *
+		 * @param  endEvent
+		 *           the end event of the array or object.
+		 * @return {@code endEvent}.
+		 */
+
+		private Event endContainer(
+			Event	endEvent)
+		{
+			containers.removeFirst();
+			state = EventState.VALUE_END;
+			return setEvent(endEvent, null);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Reads the value that starts with the specified character, and returns the event that corresponds to the start
+		 * of the value.
+		 *
+		 * @param  ch
+		 *           the first character of the value.
+		 * @return the event that corresponds to the start of the value.
+		 * @throws ParseException
+		 *           if an error occurs when parsing the input text.
+		 */
+
+		private Event startValue(
+			char	ch)
+			throws ParseException
+		{
+			// Clear token buffer
+			tokenBuffer.setLength(0);
+
+			// Read value according to its first character
+			switch (ch)
+			{
+				case StringNode.START_CHAR:
+					readString();
+					state = EventState.VALUE_END;
+					return setEvent(Event.VALUE_STRING, tokenBuffer.toString());
+
+				case JsonConstants.ARRAY_START_CHAR:
+					containers.addFirst(Event.START_ARRAY);
+					state = EventState.FIRST_ARRAY_ELEMENT;
+					return setEvent(Event.START_ARRAY, null);
+
+				case JsonConstants.OBJECT_START_CHAR:
+					containers.addFirst(Event.START_OBJECT);
+					state = EventState.FIRST_OBJECT_MEMBER;
+					return setEvent(Event.START_OBJECT, null);
+
+				case JsonConstants.ARRAY_END_CHAR:
+					if (containers.peekFirst() == Event.START_ARRAY)
+					{
+						throw new ParseException(ErrorMsg.ARRAY_ELEMENT_EXPECTED, lineIndex,
+												 tokenIndex - lineStartIndex);
+					}
+					throw new ParseException(ErrorMsg.VALUE_EXPECTED, lineIndex, tokenIndex - lineStartIndex);
+
+				case JsonConstants.OBJECT_END_CHAR:
+				case JsonConstants.OBJECT_NAME_VALUE_SEPARATOR_CHAR:
+				case JsonConstants.OBJECT_MEMBER_SEPARATOR_CHAR:
+					throw new ParseException(ErrorMsg.VALUE_EXPECTED, lineIndex, tokenIndex - lineStartIndex);
+
+				default:
+					break;
+			}
+
+			// Push back start of number or literal
+			pushBackChar();
+
+			// Set next state
+			state = EventState.VALUE_END;
+
+			// Case: number
+			if ((ch == '-') || ((ch >= '0') && (ch <= '9')))
+			{
+				// Validate number; put valid number in token buffer
+				validateNumber();
+
+				// Push back terminator
+				pushBackChar();
+
+				// Return event
+				return setEvent(Event.VALUE_NUMBER, tokenBuffer.toString());
+			}
+
+			// Case: literal; read it
+			while (true)
+			{
+				ch = nextChar();
+				if (isValueTerminator(ch))
+				{
+					pushBackChar();
+					break;
+				}
+				tokenBuffer.append(ch);
+			}
+
+			// Return event for literal
+			String literal = tokenBuffer.toString();
+			switch (literal)
+			{
+				case NullNode.VALUE:
+					return setEvent(Event.VALUE_NULL, literal);
+
+				case BooleanNode.VALUE_FALSE:
+					return setEvent(Event.VALUE_FALSE, literal);
+
+				case BooleanNode.VALUE_TRUE:
+					return setEvent(Event.VALUE_TRUE, literal);
+
+				default:
+					throw new ParseException(ErrorMsg.ILLEGAL_VALUE, lineIndex, tokenIndex - lineStartIndex);
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Reads the name of a member of an object, which starts with the specified character, and the separator that
+		 * follows it, and returns a {@link Event#KEY KEY} event.
+		 *
+		 * @param  ch
+		 *           the first character of the name.
+		 * @return {@link Event#KEY}.
+		 * @throws ParseException
+		 *           if an error occurs when parsing the input text.
+		 */
+
+		private Event readName(
+			char	ch)
+			throws ParseException
+		{
+			// Test for start of name of member
+			if (ch != StringNode.START_CHAR)
+				throw new ParseException(ErrorMsg.OBJECT_MEMBER_NAME_EXPECTED, lineIndex, tokenIndex - lineStartIndex);
+
+			// Read name
+			tokenBuffer.setLength(0);
+			readString();
+			String name = tokenBuffer.toString();
+
+			// Read separator of name and value
+			while (true)
+			{
+				// Get next character from input stream
+				ch = nextChar();
+
+				// Test for premature end of input stream
+				if (endOfInput)
+					throw new ParseException(ErrorMsg.PREMATURE_END_OF_TEXT, lineIndex, index - lineStartIndex);
+
+				// If character is whitespace, start new line if it is LF ...
+				if (isWhitespace(ch))
+					newLine(ch);
+
+				// ... otherwise, test for separator
+				else
+				{
+					if (ch != JsonConstants.OBJECT_NAME_VALUE_SEPARATOR_CHAR)
+					{
+						throw new ParseException(ErrorMsg.NAME_SEPARATOR_EXPECTED, lineIndex,
+												 tokenIndex - lineStartIndex);
+					}
+					break;
+				}
+			}
+
+			// Set next state
+			state = EventState.VALUE;
+
+			// Return event
+			return setEvent(Event.KEY, name);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Reads a JSON string after its opening quotation mark (U+0022) and puts the resulting string in the token
+		 * buffer.
+		 *
+		 * @throws ParseException
+		 *           if an error occurs when parsing the input text.
+		 */
+
+		private void readString()
+			throws ParseException
+		{
+			while (true)
+			{
+				// Get next character from input stream
+				char ch = nextChar();
+
+				// Test for premature end of input stream
+				if (endOfInput)
+					throw new ParseException(ErrorMsg.PREMATURE_END_OF_TEXT, lineIndex, index - lineStartIndex);
+
+				// Parse character; stop at end of string
+				if (parseString(ch))
+					break;
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Reads the JSON value that starts with the specified event, and returns a tree of {@linkplain AbstractNode
+		 * nodes} that corresponds to it.
+		 *
+		 * @param  parent
+		 *           the parent of the root of the tree.
+		 * @param  startEvent
+		 *           the event at the start of the value.
+		 * @return the root of a tree of nodes that corresponds to the value that starts with {@code startEvent}.
+		 * @throws ParseException
+		 *           if an error occurs when parsing the input text.
+		 */
+
+		private AbstractNode readValue(
+			AbstractNode	parent,
+			Event			startEvent)
+			throws ParseException
+		{
+			switch (startEvent)
+			{
+				case START_ARRAY:
+				{
+					// Read elements of array
+					ListNode array = new ListNode(parent);
+					for (Event event = next(); event != Event.END_ARRAY; event = next())
+						array.add(readValue(array, event));
+					return array;
+				}
+
+				case START_OBJECT:
+				{
+					// Read members of object
+					MapNode object = new MapNode(parent);
+					for (Event event = next(); event != Event.END_OBJECT; event = next())
+					{
+						// Test for duplicate member name
+						String name = text;
+						if (object.hasKey(name))
+						{
+							throw new ParseException(ErrorMsg.DUPLICATE_OBJECT_MEMBER_NAME, lineIndex,
+													 tokenIndex - lineStartIndex, name);
+						}
+
+						// Read value of member
+						object.add(name, readValue(object, next()));
+					}
+					return object;
+				}
+
+				case VALUE_STRING:
+					return new StringNode(parent, text);
+
+				case VALUE_NUMBER:
+					return createNumberNode(parent, text);
+
+				case VALUE_TRUE:
+					return new BooleanNode(parent, true);
+
+				case VALUE_FALSE:
+					return new BooleanNode(parent, false);
+
+				case VALUE_NULL:
+					return new NullNode(parent);
+
+				default:
+					throw new IllegalStateException(NOT_START_OF_VALUE_STR);
+			}
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
 }
 
 //----------------------------------------------------------------------
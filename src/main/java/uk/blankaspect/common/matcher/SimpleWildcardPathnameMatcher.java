@@ -49,9 +49,10 @@ public class SimpleWildcardPathnameMatcher
 //  Instance variables
 ////////////////////////////////////////////////////////////////////////
 
-	private	String		pattern;
-	private	boolean		ignoreCase;
-	private	List<Token>	tokens;
+	private	String				pattern;
+	private	boolean				leadingPathWildcard;
+	private	boolean				trailingPathWildcard;
+	private	WildcardMatcher[][]	groups;
 
 ////////////////////////////////////////////////////////////////////////
 //  Constructors
@@ -67,40 +68,41 @@ public class SimpleWildcardPathnameMatcher
 
 		// Initialise instance variables
 		this.pattern = pattern;
-		this.ignoreCase = ignoreCase;
-		tokens = new ArrayList<>();
 
 		// Fix up pattern for directory
 		pattern = pattern.replace(File.separatorChar, SEPARATOR_CHAR);
 		if (pattern.endsWith(SEPARATOR))
 			pattern += PATH_WILDCARD;
 
-		// Decompose pattern into tokens
-		boolean pathWildcard = false;
-		for (String str : StringUtils.split(pattern, SEPARATOR_CHAR))
+		// Decompose pattern into groups of name tokens that are separated by path wildcards
+		List<WildcardMatcher[]> groups = new ArrayList<>();
+		List<WildcardMatcher> group = new ArrayList<>();
+		List<String> elements = StringUtils.split(pattern, SEPARATOR_CHAR);
+		for (int i = 0; i < elements.size(); i++)
 		{
+			String str = elements.get(i);
+
 			// Case: path wildcard
 			if (PATH_WILDCARD.equals(str))
-				pathWildcard = true;
-
-			// Case: not path wildcard
-			else
 			{
-				// Replace sequence of path wildcards with single path-wildcard token
-				if (pathWildcard)
+				if (i == 0)
+					leadingPathWildcard = true;
+				if (i == elements.size() - 1)
+					trailingPathWildcard = true;
+				if (!group.isEmpty())
 				{
-					tokens.add(new Token());
-					pathWildcard = false;
+					groups.add(group.toArray(WildcardMatcher[]::new));
+					group.clear();
 				}
-
-				// Add non-path-wildcard token
-				tokens.add(new Token(str));
 			}
-		}
 
-		// Replace pending sequence of path wildcards with single path-wildcard token
-		if (pathWildcard)
-			tokens.add(new Token());
+			// Case: not path wildcard
+			else
+				group.add(ignoreCase ? WildcardMatcher.allIgnoreCase(str) : WildcardMatcher.all(str));
+		}
+		if (!group.isEmpty())
+			groups.add(group.toArray(WildcardMatcher[]::new));
+		this.groups = groups.toArray(WildcardMatcher[][]::new);
 	}
 
 	//------------------------------------------------------------------
@@ -125,143 +127,172 @@ public class SimpleWildcardPathnameMatcher
 
 	//------------------------------------------------------------------
 
-////////////////////////////////////////////////////////////////////////
-//  Instance methods
-////////////////////////////////////////////////////////////////////////
-
-	public String getPattern()
+	private static boolean isSeparator(
+		char	ch)
 	{
-		return pattern;
+		return (ch == SEPARATOR_CHAR) || (ch == File.separatorChar);
 	}
 
 	//------------------------------------------------------------------
 
-	public boolean match(
-		String	pathname)
+	private static int elementEnd(
+		CharSequence	pathname,
+		int				index,
+		int				endIndex)
 	{
-		// No match if pathname is null
-		if (pathname == null)
-			return false;
-
-		// Split pathname into its elements
-		List<String> elements = StringUtils.split(pathname.replace(File.separatorChar, SEPARATOR_CHAR), SEPARATOR_CHAR);
-
-		// Match pathname elements against pattern tokens
-		return matchTail(elements, 0, 0);
+		while ((index < endIndex) && !isSeparator(pathname.charAt(index)))
+			++index;
+		return index;
 	}
 
 	//------------------------------------------------------------------
 
-	private boolean matchTail(
-		List<String>	elements,
-		int				elementIndex,
-		int				tokenIndex)
+	/**
+	 * Matches the specified group of name tokens against consecutive elements of the specified pathname, starting with
+	 * the element at the specified index, and returns the index of the element that follows the last element that was
+	 * matched.  The index of an element is the index of its first character; an index greater than {@code endIndex}
+	 * denotes the position after the last element.
+	 *
+	 * @param  group
+	 *           the group of name tokens.
+	 * @param  pathname
+	 *           the pathname.
+	 * @param  index
+	 *           the index of the element at which matching will start.
+	 * @param  endIndex
+	 *           the index of the end of the pathname.
+	 * @return the index of the element that follows the last matched element, or -1 if the group does not match.
+	 */
+
+	private static int matchGroup(
+		WildcardMatcher[]	group,
+		CharSequence		pathname,
+		int					index,
+		int					endIndex)
 	{
-		// Get number of pathname elements and number of pattern tokens
-		int numElements = elements.size();
-		int numTokens = tokens.size();
-
-		// Match pathname elements against pattern tokens
-		while (tokenIndex < numTokens)
+		for (WildcardMatcher matcher : group)
 		{
-			// Get next pattern token
-			Token token = tokens.get(tokenIndex++);
-
-			// If token is path wildcard, match pathname elements against remaining tokens ...
-			if (token.pathWildcard)
-			{
-				// If path wildcard is final token, it matches all remaining elements
-				if (tokenIndex >= numTokens)
-					return true;
-
-				// Match pathname elements against remaining tokens
-				for (int i = elementIndex; i < numElements; i++)
-				{
-					if (matchTail(elements, i, tokenIndex))
-						return true;
-				}
-				return false;
-			}
-
-			// ... otherwise, if there are more pathname elements, match next element against pattern token
-			if ((elementIndex >= numElements) || !token.match(elements.get(elementIndex++), ignoreCase))
-				return false;
+			if (index > endIndex)
+				return -1;
+			int elementEnd = elementEnd(pathname, index, endIndex);
+			if (!matcher.match(pathname, index, elementEnd))
+				return -1;
+			index = elementEnd + 1;
 		}
-
-		// Test whether all pathname elements have been matched against all pattern tokens
-		return (elementIndex >= numElements) && (tokenIndex >= numTokens);
+		return index;
 	}
 
 	//------------------------------------------------------------------
 
 ////////////////////////////////////////////////////////////////////////
-//  Member classes : non-inner classes
+//  Instance methods
 ////////////////////////////////////////////////////////////////////////
 
+	public String getPattern()
+	{
+		return pattern;
+	}
 
-	// CLASS: TOKEN
-
+	//------------------------------------------------------------------
 
-	private static class Token
+	public boolean match(
+		String	pathname)
 	{
+		return (pathname != null) && match(pathname, 0, pathname.length());
+	}
 
-	////////////////////////////////////////////////////////////////////
-	//  Instance variables
-	////////////////////////////////////////////////////////////////////
-
-		private	boolean							pathWildcard;
-		private	String							pattern;
-		private	SimpleWildcardPatternMatcher	matcher;
+	//------------------------------------------------------------------
 
-	////////////////////////////////////////////////////////////////////
-	//  Constructors
-	////////////////////////////////////////////////////////////////////
+	/**
+	 * Returns {@code true} if the pattern of this matcher matches the specified region of the specified pathname.  The
+	 * pathname is not split into its elements: they are located by scanning for separators, and each name token of the
+	 * pattern is matched against a region of the pathname, so no objects are created.
+	 * <p>
+	 * Because a path wildcard matches any sequence of elements, the groups of name tokens between path wildcards can be
+	 * matched greedily: each intermediate group is matched at the leftmost position at which it occurs, and only the
+	 * first and last groups are anchored.  The time taken is therefore bounded by the product of the number of elements
+	 * and the number of tokens, however many path wildcards the pattern contains.
+	 * </p>
+	 *
+	 * @param  pathname
+	 *           the pathname.
+	 * @param  startIndex
+	 *           the index of the start of the region of {@code pathname}.
+	 * @param  endIndex
+	 *           the index of the end of the region of {@code pathname}.
+	 * @return {@code true} if the pattern of this matcher matches the specified region of {@code pathname}.
+	 */
 
-		private Token()
+	public boolean match(
+		CharSequence	pathname,
+		int				startIndex,
+		int				endIndex)
+	{
+		// A pattern that consists only of path wildcards matches any pathname
+		int numGroups = groups.length;
+		if (numGroups == 0)
+			return true;
+
+		// Match first group against start of pathname
+		int index = startIndex;
+		int groupIndex = 0;
+		if (!leadingPathWildcard)
 		{
-			// Initialise instance variables
-			pathWildcard = true;
+			index = matchGroup(groups[0], pathname, index, endIndex);
+			if (index < 0)
+				return false;
+			if (++groupIndex == numGroups)
+				return trailingPathWildcard || (index > endIndex);
 		}
 
-		//--------------------------------------------------------------
-
-		private Token(
-			String	pattern)
+		// Match each intermediate group at the leftmost position at which it occurs
+		int endGroupIndex = trailingPathWildcard ? numGroups : numGroups - 1;
+		while (groupIndex < endGroupIndex)
 		{
-			// Initialise instance variables
-			this.pattern = pattern;
+			while (true)
+			{
+				if (index > endIndex)
+					return false;
+				int nextIndex = matchGroup(groups[groupIndex], pathname, index, endIndex);
+				if (nextIndex >= 0)
+				{
+					index = nextIndex;
+					break;
+				}
+				index = elementEnd(pathname, index, endIndex) + 1;
+			}
+			++groupIndex;
 		}
 
-		//--------------------------------------------------------------
-
-	////////////////////////////////////////////////////////////////////
-	//  Instance methods
-	////////////////////////////////////////////////////////////////////
-
-		private boolean match(
-			String	name,
-			boolean	ignoreCase)
+		// Match last group against end of pathname
+		if (!trailingPathWildcard)
 		{
-			// Test for path wildcard
-			if (pathWildcard)
-				throw new IllegalStateException("Cannot match against path wildcard");
-
-			// Initialise matcher, if necessary
-			if (matcher == null)
+			// Find start of last elements of pathname
+			WildcardMatcher[] group = groups[groupIndex];
+			int numSeparators = group.length - 1;
+			int lastIndex = endIndex;
+			while (lastIndex > startIndex)
 			{
-				matcher = ignoreCase ? SimpleWildcardPatternMatcher.allIgnoreCase(pattern)
-									 : SimpleWildcardPatternMatcher.all(pattern);
+				if (isSeparator(pathname.charAt(lastIndex - 1)))
+				{
+					if (numSeparators == 0)
+						break;
+					--numSeparators;
+				}
+				--lastIndex;
 			}
+			if ((numSeparators > 0) || (lastIndex < index))
+				return false;
 
-			// Return result of matching name against token
-			return matcher.match(name);
+			// Match last group
+			return (matchGroup(group, pathname, lastIndex, endIndex) > endIndex);
 		}
 
-		//--------------------------------------------------------------
-
+		// Indicate match
+		return true;
 	}
 
-	//==================================================================
+	//------------------------------------------------------------------
 
 }
 
@@ -0,0 +1,385 @@
+/*====================================================================*\
+
+WildcardMatcher.java
+
+Class: compiled pattern matcher that supports wildcards.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.common.matcher;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: COMPILED PATTERN MATCHER THAT SUPPORTS WILDCARDS
+
+
+/**
+ * This class implements a means of searching some text for an occurrence of a pattern that may contain the wildcard
+ * characters of a {@link SimpleWildcardPatternMatcher}, with the same {@linkplain SimpleWildcardPatternMatcher.Mode
+ * matching modes}.
+ * <p>
+ * Unlike a {@code SimpleWildcardPatternMatcher}, this class does not use regular expressions.  When a matcher is
+ * created, its pattern is split at the '*' wildcards into a sequence of segments, which may contain the '?' wildcard;
+ * the {@link #match(CharSequence)} method then finds the leftmost occurrence of each segment in turn, without creating
+ * any objects.  An instance of this class is immutable, so it may be shared between threads.
+ * </p>
+ */
+
+public class WildcardMatcher
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The target pattern that is matched against input text. */
+	private	String		pattern;
+
+	/** Flag: if {@code true}, letter case is ignored when matching. */
+	private	boolean		ignoreCase;
+
+	/** Flag: if {@code true}, the first segment must match the start of the input text. */
+	private	boolean		anchoredStart;
+
+	/** Flag: if {@code true}, the last segment must match the end of the input text. */
+	private	boolean		anchoredEnd;
+
+	/** The upper-case characters of the segments of the pattern. */
+	private	char[][]	upperSegments;
+
+	/** The lower-case characters of the segments of the pattern. */
+	private	char[][]	lowerSegments;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a matcher that may be used to match the specified target pattern against input text in
+	 * a way that is determined by the specified mode and 'ignore case' flag.
+	 *
+	 * @param pattern
+	 *          the target pattern that will be matched against input text by the {@link #match(CharSequence)} method.
+	 * @param mode
+	 *          the way in which {@code pattern} will be matched against input text.
+	 * @param ignoreCase
+	 *          if {@code true}, letter case will be ignored when the {@link #match(CharSequence)} method matches the
+	 *          target pattern against input text.
+	 */
+
+	public WildcardMatcher(
+		String								pattern,
+		SimpleWildcardPatternMatcher.Mode	mode,
+		boolean								ignoreCase)
+	{
+		// Validate arguments
+		if (pattern == null)
+			throw new IllegalArgumentException("Null pattern");
+		if (mode == null)
+			throw new IllegalArgumentException("Null mode");
+
+		// Initialise instance variables
+		this.pattern = pattern;
+		this.ignoreCase = ignoreCase;
+
+		// Split pattern into segments at sequences of multiple-character wildcards
+		List<String> segments = new ArrayList<>();
+		int start = 0;
+		int length = pattern.length();
+		for (int i = 0; i <= length; i++)
+		{
+			if ((i == length) || (pattern.charAt(i) == SimpleWildcardPatternMatcher.MULTIPLE_WILDCARD_CHAR))
+			{
+				if (i > start)
+					segments.add(pattern.substring(start, i));
+				start = i + 1;
+			}
+		}
+
+		// Set anchors
+		anchoredStart = (mode != SimpleWildcardPatternMatcher.Mode.ANYWHERE)
+				&& !pattern.startsWith(Character.toString(SimpleWildcardPatternMatcher.MULTIPLE_WILDCARD_CHAR));
+		anchoredEnd = (mode == SimpleWildcardPatternMatcher.Mode.ALL)
+				&& !pattern.endsWith(Character.toString(SimpleWildcardPatternMatcher.MULTIPLE_WILDCARD_CHAR));
+
+		// Convert segments to arrays of characters
+		int numSegments = segments.size();
+		upperSegments = new char[numSegments][];
+		lowerSegments = new char[numSegments][];
+		for (int i = 0; i < numSegments; i++)
+		{
+			char[] chars = segments.get(i).toCharArray();
+			upperSegments[i] = chars;
+			if (ignoreCase)
+			{
+				upperSegments[i] = new char[chars.length];
+				lowerSegments[i] = new char[chars.length];
+				for (int j = 0; j < chars.length; j++)
+				{
+					char ch = Character.toUpperCase(chars[j]);
+					upperSegments[i][j] = ch;
+					lowerSegments[i][j] = Character.toLowerCase(ch);
+				}
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates and returns a new instance of a matcher whose {@link #match(CharSequence)} method returns {@code true} if
+	 * the specified target pattern matches any part of the input text.  Matching is case-sensitive.
+	 *
+	 * @param  pattern
+	 *           the target pattern that will be matched against input text by the {@link #match(CharSequence)} method.
+	 * @return a new instance of a case-sensitive matcher whose matching mode is 'ANYWHERE'.
+	 */
+
+	public static WildcardMatcher anywhere(
+		String	pattern)
+	{
+		return new WildcardMatcher(pattern, SimpleWildcardPatternMatcher.Mode.ANYWHERE, false);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns a new instance of a matcher whose {@link #match(CharSequence)} method returns {@code true} if
+	 * the specified target pattern matches any part of the input text.  Matching is case-insensitive.
+	 *
+	 * @param  pattern
+	 *           the target pattern that will be matched against input text by the {@link #match(CharSequence)} method.
+	 * @return a new instance of a case-insensitive matcher whose matching mode is 'ANYWHERE'.
+	 */
+
+	public static WildcardMatcher anywhereIgnoreCase(
+		String	pattern)
+	{
+		return new WildcardMatcher(pattern, SimpleWildcardPatternMatcher.Mode.ANYWHERE, true);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns a new instance of a matcher whose {@link #match(CharSequence)} method returns {@code true} if
+	 * the specified target pattern matches the start of the input text.  Matching is case-sensitive.
+	 *
+	 * @param  pattern
+	 *           the target pattern that will be matched against input text by the {@link #match(CharSequence)} method.
+	 * @return a new instance of a case-sensitive matcher whose matching mode is 'START'.
+	 */
+
+	public static WildcardMatcher start(
+		String	pattern)
+	{
+		return new WildcardMatcher(pattern, SimpleWildcardPatternMatcher.Mode.START, false);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns a new instance of a matcher whose {@link #match(CharSequence)} method returns {@code true} if
+	 * the specified target pattern matches the start of the input text.  Matching is case-insensitive.
+	 *
+	 * @param  pattern
+	 *           the target pattern that will be matched against input text by the {@link #match(CharSequence)} method.
+	 * @return a new instance of a case-insensitive matcher whose matching mode is 'START'.
+	 */
+
+	public static WildcardMatcher startIgnoreCase(
+		String	pattern)
+	{
+		return new WildcardMatcher(pattern, SimpleWildcardPatternMatcher.Mode.START, true);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns a new instance of a matcher whose {@link #match(CharSequence)} method returns {@code true} if
+	 * the specified target pattern matches all of the input text.  Matching is case-sensitive.
+	 *
+	 * @param  pattern
+	 *           the target pattern that will be matched against input text by the {@link #match(CharSequence)} method.
+	 * @return a new instance of a case-sensitive matcher whose matching mode is 'ALL'.
+	 */
+
+	public static WildcardMatcher all(
+		String	pattern)
+	{
+		return new WildcardMatcher(pattern, SimpleWildcardPatternMatcher.Mode.ALL, false);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns a new instance of a matcher whose {@link #match(CharSequence)} method returns {@code true} if
+	 * the specified target pattern matches all of the input text.  Matching is case-insensitive.
+	 *
+	 * @param  pattern
+	 *           the target pattern that will be matched against input text by the {@link #match(CharSequence)} method.
+	 * @return a new instance of a case-insensitive matcher whose matching mode is 'ALL'.
+	 */
+
+	public static WildcardMatcher allIgnoreCase(
+		String	pattern)
+	{
+		return new WildcardMatcher(pattern, SimpleWildcardPatternMatcher.Mode.ALL, true);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the target pattern.
+	 *
+	 * @return the target pattern.
+	 */
+
+	public String getPattern()
+	{
+		return pattern;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns {@code true} if an occurrence of the target pattern is found in the specified text.
+	 *
+	 * @param  text
+	 *           the text that will be searched for an occurrence of the target pattern.
+	 * @return {@code true} if an occurrence of the target pattern is found in {@code text}.
+	 */
+
+	public boolean match(
+		CharSequence	text)
+	{
+		return (text != null) && match(text, 0, text.length());
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns {@code true} if an occurrence of the target pattern is found in the specified region of the specified
+	 * text.  The region is treated as if it were the entire input text.
+	 *
+	 * @param  text
+	 *           the text that will be searched for an occurrence of the target pattern.
+	 * @param  startIndex
+	 *           the index of the start of the region of {@code text}.
+	 * @param  endIndex
+	 *           the index of the end of the region of {@code text}.
+	 * @return {@code true} if an occurrence of the target pattern is found in the specified region of {@code text}.
+	 */
+
+	public boolean match(
+		CharSequence	text,
+		int				startIndex,
+		int				endIndex)
+	{
+		// Handle pattern that contains no segments
+		int numSegments = upperSegments.length;
+		if (numSegments == 0)
+			return !(anchoredStart && anchoredEnd) || (startIndex == endIndex);
+
+		// Match first segment against start of text
+		int index = startIndex;
+		int segmentIndex = 0;
+		if (anchoredStart)
+		{
+			int length = upperSegments[0].length;
+			if ((endIndex - index < length) || !matchSegment(text, index, 0))
+				return false;
+			index += length;
+			if (++segmentIndex == numSegments)
+				return !anchoredEnd || (index == endIndex);
+		}
+
+		// Find leftmost occurrence of each intermediate segment
+		int endSegmentIndex = anchoredEnd ? numSegments - 1 : numSegments;
+		while (segmentIndex < endSegmentIndex)
+		{
+			int length = upperSegments[segmentIndex].length;
+			int maxIndex = endIndex - length;
+			while ((index <= maxIndex) && !matchSegment(text, index, segmentIndex))
+				++index;
+			if (index > maxIndex)
+				return false;
+			index += length;
+			++segmentIndex;
+		}
+
+		// Match last segment against end of text
+		if (anchoredEnd)
+		{
+			int lastIndex = endIndex - upperSegments[segmentIndex].length;
+			return (lastIndex >= index) && matchSegment(text, lastIndex, segmentIndex);
+		}
+
+		// Indicate match
+		return true;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns {@code true} if the specified segment of the pattern matches the specified text at the specified index.
+	 * The text is assumed to contain enough characters from the index.
+	 *
+	 * @param  text
+	 *           the text.
+	 * @param  index
+	 *           the index of {@code text} at which the segment will be matched.
+	 * @param  segmentIndex
+	 *           the index of the segment.
+	 * @return {@code true} if the segment matches {@code text} at {@code index}.
+	 */
+
+	private boolean matchSegment(
+		CharSequence	text,
+		int				index,
+		int				segmentIndex)
+	{
+		char[] upper = upperSegments[segmentIndex];
+		char[] lower = lowerSegments[segmentIndex];
+		for (int i = 0; i < upper.length; i++)
+		{
+			char ch = text.charAt(index + i);
+			char patternCh = upper[i];
+			if ((ch != patternCh) && (patternCh != SimpleWildcardPatternMatcher.SINGLE_WILDCARD_CHAR))
+			{
+				if (!ignoreCase)
+					return false;
+				char upperCh = Character.toUpperCase(ch);
+				if ((upperCh != patternCh) && (Character.toLowerCase(upperCh) != lower[i]))
+					return false;
+			}
+		}
+		return true;
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
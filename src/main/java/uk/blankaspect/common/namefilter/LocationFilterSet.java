@@ -0,0 +1,377 @@
+/*====================================================================*\
+
+LocationFilterSet.java
+
+Class: compiled set of filters for file-system locations.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.common.namefilter;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.nio.file.Path;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: COMPILED SET OF FILTERS FOR FILE-SYSTEM LOCATIONS
+
+
+/**
+ * This class implements a set of {@linkplain LocationFilter location filters} that is compiled so that a location can
+ * be tested against all the filters with a single pass over its pathname.  The {@link #accept(Path)} method of a set
+ * has the same result as {@link LocationFilter#accept(Path, Iterable)} applied to the filters of the set.
+ * <p>
+ * When the set is created, a literal string that must occur in any location that a glob pattern matches (the longest
+ * run of characters of the pattern that contains no glob metacharacters) is extracted from each filter.  The literals
+ * of all the filters are compiled into an Aho&ndash;Corasick automaton.  To test a location, the automaton is run once
+ * over the pathname of the location to find the filters whose literals occur in it (in the filename, for a filter
+ * whose pattern applies to filenames); only those filters, and the filters from which no literal could be extracted,
+ * are then tested with their {@linkplain LocationFilter#getMatcher() path matchers}.  Letter case is ignored when
+ * literals are found, so the automaton is a conservative prefilter for both case-sensitive and case-insensitive file
+ * systems.
+ * </p>
+ * <p>
+ * The matchers of the filters must be {@linkplain LocationFilter#updateMatcher(java.nio.file.FileSystem) updated}
+ * before a set is created from them.  A set is immutable, so it may be shared between threads.
+ * </p>
+ */
+
+public class LocationFilterSet
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The characters that end a literal run of a glob pattern. */
+	private static final	String	RUN_TERMINATORS	= "*?[]{}\\/";
+
+	/** The index of the root node of the automaton. */
+	private static final	int		ROOT	= 0;
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The filters of this set. */
+	private	LocationFilter[]	filters;
+
+	/** Flags that indicate whether the filters must always be tested because no literal was extracted from them. */
+	private	boolean[]			alwaysTest;
+
+	/** The lengths of the literals of the filters. */
+	private	int[]				literalLengths;
+
+	/** The sorted labels of the transitions from each node of the automaton. */
+	private	char[][]			labels;
+
+	/** The target nodes of the transitions from each node of the automaton. */
+	private	int[][]				targets;
+
+	/** The failure link of each node of the automaton. */
+	private	int[]				failures;
+
+	/** The indices of the filters whose literals end at each node of the automaton, including by failure links. */
+	private	int[][]				outputs;
+
+	/** Flag: if {@code true}, the automaton contains at least one literal. */
+	private	boolean				hasLiterals;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a compiled set of the specified location filters.
+	 *
+	 * @param filters
+	 *          the filters, whose matchers must have been updated.
+	 */
+
+	public LocationFilterSet(
+		List<? extends LocationFilter>	filters)
+	{
+		// Initialise instance variables
+		int numFilters = filters.size();
+		this.filters = filters.toArray(LocationFilter[]::new);
+		alwaysTest = new boolean[numFilters];
+		literalLengths = new int[numFilters];
+
+		// Build trie of literals of filters
+		List<Map<Character, Integer>> transitions = new ArrayList<>();
+		List<List<Integer>> nodeOutputs = new ArrayList<>();
+		transitions.add(new HashMap<>());
+		nodeOutputs.add(new ArrayList<>());
+		for (int i = 0; i < numFilters; i++)
+		{
+			String literal = getLiteral(this.filters[i]);
+			if (literal == null)
+			{
+				alwaysTest[i] = true;
+				continue;
+			}
+
+			literalLengths[i] = literal.length();
+			hasLiterals = true;
+			int node = ROOT;
+			for (int j = 0; j < literal.length(); j++)
+			{
+				char ch = fold(literal.charAt(j));
+				Integer target = transitions.get(node).get(ch);
+				if (target == null)
+				{
+					target = transitions.size();
+					transitions.get(node).put(ch, target);
+					transitions.add(new HashMap<>());
+					nodeOutputs.add(new ArrayList<>());
+				}
+				node = target;
+			}
+			nodeOutputs.get(node).add(i);
+		}
+
+		// Convert transitions to sorted arrays
+		int numNodes = transitions.size();
+		labels = new char[numNodes][];
+		targets = new int[numNodes][];
+		for (int node = 0; node < numNodes; node++)
+		{
+			Map<Character, Integer> map = transitions.get(node);
+			char[] nodeLabels = new char[map.size()];
+			int index = 0;
+			for (char ch : map.keySet())
+				nodeLabels[index++] = ch;
+			Arrays.sort(nodeLabels);
+			int[] nodeTargets = new int[nodeLabels.length];
+			for (int j = 0; j < nodeLabels.length; j++)
+				nodeTargets[j] = map.get(nodeLabels[j]);
+			labels[node] = nodeLabels;
+			targets[node] = nodeTargets;
+		}
+
+		// Compute failure links and outputs in breadth-first order
+		failures = new int[numNodes];
+		outputs = new int[numNodes][];
+		outputs[ROOT] = new int[0];
+		Deque<Integer> queue = new ArrayDeque<>();
+		for (int target : targets[ROOT])
+		{
+			failures[target] = ROOT;
+			queue.add(target);
+		}
+		while (!queue.isEmpty())
+		{
+			int node = queue.remove();
+
+			// Merge outputs of node with outputs of its failure node, which has already been processed
+			List<Integer> nodeOutput = nodeOutputs.get(node);
+			int[] failureOutput = outputs[failures[node]];
+			int[] output = new int[nodeOutput.size() + failureOutput.length];
+			for (int j = 0; j < nodeOutput.size(); j++)
+				output[j] = nodeOutput.get(j);
+			System.arraycopy(failureOutput, 0, output, nodeOutput.size(), failureOutput.length);
+			outputs[node] = output;
+
+			// Set failure links of children
+			for (int j = 0; j < labels[node].length; j++)
+			{
+				char ch = labels[node][j];
+				int child = targets[node][j];
+				int failure = failures[node];
+				while ((failure != ROOT) && (next(failure, ch) < 0))
+					failure = failures[failure];
+				int target = next(failure, ch);
+				failures[child] = (target < 0) ? ROOT : target;
+				queue.add(child);
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the case-folded form of the specified character.
+	 *
+	 * @param  ch
+	 *           the character.
+	 * @return the case-folded form of {@code ch}.
+	 */
+
+	private static char fold(
+		char	ch)
+	{
+		return Character.toLowerCase(Character.toUpperCase(ch));
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the longest run of characters of the pattern of the specified filter that contains no glob
+	 * metacharacters or name separators, or {@code null} if the filter is not a plain glob filter or its pattern
+	 * contains no such run.  Characters within brackets or braces are not part of any run, because they denote
+	 * alternatives.
+	 *
+	 * @param  filter
+	 *           the filter.
+	 * @return the longest literal run of the pattern of {@code filter}, or {@code null} if there is none.
+	 */
+
+	private static String getLiteral(
+		LocationFilter	filter)
+	{
+		// Filters that override the method that matches a location must always be tested
+		if ((filter.getClass() != LocationFilter.class) || (filter.getPatternKind() == null)
+				|| !filter.getPatternKind().isGlob())
+			return null;
+
+		// Find longest literal run
+		String pattern = filter.getPattern();
+		String literal = null;
+		int depth = 0;
+		int start = 0;
+		for (int i = 0; i <= pattern.length(); i++)
+		{
+			char ch = (i < pattern.length()) ? pattern.charAt(i) : '*';
+			boolean meta = (RUN_TERMINATORS.indexOf(ch) >= 0);
+			if (meta || (depth > 0))
+			{
+				if ((depth == 0) && (i > start) && ((literal == null) || (i - start > literal.length())))
+					literal = pattern.substring(start, i);
+				if ((ch == '[') || (ch == '{'))
+					++depth;
+				else if (((ch == ']') || (ch == '}')) && (depth > 0))
+					--depth;
+				else if (ch == '\\')
+					++i;
+				start = i + 1;
+			}
+		}
+		return literal;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns {@code true} if the specified location is accepted by the filters of this set.  The location is accepted
+	 * if it matches any of the inclusion filters and it does not match any of the exclusion filters.
+	 *
+	 * @param  location
+	 *           the location to which the filters will be applied.
+	 * @return {@code true} if {@code location} is accepted by the filters of this set.
+	 */
+
+	public boolean accept(
+		Path	location)
+	{
+		// Find filters whose literals occur in pathname
+		boolean[] candidates = null;
+		if (hasLiterals)
+		{
+			candidates = new boolean[filters.length];
+			String pathname = location.toString();
+			Path filename = location.getFileName();
+			int filenameStart = pathname.length() - ((filename == null) ? 0 : filename.toString().length());
+			int node = ROOT;
+			for (int i = 0; i < pathname.length(); i++)
+			{
+				// Follow transition for character
+				char ch = fold(pathname.charAt(i));
+				int target = next(node, ch);
+				while ((target < 0) && (node != ROOT))
+				{
+					node = failures[node];
+					target = next(node, ch);
+				}
+				node = (target < 0) ? ROOT : target;
+
+				// Mark filters whose literals end at current position
+				for (int index : outputs[node])
+				{
+					if (!filters[index].getPatternKind().isFilename()
+							|| (i + 1 - literalLengths[index] >= filenameStart))
+						candidates[index] = true;
+				}
+			}
+		}
+
+		// Apply inclusion filters to location
+		boolean accept = false;
+		for (int i = 0; i < filters.length; i++)
+		{
+			LocationFilter filter = filters[i];
+			if (filter.isInclusive() && (alwaysTest[i] || candidates[i]) && filter.matches(location))
+			{
+				accept = true;
+				break;
+			}
+		}
+
+		// Apply exclusion filters to location
+		if (accept)
+		{
+			for (int i = 0; i < filters.length; i++)
+			{
+				LocationFilter filter = filters[i];
+				if (!filter.isInclusive() && (alwaysTest[i] || candidates[i]) && filter.matches(location))
+				{
+					accept = false;
+					break;
+				}
+			}
+		}
+
+		// Return result
+		return accept;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the target of the transition from the specified node of the automaton for the specified character.
+	 *
+	 * @param  node
+	 *           the node.
+	 * @param  ch
+	 *           the character.
+	 * @return the target of the transition from {@code node} for {@code ch}, or -1 if there is no such transition.
+	 */
+
+	private int next(
+		int		node,
+		char	ch)
+	{
+		int index = Arrays.binarySearch(labels[node], ch);
+		return (index < 0) ? -1 : targets[node][index];
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,415 @@
+/*====================================================================*\
+
+TaskScheduler.java
+
+Class: scheduler of background tasks.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.common.thread;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: SCHEDULER OF BACKGROUND TASKS
+
+
+/**
+ * This class implements a scheduler that executes background tasks of an application on shared pools of daemon
+ * threads, so that all the features of the application that perform background work share a bounded number of
+ * threads.
+ * <p>
+ * Tasks are submitted with a {@linkplain Kind kind}.  A {@linkplain Kind#CPU CPU-bound} task is executed by a pool
+ * whose size is the number of available processors; an {@linkplain Kind#IO I/O-bound} task, which spends most of its
+ * time waiting, is executed by a larger pool.  Tasks that are submitted when all the threads of a pool are busy wait
+ * in a queue.  The threads of a pool are created on demand and terminate after they have been idle for a short time.
+ * </p>
+ * <p>
+ * For each pool, the scheduler records the number of tasks that have been submitted and completed, and the time that
+ * the tasks spent waiting in the queue and running.  A snapshot of these values and of the current length of the queue
+ * can be obtained with {@link #getMetrics(Kind)}.
+ * </p>
+ */
+
+public class TaskScheduler
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The scheduler of the application. */
+	public static final		TaskScheduler	INSTANCE	= new TaskScheduler();
+
+	/** The maximum number of threads of the pool for I/O-bound tasks. */
+	private static final	int		MAX_NUM_IO_THREADS	= 16;
+
+	/** The time (in seconds) after which an idle thread of a pool terminates. */
+	private static final	long	KEEP_ALIVE_TIME	= 30;
+
+	/** The prefix of the names of the threads of a pool. */
+	private static final	String	THREAD_NAME_PREFIX	= "task-";
+
+	/** The number of nanoseconds in a millisecond. */
+	private static final	double	NANOSECONDS_PER_MILLISECOND	= 1.0e6;
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** A map from the kinds of task to the pools that execute them. */
+	private	Map<Kind, Pool>	pools;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a task scheduler.
+	 */
+
+	private TaskScheduler()
+	{
+		// Initialise instance variables
+		pools = new EnumMap<>(Kind.class);
+		int numProcessors = Runtime.getRuntime().availableProcessors();
+		pools.put(Kind.CPU, new Pool(Kind.CPU, numProcessors));
+		pools.put(Kind.IO, new Pool(Kind.IO, Math.max(MAX_NUM_IO_THREADS, numProcessors)));
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Submits the specified task for execution by the pool for the specified kind of task.  The task is executed when
+	 * a thread of the pool is free.
+	 *
+	 * @param  kind
+	 *           the kind of task.
+	 * @param  task
+	 *           the task that will be executed.
+	 * @throws java.util.concurrent.RejectedExecutionException
+	 *           if the scheduler has been shut down.
+	 */
+
+	public void execute(
+		Kind		kind,
+		Runnable	task)
+	{
+		pools.get(kind).execute(task);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns a snapshot of the metrics of the pool for the specified kind of task.
+	 *
+	 * @param  kind
+	 *           the kind of task.
+	 * @return a snapshot of the metrics of the pool for {@code kind}.
+	 */
+
+	public Metrics getMetrics(
+		Kind	kind)
+	{
+		return pools.get(kind).getMetrics();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Shuts down this scheduler.  No more tasks are accepted, and tasks that have already been submitted are allowed to
+	 * finish for up to the specified time; any tasks that have not finished by then are interrupted, and tasks that
+	 * have not started are discarded.
+	 *
+	 * @param  timeout
+	 *           the maximum time (in milliseconds) to wait for submitted tasks to finish.
+	 * @return {@code true} if all submitted tasks finished before the timeout expired.
+	 */
+
+	public boolean shutDown(
+		long	timeout)
+	{
+		// Stop accepting tasks
+		for (Pool pool : pools.values())
+			pool.executor.shutdown();
+
+		// Wait for submitted tasks to finish
+		boolean terminated = true;
+		long endTime = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		for (Pool pool : pools.values())
+		{
+			try
+			{
+				if (!pool.executor.awaitTermination(Math.max(0, endTime - System.nanoTime()), TimeUnit.NANOSECONDS))
+				{
+					pool.executor.shutdownNow();
+					terminated = false;
+				}
+			}
+			catch (InterruptedException e)
+			{
+				pool.executor.shutdownNow();
+				Thread.currentThread().interrupt();
+				terminated = false;
+			}
+		}
+		return terminated;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Enumerated types
+////////////////////////////////////////////////////////////////////////
+
+
+	// ENUMERATION: KIND OF TASK
+
+
+	/**
+	 * This is an enumeration of the kinds of task that are executed by a {@link TaskScheduler}.
+	 */
+
+	public enum Kind
+	{
+		/**
+		 * A task that is limited mainly by the speed of the processor.
+		 */
+		CPU,
+
+		/**
+		 * A task that is limited mainly by input and output, and spends much of its time waiting.
+		 */
+		IO
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: METRICS OF A POOL
+
+
+	/**
+	 * This record encapsulates a snapshot of the metrics of a pool of threads of a {@link TaskScheduler}.
+	 *
+	 * @param numThreads
+	 *          the number of threads in the pool.
+	 * @param numActive
+	 *          the approximate number of threads that are executing tasks.
+	 * @param queueLength
+	 *          the number of tasks that are waiting in the queue.
+	 * @param numSubmitted
+	 *          the number of tasks that have been submitted.
+	 * @param numCompleted
+	 *          the number of tasks that have finished.
+	 * @param meanWaitTime
+	 *          the mean time (in milliseconds) that a started task waited in the queue.
+	 * @param maxWaitTime
+	 *          the maximum time (in milliseconds) that a started task waited in the queue.
+	 * @param meanRunTime
+	 *          the mean time (in milliseconds) that a finished task took to run.
+	 */
+
+	public record Metrics(
+		int		numThreads,
+		int		numActive,
+		int		queueLength,
+		long	numSubmitted,
+		long	numCompleted,
+		double	meanWaitTime,
+		double	maxWaitTime,
+		double	meanRunTime)
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : overriding methods
+	////////////////////////////////////////////////////////////////////
+
+		@Override
+		public String toString()
+		{
+			return String.format("threads=%d, active=%d, queued=%d, submitted=%d, completed=%d, "
+									+ "wait(mean)=%.1f ms, wait(max)=%.1f ms, run(mean)=%.1f ms",
+								 numThreads, numActive, queueLength, numSubmitted, numCompleted, meanWaitTime,
+								 maxWaitTime, meanRunTime);
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member classes : non-inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: POOL OF THREADS
+
+
+	/**
+	 * This class implements a pool of daemon threads that executes one kind of task and records its metrics.
+	 */
+
+	private static class Pool
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** The executor of the tasks of this pool. */
+		private	ThreadPoolExecutor	executor;
+
+		/** The index of the last thread that was created by this pool. */
+		private	AtomicInteger		threadIndex;
+
+		/** The number of tasks that have been submitted to this pool. */
+		private	AtomicLong			numSubmitted;
+
+		/** The number of tasks that have started. */
+		private	AtomicLong			numStarted;
+
+		/** The number of tasks that have finished. */
+		private	AtomicLong			numCompleted;
+
+		/** The total time (in nanoseconds) that started tasks waited in the queue. */
+		private	AtomicLong			totalWaitTime;
+
+		/** The maximum time (in nanoseconds) that a started task waited in the queue. */
+		private	AtomicLong			maxWaitTime;
+
+		/** The total time (in nanoseconds) that finished tasks took to run. */
+		private	AtomicLong			totalRunTime;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Creates a new instance of a pool of threads.
+		 *
+		 * @param kind
+		 *          the kind of task that will be executed by the pool.
+		 * @param numThreads
+		 *          the maximum number of threads of the pool.
+		 */
+
+		private Pool(
+			Kind	kind,
+			int		numThreads)
+		{
+			// Initialise instance variables
+			threadIndex = new AtomicInteger();
+			numSubmitted = new AtomicLong();
+			numStarted = new AtomicLong();
+			numCompleted = new AtomicLong();
+			totalWaitTime = new AtomicLong();
+			maxWaitTime = new AtomicLong();
+			totalRunTime = new AtomicLong();
+
+			// Create executor
+			String namePrefix = THREAD_NAME_PREFIX + kind.name().toLowerCase() + "-";
+			executor = new ThreadPoolExecutor(numThreads, numThreads, KEEP_ALIVE_TIME, TimeUnit.SECONDS,
+											  new LinkedBlockingQueue<>(), runnable ->
+					DaemonFactory.create(namePrefix + threadIndex.incrementAndGet(), runnable));
+			executor.allowCoreThreadTimeOut(true);
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Submits the specified task for execution by this pool.
+		 *
+		 * @param task
+		 *          the task that will be executed.
+		 */
+
+		private void execute(
+			Runnable	task)
+		{
+			long submitTime = System.nanoTime();
+			executor.execute(() ->
+			{
+				// Update metrics of waiting
+				long startTime = System.nanoTime();
+				long waitTime = startTime - submitTime;
+				numStarted.incrementAndGet();
+				totalWaitTime.addAndGet(waitTime);
+				maxWaitTime.accumulateAndGet(waitTime, Math::max);
+
+				// Run task; update metrics of running
+				try
+				{
+					task.run();
+				}
+				finally
+				{
+					totalRunTime.addAndGet(System.nanoTime() - startTime);
+					numCompleted.incrementAndGet();
+				}
+			});
+			numSubmitted.incrementAndGet();
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns a snapshot of the metrics of this pool.
+		 *
+		 * @return a snapshot of the metrics of this pool.
+		 */
+
+		private Metrics getMetrics()
+		{
+			long started = numStarted.get();
+			long completed = numCompleted.get();
+			return new Metrics(executor.getPoolSize(), executor.getActiveCount(), executor.getQueue().size(),
+							   numSubmitted.get(), completed,
+							   (started == 0) ? 0.0 : totalWaitTime.get() / (started * NANOSECONDS_PER_MILLISECOND),
+							   maxWaitTime.get() / NANOSECONDS_PER_MILLISECOND,
+							   (completed == 0) ? 0.0 : totalRunTime.get() / (completed * NANOSECONDS_PER_MILLISECOND));
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
@@ -23,11 +23,14 @@ import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 
 import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.FileStore;
 import java.nio.file.FileSystems;
 import java.nio.file.InvalidPathException;
 import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 
 import java.nio.file.attribute.FileTime;
@@ -49,9 +52,12 @@ import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import java.util.function.Predicate;
 
@@ -140,6 +146,7 @@ import uk.blankaspect.common.css.CssSelector;
 import uk.blankaspect.common.exception2.BaseException;
 import uk.blankaspect.common.exception2.FileException;
 
+import uk.blankaspect.common.filesystem.DirectoryCache;
 import uk.blankaspect.common.filesystem.DirectoryUtils;
 import uk.blankaspect.common.filesystem.PathnameUtils;
 import uk.blankaspect.common.filesystem.PathUtils;
@@ -163,6 +170,9 @@ import uk.blankaspect.common.string.StringUtils;
 
 import uk.blankaspect.common.text.Tabulator;
 
+import uk.blankaspect.common.thread.DaemonFactory;
+import uk.blankaspect.common.thread.TaskScheduler;
+
 import uk.blankaspect.ui.jfx.button.Buttons;
 import uk.blankaspect.ui.jfx.button.GraphicButton;
 import uk.blankaspect.ui.jfx.button.ImageDataButton;
@@ -176,7 +186,6 @@ import uk.blankaspect.ui.jfx.dialog.ButtonInfo;
 import uk.blankaspect.ui.jfx.dialog.ErrorDialog;
 import uk.blankaspect.ui.jfx.dialog.MessageListDialog;
 import uk.blankaspect.ui.jfx.dialog.SimpleModalDialog;
-import uk.blankaspect.ui.jfx.dialog.SimpleProgressDialog;
 
 import uk.blankaspect.ui.jfx.filler.FillerUtils;
 
@@ -292,6 +301,26 @@ public class LocationChooserPane
 	/** The initial part of the pathname of the root directory of a removable medium under Linux. */
 	private static final	String	LINUX_MEDIA_PATHNAME_PREFIX	= "/media/%s/";
 
+	/** The time (in milliseconds) after which the scan of a root directory is reported as not responding. */
+	private static final	long	ROOT_SCAN_TIMEOUT	= 5000;
+
+	/** The name of the threads on which root directories are scanned. */
+	private static final	String	ROOT_SCAN_THREAD_NAME	= "locationChooser-rootScan";
+
+	/** The executor that scans root directories.  It is separate from the shared pool of I/O threads and unbounded,
+		because the scan of a root directory that does not respond may block its thread indefinitely. */
+	private static final	ExecutorService	ROOT_SCAN_EXECUTOR	=
+			Executors.newCachedThreadPool(runnable -> DaemonFactory.create(ROOT_SCAN_THREAD_NAME, runnable));
+
+	/** The maximum number of directories whose entries are cached. */
+	private static final	int		MAX_NUM_CACHED_DIRECTORIES	= 64;
+
+	/** The maximum total number of entries of cached directories. */
+	private static final	int		MAX_NUM_CACHED_ENTRIES	= 200_000;
+
+	/** The name of the thread on which changes to cached directories are received. */
+	private static final	String	DIRECTORY_CACHE_THREAD_NAME	= "locationChooser-directoryCache";
+
 	/** The converter for the name-filter pane. */
 	private static final	FilteredListView.IConverter<Path>	NAME_FILTER_CONVERTER	=
 			location -> location.getFileName().toString();
@@ -335,9 +364,8 @@ public class LocationChooserPane
 	private static final	String	NO_MATCHING_STR					= "No matching ";
 	private static final	String	DIRECTORIES_STR					= "directories";
 	private static final	String	ENTRIES_STR						= "entries";
-	private static final	String	SCANNING_FILE_SYSTEM_STR		= "Scanning file system";
-	private static final	String	SCANNING_ROOT_DIRECTORIES_STR	= "Scanning root directories";
-	private static final	String	READING_DIRECTORY_STR			= "Reading directory";
+	private static final	String	NOT_RESPONDING_STR				= "Directory is not responding";
+	private static final	String	FAILED_TO_SCAN_STR				= "Failed to scan directory";
 
 	/** The pseudo-class that is associated with the <i>highlighted</i> state. */
 	private static final	PseudoClass	HIGHLIGHTED_PSEUDO_CLASS	=
@@ -616,14 +644,12 @@ public class LocationChooserPane
 	/** The display name of a Unix-like root directory. */
 	private static	String	rootDirDisplayName	= DEFAULT_ROOT_DIR_DISPLAY_NAME;
 
-	/** The index of the last thread that was created for a background task. */
-	private static	int		threadIndex;
-
 ////////////////////////////////////////////////////////////////////////
 //  Instance variables
 ////////////////////////////////////////////////////////////////////////
 
 	private	ObservableList<Path>				selectedLocations;
+	private	DirectoryCache						directoryCache;
 	private	DirectoryTreeView					treeView;
 	private	DirectoryTableView					tableView;
 	private	SplitPane2							splitPane;
@@ -719,6 +745,10 @@ public class LocationChooserPane
 		if (!filters.isEmpty() && ((filterIndex < 0) || (filterIndex >= filters.size())))
 			throw new IllegalArgumentException("Filter index out of bounds: " + filterIndex);
 
+		// Initialise instance variables
+		directoryCache = new DirectoryCache(DIRECTORY_CACHE_THREAD_NAME, MAX_NUM_CACHED_DIRECTORIES,
+											MAX_NUM_CACHED_ENTRIES);
+
 		// Set style class
 		getStyleClass().add(StyleClass.LOCATION_CHOOSER_PANE);
 
@@ -784,6 +814,9 @@ public class LocationChooserPane
 							// Create directory
 							Files.createDirectory(newDirectory);
 
+							// Discard cached entries of parent directory
+							directoryCache.invalidate(directory);
+
 							// Update tree view
 							treeView.update();
 
@@ -812,6 +845,9 @@ public class LocationChooserPane
 		// Create procedure to refresh tree view and table view
 		IProcedure0 refreshView = () ->
 		{
+			// Discard cached entries of directories
+			directoryCache.close();
+
 			// Update tree view
 			treeView.update();
 
@@ -898,7 +934,7 @@ public class LocationChooserPane
 		topPane.setPadding(TOP_PANE_PADDING);
 
 		// Create tree view
-		treeView = new DirectoryTreeView(ignoreFilenameCase, showHiddenEntries);
+		treeView = new DirectoryTreeView(directoryCache, ignoreFilenameCase, showHiddenEntries);
 
 		// Create focus indicator for tree view
 		Region treeFocusIndicator = new Region();
@@ -916,8 +952,8 @@ public class LocationChooserPane
 		// Create table view
 		String placeholderText = (filters.isEmpty() ? NO_STR : NO_MATCHING_STR)
 									+ ((scope == MatcherScope.DIRECTORIES) ? DIRECTORIES_STR : ENTRIES_STR);
-		tableView = new DirectoryTableView(scope.getUnconditionalMatcher(), selectionMode, placeholderText,
-										   ignoreFilenameCase);
+		tableView = new DirectoryTableView(directoryCache, scope.getUnconditionalMatcher(), selectionMode,
+										   placeholderText, ignoreFilenameCase);
 
 		// Create focus indicator for table view
 		Region tableFocusIndicator = new Region();
@@ -1340,6 +1376,19 @@ public class LocationChooserPane
 			}
 		});
 
+		// Stop watching cached directories when window of this pane is hidden
+		sceneProperty().addListener((observable, oldScene, scene) ->
+		{
+			if (scene != null)
+			{
+				scene.windowProperty().addListener((observable0, oldWindow, window) ->
+				{
+					if (window != null)
+						window.addEventHandler(WindowEvent.WINDOW_HIDDEN, event -> directoryCache.close());
+				});
+			}
+		});
+
 		// Add accelerators to scene
 		if (addAccelerators)
 		{
@@ -1491,10 +1540,7 @@ public class LocationChooserPane
 	private static void executeTask(
 		Task<?>	task)
 	{
-		ExecutorService executor = Executors.newSingleThreadExecutor(runnable ->
-				new Thread(runnable, MethodHandles.lookup().lookupClass().getSimpleName() + "-" + ++threadIndex));
-		executor.execute(task);
-		executor.shutdown();
+		TaskScheduler.INSTANCE.execute(TaskScheduler.Kind.IO, task);
 	}
 
 	//------------------------------------------------------------------
@@ -1533,11 +1579,7 @@ public class LocationChooserPane
 		{
 			String text = store.toString();
 			if (text.startsWith(mediaPathnamePrefix))
-			{
-				Path location = Path.of(text.split("\\s+")[0]);
-				if (Files.isDirectory(location, LinkOption.NOFOLLOW_LINKS))
-					directories.add(location);
-			}
+				directories.add(Path.of(text.split("\\s+")[0]));
 		}
 		return directories;
 	}
@@ -1649,105 +1691,46 @@ public class LocationChooserPane
 
 	//------------------------------------------------------------------
 
+	/**
+	 * Initialises the tree view of directories and sets the specified directory on the table view.  The subdirectories
+	 * of the root directories are scanned concurrently in the background, so the tree view is usable immediately: the
+	 * item of each root directory is populated when its scan completes, and a root directory that does not respond
+	 * does not delay the others.
+	 *
+	 * @param directory
+	 *          the directory that will be set on the table view.  If it is {@code null}, a default directory will be
+	 *          set.
+	 * @param filename
+	 *          the filename that will be set on the name field and selected in the table view, which may be {@code
+	 *          null}.
+	 */
+
 	public void initDirectoryTree(
 		Path	directory,
 		String	filename)
 	{
-		// Create procedure that will be executed when task has finished
-		IProcedure0	onFinished = () ->
-		{
-			// Set root of tree view
-			treeView.init();
-
-			// Set directory on table view
-			tableView.setDirectory((directory == null) ? DEFAULT_INITIAL_DIRECTORY : directory);
+		// Set root of tree view
+		treeView.init();
 
-			// Assume focus on name field
-			Node focusNode = nameField;
+		// Set directory on table view
+		tableView.setDirectory((directory == null) ? DEFAULT_INITIAL_DIRECTORY : directory);
 
-			// Set filename on name field
-			if (filename != null)
-			{
-				// Set filename on name field
-				nameField.setText(filename);
-
-				// Select entry in table view
-				if (tableView.selectEntry(filename))
-					focusNode = tableView;
-			}
+		// Assume focus on name field
+		Node focusNode = nameField;
 
-			// Request focus on table view or name field
-			focusNode.requestFocus();
-		};
-
-		// Create task to read root directories
-		Task<Void> task = new Task<>()
+		// Set filename on name field
+		if (filename != null)
 		{
-			{
-				// Initialise task status
-				updateTitle(SCANNING_FILE_SYSTEM_STR);
-				updateMessage(SCANNING_ROOT_DIRECTORIES_STR + " " + ELLIPSIS_STR);
-				updateProgress(-1, 1);
-			}
-
-			@Override
-			protected Void call()
-				throws Exception
-			{
-				// Get root directories
-				List<Path> directories = new ArrayList<>();
-				for (Path directory : FileSystems.getDefault().getRootDirectories())
-					directories.add(directory);
-
-				// Linux: get root directories of removable media
-				if (OsUtils.isUnixLike())
-					directories.addAll(findLinuxMediaRootDirectories());
-
-				// Read subdirectories of root directories
-				for (Path directory : directories)
-				{
-					// Update task status
-					String message = READING_DIRECTORY_STR + " " + directory;
-					updateMessage(message);
-
-					// Read subdirectories
-					try
-					{
-						DirectoryUtils.listDirectories(directory);
-					}
-					catch (FileException e)
-					{
-						Logger.INSTANCE.error(message, e);
-					}
-				}
-
-				// Return nothing
-				return null;
-			}
-
-			@Override
-			protected void succeeded()
-			{
-				// Perform remaining initialisation
-				onFinished.invoke();
-			}
-
-			@Override
-			protected void failed()
-			{
-				// Display error message
-				ErrorDialog.show(getWindow(), getTitle(), getException());
-
-				// Perform remaining initialisation
-				onFinished.invoke();
-			}
-		};
+			// Set filename on name field
+			nameField.setText(filename);
 
-		// Show progress of task in dialog
-		new SimpleProgressDialog(getWindow(), task);
+			// Select entry in table view
+			if (tableView.selectEntry(filename))
+				focusNode = tableView;
+		}
 
-		// Execute task on background thread
-		executeTask(task);
+		// Request focus on table view or name field
+		focusNode.requestFocus();
 	}
 
 	//------------------------------------------------------------------
@@ -1895,30 +1878,13 @@ public class LocationChooserPane
 	////////////////////////////////////////////////////////////////////
 
 		private DirectoryEntry(
-			Path	location,
-			boolean	isDirectory)
+			DirectoryCache.Entry	entry)
 		{
 			// Initialise instance variables
-			this.location = location;
-			this.isDirectory = isDirectory;
-			try
-			{
-				size = -1;
-				if (!isDirectory)
-					size = Files.size(location);
-			}
-			catch (IOException e)
-			{
-				// ignore
-			}
-			try
-			{
-				modificationTime = Files.getLastModifiedTime(location, LinkOption.NOFOLLOW_LINKS);
-			}
-			catch (IOException e)
-			{
-				// ignore
-			}
+			location = entry.location();
+			isDirectory = entry.isDirectory();
+			size = entry.size();
+			modificationTime = entry.modificationTime();
 		}
 
 		//--------------------------------------------------------------
@@ -1927,6 +1893,15 @@ public class LocationChooserPane
 	//  Class methods
 	////////////////////////////////////////////////////////////////////
 
+		private static Comparator<DirectoryEntry> directoryFirstComparator(
+			boolean	ignoreCase)
+		{
+			return Comparator.<DirectoryEntry, Boolean>comparing(entry -> !entry.isDirectory)
+							.thenComparing(nameComparator(ignoreCase));
+		}
+
+		//--------------------------------------------------------------
+
 		private static Comparator<DirectoryEntry> nameComparator(
 			boolean	ignoreCase)
 		{
@@ -1998,25 +1973,34 @@ public class LocationChooserPane
 		/** A list of the cells of this tree view. */
 		private	List<Cell>			cells;
 
+		/** The cache of the entries of directories. */
+		private	DirectoryCache		directoryCache;
+
 		/** Flag: if {@code true}, the letter case of filenames is ignored when sorting directory entries. */
 		private	boolean				ignoreFilenameCase;
 
 		/** Flag: if {@code true}, directories considered to be hidden are included in this tree view. */
 		private	boolean				showHiddenDirectories;
 
+		/** The directories whose tree items were expanded when this tree view was last updated. */
+		private	List<Path>			expandedDirectories;
+
 	////////////////////////////////////////////////////////////////////
 	//  Constructors
 	////////////////////////////////////////////////////////////////////
 
 		private DirectoryTreeView(
-			boolean	ignoreFilenameCase,
-			boolean	showHiddenDirectories)
+			DirectoryCache	directoryCache,
+			boolean			ignoreFilenameCase,
+			boolean			showHiddenDirectories)
 		{
 			// Initialise instance variables
 			cellPopUpManager = new CellPopUpManager(CELL_POP_UP_DELAY);
 			cells = new ArrayList<>();
+			this.directoryCache = directoryCache;
 			this.ignoreFilenameCase = ignoreFilenameCase;
 			this.showHiddenDirectories = showHiddenDirectories;
+			expandedDirectories = new ArrayList<>();
 
 			// Set properties
 			setCellFactory(treeView -> new Cell());
@@ -2126,6 +2110,7 @@ public class LocationChooserPane
 							visit((DirectoryItem)child);
 					}
 					item.childListInitialised = false;
+					item.scanTimedOut = false;
 
 					if (item != root)
 						item.setExpanded(false);
@@ -2135,23 +2120,11 @@ public class LocationChooserPane
 			// Reset child lists of tree items
 			new Search1().visit((DirectoryItem)root);
 
-			// Declare class to expand tree items that were previously expanded
-			class Search2
-			{
-				void visit(TreeItem<Path> item)
-				{
-					if ((item == root) || directories.contains(item.getValue()))
-					{
-						item.setExpanded(true);
-
-						for (TreeItem<Path> child : item.getChildren())
-							visit(child);
-					}
-				}
-			}
-
 			// Expand tree items that were previously expanded
-			new Search2().visit(root);
+			expandedDirectories = directories;
+			root.setExpanded(true);
+			for (TreeItem<Path> child : root.getChildren())
+				expandItems(child);
 
 			// Clear selection
 			getSelectionModel().clearSelection();
@@ -2159,6 +2132,28 @@ public class LocationChooserPane
 
 		//--------------------------------------------------------------
 
+		/**
+		 * Expands the specified tree item and its descendants recursively if their directories were expanded when this
+		 * tree view was last updated.
+		 *
+		 * @param item
+		 *          the tree item.
+		 */
+
+		private void expandItems(
+			TreeItem<Path>	item)
+		{
+			if (expandedDirectories.contains(item.getValue()))
+			{
+				item.setExpanded(true);
+
+				for (TreeItem<Path> child : item.getChildren())
+					expandItems(child);
+			}
+		}
+
+		//--------------------------------------------------------------
+
 		/**
 		 * Updates the backgrounds of the cells of this tree view.
 		 */
@@ -2201,7 +2196,18 @@ public class LocationChooserPane
 
 			/** Flag: if {@code true}, the list of children of this tree item has been initialised by {@link
 				#getChildren()}. */
-			private	boolean childListInitialised;
+			private	boolean	childListInitialised;
+
+			/** Flag: if {@code true}, the subdirectories of the directory of this tree item are scanned on a background
+				thread rather than on the JavaFX application thread. */
+			private	boolean	backgroundScan;
+
+			/** Flag: if {@code true}, a background scan of the directory of this tree item is in progress. */
+			private	boolean	scanPending;
+
+			/** Flag: if {@code true}, the pending background scan of the directory of this tree item has not completed
+				within the timeout. */
+			private	boolean	scanTimedOut;
 
 		////////////////////////////////////////////////////////////////
 		//  Constructors
@@ -2240,6 +2246,14 @@ public class LocationChooserPane
 				// If list of children is not initialised, create child item for each subdirectory and add it to list
 				if (!childListInitialised)
 				{
+					// Case: subdirectories are scanned in background
+					if (backgroundScan)
+					{
+						if (!scanPending && !scanTimedOut)
+							startScan();
+						return children;
+					}
+
 					// Set cursor to 'busy'
 					DirectoryTreeView.this.setCursor(Cursor.WAIT);
 					Platform.requestNextPulse();
@@ -2263,6 +2277,10 @@ public class LocationChooserPane
 							for (Path rootDirectory : findLinuxMediaRootDirectories())
 								items.add(new DirectoryItem(rootDirectory));
 						}
+
+						// Scan subdirectories of root directories in background
+						for (DirectoryItem item : items)
+							item.backgroundScan = true;
 					}
 
 					// Case: not root directory
@@ -2270,22 +2288,9 @@ public class LocationChooserPane
 					{
 						try
 						{
-							// Initialise list of subdirectories whose 'hidden' status could not be determined
+							// Create items for subdirectories
 							List<String> indeterminateLocations = new ArrayList<>();
-
-							// Add items for subdirectories
-							for (Path location : DirectoryUtils.listDirectories(directory))
-							{
-								try
-								{
-									if (showHiddenDirectories || !Files.isHidden(location))
-										items.add(new DirectoryItem(location));
-								}
-								catch (IOException e)
-								{
-									indeterminateLocations.add(location.getFileName().toString());
-								}
-							}
+							items.addAll(createChildItems(directory, indeterminateLocations));
 
 							// Report subdirectories whose 'hidden' status could not be determined
 							if (!indeterminateLocations.isEmpty())
@@ -2307,18 +2312,6 @@ public class LocationChooserPane
 						}
 					}
 
-					// Sort items
-					items.sort(Comparator.<DirectoryItem, String>comparing(item ->
-						{
-							Path location = item.getValue();
-							if (location != null)
-								location = location.getFileName();
-							return (location == null) ? null : location.toString();
-						},
-						Comparator.<String>nullsFirst(ignoreFilenameCase ? String.CASE_INSENSITIVE_ORDER
-																		 : Comparator.naturalOrder()))
-					);
-
 					// Set items on list of children
 					children.setAll(items);
 
@@ -2342,7 +2335,158 @@ public class LocationChooserPane
 			@Override
 			public boolean isLeaf()
 			{
-				return getChildren().isEmpty();
+				// A directory that is being scanned in the background is shown as a branch until the scan completes; a
+				// directory that is not responding is shown as a leaf
+				ObservableList<TreeItem<Path>> children = getChildren();
+				return (backgroundScan && !childListInitialised) ? scanTimedOut : children.isEmpty();
+			}
+
+			//----------------------------------------------------------
+
+		////////////////////////////////////////////////////////////////
+		//  Instance methods
+		////////////////////////////////////////////////////////////////
+
+			/**
+			 * Creates tree items for the subdirectories of the specified directory and returns them in sorted order.
+			 * The subdirectories are obtained from the directory cache if it contains the directory; otherwise, they
+			 * are read from the file system.  This method may be called on any thread.
+			 *
+			 * @param  directory
+			 *           the directory whose subdirectories are required.
+			 * @param  indeterminateLocations
+			 *           a list to which the names of subdirectories whose 'hidden' status could not be determined
+			 *           will be added.
+			 * @return a sorted list of tree items for the subdirectories of {@code directory}.
+			 * @throws FileException
+			 *           if an error occurs when reading the directory.
+			 */
+
+			private List<DirectoryItem> createChildItems(
+				Path			directory,
+				List<String>	indeterminateLocations)
+				throws FileException
+			{
+				// Get subdirectories from cached entries of directory or from file system
+				List<DirectoryCache.Entry> cachedEntries = directoryCache.get(directory);
+				List<Path> subdirectories = (cachedEntries == null)
+						? DirectoryUtils.listDirectories(directory)
+						: cachedEntries.stream()
+								.filter(DirectoryCache.Entry::isDirectory)
+								.map(DirectoryCache.Entry::location)
+								.toList();
+
+				// Create items for subdirectories
+				List<DirectoryItem> items = new ArrayList<>();
+				for (Path location : subdirectories)
+				{
+					try
+					{
+						if (showHiddenDirectories || !Files.isHidden(location))
+							items.add(new DirectoryItem(location));
+					}
+					catch (IOException e)
+					{
+						indeterminateLocations.add(location.getFileName().toString());
+					}
+				}
+
+				// Sort items
+				items.sort(Comparator.<DirectoryItem, String>comparing(item ->
+					{
+						Path location = item.getValue();
+						if (location != null)
+							location = location.getFileName();
+						return (location == null) ? null : location.toString();
+					},
+					Comparator.<String>nullsFirst(ignoreFilenameCase ? String.CASE_INSENSITIVE_ORDER
+																	 : Comparator.naturalOrder()))
+				);
+
+				// Return items
+				return items;
+			}
+
+			//----------------------------------------------------------
+
+			/**
+			 * Starts a scan of the subdirectories of the directory of this tree item on a thread of the dedicated
+			 * executor of root scans, so that a directory that does not respond cannot occupy a thread of the shared
+			 * I/O pool.  The children of this tree item are set on the JavaFX application thread when the scan
+			 * completes.  If the scan has not completed within a timeout, the directory is deemed not to be responding
+			 * and this tree item is shown as a leaf; if the scan completes later, its result is nonetheless applied.
+			 */
+
+			private void startScan()
+			{
+				// Get directory
+				Path directory = getValue();
+
+				// Update 'pending' flag
+				scanPending = true;
+
+				// Scan directory on thread of root-scan executor
+				CompletableFuture<List<DirectoryItem>> scan = CompletableFuture.supplyAsync(() ->
+				{
+					try
+					{
+						List<String> indeterminateLocations = new ArrayList<>();
+						List<DirectoryItem> items = createChildItems(directory, indeterminateLocations);
+						if (!indeterminateLocations.isEmpty())
+						{
+							Logger.INSTANCE.warning(ErrorMsg.FAILED_TO_DETERMINE_HIDDEN_STATUS + "\n"
+													+ String.join("\n", indeterminateLocations));
+						}
+						return items;
+					}
+					catch (FileException e)
+					{
+						// Log exception whose cause is not 'access denied'
+						if (!(e.getCause() instanceof AccessDeniedException))
+							Logger.INSTANCE.error(FAILED_TO_SCAN_STR, e);
+						return List.of();
+					}
+				},
+				ROOT_SCAN_EXECUTOR);
+
+				// Set children of this item when scan completes
+				scan.whenComplete((items, exception) -> Platform.runLater(() ->
+				{
+					// Update flags
+					scanPending = false;
+					scanTimedOut = false;
+
+					// Log unexpected exception
+					if (exception != null)
+						Logger.INSTANCE.error(FAILED_TO_SCAN_STR, exception);
+
+					// Set items on list of children unless they have been initialised in the meantime
+					if (!childListInitialised)
+					{
+						super.getChildren().setAll((items == null) ? List.of() : items);
+						childListInitialised = true;
+						for (TreeItem<Path> child : super.getChildren())
+							expandItems(child);
+					}
+				}));
+
+				// Mark this item as not responding if scan does not complete within timeout
+				CompletableFuture.delayedExecutor(ROOT_SCAN_TIMEOUT, TimeUnit.MILLISECONDS).execute(() ->
+				{
+					if (!scan.isDone())
+					{
+						Logger.INSTANCE.warning(NOT_RESPONDING_STR + ": " + directory);
+						Platform.runLater(() ->
+						{
+							if (scanPending)
+							{
+								scanTimedOut = true;
+								setExpanded(false);
+								refresh();
+							}
+						});
+					}
+				});
 			}
 
 			//----------------------------------------------------------
@@ -2644,6 +2788,10 @@ public class LocationChooserPane
 		private static final	String	UPDATE_ENTRIES_STR		= "Update entries";
 		private static final	String	COPY_ALL_ENTRIES_STR	= "Copy all entries";
 
+		/** The number of directory entries whose attributes are read in parallel before they are added to the table
+			view. */
+		private static final	int		LISTING_BATCH_SIZE	= 512;
+
 		/** Error messages. */
 		private interface ErrorMsg
 		{
@@ -2652,6 +2800,9 @@ public class LocationChooserPane
 
 			String	DIRECTORY_DOES_NOT_EXIST =
 					"The directory does not exist.";
+
+			String	ERROR_LISTING_DIRECTORY =
+					"An error occurred when listing the entries of the directory.";
 		}
 
 	////////////////////////////////////////////////////////////////////
@@ -2673,6 +2824,15 @@ public class LocationChooserPane
 		/** A list of the entries of the current directory. */
 		private	List<DirectoryEntry>		entries;
 
+		/** The cache of the entries of directories. */
+		private	DirectoryCache				directoryCache;
+
+		/** The background task that lists the entries of the current directory. */
+		private	Task<Void>					listingTask;
+
+		/** The name of an entry that will be selected when it is listed by {@link #listingTask}. */
+		private	String						pendingSelection;
+
 		/** The history of directories that were opened on the table view. */
 		private	History						history;
 
@@ -2722,6 +2882,7 @@ public class LocationChooserPane
 	////////////////////////////////////////////////////////////////////
 
 		private DirectoryTableView(
+			DirectoryCache	directoryCache,
 			LocationMatcher	filter,
 			SelectionMode	selectionMode,
 			String			placeholderText,
@@ -2732,6 +2893,7 @@ public class LocationChooserPane
 			itemList = new ElasticList<>(this);
 			cells = new ArrayList<>();
 			entries = Collections.emptyList();
+			this.directoryCache = directoryCache;
 			history = new History();
 			directoryChangedNotifier = new ChangeNotifier<>();
 			historyChangedNotifier = new ChangeNotifier<>();
@@ -2808,6 +2970,9 @@ public class LocationChooserPane
 						selectedLocations.setAll(getFilteredSelectedLocations()));
 			}
 
+			// Discard pending selection when selected item changes
+			getSelectionModel().selectedItemProperty().addListener(observable -> pendingSelection = null);
+
 			// Ensure cells are redrawn if scroll bar is hidden
 			widthProperty().addListener(observable -> Platform.runLater(this::refresh));
 
@@ -3017,53 +3182,120 @@ public class LocationChooserPane
 
 		//--------------------------------------------------------------
 
+		/**
+		 * Updates the entries of this table view from the current directory.  If the entries of the directory are in
+		 * the cache of directories, they are set on the table view immediately.  Otherwise, the entries are listed by a
+		 * task on a background thread: the attributes of each batch of entries are read in parallel, and the batch is
+		 * added to the table view, whose sorting is applied to the growing list of items.  When the listing is
+		 * complete, the unsorted order of the items is restored to directories before files, each ordered by name,
+		 * and the entries are added to the cache.
+		 */
+
 		private void updateEntries()
 		{
-			// Update directory entries
-			entries = Collections.emptyList();
-			if (directory != null)
+			// Cancel listing of previous directory
+			if (listingTask != null)
 			{
-				// Add subdirectories to list of entries
-				List<DirectoryEntry> subdirectories = new ArrayList<>();
-				try
-				{
-					for (Path location : DirectoryUtils.listDirectories(directory))
-						subdirectories.add(new DirectoryEntry(location, true));
-				}
-				catch (FileException e)
-				{
-					if (!(e.getCause() instanceof AccessDeniedException))
-						ErrorDialog.show(getWindow(), UPDATE_ENTRIES_STR, e);
-				}
-				subdirectories.sort(DirectoryEntry.nameComparator(ignoreFilenameCase));
-				entries = new ArrayList<>(subdirectories);
-
-				// Add files to list of entries
-				List<DirectoryEntry> files = new ArrayList<>();
-				try
-				{
-					for (Path location : DirectoryUtils.listFiles(directory))
-						files.add(new DirectoryEntry(location, false));
-				}
-				catch (FileException e)
-				{
-					if (!(e.getCause() instanceof AccessDeniedException))
-						ErrorDialog.show(getWindow(), UPDATE_ENTRIES_STR, e);
-				}
-				files.sort(DirectoryEntry.nameComparator(ignoreFilenameCase));
-				entries.addAll(files);
+				listingTask.cancel(false);
+				listingTask = null;
 			}
+			pendingSelection = null;
+
+			// Clear directory entries
+			entries = new ArrayList<>();
+			itemList.update(Collections.emptyList());
+
+			// Get cached entries of directory
+			List<DirectoryCache.Entry> cachedEntries = (directory == null) ? null : directoryCache.get(directory);
 
-			// Apply filter to directory entries
-			List<DirectoryEntry> filteredEntries = new ArrayList<>();
-			for (DirectoryEntry entry : entries)
+			// If entries of directory are cached, set them on table view ...
+			if (cachedEntries != null)
 			{
-				if (entry.isDirectory || filter.matchesExists(entry.location))
-					filteredEntries.add(entry);
+				entries = new ArrayList<>(cachedEntries.stream().map(DirectoryEntry::new).toList());
+				entries.sort(DirectoryEntry.directoryFirstComparator(ignoreFilenameCase));
+				itemList.update(applyFilter(entries, filter));
 			}
 
-			// Update list of items with filtered entries
-			itemList.update(filteredEntries);
+			// ... otherwise, create task to list entries of directory
+			else if (directory != null)
+			{
+				Path directory = this.directory;
+				LocationMatcher filter = this.filter;
+				Task<Void> task = new Task<>()
+				{
+					@Override
+					protected Void call()
+						throws Exception
+					{
+						// Start watching directory for changes
+						long version = directoryCache.register(directory);
+
+						// List entries of directory in batches
+						List<DirectoryCache.Entry> snapshot = new ArrayList<>();
+						List<Path> locations = new ArrayList<>();
+						try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory))
+						{
+							for (Path location : stream)
+							{
+								// Test whether task has been cancelled
+								if (isCancelled())
+									return null;
+
+								// Add location to batch; add batch to table view when it is full
+								locations.add(location);
+								if (locations.size() == LISTING_BATCH_SIZE)
+								{
+									snapshot.addAll(addBatch(this, locations, filter));
+									locations = new ArrayList<>();
+								}
+							}
+						}
+						catch (NoSuchFileException e)
+						{
+							// ignore
+						}
+						catch (DirectoryIteratorException e)
+						{
+							throw new FileException(ErrorMsg.ERROR_LISTING_DIRECTORY, e.getCause(), directory);
+						}
+						catch (IOException e)
+						{
+							throw new FileException(ErrorMsg.ERROR_LISTING_DIRECTORY, e, directory);
+						}
+
+						// Add final batch to table view
+						snapshot.addAll(addBatch(this, locations, filter));
+
+						// Add entries to cache
+						directoryCache.put(directory, version, snapshot);
+
+						// Return nothing
+						return null;
+					}
+
+					@Override
+					protected void succeeded()
+					{
+						onListingFinished(this);
+					}
+
+					@Override
+					protected void failed()
+					{
+						// Display error message
+						Throwable exception = getException();
+						if ((listingTask == this) && !(exception.getCause() instanceof AccessDeniedException))
+							ErrorDialog.show(getWindow(), UPDATE_ENTRIES_STR, exception);
+
+						// Finish listing
+						onListingFinished(this);
+					}
+				};
+				listingTask = task;
+
+				// Execute task on background thread
+				executeTask(task);
+			}
 
 			// Redraw cells
 			refresh();
@@ -3074,6 +3306,106 @@ public class LocationChooserPane
 
 		//--------------------------------------------------------------
 
+		/**
+		 * Reads the attributes of the specified locations in parallel and adds the resulting entries to this table view
+		 * on the JavaFX application thread.  This method is called by the specified listing task on a background
+		 * thread.
+		 *
+		 * @param  task
+		 *           the task that listed the locations.
+		 * @param  locations
+		 *           the locations of the entries.
+		 * @param  filter
+		 *           the filter that will be applied to files.
+		 * @return the entries whose attributes were read.
+		 */
+
+		private List<DirectoryCache.Entry> addBatch(
+			Task<Void>		task,
+			List<Path>		locations,
+			LocationMatcher	filter)
+		{
+			// Read attributes of entries in parallel
+			List<DirectoryCache.Entry> cacheEntries = locations.parallelStream()
+					.map(DirectoryCache.Entry::read)
+					.filter(Objects::nonNull)
+					.toList();
+
+			// Create entries for table view and apply filter to them
+			List<DirectoryEntry> batch = cacheEntries.stream().map(DirectoryEntry::new).toList();
+			List<DirectoryEntry> filteredBatch = applyFilter(batch, filter);
+
+			// Add entries to table view
+			if (!batch.isEmpty())
+				Platform.runLater(() -> addEntries(task, batch, filteredBatch));
+
+			// Return entries
+			return cacheEntries;
+		}
+
+		//--------------------------------------------------------------
+
+		private List<DirectoryEntry> applyFilter(
+			List<DirectoryEntry>	entries,
+			LocationMatcher			filter)
+		{
+			return entries.stream()
+					.filter(entry -> entry.isDirectory || filter.matches(entry.location))
+					.toList();
+		}
+
+		//--------------------------------------------------------------
+
+		private void addEntries(
+			Task<Void>				task,
+			List<DirectoryEntry>	batch,
+			List<DirectoryEntry>	filteredBatch)
+		{
+			// Ignore entries of a superseded listing
+			if (task != listingTask)
+				return;
+
+			// Add entries to lists
+			entries.addAll(batch);
+			itemList.addAll(filteredBatch);
+
+			// Select pending entry
+			if (pendingSelection != null)
+			{
+				for (DirectoryEntry entry : filteredBatch)
+				{
+					if (pendingSelection.equals(entry.getName()))
+					{
+						selectEntry(entry);
+						break;
+					}
+				}
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		private void onListingFinished(
+			Task<Void>	task)
+		{
+			// Ignore a superseded listing
+			if (task != listingTask)
+				return;
+
+			// Invalidate task
+			listingTask = null;
+
+			// Order entries with directories first, then by name
+			Comparator<DirectoryEntry> comparator = DirectoryEntry.directoryFirstComparator(ignoreFilenameCase);
+			entries.sort(comparator);
+			FXCollections.sort(itemList.getBaseList(), comparator);
+
+			// Discard pending selection
+			pendingSelection = null;
+		}
+
+		//--------------------------------------------------------------
+
 		private void openDirectory(
 			DirectoryEntry	entry)
 		{
@@ -3240,6 +3572,16 @@ public class LocationChooserPane
 
 		//--------------------------------------------------------------
 
+		/**
+		 * Selects the entry of this table view that has the specified name.  If there is no such entry and the entries
+		 * of the current directory are still being listed, the entry will be selected when it is listed unless the
+		 * selection is changed in the meantime.
+		 *
+		 * @param  name
+		 *           the name of the entry that will be selected.
+		 * @return {@code true} if the entry was selected.
+		 */
+
 		private boolean selectEntry(
 			String	name)
 		{
@@ -3249,22 +3591,35 @@ public class LocationChooserPane
 				if (name.equals(entry.getName()))
 				{
 					// Select entry
-					getSelectionModel().select(entry);
-
-					// Make entry visible in viewport of table view
-					scrollTo(entry);
+					selectEntry(entry);
 
 					// Indicate entry selected
 					return true;
 				}
 			}
 
+			// If entries are being listed, select entry when it is listed
+			if (listingTask != null)
+				pendingSelection = name;
+
 			// Indicate entry not selected
 			return false;
 		}
 
 		//--------------------------------------------------------------
 
+		private void selectEntry(
+			DirectoryEntry	entry)
+		{
+			// Select entry
+			getSelectionModel().select(entry);
+
+			// Make entry visible in viewport of table view
+			scrollTo(entry);
+		}
+
+		//--------------------------------------------------------------
+
 		private void copyEntryText()
 		{
 			// Display dialog for selecting columns and field separator
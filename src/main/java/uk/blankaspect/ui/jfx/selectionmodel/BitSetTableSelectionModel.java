@@ -0,0 +1,1349 @@
+/*====================================================================*\
+
+BitSetTableSelectionModel.java
+
+Class: selection model of a table view that is backed by a bit set.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.ui.jfx.selectionmodel;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableColumnBase;
+import javafx.scene.control.TablePosition;
+import javafx.scene.control.TableView;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: SELECTION MODEL OF A TABLE VIEW THAT IS BACKED BY A BIT SET
+
+
+/**
+ * This class implements a row selection model for a JavaFX {@linkplain TableView table view} whose state is a {@link
+ * BitSet} of the indices of the selected rows.  It is an alternative to the default selection model of a table view
+ * that is intended for tables with a very large number of rows: the default model holds a {@link TablePosition} for
+ * each selected row, so selecting all the rows of a large table allocates an object for each row.
+ * <p>
+ * Selecting all rows, clearing the selection, {@linkplain #invertSelection() inverting} it and selecting a range of
+ * rows are operations on the words of the bit set.  The {@linkplain #getSelectedIndices() selected indices},
+ * {@linkplain #getSelectedItems() selected items} and {@linkplain #getSelectedCells() selected cells} are views of the
+ * bit set whose elements are created only when they are accessed; an element is located from its position in a view
+ * with a table of the cumulative number of selected rows before each word of the bit set.  Each modification of the
+ * selection fires a single change on each view that replaces the range of the view between the first and last rows
+ * whose state has changed.  Iterating over a {@linkplain #getSelection() copy} of the bit set is the most efficient way
+ * to process the selected rows.
+ * </p>
+ * <p>
+ * Cell selection is not supported: the methods that take a column ignore it.  When the items of the table view are
+ * permuted (for example, when the table is sorted), the selection is permuted with them.  When items are added or
+ * removed, the rows of removed items are deselected and the other selected rows are shifted with their items, so a
+ * replacement of all the items clears the selection.
+ * </p>
+ *
+ * @param <S>
+ *          the type of the items of the table view.
+ */
+
+public class BitSetTableSelectionModel<S>
+	extends TableView.TableViewSelectionModel<S>
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The indices of the selected rows. */
+	private	BitSet								selection;
+
+	/** A snapshot of {@link #selection}, which is {@code null} if it has not been created since the last change. */
+	private	Snapshot							snapshot;
+
+	/** The list of the indices of the selected rows. */
+	private	SelectionList<Integer>				selectedIndices;
+
+	/** The list of the selected items. */
+	private	SelectionList<S>					selectedItems;
+
+	/** The list of the positions of the selected rows. */
+	private	SelectionList<TablePosition<S, ?>>	selectedCells;
+
+	/** The listener that is notified of changes to the items of the table view. */
+	private	ListChangeListener<S>				itemsListener;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a selection model for the specified table view, and sets it as the selection model of
+	 * the table view.
+	 *
+	 * @param tableView
+	 *          the table view to which the selection model will be applied.
+	 */
+
+	public BitSetTableSelectionModel(
+		TableView<S>	tableView)
+	{
+		// Call superclass constructor
+		super(tableView);
+
+		// Initialise instance variables
+		selection = new BitSet();
+		selectedIndices = new IndexList();
+		selectedItems = new SelectionList<>(row -> getModelItem(row));
+		selectedCells = new SelectionList<>(row -> new TablePosition<>(tableView, row, (TableColumn<S, ?>)null));
+		itemsListener = change -> onItemsChanged(change);
+
+		// Update selection when items of table view change
+		ObservableList<S> items = tableView.getItems();
+		if (items != null)
+			items.addListener(itemsListener);
+		tableView.itemsProperty().addListener((observable, oldList, newList) ->
+		{
+			if (oldList != null)
+				oldList.removeListener(itemsListener);
+			if (newList != null)
+				newList.addListener(itemsListener);
+			updateSelection(new BitSet(), -1, row -> (oldList == null) ? null : oldList.get(row));
+		});
+
+		// Reduce selection to selected index when selection mode changes to 'single'
+		selectionModeProperty().addListener((observable, oldMode, mode) ->
+		{
+			if ((mode == SelectionMode.SINGLE) && (selection.cardinality() > 1))
+			{
+				int index = getSelectedIndex();
+				BitSet newSelection = new BitSet();
+				if (index >= 0)
+					newSelection.set(index);
+				updateSelection(newSelection, index, null);
+			}
+		});
+
+		// Set selection model on table view
+		tableView.setSelectionModel(this);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods : overriding methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public ObservableList<Integer> getSelectedIndices()
+	{
+		return selectedIndices;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public ObservableList<S> getSelectedItems()
+	{
+		return selectedItems;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public ObservableList<TablePosition> getSelectedCells()
+	{
+		return (ObservableList)selectedCells;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public boolean isSelected(
+		int	row)
+	{
+		return (row >= 0) && selection.get(row);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public boolean isSelected(
+		int					row,
+		TableColumn<S, ?>	column)
+	{
+		return isSelected(row);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public boolean isEmpty()
+	{
+		return selection.isEmpty();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void select(
+		int	row)
+	{
+		if (isValidRow(row))
+		{
+			BitSet newSelection = (getSelectionMode() == SelectionMode.SINGLE) ? new BitSet() : copySelection();
+			newSelection.set(row);
+			updateSelection(newSelection, row, null);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void select(
+		int					row,
+		TableColumn<S, ?>	column)
+	{
+		select(row);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void select(
+		S	item)
+	{
+		List<S> items = getTableModel();
+		if (items != null)
+			select(items.indexOf(item));
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void selectIndices(
+		int		row,
+		int...	rows)
+	{
+		// Select valid rows; in 'single' selection mode, only the last valid row is selected
+		boolean single = (getSelectionMode() == SelectionMode.SINGLE);
+		BitSet newSelection = single ? new BitSet() : copySelection();
+		int lastRow = -1;
+		int numRows = (rows == null) ? 0 : rows.length;
+		for (int i = -1; i < numRows; i++)
+		{
+			int row0 = (i < 0) ? row : rows[i];
+			if (isValidRow(row0))
+			{
+				if (!single)
+					newSelection.set(row0);
+				lastRow = row0;
+			}
+		}
+
+		// Update selection; the last valid row becomes the selected index
+		if (lastRow >= 0)
+		{
+			newSelection.set(lastRow);
+			updateSelection(newSelection, lastRow, null);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void selectRange(
+		int	start,
+		int	end)
+	{
+		// Get bounds of range
+		int fromRow = Math.max(0, Math.min(start, end + 1));
+		int toRow = Math.min(getItemCount(), Math.max(start + 1, end));
+		if (fromRow >= toRow)
+			return;
+
+		// Update selection; the selected index is the last row of the range in the direction from start to end
+		int lastRow = (start <= end) ? toRow - 1 : fromRow;
+		if (getSelectionMode() == SelectionMode.SINGLE)
+			select(lastRow);
+		else
+		{
+			BitSet newSelection = copySelection();
+			newSelection.set(fromRow, toRow);
+			updateSelection(newSelection, lastRow, null);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void selectRange(
+		int						minRow,
+		TableColumnBase<S, ?>	minColumn,
+		int						maxRow,
+		TableColumnBase<S, ?>	maxColumn)
+	{
+		selectRange(minRow, (maxRow >= minRow) ? maxRow + 1 : maxRow - 1);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void selectAll()
+	{
+		if (getSelectionMode() == SelectionMode.MULTIPLE)
+		{
+			int numItems = getItemCount();
+			if (numItems > 0)
+			{
+				BitSet newSelection = new BitSet(numItems);
+				newSelection.set(0, numItems);
+				int focusedIndex = getFocusedIndex();
+				updateSelection(newSelection, isValidRow(focusedIndex) ? focusedIndex : numItems - 1, null);
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void selectFirst()
+	{
+		if (getItemCount() > 0)
+			select(0);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void selectLast()
+	{
+		int numItems = getItemCount();
+		if (numItems > 0)
+			select(numItems - 1);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void selectPrevious()
+	{
+		int focusedIndex = getFocusedIndex();
+		if (focusedIndex < 0)
+			selectLast();
+		else if (focusedIndex > 0)
+			select(focusedIndex - 1);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void selectNext()
+	{
+		int focusedIndex = getFocusedIndex();
+		if (focusedIndex < 0)
+			selectFirst();
+		else if (focusedIndex < getItemCount() - 1)
+			select(focusedIndex + 1);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void selectAboveCell()
+	{
+		int focusedIndex = getFocusedIndex();
+		if (focusedIndex < 0)
+			clearAndSelect(getItemCount() - 1);
+		else if (focusedIndex > 0)
+			clearAndSelect(focusedIndex - 1);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void selectBelowCell()
+	{
+		int focusedIndex = getFocusedIndex();
+		if (focusedIndex < 0)
+			clearAndSelect(0);
+		else if (focusedIndex < getItemCount() - 1)
+			clearAndSelect(focusedIndex + 1);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}  Cell selection is not supported, so this method does nothing.
+	 */
+
+	@Override
+	public void selectLeftCell()
+	{
+		// do nothing
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}  Cell selection is not supported, so this method does nothing.
+	 */
+
+	@Override
+	public void selectRightCell()
+	{
+		// do nothing
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void clearAndSelect(
+		int	row)
+	{
+		if (isValidRow(row))
+		{
+			BitSet newSelection = new BitSet();
+			newSelection.set(row);
+			updateSelection(newSelection, row, null);
+		}
+		else
+			clearSelection();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void clearAndSelect(
+		int					row,
+		TableColumn<S, ?>	column)
+	{
+		clearAndSelect(row);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void clearSelection(
+		int	row)
+	{
+		if (isSelected(row))
+		{
+			BitSet newSelection = copySelection();
+			newSelection.clear(row);
+			int index = getSelectedIndex();
+			if (index == row)
+			{
+				index = newSelection.previousSetBit(row);
+				if (index < 0)
+					index = newSelection.nextSetBit(row);
+			}
+			updateSelection(newSelection, index, null);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void clearSelection(
+		int					row,
+		TableColumn<S, ?>	column)
+	{
+		clearSelection(row);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public void clearSelection()
+	{
+		if (!selection.isEmpty() || (getSelectedIndex() >= 0))
+			updateSelection(new BitSet(), -1, null);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns a copy of the bit set of the indices of the selected rows.
+	 *
+	 * @return a copy of the bit set of the indices of the selected rows.
+	 */
+
+	public BitSet getSelection()
+	{
+		return copySelection();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the number of selected rows.
+	 *
+	 * @return the number of selected rows.
+	 */
+
+	public int getNumSelected()
+	{
+		return getSnapshot().size();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Inverts the selection: the rows that were selected are deselected, and the rows that were not selected are
+	 * selected.  If the selection mode is {@link SelectionMode#SINGLE SINGLE}, this method does nothing.
+	 */
+
+	public void invertSelection()
+	{
+		if (getSelectionMode() == SelectionMode.MULTIPLE)
+		{
+			int numItems = getItemCount();
+			BitSet newSelection = copySelection();
+			newSelection.flip(0, numItems);
+			int index = getSelectedIndex();
+			if (!isValidRow(index) || !newSelection.get(index))
+				index = newSelection.previousSetBit(numItems - 1);
+			updateSelection(newSelection, index, null);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns {@code true} if the specified index is the index of a row of the table view.
+	 *
+	 * @param  row
+	 *           the index.
+	 * @return {@code true} if {@code row} is the index of a row of the table view.
+	 */
+
+	private boolean isValidRow(
+		int	row)
+	{
+		return (row >= 0) && (row < getItemCount());
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns a copy of the bit set of the indices of the selected rows.
+	 *
+	 * @return a copy of the bit set of the indices of the selected rows.
+	 */
+
+	private BitSet copySelection()
+	{
+		return (BitSet)selection.clone();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns a snapshot of the current selection, creating it if necessary.
+	 *
+	 * @return a snapshot of the current selection.
+	 */
+
+	private Snapshot getSnapshot()
+	{
+		if (snapshot == null)
+			snapshot = new Snapshot(selection.toLongArray());
+		return snapshot;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Replaces the selection with the specified bit set, sets the selected index and focus, and fires a change on the
+	 * lists of selected indices, items and cells.
+	 *
+	 * @param newSelection
+	 *          the indices of the rows that will be selected.
+	 * @param selectedIndex
+	 *          the selected index, which will also be focused if it is not negative.
+	 * @param oldItems
+	 *          the function that returns the item that was at a specified row before the items of the table view were
+	 *          changed, or {@code null} if the items have not changed.
+	 */
+
+	private void updateSelection(
+		BitSet			newSelection,
+		int				selectedIndex,
+		IntFunction<S>	oldItems)
+	{
+		// Replace selection
+		Snapshot oldSnapshot = getSnapshot();
+		selection = newSelection;
+		snapshot = null;
+		Snapshot newSnapshot = getSnapshot();
+
+		// Set selected index and focus
+		setSelectedIndex(selectedIndex);
+		if (selectedIndex >= 0)
+			focus(selectedIndex);
+
+		// Find range of rows whose state has changed; if items have changed, all selected items may have changed
+		int startRow = 0;
+		int endRow = Integer.MAX_VALUE;
+		if (oldItems == null)
+		{
+			long[] oldWords = oldSnapshot.words;
+			long[] newWords = newSnapshot.words;
+			int numWords = Math.max(oldWords.length, newWords.length);
+			int startWord = 0;
+			while ((startWord < numWords) && (getWord(oldWords, startWord) == getWord(newWords, startWord)))
+				++startWord;
+			if (startWord == numWords)
+				return;
+			int endWord = numWords - 1;
+			while (getWord(oldWords, endWord) == getWord(newWords, endWord))
+				--endWord;
+			startRow = (startWord << 6)
+							+ Long.numberOfTrailingZeros(getWord(oldWords, startWord) ^ getWord(newWords, startWord));
+			endRow = (endWord << 6) + 64
+							- Long.numberOfLeadingZeros(getWord(oldWords, endWord) ^ getWord(newWords, endWord));
+		}
+
+		// Fire changes
+		selectedIndices.fireSelectionChange(oldSnapshot, newSnapshot, startRow, endRow, Integer::valueOf);
+		selectedItems.fireSelectionChange(oldSnapshot, newSnapshot, startRow, endRow,
+										  (oldItems == null) ? row -> getModelItem(row) : oldItems);
+		TableView<S> tableView = getTableView();
+		selectedCells.fireSelectionChange(oldSnapshot, newSnapshot, startRow, endRow,
+										  row -> new TablePosition<>(tableView, row, (TableColumn<S, ?>)null));
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Updates the selection in response to the specified change to the items of the table view.
+	 *
+	 * @param change
+	 *          the change to the items of the table view.
+	 */
+
+	private void onItemsChanged(
+		ListChangeListener.Change<? extends S>	change)
+	{
+		// Do nothing if there is no selection
+		if (selection.isEmpty() && (getSelectedIndex() < 0))
+			return;
+
+		// Collect sub-changes
+		List<SubChange<S>> subChanges = new ArrayList<>();
+		boolean permutation = true;
+		while (change.next())
+		{
+			int from = change.getFrom();
+			int to = change.getTo();
+			if (change.wasPermutated())
+			{
+				int[] indices = new int[to - from];
+				for (int i = from; i < to; i++)
+					indices[i - from] = change.getPermutation(i);
+				subChanges.add(new SubChange<>(from, to, indices, null, 0));
+			}
+			else
+			{
+				permutation = false;
+				subChanges.add(new SubChange<>(from, to, null, change.getRemoved(), change.getAddedSize()));
+			}
+		}
+
+		// Get items of table view
+		List<S> items = getTableModel();
+
+		// If items have been permuted, permute selection ...
+		if (permutation)
+		{
+			IntFunction<Integer> permute = row ->
+			{
+				for (SubChange<S> subChange : subChanges)
+				{
+					if ((row >= subChange.from) && (row < subChange.to))
+						return subChange.permutation[row - subChange.from];
+				}
+				return row;
+			};
+			BitSet newSelection = new BitSet();
+			for (int row = selection.nextSetBit(0); row >= 0; row = selection.nextSetBit(row + 1))
+				newSelection.set(permute.apply(row));
+			int index = getSelectedIndex();
+			updateSelection(newSelection, (index < 0) ? index : permute.apply(index),
+							row -> items.get(permute.apply(row)));
+		}
+
+		// ... otherwise, deselect removed rows and shift other selected rows
+		else
+		{
+			// Create function that maps a row of the old items to an item
+			IntFunction<S> oldItems = row ->
+			{
+				int offset = 0;
+				for (SubChange<S> subChange : subChanges)
+				{
+					int index = row + offset;
+					if (index < subChange.from)
+						return items.get(index);
+					if (index < subChange.from + subChange.removed.size())
+						return subChange.removed.get(index - subChange.from);
+					offset += subChange.numAdded - subChange.removed.size();
+				}
+				return items.get(row + offset);
+			};
+
+			// Create function that maps a row of the old items to a row of the new items, or -1 if it was removed
+			IntUnaryOperator shift = row ->
+			{
+				int offset = 0;
+				for (SubChange<S> subChange : subChanges)
+				{
+					int from = subChange.from - offset;
+					if (row < from)
+						break;
+					if (row < from + subChange.removed.size())
+						return -1;
+					offset += subChange.numAdded - subChange.removed.size();
+				}
+				return row + offset;
+			};
+
+			// Shift selected rows
+			BitSet newSelection = new BitSet();
+			for (int row = selection.nextSetBit(0); row >= 0; row = selection.nextSetBit(row + 1))
+			{
+				int newRow = shift.applyAsInt(row);
+				if (newRow >= 0)
+					newSelection.set(newRow);
+			}
+			int index = getSelectedIndex();
+			updateSelection(newSelection, (index < 0) ? index : shift.applyAsInt(index), oldItems);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the element of the specified array at the specified index, or zero if the index is out of bounds.
+	 *
+	 * @param  words
+	 *           the array.
+	 * @param  index
+	 *           the index of the element.
+	 * @return the element of {@code words} at {@code index}, or zero if {@code index} is out of bounds.
+	 */
+
+	private static long getWord(
+		long[]	words,
+		int		index)
+	{
+		return (index < words.length) ? words[index] : 0;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: SUB-CHANGE TO THE ITEMS OF A TABLE VIEW
+
+
+	/**
+	 * This record encapsulates a sub-change of a change to the items of a table view.
+	 *
+	 * @param from
+	 *          the start index of the sub-change.
+	 * @param to
+	 *          the end index of the sub-change.
+	 * @param permutation
+	 *          the new indices of the items from {@code from} to {@code to}, or {@code null} if the sub-change is not a
+	 *          permutation.
+	 * @param removed
+	 *          the items that were removed, or {@code null} if the sub-change is a permutation.
+	 * @param numAdded
+	 *          the number of items that were added.
+	 */
+
+	private record SubChange<S>(
+		int					from,
+		int					to,
+		int[]				permutation,
+		List<? extends S>	removed,
+		int					numAdded)
+	{ }
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member classes : non-inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: SNAPSHOT OF A SELECTION
+
+
+	/**
+	 * This class implements an immutable snapshot of the indices of the selected rows.  The position of a selected row
+	 * in the ascending sequence of selected rows is found with a table of the cumulative number of selected rows before
+	 * each word of the snapshot, which is created when it is first needed.
+	 */
+
+	private static class Snapshot
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** The words of the bit set of the indices of the selected rows. */
+		private	long[]	words;
+
+		/** The number of selected rows before each word, or {@code null} if the table has not been created. */
+		private	int[]	ranks;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private Snapshot(
+			long[]	words)
+		{
+			// Initialise instance variables
+			this.words = words;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns the number of selected rows.
+		 *
+		 * @return the number of selected rows.
+		 */
+
+		private int size()
+		{
+			return getRanks()[words.length];
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the number of selected rows whose index is less than the specified index.
+		 *
+		 * @param  row
+		 *           the index of the row.
+		 * @return the number of selected rows whose index is less than {@code row}.
+		 */
+
+		private int rank(
+			int	row)
+		{
+			int[] ranks = getRanks();
+			int wordIndex = row >>> 6;
+			if (wordIndex >= words.length)
+				return ranks[words.length];
+			return ranks[wordIndex] + Long.bitCount(words[wordIndex] & ((1L << row) - 1));
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the index of the selected row at the specified position in the ascending sequence of selected rows.
+		 *
+		 * @param  position
+		 *           the position of the row in the sequence of selected rows.
+		 * @return the index of the selected row at {@code position}.
+		 * @throws IndexOutOfBoundsException
+		 *           if {@code position} is out of bounds.
+		 */
+
+		private int get(
+			int	position)
+		{
+			// Validate argument
+			int[] ranks = getRanks();
+			if ((position < 0) || (position >= ranks[words.length]))
+				throw new IndexOutOfBoundsException(position);
+
+			// Find word that contains row with binary search of ranks
+			int low = 0;
+			int high = words.length - 1;
+			while (low < high)
+			{
+				int mid = (low + high + 1) >>> 1;
+				if (ranks[mid] <= position)
+					low = mid;
+				else
+					high = mid - 1;
+			}
+
+			// Find row within word
+			long word = words[low];
+			for (int i = ranks[low]; i < position; i++)
+				word &= word - 1;
+			return (low << 6) + Long.numberOfTrailingZeros(word);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the table of the cumulative number of selected rows before each word, creating it if necessary.
+		 *
+		 * @return the table of the cumulative number of selected rows before each word.
+		 */
+
+		private int[] getRanks()
+		{
+			if (ranks == null)
+			{
+				int[] ranks = new int[words.length + 1];
+				for (int i = 0; i < words.length; i++)
+					ranks[i + 1] = ranks[i] + Long.bitCount(words[i]);
+				this.ranks = ranks;
+			}
+			return ranks;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+
+	// CLASS: CHANGE TO A LIST OF SELECTED ELEMENTS
+
+
+	/**
+	 * This class implements a change to a list of selected elements that consists of a single replacement of a range
+	 * of the list.  The removed elements are a view of a snapshot of the previous selection.
+	 *
+	 * @param <E>
+	 *          the type of the elements of the list.
+	 */
+
+	private static class SelectionChange<E>
+		extends ListChangeListener.Change<E>
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		private	int		from;
+		private	int		to;
+		private	List<E>	removed;
+		private	boolean	active;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private SelectionChange(
+			ObservableList<E>	list,
+			int					from,
+			int					to,
+			List<E>				removed)
+		{
+			// Call superclass constructor
+			super(list);
+
+			// Initialise instance variables
+			this.from = from;
+			this.to = to;
+			this.removed = removed;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : overriding methods
+	////////////////////////////////////////////////////////////////////
+
+		@Override
+		public boolean next()
+		{
+			if (active)
+				return false;
+			active = true;
+			return true;
+		}
+
+		//--------------------------------------------------------------
+
+		@Override
+		public void reset()
+		{
+			active = false;
+		}
+
+		//--------------------------------------------------------------
+
+		@Override
+		public int getFrom()
+		{
+			checkState();
+			return from;
+		}
+
+		//--------------------------------------------------------------
+
+		@Override
+		public int getTo()
+		{
+			checkState();
+			return to;
+		}
+
+		//--------------------------------------------------------------
+
+		@Override
+		public List<E> getRemoved()
+		{
+			checkState();
+			return removed;
+		}
+
+		//--------------------------------------------------------------
+
+		@Override
+		protected int[] getPermutation()
+		{
+			checkState();
+			return new int[0];
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		private void checkState()
+		{
+			if (!active)
+				throw new IllegalStateException("next() has not been called");
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member classes : inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: LIST OF SELECTED ELEMENTS
+
+
+	/**
+	 * This class implements an observable list of elements that correspond to the selected rows, in ascending order of
+	 * row index.  An element is created from the index of its row when it is accessed.
+	 *
+	 * @param <E>
+	 *          the type of the elements of the list.
+	 */
+
+	private class SelectionList<E>
+		extends ObservableListBase<E>
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** The function that creates the element for the index of a row. */
+		private	IntFunction<E>	elementFactory;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private SelectionList(
+			IntFunction<E>	elementFactory)
+		{
+			// Initialise instance variables
+			this.elementFactory = elementFactory;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : List interface
+	////////////////////////////////////////////////////////////////////
+
+		@Override
+		public E get(
+			int	index)
+		{
+			return elementFactory.apply(getSnapshot().get(index));
+		}
+
+		//--------------------------------------------------------------
+
+		@Override
+		public int size()
+		{
+			return getSnapshot().size();
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Fires a change that replaces the elements of this list that correspond to the selected rows in the specified
+		 * range.
+		 *
+		 * @param oldSnapshot
+		 *          a snapshot of the previous selection.
+		 * @param newSnapshot
+		 *          a snapshot of the current selection.
+		 * @param startRow
+		 *          the index of the first row whose state may have changed.
+		 * @param endRow
+		 *          the index of the row after the last row whose state may have changed.
+		 * @param oldElementFactory
+		 *          the function that creates the element of the previous selection for the index of a row.
+		 */
+
+		private void fireSelectionChange(
+			Snapshot		oldSnapshot,
+			Snapshot		newSnapshot,
+			int				startRow,
+			int				endRow,
+			IntFunction<E>	oldElementFactory)
+		{
+			// Get range of positions in old and new lists
+			int oldFrom = oldSnapshot.rank(startRow);
+			int oldTo = oldSnapshot.rank(endRow);
+			int newFrom = newSnapshot.rank(startRow);
+			int newTo = newSnapshot.rank(endRow);
+			if ((oldFrom == oldTo) && (newFrom == newTo))
+				return;
+
+			// Create view of removed elements
+			List<E> removed = (oldFrom == oldTo) ? Collections.emptyList() : new AbstractList<>()
+			{
+				@Override
+				public E get(
+					int	index)
+				{
+					return oldElementFactory.apply(oldSnapshot.get(oldFrom + index));
+				}
+
+				@Override
+				public int size()
+				{
+					return oldTo - oldFrom;
+				}
+			};
+
+			// Fire change
+			fireChange(new SelectionChange<>(this, newFrom, newTo, removed));
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+
+	// CLASS: LIST OF INDICES OF SELECTED ROWS
+
+
+	/**
+	 * This class implements an observable list of the indices of the selected rows that tests whether it contains a
+	 * row and finds the position of a row directly from the bit set.
+	 */
+
+	private class IndexList
+		extends SelectionList<Integer>
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private IndexList()
+		{
+			// Call superclass constructor
+			super(Integer::valueOf);
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : List interface
+	////////////////////////////////////////////////////////////////////
+
+		@Override
+		public boolean contains(
+			Object	obj)
+		{
+			return (obj instanceof Integer row) && isSelected(row);
+		}
+
+		//--------------------------------------------------------------
+
+		@Override
+		public int indexOf(
+			Object	obj)
+		{
+			return contains(obj) ? getSnapshot().rank((Integer)obj) : -1;
+		}
+
+		//--------------------------------------------------------------
+
+		@Override
+		public int lastIndexOf(
+			Object	obj)
+		{
+			return indexOf(obj);
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import javafx.scene.control.MultipleSelectionModel;
+import javafx.scene.control.SelectionMode;
 import javafx.scene.control.SelectionModel;
 
 //----------------------------------------------------------------------
@@ -59,6 +60,15 @@ public class SelectionModelUtils
 		MultipleSelectionModel<?>	selectionModel,
 		int							numItems)
 	{
+		// Invert selection of bit-set selection model directly
+		if ((selectionModel instanceof BitSetTableSelectionModel<?> bitSetModel)
+				&& (selectionModel.getSelectionMode() == SelectionMode.MULTIPLE))
+		{
+			bitSetModel.invertSelection();
+			return;
+		}
+
+		// Invert selection according to selection mode
 		switch (selectionModel.getSelectionMode())
 		{
 			case SINGLE:
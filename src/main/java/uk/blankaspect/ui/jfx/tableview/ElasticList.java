@@ -229,6 +229,21 @@ public class ElasticList<E>
 
 	//------------------------------------------------------------------
 
+	/**
+	 * Adds the specified items to the end of this list.
+	 *
+	 * @param items
+	 *          the items that will be added to the end of this list.
+	 */
+
+	public void addAll(
+		Collection<? extends E>	items)
+	{
+		baseList.addAll(items);
+	}
+
+	//------------------------------------------------------------------
+
 	/**
 	 * Removes the item at the specified index from this list.  The index relates to the sorted list.
 	 *
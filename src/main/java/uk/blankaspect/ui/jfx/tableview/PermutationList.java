@@ -0,0 +1,1169 @@
+/*====================================================================*\
+
+PermutationList.java
+
+Class: list of items that is a filtered and sorted permutation of a base list.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.ui.jfx.tableview;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+import java.util.stream.IntStream;
+
+import javafx.application.Platform;
+
+import javafx.collections.ObservableListBase;
+
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableColumnBase;
+import javafx.scene.control.TableView;
+
+import uk.blankaspect.common.function.IProcedure0;
+
+import uk.blankaspect.common.thread.DaemonFactory;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: LIST OF ITEMS THAT IS A FILTERED AND SORTED PERMUTATION OF A BASE LIST
+
+
+/**
+ * This class implements an observable list of items for a JavaFX {@linkplain TableView table view} that is a filtered
+ * and sorted view of a base list of items.  It is an alternative to a {@link
+ * javafx.collections.transformation.SortedList SortedList} of a {@link javafx.collections.transformation.FilteredList
+ * FilteredList} that is intended for lists with a very large number of items.
+ * <p>
+ * The visible items are represented by a single {@code int} array that maps the index of an item in this list to its
+ * index in the base list.  When the filter or comparator is changed, a new array is computed on a background thread:
+ * the filter is applied to blocks of items in parallel, and the indices of the accepted items are sorted with a
+ * parallel stable merge sort.  The new array is then set on the JavaFX application thread, and a single change is
+ * fired: a permutation if only the order of the items has changed, so that the selection of a table view is preserved,
+ * or a replacement of all the items otherwise.  Only the result of the most recent change of the filter or comparator
+ * is set.
+ * </p>
+ * <p>
+ * A column of a table view may be given a {@linkplain #setSortKey(TableColumn, ToLongFunction) primitive sort key}.
+ * When a table view is sorted by columns that all have sort keys, the indices are sorted by comparing the keys, which
+ * are extracted once into {@code long} arrays, instead of by the comparator of the table view, which creates and
+ * compares the cell values of the items.  When there is a single key, each key is usually packed with its index into
+ * a {@code long}, and the packed values are sorted with a parallel primitive sort.
+ * </p>
+ * <p>
+ * The base list is replaced as a whole by {@link #update(Collection, IProcedure0)}, which fires a replacement of all
+ * the items, or by {@link #patch(List, int[], Predicate, IProcedure0)}, which is intended for a revision of the base
+ * list and fires the removal and addition of only the rows that have changed.  In both cases, the new permutation is
+ * computed on the background thread, and the items of this list are those of the previous base list until it is set.
+ * This list does not support the modification of individual items.
+ * </p>
+ *
+ * @param <E>
+ *          the type of the elements of the list.
+ */
+
+public class PermutationList<E>
+	extends ObservableListBase<E>
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The number of items in a block of items that is filtered by a single worker. */
+	private static final	int		FILTER_BLOCK_LENGTH	= 1 << 12;  // 4096
+
+	/** The maximum number of indices that are sorted by a single worker. */
+	private static final	int		SORT_BLOCK_LENGTH	= 1 << 13;  // 8192
+
+	/** The maximum number of indices that are sorted by insertion. */
+	private static final	int		INSERTION_SORT_LENGTH	= 32;
+
+	/** The maximum proportion of the rows of this list that may be removed and added by {@link #patch(List, int[],
+		Predicate, IProcedure0)} before the change is fired as a replacement of all the items. */
+	private static final	double	MAX_PATCH_FRACTION	= 0.125;
+
+	/** The executor that computes permutations. */
+	private static final	ExecutorService	EXECUTOR	= Executors.newSingleThreadExecutor(DaemonFactory::create);
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The base list of unfiltered and unsorted items to which the current permutation applies. */
+	private	List<E>					items;
+
+	/** The most recent base list, which replaces {@link #items} when its permutation is set. */
+	private	List<E>					baseItems;
+
+	/** The indices in the base list of the items of this list. */
+	private	int[]					permutation;
+
+	/** The filter that is applied to the items of the base list. */
+	private	Predicate<? super E>	filter;
+
+	/** The comparator that is applied to the filtered items. */
+	private	Comparator<? super E>	comparator;
+
+	/** The primitive keys by which the filtered items are sorted instead of by the comparator, or {@code null}. */
+	private	List<SortKey<E>>		sortKeys;
+
+	/** A map from the columns of a table view to the functions that extract their primitive sort keys. */
+	private	Map<TableColumnBase<E, ?>, ToLongFunction<? super E>>	keyFunctions;
+
+	/** A cache of the arrays of keys of the base list, mapped to the functions that extracted them. */
+	private	Map<ToLongFunction<? super E>, long[]>	keyCache;
+
+	/** The generation of the most recent change of filter or comparator, which is used to cancel stale tasks. */
+	private	AtomicLong				generation;
+
+	/** Flag: if {@code true}, the set of visible items may have changed since the permutation was last set. */
+	private	boolean					filterChanged;
+
+	/** Flag: if {@code true}, a permutation is being computed on a background thread. */
+	private	boolean					updatePending;
+
+	/** The procedure that will be invoked when the permutation of the most recent base list is set, or {@code null}. */
+	private	IProcedure0				pendingAction;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of an empty list.
+	 */
+
+	public PermutationList()
+	{
+		// Initialise instance variables
+		items = new ArrayList<>();
+		baseItems = items;
+		permutation = new int[0];
+		keyFunctions = new HashMap<>();
+		keyCache = new ConcurrentHashMap<>();
+		generation = new AtomicLong();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates a new instance of an empty list and sets it as the items of the specified table view.  The sort policy of
+	 * the table view is replaced with one that sets the comparator of the table view on this list.
+	 *
+	 * @param tableView
+	 *          the table view to which this list will be applied.
+	 */
+
+	public PermutationList(
+		TableView<E>	tableView)
+	{
+		// Call alternative constructor
+		this();
+
+		// Validate arguments
+		if (tableView == null)
+			throw new IllegalArgumentException("Null table view");
+
+		// Set items on table view
+		tableView.setItems(this);
+
+		// Sort list by primitive keys of sort columns of table view if possible, otherwise by comparator of table view
+		tableView.setSortPolicy(table ->
+		{
+			comparator = table.getComparator();
+			sortKeys = createSortKeys(table.getSortOrder());
+			updatePermutation();
+			return true;
+		});
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the indices of the items of the specified list that are accepted by the specified filter, sorted with
+	 * the specified comparator.
+	 *
+	 * @param  items
+	 *           the items.
+	 * @param  filter
+	 *           the filter, which may be {@code null}.
+	 * @param  comparator
+	 *           the comparator, which may be {@code null}.
+	 * @param  sortKeys
+	 *           the primitive keys by which the indices will be sorted instead of by {@code comparator}, or {@code
+	 *           null} if the indices will be sorted by {@code comparator}.
+	 * @param  keyCache
+	 *           the cache of arrays of the keys of {@code items}.
+	 * @param  cancelled
+	 *           a function that returns {@code true} if the computation should be abandoned.
+	 * @return the filtered and sorted indices of {@code items}, or {@code null} if the computation was abandoned.
+	 */
+
+	private static <E> int[] computePermutation(
+		List<E>									items,
+		Predicate<? super E>					filter,
+		Comparator<? super E>					comparator,
+		List<SortKey<E>>						sortKeys,
+		Map<ToLongFunction<? super E>, long[]>	keyCache,
+		BooleanSupplier							cancelled)
+	{
+		// Apply filter to blocks of items in parallel
+		int numItems = items.size();
+		int[] indices = null;
+		if (filter == null)
+			indices = IntStream.range(0, numItems).toArray();
+		else
+		{
+			boolean[] accepted = new boolean[numItems];
+			IntStream.range(0, (numItems + FILTER_BLOCK_LENGTH - 1) / FILTER_BLOCK_LENGTH).parallel().forEach(block ->
+			{
+				if (!cancelled.getAsBoolean())
+				{
+					int endIndex = Math.min((block + 1) * FILTER_BLOCK_LENGTH, numItems);
+					for (int i = block * FILTER_BLOCK_LENGTH; i < endIndex; i++)
+						accepted[i] = filter.test(items.get(i));
+				}
+			});
+			if (cancelled.getAsBoolean())
+				return null;
+
+			int numAccepted = 0;
+			for (int i = 0; i < numItems; i++)
+			{
+				if (accepted[i])
+					++numAccepted;
+			}
+			indices = new int[numAccepted];
+			int j = 0;
+			for (int i = 0; i < numItems; i++)
+			{
+				if (accepted[i])
+					indices[j++] = i;
+			}
+		}
+
+		// Sort indices by primitive keys ...
+		IndexComparator indexComparator = null;
+		if (sortKeys != null)
+		{
+			// Get arrays of keys, extracting them from items in parallel if they are not in cache
+			int numKeys = sortKeys.size();
+			long[][] keys = new long[numKeys][];
+			boolean[] descending = new boolean[numKeys];
+			for (int i = 0; i < numKeys; i++)
+			{
+				SortKey<E> sortKey = sortKeys.get(i);
+				keys[i] = keyCache.computeIfAbsent(sortKey.function(), function ->
+				{
+					long[] values = new long[numItems];
+					IntStream.range(0, numItems).parallel()
+							.forEach(j -> values[j] = function.applyAsLong(items.get(j)));
+					return values;
+				});
+				descending[i] = sortKey.descending();
+			}
+
+			// Sort indices by single key packed with index, or create comparator of keys
+			if (numKeys == 1)
+			{
+				long[] keys0 = keys[0];
+				if (!sortPacked(indices, keys0, descending[0], numItems))
+				{
+					indexComparator = descending[0] ? (index1, index2) -> Long.compare(keys0[index2], keys0[index1])
+													: (index1, index2) -> Long.compare(keys0[index1], keys0[index2]);
+				}
+			}
+			else
+			{
+				indexComparator = (index1, index2) ->
+				{
+					for (int i = 0; i < numKeys; i++)
+					{
+						int result = Long.compare(keys[i][index1], keys[i][index2]);
+						if (result != 0)
+							return descending[i] ? -result : result;
+					}
+					return 0;
+				};
+			}
+		}
+
+		// ... or by comparator
+		else if (comparator != null)
+			indexComparator = (index1, index2) -> comparator.compare(items.get(index1), items.get(index2));
+
+		// Sort indices
+		if (indexComparator != null)
+		{
+			ForkJoinPool.commonPool().invoke(new SortTask(indexComparator, cancelled, indices, new int[indices.length],
+														  0, indices.length));
+			if (cancelled.getAsBoolean())
+				return null;
+		}
+
+		// Return indices
+		return indices;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Sorts the specified indices by the corresponding values of the specified keys, if the range of the keys is small
+	 * enough for each key, relative to the least key, to be packed with its index into a {@code long}.  The packed
+	 * values are sorted with {@link Arrays#parallelSort(long[])}; because the indices are initially in ascending order
+	 * and the index is in the low bits of a packed value, the sort is stable.
+	 *
+	 * @param  indices
+	 *           the indices that will be sorted, in ascending order.
+	 * @param  keys
+	 *           the keys, indexed by the values of {@code indices}.
+	 * @param  descending
+	 *           if {@code true}, the indices will be sorted in descending order of key.
+	 * @param  numItems
+	 *           the number of items, which is greater than any index.
+	 * @return {@code true} if the indices were sorted; {@code false} if the range of the keys is too large.
+	 */
+
+	private static boolean sortPacked(
+		int[]	indices,
+		long[]	keys,
+		boolean	descending,
+		int		numItems)
+	{
+		// Find range of keys
+		int numIndices = indices.length;
+		long minKey = Long.MAX_VALUE;
+		long maxKey = Long.MIN_VALUE;
+		for (int i = 0; i < numIndices; i++)
+		{
+			long key = keys[indices[i]];
+			if (minKey > key)
+				minKey = key;
+			if (maxKey < key)
+				maxKey = key;
+		}
+
+		// Test whether keys and indices can be packed
+		int indexBits = 64 - Long.numberOfLeadingZeros(Math.max(numItems - 1, 1));
+		long range = maxKey - minKey;
+		if ((numIndices > 0) && ((range < 0) || ((range >>> (63 - indexBits)) != 0)))
+			return false;
+
+		// Pack keys with indices
+		long[] values = new long[numIndices];
+		for (int i = 0; i < numIndices; i++)
+		{
+			int index = indices[i];
+			long key = descending ? maxKey - keys[index] : keys[index] - minKey;
+			values[i] = (key << indexBits) | index;
+		}
+
+		// Sort packed values
+		Arrays.parallelSort(values);
+
+		// Unpack indices
+		long indexMask = (1L << indexBits) - 1;
+		for (int i = 0; i < numIndices; i++)
+			indices[i] = (int)(values[i] & indexMask);
+
+		// Indicate success
+		return true;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods : List interface
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public E get(
+		int	index)
+	{
+		return items.get(permutation[index]);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public int size()
+	{
+		return permutation.length;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the number of items in the base list.
+	 *
+	 * @return the number of items in the base list.
+	 */
+
+	public int getNumItems()
+	{
+		return baseItems.size();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns a modifiable copy of the base list.
+	 *
+	 * @return a modifiable copy of the base list.
+	 */
+
+	public List<E> getItems()
+	{
+		return new ArrayList<>(baseItems);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the index in the base list of the item at the specified index in this list.  If a new base list has
+	 * been set but its permutation has not yet been set, the index is in the previous base list.
+	 *
+	 * @param  index
+	 *           the index of the item in this list.
+	 * @return the index in the base list of the item at {@code index} in this list.
+	 */
+
+	public int getSourceIndex(
+		int	index)
+	{
+		return permutation[index];
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the filter that is applied to the base list.
+	 *
+	 * @return the filter that is applied to the base list, or {@code null} if no filter is applied.
+	 */
+
+	public Predicate<? super E> getFilter()
+	{
+		return filter;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Sets the specified filter on this list.  The filter is applied on a background thread, and may be called
+	 * concurrently from several threads.  This method must be called on the JavaFX application thread.
+	 *
+	 * @param filter
+	 *          the filter that will be applied to the base list.  If it is {@code null}, all items will be included.
+	 */
+
+	public void setFilter(
+		Predicate<? super E>	filter)
+	{
+		this.filter = filter;
+		filterChanged = true;
+		updatePermutation();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the comparator that is applied to the filtered items.
+	 *
+	 * @return the comparator that is applied to the filtered items, or {@code null} if the items are not sorted.
+	 */
+
+	public Comparator<? super E> getComparator()
+	{
+		return comparator;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Sets the specified comparator on this list.  The items are sorted on a background thread, and the comparator may
+	 * be called concurrently from several threads.  This method must be called on the JavaFX application thread.
+	 *
+	 * @param comparator
+	 *          the comparator that will be applied to the filtered items.  If it is {@code null}, the items will be in
+	 *          the order of the base list.
+	 */
+
+	public void setComparator(
+		Comparator<? super E>	comparator)
+	{
+		this.comparator = comparator;
+		sortKeys = null;
+		updatePermutation();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Sets the function that extracts the primitive sort key of the specified column of a table view from an item.
+	 * The order of the keys must be consistent with the comparator of the column.
+	 *
+	 * @param column
+	 *          the column of the table view.
+	 * @param function
+	 *          the function that extracts the sort key of {@code column} from an item.  If it is {@code null}, the
+	 *          column will be sorted by its comparator.
+	 */
+
+	public void setSortKey(
+		TableColumn<E, ?>			column,
+		ToLongFunction<? super E>	function)
+	{
+		if (function == null)
+			keyFunctions.remove(column);
+		else
+			keyFunctions.put(column, function);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the primitive sort keys for the specified sort order of a table view.
+	 *
+	 * @param  sortOrder
+	 *           the sort order of the table view.
+	 * @return the sort keys for {@code sortOrder}, or {@code null} if the sort order is empty or a column of it has no
+	 *         sort key.
+	 */
+
+	private List<SortKey<E>> createSortKeys(
+		List<? extends TableColumnBase<E, ?>>	sortOrder)
+	{
+		if (sortOrder.isEmpty())
+			return null;
+
+		List<SortKey<E>> sortKeys = new ArrayList<>();
+		for (TableColumnBase<E, ?> column : sortOrder)
+		{
+			ToLongFunction<? super E> function = keyFunctions.get(column);
+			if (function == null)
+				return null;
+			boolean descending = (column instanceof TableColumn<E, ?> tableColumn)
+									&& (tableColumn.getSortType() == TableColumn.SortType.DESCENDING);
+			sortKeys.add(new SortKey<>(function, descending));
+		}
+		return sortKeys;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Replaces the base list with the specified items.  The current filter and comparator are applied to the items on
+	 * a background thread, and the result is set on this list on the JavaFX application thread, at which point the
+	 * specified procedure is invoked.  This method must be called on the JavaFX application thread.
+	 *
+	 * @param items
+	 *          the items that will be set on this list.
+	 * @param onUpdated
+	 *          the procedure that will be invoked on the JavaFX application thread when the items have been set on
+	 *          this list.  It replaces the procedure of any previous update that has not yet been invoked.  It may be
+	 *          {@code null}.
+	 */
+
+	public void update(
+		Collection<? extends E>	items,
+		IProcedure0				onUpdated)
+	{
+		// Replace base list
+		baseItems = new ArrayList<>(items);
+		keyCache = new ConcurrentHashMap<>();
+		filterChanged = true;
+		pendingAction = onUpdated;
+
+		// Compute permutation of new base list
+		updatePermutation();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Replaces the base list with the specified items, which are a revision of the current base list, and sets the
+	 * specified filter.  The rows of this list whose items are retained keep their relative order; the rows of the
+	 * items that are removed or that are no longer accepted by the filter are removed; and the items that are new or
+	 * that are newly accepted by the filter are inserted in sorted order.  If few rows change, a single change is fired
+	 * that removes and adds only those rows, so that the selection of a table view is preserved; otherwise, a
+	 * replacement of all the items is fired.
+	 * <p>
+	 * The changes are computed on a background thread, and are set on this list on the JavaFX application thread, at
+	 * which point the specified procedure is invoked.  If the permutation of a previous base list has not yet been
+	 * set, the base list is replaced as if by {@link #update(Collection, IProcedure0)}.  This method must be called on
+	 * the JavaFX application thread.
+	 * </p>
+	 *
+	 * @param items
+	 *          the items that will be set on this list.
+	 * @param newIndices
+	 *          the indices in {@code items} of the items of the current base list, or -1 for an item that has been
+	 *          removed or changed.  The retained items must be in the same relative order in {@code items} as in the
+	 *          current base list.
+	 * @param filter
+	 *          the filter that will be applied to {@code items}.  If it is {@code null}, all items will be included.
+	 * @param onPatched
+	 *          the procedure that will be invoked on the JavaFX application thread when the items have been set on
+	 *          this list.  It replaces the procedure of any previous update that has not yet been invoked.  It may be
+	 *          {@code null}.
+	 */
+
+	public void patch(
+		List<? extends E>		items,
+		int[]					newIndices,
+		Predicate<? super E>	filter,
+		IProcedure0				onPatched)
+	{
+		// If permutation of previous base list is pending, replace base list as a whole
+		this.filter = filter;
+		if (baseItems != this.items)
+		{
+			update(items, onPatched);
+			return;
+		}
+
+		// Cancel any pending update of permutation
+		long gen = generation.incrementAndGet();
+		boolean wasUpdatePending = updatePending;
+		updatePending = true;
+
+		// Replace base list
+		List<E> oldItems = this.items;
+		int[] oldPermutation = permutation;
+		List<E> newItems = new ArrayList<>(items);
+		baseItems = newItems;
+		keyCache = new ConcurrentHashMap<>();
+		pendingAction = onPatched;
+
+		// Compute changes to rows on background thread
+		IndexComparator indexComparator = createIndexComparator(newItems);
+		BooleanSupplier cancelled = () -> gen != generation.get();
+		EXECUTOR.execute(() ->
+		{
+			// Apply filter to new base list
+			int numItems = newItems.size();
+			boolean[] accepted = new boolean[numItems];
+			IntStream.range(0, numItems).parallel()
+					.forEach(i -> accepted[i] = (filter == null) || filter.test(newItems.get(i)));
+			if (cancelled.getAsBoolean())
+				return;
+
+			// Map rows of old permutation to indices of new base list, collecting removed rows
+			boolean[] visible = new boolean[numItems];
+			int[] kept = new int[oldPermutation.length];
+			int[] removedRows = new int[oldPermutation.length];
+			int numKept = 0;
+			int numRemoved = 0;
+			for (int row = 0; row < oldPermutation.length; row++)
+			{
+				int index = newIndices[oldPermutation[row]];
+				if ((index >= 0) && accepted[index])
+				{
+					kept[numKept++] = index;
+					visible[index] = true;
+				}
+				else
+					removedRows[numRemoved++] = row;
+			}
+
+			// Collect accepted items that were not visible, and sort them
+			int[] inserted = IntStream.range(0, numItems).filter(i -> accepted[i] && !visible[i]).toArray();
+			ForkJoinPool.commonPool().invoke(new SortTask(indexComparator, cancelled, inserted,
+														  new int[inserted.length], 0, inserted.length));
+			if (cancelled.getAsBoolean())
+				return;
+
+			// Merge kept and inserted indices, collecting rows of inserted indices
+			int numRows = numKept + inserted.length;
+			int[] newPermutation = new int[numRows];
+			int[] addedRows = new int[inserted.length];
+			int i = 0;
+			int j = 0;
+			for (int row = 0; row < numRows; row++)
+			{
+				if ((j < inserted.length) && ((i >= numKept) || (indexComparator.compare(inserted[j], kept[i]) < 0)))
+				{
+					addedRows[j] = row;
+					newPermutation[row] = inserted[j++];
+				}
+				else
+					newPermutation[row] = kept[i++];
+			}
+			int[] removed = Arrays.copyOf(removedRows, numRemoved);
+			int numChanged = numRemoved + inserted.length;
+
+			// Set changes on JavaFX application thread if they are still current
+			Platform.runLater(() ->
+			{
+				if (gen == generation.get())
+				{
+					// Update instance variables
+					this.items = newItems;
+					permutation = newPermutation;
+					filterChanged = false;
+					updatePending = false;
+
+					// If many rows have changed, fire replacement ...
+					if (numChanged > Math.max(1, (int)(MAX_PATCH_FRACTION * numRows)))
+						fireReplacement(oldItems, oldPermutation);
+
+					// ... otherwise, fire removal and addition of changed rows
+					else if (numChanged > 0)
+					{
+						beginChange();
+						for (int k = removed.length - 1; k >= 0; k--)
+						{
+							int row = removed[k];
+							nextRemove(row, oldItems.get(oldPermutation[row]));
+						}
+						for (int row : addedRows)
+							nextAdd(row, row + 1);
+						endChange();
+					}
+
+					// Invoke pending action
+					invokePendingAction();
+
+					// If a permutation was being computed for a change of comparator, recompute it
+					if (wasUpdatePending)
+						updatePermutation();
+				}
+			});
+		});
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns a comparator of indices of the specified items that orders them by the current primitive sort keys or
+	 * comparator of this list, and then by index.
+	 *
+	 * @param  items
+	 *           the items whose indices will be compared.
+	 * @return a comparator of the indices of {@code items} that is consistent with the order of this list.
+	 */
+
+	private IndexComparator createIndexComparator(
+		List<E>	items)
+	{
+		List<SortKey<E>> sortKeys = this.sortKeys;
+		Comparator<? super E> comparator = this.comparator;
+		return (index1, index2) ->
+		{
+			int result = 0;
+			if (sortKeys != null)
+			{
+				for (SortKey<E> sortKey : sortKeys)
+				{
+					result = Long.compare(sortKey.function().applyAsLong(items.get(index1)),
+										  sortKey.function().applyAsLong(items.get(index2)));
+					if (result != 0)
+					{
+						if (sortKey.descending())
+							result = -result;
+						break;
+					}
+				}
+			}
+			else if (comparator != null)
+				result = comparator.compare(items.get(index1), items.get(index2));
+			return (result == 0) ? Integer.compare(index1, index2) : result;
+		};
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Computes the permutation for the current filter and comparator on a background thread, and sets it on this list
+	 * on the JavaFX application thread if it has not been superseded.
+	 */
+
+	private void updatePermutation()
+	{
+		// Cancel any pending update of permutation
+		long gen = generation.incrementAndGet();
+		updatePending = true;
+
+		// Compute permutation on background thread
+		List<E> items = baseItems;
+		Predicate<? super E> filter = this.filter;
+		Comparator<? super E> comparator = this.comparator;
+		List<SortKey<E>> sortKeys = this.sortKeys;
+		Map<ToLongFunction<? super E>, long[]> keyCache = this.keyCache;
+		EXECUTOR.execute(() ->
+		{
+			// Compute permutation
+			int[] newPermutation = computePermutation(items, filter, comparator, sortKeys, keyCache,
+													  () -> gen != generation.get());
+
+			// Set permutation on JavaFX application thread if it is still current
+			if (newPermutation != null)
+			{
+				Platform.runLater(() ->
+				{
+					if (gen == generation.get())
+					{
+						updatePending = false;
+						setPermutation(items, newPermutation);
+						invokePendingAction();
+					}
+				});
+			}
+		});
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Sets the specified base list and permutation on this list, and fires a single change: a permutation if the set
+	 * of visible items has not changed, or a replacement otherwise.
+	 *
+	 * @param newItems
+	 *          the base list to which {@code newPermutation} applies.
+	 * @param newPermutation
+	 *          the new permutation.
+	 */
+
+	private void setPermutation(
+		List<E>	newItems,
+		int[]	newPermutation)
+	{
+		// Update instance variables
+		List<E> oldItems = items;
+		int[] oldPermutation = permutation;
+		items = newItems;
+		permutation = newPermutation;
+
+		// If set of visible items may have changed, fire replacement ...
+		if (filterChanged || (oldItems != newItems) || (oldPermutation.length != newPermutation.length))
+		{
+			filterChanged = false;
+			fireReplacement(oldItems, oldPermutation);
+		}
+
+		// ... otherwise, fire permutation
+		else if (newPermutation.length > 0)
+		{
+			int[] viewIndices = new int[items.size()];
+			for (int i = 0; i < newPermutation.length; i++)
+				viewIndices[newPermutation[i]] = i;
+			int[] changes = new int[oldPermutation.length];
+			for (int i = 0; i < oldPermutation.length; i++)
+				changes[i] = viewIndices[oldPermutation[i]];
+
+			beginChange();
+			nextPermutation(0, changes.length, changes);
+			endChange();
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Invokes the procedure that is pending for the most recent base list, if there is one.
+	 */
+
+	private void invokePendingAction()
+	{
+		IProcedure0 action = pendingAction;
+		if (action != null)
+		{
+			pendingAction = null;
+			action.invoke();
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Fires a change that replaces all the items of this list.  The removed items are represented by a view of the
+	 * specified base list and permutation, so they are not copied.
+	 *
+	 * @param oldItems
+	 *          the base list before the change.
+	 * @param oldPermutation
+	 *          the permutation before the change.
+	 */
+
+	private void fireReplacement(
+		List<E>	oldItems,
+		int[]	oldPermutation)
+	{
+		if ((oldPermutation.length > 0) || (permutation.length > 0))
+		{
+			List<E> removed = new AbstractList<>()
+			{
+				@Override
+				public E get(
+					int	index)
+				{
+					return oldItems.get(oldPermutation[index]);
+				}
+
+				@Override
+				public int size()
+				{
+					return oldPermutation.length;
+				}
+			};
+
+			beginChange();
+			nextReplace(0, permutation.length, removed);
+			endChange();
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Member interfaces
+////////////////////////////////////////////////////////////////////////
+
+
+	// INTERFACE: COMPARATOR OF INDICES OF ITEMS
+
+
+	@FunctionalInterface
+	private interface IndexComparator
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Methods
+	////////////////////////////////////////////////////////////////////
+
+		int compare(
+			int	index1,
+			int	index2);
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: PRIMITIVE SORT KEY
+
+
+	/**
+	 * This record encapsulates a primitive key by which items are sorted.
+	 *
+	 * @param function
+	 *          the function that extracts the key from an item.
+	 * @param descending
+	 *          if {@code true}, items are sorted in descending order of the key.
+	 */
+
+	private record SortKey<E>(
+		ToLongFunction<? super E>	function,
+		boolean						descending)
+	{ }
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member classes : non-inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: TASK THAT SORTS INDICES OF ITEMS
+
+
+	/**
+	 * This class implements a stable merge sort of a range of indices of items, in which the two halves of a range
+	 * that is longer than {@link #SORT_BLOCK_LENGTH} are sorted in parallel before they are merged.
+	 */
+
+	private static class SortTask
+		extends RecursiveAction
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		private	IndexComparator	comparator;
+		private	BooleanSupplier	cancelled;
+		private	int[]			indices;
+		private	int[]			buffer;
+		private	int				startIndex;
+		private	int				endIndex;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private SortTask(
+			IndexComparator	comparator,
+			BooleanSupplier	cancelled,
+			int[]			indices,
+			int[]			buffer,
+			int				startIndex,
+			int				endIndex)
+		{
+			// Initialise instance variables
+			this.comparator = comparator;
+			this.cancelled = cancelled;
+			this.indices = indices;
+			this.buffer = buffer;
+			this.startIndex = startIndex;
+			this.endIndex = endIndex;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : overriding methods
+	////////////////////////////////////////////////////////////////////
+
+		@Override
+		protected void compute()
+		{
+			// Stop if sort has been cancelled
+			if (cancelled.getAsBoolean())
+				return;
+
+			// Sort short range sequentially
+			if (endIndex - startIndex <= SORT_BLOCK_LENGTH)
+			{
+				sort(startIndex, endIndex);
+				return;
+			}
+
+			// Sort halves of range in parallel, then merge them
+			int midIndex = (startIndex + endIndex) >>> 1;
+			invokeAll(new SortTask(comparator, cancelled, indices, buffer, startIndex, midIndex),
+					  new SortTask(comparator, cancelled, indices, buffer, midIndex, endIndex));
+			merge(startIndex, midIndex, endIndex);
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		private int compare(
+			int	index1,
+			int	index2)
+		{
+			return comparator.compare(index1, index2);
+		}
+
+		//--------------------------------------------------------------
+
+		private void sort(
+			int	start,
+			int	end)
+		{
+			// Sort short range by insertion
+			if (end - start <= INSERTION_SORT_LENGTH)
+			{
+				for (int i = start + 1; i < end; i++)
+				{
+					int index = indices[i];
+					int j = i;
+					while ((j > start) && (compare(indices[j - 1], index) > 0))
+					{
+						indices[j] = indices[j - 1];
+						--j;
+					}
+					indices[j] = index;
+				}
+				return;
+			}
+
+			// Sort halves of range, then merge them
+			int mid = (start + end) >>> 1;
+			sort(start, mid);
+			sort(mid, end);
+			merge(start, mid, end);
+		}
+
+		//--------------------------------------------------------------
+
+		private void merge(
+			int	start,
+			int	mid,
+			int	end)
+		{
+			// Stop if halves are already in order
+			if (compare(indices[mid - 1], indices[mid]) <= 0)
+				return;
+
+			// Merge halves into buffer, preferring the first half for equal items
+			int i = start;
+			int j = mid;
+			int k = start;
+			while ((i < mid) && (j < end))
+				buffer[k++] = (compare(indices[j], indices[i]) < 0) ? indices[j++] : indices[i++];
+			while (i < mid)
+				buffer[k++] = indices[i++];
+			while (j < end)
+				buffer[k++] = indices[j++];
+
+			// Copy merged range back to indices
+			System.arraycopy(buffer, start, indices, start, end - start);
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
@@ -20,6 +20,7 @@ package uk.blankaspect.unzip;
 
 import java.lang.invoke.MethodHandles;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 import java.util.ArrayList;
@@ -46,6 +47,8 @@ import javafx.beans.property.SimpleSetProperty;
 
 import javafx.collections.FXCollections;
 
+import javafx.concurrent.Task;
+
 import javafx.geometry.Bounds;
 import javafx.geometry.Dimension2D;
 import javafx.geometry.HPos;
@@ -60,6 +63,7 @@ import javafx.scene.Node;
 
 import javafx.scene.control.Button;
 import javafx.scene.control.ContentDisplay;
+import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
@@ -135,6 +139,7 @@ import uk.blankaspect.ui.jfx.dialog.DialogState;
 import uk.blankaspect.ui.jfx.dialog.ErrorDialog;
 import uk.blankaspect.ui.jfx.dialog.NotificationDialog;
 import uk.blankaspect.ui.jfx.dialog.SimpleModalDialog;
+import uk.blankaspect.ui.jfx.dialog.SimpleProgressDialog;
 
 import uk.blankaspect.ui.jfx.font.FontUtils;
 
@@ -210,7 +215,10 @@ public class ComparisonDialog
 	private static final	String	COMPARE_WITH_FILE_STR		= "Compare current file with chosen file";
 	private static final	String	COMPARE_FILES_STR			= "Compare files";
 	private static final	String	CHOOSE_FILE_STR				= "Choose file for comparison";
-	private static final	String	FILE_STR					= "File";
+	private static final	String	CHOOSE_DIRECTORY_STR		= "Choose directory for comparison";
+	private static final	String	FILE_STR					= "File or directory";
+	private static final	String	DIRECTORY_STR				= "Directory";
+	private static final	String	ELLIPSIS_STR				= "...";
 	private static final	String	PARAM_SET_STR				= "Parameter set";
 	private static final	String	SHOW_LIST_STR				= "Show list (Ctrl+Space in field)";
 	private static final	String	ADD_PARAM_SET_STR			= "Add parameter set to list";
@@ -227,6 +235,9 @@ public class ComparisonDialog
 	private static final	String	REMOVE_FILTER_QUESTION_STR	= "Do you want to remove the selected %s?";
 	private static final	String	FIELDS_STR					= "Fields";
 	private static final	String	COMPARE_STR					= "Compare";
+	private static final	String	MATRIX_STR					= "Matrix";
+	private static final	String	COMPARE_MATRIX_STR			= "Compare current file with several chosen files";
+	private static final	String	CHOOSE_FILES_STR			= "Choose files for comparison";
 	private static final	String	NO_DIFFERENCES_STR			= """
 		There are no differences between the selected fields
 		of the zip entries.""";
@@ -466,7 +477,7 @@ public class ComparisonDialog
 		// Pathname field: comparand file
 		PathnameField comparandFileField = new PathnameField();
 		comparandFileField.setShowInvalidPathnameError(true);
-		comparandFileField.setLocationMatcher(matcher::matches);
+		comparandFileField.setLocationMatcher(location -> Files.isDirectory(location) || matcher.matches(location));
 
 		// Pathname pane: comparand file
 		PathnamePane comparandFilePane = new PathnamePane(comparandFileField, true, event ->
@@ -488,6 +499,31 @@ public class ComparisonDialog
 			}
 		});
 		TooltipDecorator.addTooltip(comparandFilePane.getButton(), CHOOSE_FILE_STR);
+
+		// Create directory chooser: comparand directory
+		LocationChooser comparandDirectoryChooser = LocationChooser.forDirectories();
+		comparandDirectoryChooser.setDialogTitle(CHOOSE_DIRECTORY_STR);
+		comparandDirectoryChooser.setDialogStateKey();
+
+		// Create button: choose comparand directory
+		Button chooseDirectoryButton = Buttons.hNoShrink(DIRECTORY_STR + ELLIPSIS_STR);
+		chooseDirectoryButton.setOnAction(event ->
+		{
+			// Set initial directory of directory chooser
+			Path directory = comparandFileField.getLocation();
+			if ((directory == null) || !Files.isDirectory(directory))
+				directory = state.directory;
+			comparandDirectoryChooser.initDirectory(directory, DEFAULT_DIRECTORY);
+
+			// Display directory chooser
+			directory = comparandDirectoryChooser.showSelectDialog(this);
+
+			// Update pathname field
+			if (directory != null)
+				comparandFileField.setLocation(directory);
+		});
+		TooltipDecorator.addTooltip(chooseDirectoryButton, CHOOSE_DIRECTORY_STR);
+		comparandFilePane.getChildren().add(chooseDirectoryButton);
 		controlPane.addRow(row++, new Label(FILE_STR), comparandFilePane);
 
 		// Create function to return a named parameter set from UI components
@@ -570,7 +606,7 @@ public class ComparisonDialog
 			if (!StringUtils.isNullOrBlank(name))
 			{
 				// Ask whether to save directory
-				Boolean save = Utils.askSaveBeyondSession(this, ADD_PARAM_SET_STR, PARAM_SET_STR.toLowerCase());
+				Boolean save = UiUtils.askSaveBeyondSession(this, ADD_PARAM_SET_STR, PARAM_SET_STR.toLowerCase());
 
 				// If not cancelled, add filter to list
 				if (save != null)
@@ -731,38 +767,147 @@ public class ComparisonDialog
 		compareButton.getProperties().put(BUTTON_GROUP_KEY, BUTTON_GROUP1);
 		compareButton.setOnAction(event ->
 		{
-			// Test for file
+			// Test for file or directory
 			Path file = comparandFileField.getLocation();
-			if (!IOUtils.isExistingFile(file, this, COMPARE_FILES_STR))
+			if (!Files.isDirectory(file) && !IOUtils.isExistingFile(file, this, COMPARE_FILES_STR))
 				return;
 
-			// Compare filtered zip entries of files and report result
-			try
+			// Create task to compare filtered zip entries of files
+			ComparisonParams paramSet = createParamSet.invoke(false);
+			Task<List<ZipFileComparison.Difference>> task = new AbstractTask<>()
 			{
-				// Get differences between filtered zip entries
-				ComparisonParams paramSet = createParamSet.invoke(false);
-				List<ZipFileComparison.Difference> differences =
-						ZipFileComparison.compare(zipFile, file, paramSet.getFilters(), paramSet.getFields());
+				{
+					// Initialise task
+					updateTitle(COMPARE_FILES_STR);
+					updateMessage(file.toString());
+				}
 
-				// Report result
-				if (differences.isEmpty())
+				@Override
+				protected List<ZipFileComparison.Difference> call()
+					throws Exception
 				{
-					NotificationDialog.show(this, COMPARE_FILES_STR, MessageIcon32.INFORMATION.get(),
-											NO_DIFFERENCES_STR);
+					// Get differences between filtered zip entries
+					List<ZipFileComparison.Difference> differences =
+							ZipFileComparison.compare(zipFile, file, paramSet.getFilters(), paramSet.getFields(),
+													  UnzipApp.instance().getCrcCache());
+
+					// If task has been cancelled, change state to 'cancelled'
+					hardCancel(false);
+
+					// Return differences
+					return differences;
 				}
-				else
-					new ResultDialog(this, differences).showDialog();
-			}
-			catch (BaseException e)
-			{
-				ErrorDialog.show(this, COMPARE_FILES_STR, e);
-			}
+
+				@Override
+				protected void succeeded()
+				{
+					// Report result
+					List<ZipFileComparison.Difference> differences = getValue();
+					if (differences.isEmpty())
+					{
+						NotificationDialog.show(ComparisonDialog.this, COMPARE_FILES_STR,
+												MessageIcon32.INFORMATION.get(), NO_DIFFERENCES_STR);
+					}
+					else
+						new ResultDialog(ComparisonDialog.this, differences).showDialog();
+				}
+
+				@Override
+				protected void failed()
+				{
+					// Display error message in dialog
+					showErrorMessage(ComparisonDialog.this);
+				}
+			};
+
+			// Show progress of task in dialog
+			new SimpleProgressDialog(this, task, SimpleProgressDialog.CancelMode.NO_INTERRUPT);
+
+			// Execute task on background thread
+			UnzipApp.executeTask(task);
 		});
 		addButton(compareButton, HPos.LEFT);
 
-		// Create procedure to update 'compare' button
+		// Create file chooser: comparand files of matrix
+		LocationChooser matrixFileChooser = LocationChooser.forFiles();
+		matrixFileChooser.setDialogTitle(CHOOSE_FILES_STR);
+		matrixFileChooser.setDialogStateKey();
+		matrixFileChooser.addFilters(matcher, FileMatcher.ANY_FILE);
+		matrixFileChooser.setInitialFilter(0);
+
+		// Create button: matrix
+		Button matrixButton = Buttons.hNoShrink(MATRIX_STR + ELLIPSIS_STR);
+		matrixButton.getProperties().put(BUTTON_GROUP_KEY, BUTTON_GROUP1);
+		matrixButton.setOnAction(event ->
+		{
+			// Display file chooser
+			matrixFileChooser.initDirectory(state.directory, DEFAULT_DIRECTORY);
+			List<Path> files = matrixFileChooser.showSelectMultipleDialog(this);
+			if ((files == null) || files.isEmpty())
+				return;
+
+			// Update state
+			state.directory = PathUtils.absParent(files.get(0));
+
+			// Create list of locations; the current file is the first location
+			List<Path> locations = new ArrayList<>();
+			locations.add(zipFile.getLocation());
+			locations.addAll(files);
+
+			// Create task to compare filtered zip entries of each pair of files
+			ComparisonParams paramSet = createParamSet.invoke(false);
+			Task<ComparisonMatrix> task = new AbstractTask<>()
+			{
+				{
+					// Initialise task
+					updateTitle(COMPARE_MATRIX_STR);
+				}
+
+				@Override
+				protected ComparisonMatrix call()
+					throws Exception
+				{
+					// Compare filtered zip entries of each pair of files
+					ComparisonMatrix matrix = ComparisonMatrix.compare(zipFile, locations, paramSet.getFilters(),
+																	   paramSet.getFields(), createTaskStatus());
+
+					// If task has been cancelled, change state to 'cancelled'
+					hardCancel(false);
+
+					// Return result
+					return matrix;
+				}
+
+				@Override
+				protected void succeeded()
+				{
+					// Report result
+					new MatrixResultDialog(ComparisonDialog.this, getValue()).showDialog();
+				}
+
+				@Override
+				protected void failed()
+				{
+					// Display error message in dialog
+					showErrorMessage(ComparisonDialog.this);
+				}
+			};
+
+			// Show progress of task in dialog
+			new SimpleProgressDialog(this, task, SimpleProgressDialog.CancelMode.NO_INTERRUPT);
+
+			// Execute task on background thread
+			UnzipApp.executeTask(task);
+		});
+		TooltipDecorator.addTooltip(matrixButton, COMPARE_MATRIX_STR);
+		addButton(matrixButton, HPos.LEFT);
+
+		// Create procedure to update 'compare' and 'matrix' buttons
 		IProcedure0 updateCompareButton = () ->
-				compareButton.setDisable((comparandFileField.getLocation() == null) || selectedFields.isEmpty());
+		{
+			compareButton.setDisable((comparandFileField.getLocation() == null) || selectedFields.isEmpty());
+			matrixButton.setDisable(selectedFields.isEmpty());
+		};
 
 		// Update 'compare' button when text of comparand file field changes
 		comparandFileField.textProperty().addListener(observable -> updateCompareButton.invoke());
@@ -1956,12 +2101,15 @@ public class ComparisonDialog
 		private static final	String	DIFFS_STR					= "Diffs";
 		private static final	String	DIFFERENCES_STR				= "Differences";
 		private static final	String	PATHNAME_STR				= "Pathname";
+		private static final	String	CONTENT_STR					= "Content";
 		private static final	String	COPY_STR					= "Copy";
+		private static final	String	MOVED_SEPARATOR				= " \u2192 ";
 
 		private interface ColumnId
 		{
 			String	DIFFS		= "diffs";
 			String	PATHNAME	= "pathname";
+			String	CONTENT		= "content";
 		}
 
 	////////////////////////////////////////////////////////////////////
@@ -1987,9 +2135,14 @@ public class ComparisonDialog
 			// Set style class on root node of scene graph
 			getScene().getRoot().getStyleClass().add(StyleClass.RESULT_DIALOG_ROOT);
 
+			// Create list of columns; include 'content' column if contents of entries were compared
+			List<SimpleTableView.IColumn<ZipFileComparison.Difference, ?>> columns =
+					new ArrayList<>(List.of(diffsColumn(), pathnameColumn()));
+			if (differences.stream().anyMatch(difference -> difference.contentDiff() != null))
+				columns.add(contentColumn());
+
 			// Create table view
-			SimpleTableView<ZipFileComparison.Difference> tableView =
-					new SimpleTableView<>(List.of(diffsColumn(), pathnameColumn()));
+			SimpleTableView<ZipFileComparison.Difference> tableView = new SimpleTableView<>(columns);
 			tableView.setPrefHeight(TABLE_VIEW_HEIGHT);
 			tableView.setItems(differences);
 
@@ -2013,7 +2166,12 @@ public class ComparisonDialog
 				{
 					buffer.append(ZipFileComparison.DiffKind.diffKindsToString(difference.diffKinds()));
 					buffer.append(" : ");
-					buffer.append(difference.pathname());
+					buffer.append(pathnameText(difference));
+					if (difference.contentDiff() != null)
+					{
+						buffer.append(" : ");
+						buffer.append(difference.contentDiff().getSummary());
+					}
 					buffer.append('\n');
 				}
 
@@ -2146,6 +2304,15 @@ public class ComparisonDialog
 
 		//--------------------------------------------------------------
 
+		private static String pathnameText(
+			ZipFileComparison.Difference	difference)
+		{
+			return (difference.movedFrom() == null) ? difference.pathname()
+													: difference.movedFrom() + MOVED_SEPARATOR + difference.pathname();
+		}
+
+		//--------------------------------------------------------------
+
 		private static SimpleTableView.IColumn<ZipFileComparison.Difference, String> pathnameColumn()
 		{
 			return new SimpleTableView.IColumn<>()
@@ -2181,6 +2348,263 @@ public class ComparisonDialog
 				@Override
 				public String getValue(
 					ZipFileComparison.Difference	item)
+				{
+					return pathnameText(item);
+				}
+
+				@Override
+				public String getText(
+					String	pathname)
+				{
+					return pathname;
+				}
+			};
+		}
+
+		//--------------------------------------------------------------
+
+		private static SimpleTableView.IColumn<ZipFileComparison.Difference, ContentDiff> contentColumn()
+		{
+			return new SimpleTableView.IColumn<>()
+			{
+				@Override
+				public String getId()
+				{
+					return ColumnId.CONTENT;
+				}
+
+				@Override
+				public String getTitle()
+				{
+					return CONTENT_STR;
+				}
+
+				@Override
+				public double getPrefWidth()
+				{
+					return TextUtils.textHeightCeil(20.0);
+				}
+
+				@Override
+				public TableColumn<ZipFileComparison.Difference, ContentDiff> createColumn(
+					SimpleTableView<ZipFileComparison.Difference>	tableView)
+				{
+					TableColumn<ZipFileComparison.Difference, ContentDiff> column =
+							SimpleTableView.IColumn.super.createColumn(tableView);
+					column.setComparator(Comparator.nullsFirst(Comparator.comparingLong(ContentDiff::getOffset)));
+					return column;
+				}
+
+				@Override
+				public ContentDiff getValue(
+					ZipFileComparison.Difference	item)
+				{
+					return item.contentDiff();
+				}
+
+				@Override
+				public String getText(
+					ContentDiff	contentDiff)
+				{
+					return (contentDiff == null) ? null : contentDiff.getSummary();
+				}
+			};
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+
+	// CLASS: MATRIX RESULT DIALOG
+
+
+	private static class MatrixResultDialog
+		extends SimpleModalDialog<Void>
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Constants
+	////////////////////////////////////////////////////////////////////
+
+		private static final	double	TABLE_VIEW_HEIGHT	= 360.0;
+
+		private static final	Insets	CONTENT_PANE_PADDING	= new Insets(2.0, 2.0, 0.0, 2.0);
+
+		private static final	FileMatcher	JSON_FILE_MATCHER	= new FileMatcher("JSON files", ".json");
+
+		private static final	String	COMPARISON_MATRIX_STR	= "Comparison matrix";
+		private static final	String	PATHNAME_STR			= "Pathname";
+		private static final	String	EXPORT_STR				= "Export";
+		private static final	String	EXPORT_MATRIX_STR		= "Export comparison matrix";
+		private static final	String	DIFFERENCES_STR			= "Differences";
+		private static final	String	PAIR_STR				= "%s \u2194 %s (%d)";
+
+		private interface ColumnId
+		{
+			String	PATHNAME	= "pathname";
+			String	CRC			= "crc";
+		}
+
+	////////////////////////////////////////////////////////////////////
+	//  Class variables
+	////////////////////////////////////////////////////////////////////
+
+		private static	LocationChooser	exportFileChooser;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private MatrixResultDialog(
+			Window				owner,
+			ComparisonMatrix	matrix)
+		{
+			// Call superclass constructor
+			super(owner, MethodHandles.lookup().lookupClass().getCanonicalName(), COMPARISON_MATRIX_STR);
+
+			// Set properties
+			setResizable(true);
+
+			// Set style class on root node of scene graph
+			getScene().getRoot().getStyleClass().add(StyleClass.RESULT_DIALOG_ROOT);
+
+			// Create list of columns: a column for pathnames and a column of CRCs for each file
+			List<SimpleTableView.IColumn<ComparisonMatrix.Row, ?>> columns = new ArrayList<>();
+			columns.add(pathnameColumn());
+			List<Path> locations = matrix.getLocations();
+			for (int i = 0; i < locations.size(); i++)
+				columns.add(crcColumn(i, locations.get(i)));
+
+			// Create table view
+			SimpleTableView<ComparisonMatrix.Row> tableView = new SimpleTableView<>(columns);
+			tableView.setPrefHeight(TABLE_VIEW_HEIGHT);
+			tableView.setItems(matrix.getRows());
+
+			// Add table view to content
+			addContent(tableView);
+
+			// Adjust padding around content pane
+			getContentPane().setPadding(CONTENT_PANE_PADDING);
+
+			// Remove border from content pane
+			StyleUtils.setProperty(getContentPane(), FxProperty.BORDER_WIDTH.getName(), "0");
+
+			// Create button: export
+			Button exportButton = Buttons.hNoShrink(EXPORT_STR + ELLIPSIS_STR);
+			exportButton.getProperties().put(BUTTON_GROUP_KEY, BUTTON_GROUP1);
+			exportButton.setOnAction(event ->
+			{
+				// Create file chooser
+				if (exportFileChooser == null)
+				{
+					exportFileChooser = LocationChooser.forFiles();
+					exportFileChooser.setDialogTitle(EXPORT_MATRIX_STR);
+					exportFileChooser.setDialogStateKey();
+					exportFileChooser.addFilters(JSON_FILE_MATCHER, FileMatcher.ANY_FILE);
+					exportFileChooser.setInitialFilter(0);
+				}
+
+				// Display file chooser
+				exportFileChooser.initDirectory(state.directory, DEFAULT_DIRECTORY);
+				Path file = exportFileChooser.showSaveDialog(this);
+				if (file == null)
+					return;
+
+				// Write matrix to file
+				try
+				{
+					matrix.write(exportFileChooser.appendFilenameSuffix(file));
+				}
+				catch (BaseException e)
+				{
+					ErrorDialog.show(this, EXPORT_MATRIX_STR, e);
+				}
+			});
+			addButton(exportButton, HPos.LEFT);
+
+			// Create button: differences between a pair of files
+			Button differencesButton = Buttons.hNoShrink(DIFFERENCES_STR + ELLIPSIS_STR);
+			differencesButton.getProperties().put(BUTTON_GROUP_KEY, BUTTON_GROUP1);
+			differencesButton.setOnAction(event ->
+			{
+				// Create context menu with an item for each pair of files
+				ContextMenu menu = new ContextMenu();
+				for (ComparisonMatrix.PairDifferences pair : matrix.getPairs())
+				{
+					// Create menu item
+					List<ZipFileComparison.Difference> differences = pair.differences();
+					MenuItem menuItem = new MenuItem(String.format(PAIR_STR,
+																   locations.get(pair.index1()).getFileName(),
+																   locations.get(pair.index2()).getFileName(),
+																   differences.size()));
+					menuItem.setDisable(differences.isEmpty());
+
+					// Display differences between pair of files
+					menuItem.setOnAction(event0 -> new ResultDialog(this, differences).showDialog());
+
+					// Add menu item to context menu
+					menu.getItems().add(menuItem);
+				}
+
+				// Display context menu
+				menu.show(differencesButton, Side.TOP, 0.0, 0.0);
+			});
+			addButton(differencesButton, HPos.LEFT);
+
+			// Create button: close
+			Button closeButton = Buttons.hNoShrink(CLOSE_STR);
+			closeButton.getProperties().put(BUTTON_GROUP_KEY, BUTTON_GROUP1);
+			closeButton.setOnAction(event -> requestClose());
+			addButton(closeButton, HPos.RIGHT);
+
+			// Fire 'close' button if Escape key is pressed
+			setKeyFireButton(closeButton, null);
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Class methods
+	////////////////////////////////////////////////////////////////////
+
+		private static SimpleTableView.IColumn<ComparisonMatrix.Row, String> pathnameColumn()
+		{
+			return new SimpleTableView.IColumn<>()
+			{
+				@Override
+				public String getId()
+				{
+					return ColumnId.PATHNAME;
+				}
+
+				@Override
+				public String getTitle()
+				{
+					return PATHNAME_STR;
+				}
+
+				@Override
+				public double getPrefWidth()
+				{
+					return TextUtils.textHeightCeil(32.0);
+				}
+
+				@Override
+				public TableColumn<ComparisonMatrix.Row, String> createColumn(
+					SimpleTableView<ComparisonMatrix.Row>	tableView)
+				{
+					TableColumn<ComparisonMatrix.Row, String> column =
+							SimpleTableView.IColumn.super.createColumn(tableView);
+					column.setComparator(ZipFileEntry.DIRECTORY_FILENAME_PATHNAME_COMPARATOR);
+					return column;
+				}
+
+				@Override
+				public String getValue(
+					ComparisonMatrix.Row	item)
 				{
 					return item.pathname();
 				}
@@ -2196,6 +2620,60 @@ public class ComparisonDialog
 
 		//--------------------------------------------------------------
 
+		private static SimpleTableView.IColumn<ComparisonMatrix.Row, Long> crcColumn(
+			int		index,
+			Path	location)
+		{
+			return new SimpleTableView.IColumn<>()
+			{
+				@Override
+				public String getId()
+				{
+					return ColumnId.CRC + index;
+				}
+
+				@Override
+				public String getTitle()
+				{
+					return location.getFileName().toString();
+				}
+
+				@Override
+				public String getLongTitle()
+				{
+					return PathUtils.absString(location);
+				}
+
+				@Override
+				public HPos getHAlignment()
+				{
+					return HPos.CENTER;
+				}
+
+				@Override
+				public double getPrefWidth()
+				{
+					return TextUtils.textHeightCeil(6.0);
+				}
+
+				@Override
+				public Long getValue(
+					ComparisonMatrix.Row	item)
+				{
+					return item.isPresent(index) ? item.crcs()[index] : null;
+				}
+
+				@Override
+				public String getText(
+					Long	crc)
+				{
+					return (crc == null) ? null : Utils.crcToString(crc);
+				}
+			};
+		}
+
+		//--------------------------------------------------------------
+
 	}
 
 	//==================================================================
@@ -0,0 +1,688 @@
+/*====================================================================*\
+
+ComparisonMatrix.java
+
+Class: pairwise comparison of several zip files.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.unzip;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.IOException;
+
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import java.util.stream.IntStream;
+
+import java.util.zip.ZipEntry;
+
+import uk.blankaspect.common.basictree.ListNode;
+import uk.blankaspect.common.basictree.MapNode;
+
+import uk.blankaspect.common.exception2.BaseException;
+import uk.blankaspect.common.exception2.FileException;
+
+import uk.blankaspect.common.filesystem.PathUtils;
+
+import uk.blankaspect.common.json.JsonGenerator;
+import uk.blankaspect.common.json.JsonUtils;
+
+import uk.blankaspect.common.namefilter.LocationFilter;
+import uk.blankaspect.common.namefilter.LocationFilterSet;
+
+import uk.blankaspect.common.task.ITaskStatus;
+
+import uk.blankaspect.common.zip.InputZipFile;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: PAIRWISE COMPARISON OF SEVERAL ZIP FILES
+
+
+/**
+ * This class implements a pairwise comparison of several zip files.  The central directory of each zip file is read
+ * once into an index of its filtered entries, and the differences between every pair of indices are then computed in
+ * parallel.  The result also includes a grid that shows, for each pathname that occurs in any of the zip files, the CRC
+ * of the corresponding entry of each zip file.
+ * <p>
+ * The comparison of the contents of entries ({@link ZipFileComparison.Field#CONTENT}) is not supported by a matrix
+ * comparison and is ignored.  Filters are applied to pathnames with the matchers of the default file system.
+ * </p>
+ */
+
+public class ComparisonMatrix
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** Keys of properties. */
+	private interface PropertyKey
+	{
+		String	CRCS			= "crcs";
+		String	DIFFERENCES		= "differences";
+		String	ENTRIES			= "entries";
+		String	FIELDS			= "fields";
+		String	FILE1			= "file1";
+		String	FILE2			= "file2";
+		String	FILES			= "files";
+		String	KINDS			= "kinds";
+		String	PAIRS			= "pairs";
+		String	PATHNAME		= "pathname";
+	}
+
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	ERROR_WRITING_FILE =
+				"An error occurred when writing the file.";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The locations of the zip files. */
+	private	List<Path>					locations;
+
+	/** The fields that were compared. */
+	private	Set<ZipFileComparison.Field>	fields;
+
+	/** The rows of the grid of CRCs. */
+	private	List<Row>					rows;
+
+	/** The differences between each pair of zip files. */
+	private	List<PairDifferences>		pairs;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	private ComparisonMatrix(
+		List<Path>						locations,
+		Set<ZipFileComparison.Field>	fields)
+	{
+		// Initialise instance variables
+		this.locations = List.copyOf(locations);
+		this.fields = fields.isEmpty() ? EnumSet.noneOf(ZipFileComparison.Field.class) : EnumSet.copyOf(fields);
+		this.fields.remove(ZipFileComparison.Field.CONTENT);
+		rows = new ArrayList<>();
+		pairs = new ArrayList<>();
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Compares each pair of the specified zip files and returns the result.
+	 *
+	 * @param  zipFile
+	 *           the model of the first zip file, whose entries will be used instead of reading the file again, or
+	 *           {@code null} if the first zip file should be read.
+	 * @param  locations
+	 *           the locations of the zip files, the first of which is the location of {@code zipFile} if it is not
+	 *           {@code null}.
+	 * @param  filters
+	 *           the filters that will be applied to the pathnames of entries.
+	 * @param  fields
+	 *           the fields that will be compared.
+	 * @param  taskStatus
+	 *           the status of the task that performs the comparison, whose progress is updated as each zip file is read
+	 *           and each pair of zip files is compared.
+	 * @return the result of the comparison.
+	 * @throws BaseException
+	 *           if an error occurs when reading one of the zip files.
+	 */
+
+	public static ComparisonMatrix compare(
+		ZipFileModel					zipFile,
+		List<Path>						locations,
+		List<LocationFilter>			filters,
+		Set<ZipFileComparison.Field>	fields,
+		ITaskStatus						taskStatus)
+		throws BaseException
+	{
+		// Create result
+		ComparisonMatrix matrix = new ComparisonMatrix(locations, fields);
+
+		// Update matchers of location filters
+		FileSystem fileSystem = FileSystems.getDefault();
+		for (LocationFilter filter : filters)
+			filter.updateMatcher(fileSystem);
+		LocationFilterSet filterSet = new LocationFilterSet(filters);
+
+		// Initialise progress; each zip file that is read and each pair of zip files that is compared is one step
+		int numFiles = locations.size();
+		int numSteps = numFiles + numFiles * (numFiles - 1) / 2;
+		AtomicInteger stepIndex = new AtomicInteger();
+		taskStatus.setProgress(0.0);
+
+		// Read indices of zip files in parallel
+		Index[] indices = new Index[numFiles];
+		try
+		{
+			IntStream.range(0, numFiles).parallel().forEach(i ->
+			{
+				try
+				{
+					indices[i] = ((i == 0) && (zipFile != null)) ? Index.of(zipFile, filterSet, fileSystem)
+																 : Index.read(locations.get(i), filterSet, fileSystem);
+					taskStatus.setProgress((double)stepIndex.incrementAndGet() / (double)numSteps);
+				}
+				catch (BaseException e)
+				{
+					throw new RuntimeException(e);
+				}
+			});
+		}
+		catch (RuntimeException e)
+		{
+			BaseException.throwCause(e);
+			throw e;
+		}
+
+		// Create grid of CRCs
+		matrix.createRows(indices);
+
+		// Compute differences between each pair of indices in parallel
+		List<int[]> indexPairs = new ArrayList<>();
+		for (int i = 0; i < numFiles - 1; i++)
+		{
+			for (int j = i + 1; j < numFiles; j++)
+				indexPairs.add(new int[] { i, j });
+		}
+		matrix.pairs.addAll(indexPairs.parallelStream()
+				.map(pair ->
+				{
+					PairDifferences differences =
+							new PairDifferences(pair[0], pair[1],
+												compare(indices[pair[0]], indices[pair[1]], matrix.fields));
+					taskStatus.setProgress((double)stepIndex.incrementAndGet() / (double)numSteps);
+					return differences;
+				})
+				.toList());
+
+		// Return result
+		return matrix;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Compares the specified indices by merging their sorted pathnames, and returns a list of the differences between
+	 * them.
+	 *
+	 * @param  index1
+	 *           the first index.
+	 * @param  index2
+	 *           the second index.
+	 * @param  fields
+	 *           the fields that will be compared.
+	 * @return a list of the differences between {@code index1} and {@code index2}.
+	 */
+
+	private static List<ZipFileComparison.Difference> compare(
+		Index							index1,
+		Index							index2,
+		Set<ZipFileComparison.Field>	fields)
+	{
+		List<ZipFileComparison.Difference> differences = new ArrayList<>();
+		int i1 = 0;
+		int i2 = 0;
+		while ((i1 < index1.pathnames.length) || (i2 < index2.pathnames.length))
+		{
+			int result = (i1 >= index1.pathnames.length)
+								? 1
+								: (i2 >= index2.pathnames.length)
+										? -1
+										: index1.pathnames[i1].compareTo(index2.pathnames[i2]);
+			if (result < 0)
+			{
+				differences.add(new ZipFileComparison.Difference(EnumSet.of(ZipFileComparison.DiffKind.FILE1_ONLY),
+																 index1.pathnames[i1++]));
+			}
+			else if (result > 0)
+			{
+				differences.add(new ZipFileComparison.Difference(EnumSet.of(ZipFileComparison.DiffKind.FILE2_ONLY),
+																 index2.pathnames[i2++]));
+			}
+			else
+			{
+				Set<ZipFileComparison.DiffKind> diffKinds = EnumSet.noneOf(ZipFileComparison.DiffKind.class);
+				for (ZipFileComparison.Field field : fields)
+				{
+					boolean different = switch (field)
+					{
+						case TIMESTAMP -> (index1.timestamps[i1] != index2.timestamps[i2]);
+						case SIZE      -> (index1.sizes[i1] != index2.sizes[i2]);
+						case CRC       -> (index1.crcs[i1] != index2.crcs[i2]);
+						case CONTENT   -> false;
+					};
+					if (different)
+						diffKinds.add(field.getDiffKind());
+				}
+				if (!diffKinds.isEmpty())
+					differences.add(new ZipFileComparison.Difference(diffKinds, index1.pathnames[i1]));
+				++i1;
+				++i2;
+			}
+		}
+		return differences;
+	}
+
+	//------------------------------------------------------------------
+
+	private static boolean accept(
+		String				pathname,
+		LocationFilterSet	filterSet,
+		FileSystem			fileSystem)
+	{
+		try
+		{
+			return filterSet.accept(fileSystem.getPath(pathname));
+		}
+		catch (InvalidPathException e)
+		{
+			return false;
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the locations of the zip files.
+	 *
+	 * @return the locations of the zip files.
+	 */
+
+	public List<Path> getLocations()
+	{
+		return locations;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the rows of the grid of CRCs, ordered by pathname.
+	 *
+	 * @return the rows of the grid of CRCs.
+	 */
+
+	public List<Row> getRows()
+	{
+		return Collections.unmodifiableList(rows);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the differences between each pair of zip files.
+	 *
+	 * @return the differences between each pair of zip files.
+	 */
+
+	public List<PairDifferences> getPairs()
+	{
+		return Collections.unmodifiableList(pairs);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Encodes this comparison as a tree of {@linkplain MapNode nodes} and returns the root of the tree.
+	 *
+	 * @return the root of the tree of nodes as which this comparison was encoded.
+	 */
+
+	public MapNode encode()
+	{
+		// Create root node
+		MapNode rootNode = new MapNode();
+
+		// Encode locations of files
+		ListNode filesNode = rootNode.addList(PropertyKey.FILES);
+		for (Path location : locations)
+			filesNode.addString(Utils.normalisePathname(PathUtils.absString(location)));
+
+		// Encode fields
+		ListNode fieldsNode = rootNode.addList(PropertyKey.FIELDS);
+		for (ZipFileComparison.Field field : fields)
+			fieldsNode.addString(field.getKey());
+
+		// Encode grid of CRCs
+		ListNode entriesNode = rootNode.addList(PropertyKey.ENTRIES);
+		for (Row row : rows)
+		{
+			MapNode entryNode = new MapNode();
+			entriesNode.add(entryNode);
+			entryNode.addString(PropertyKey.PATHNAME, row.pathname);
+			ListNode crcsNode = entryNode.addList(PropertyKey.CRCS);
+			for (int i = 0; i < row.crcs.length; i++)
+			{
+				if (row.isPresent(i))
+					crcsNode.addString(Utils.crcToString(row.crcs[i]));
+				else
+					crcsNode.addNull();
+			}
+		}
+
+		// Encode differences between pairs of files
+		ListNode pairsNode = rootNode.addList(PropertyKey.PAIRS);
+		for (PairDifferences pair : pairs)
+		{
+			MapNode pairNode = new MapNode();
+			pairsNode.add(pairNode);
+			pairNode.addInt(PropertyKey.FILE1, pair.index1);
+			pairNode.addInt(PropertyKey.FILE2, pair.index2);
+			ListNode differencesNode = pairNode.addList(PropertyKey.DIFFERENCES);
+			for (ZipFileComparison.Difference difference : pair.differences)
+			{
+				MapNode differenceNode = new MapNode();
+				differencesNode.add(differenceNode);
+				String kinds = ZipFileComparison.DiffKind.diffKindsToString(difference.diffKinds());
+				differenceNode.addString(PropertyKey.KINDS, kinds.replace(" ", ""));
+				differenceNode.addString(PropertyKey.PATHNAME, difference.pathname());
+			}
+		}
+
+		// Return root node
+		return rootNode;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Writes this comparison to the specified file as JSON text.
+	 *
+	 * @param  file
+	 *           the file to which the comparison will be written.
+	 * @throws FileException
+	 *           if an error occurs when writing the file.
+	 */
+
+	public void write(
+		Path	file)
+		throws FileException
+	{
+		try
+		{
+			JsonUtils.writeFile(file, encode(), JsonGenerator.builder().maxLineLength(128).build());
+		}
+		catch (IOException e)
+		{
+			throw new FileException(ErrorMsg.ERROR_WRITING_FILE, e, file);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates the rows of the grid of CRCs by merging the sorted pathnames of the specified indices.
+	 *
+	 * @param indices
+	 *          the indices of the zip files.
+	 */
+
+	private void createRows(
+		Index[]	indices)
+	{
+		int numFiles = indices.length;
+		int[] positions = new int[numFiles];
+		while (true)
+		{
+			// Find least pathname at current positions
+			String pathname = null;
+			for (int i = 0; i < numFiles; i++)
+			{
+				Index index = indices[i];
+				if (positions[i] < index.pathnames.length)
+				{
+					String name = index.pathnames[positions[i]];
+					if ((pathname == null) || (name.compareTo(pathname) < 0))
+						pathname = name;
+				}
+			}
+			if (pathname == null)
+				break;
+
+			// Create row for pathname; advance positions of indices that contain it
+			long[] crcs = new long[numFiles];
+			BitSet present = new BitSet(numFiles);
+			for (int i = 0; i < numFiles; i++)
+			{
+				Index index = indices[i];
+				if ((positions[i] < index.pathnames.length) && pathname.equals(index.pathnames[positions[i]]))
+				{
+					crcs[i] = index.crcs[positions[i]++];
+					present.set(i);
+				}
+			}
+			rows.add(new Row(pathname, crcs, present));
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: ROW OF GRID
+
+
+	/**
+	 * This record encapsulates a row of the grid of CRCs of a matrix comparison.
+	 *
+	 * @param pathname
+	 *          the pathname of the row.
+	 * @param crcs
+	 *          the CRCs of the entries whose pathname is {@code pathname}, in the order of the zip files.  The value
+	 *          for a zip file that does not contain the pathname is undefined.  The CRC of an entry whose CRC is not
+	 *          known is -1.
+	 * @param present
+	 *          the indices of the zip files that contain the pathname.
+	 */
+
+	public record Row(
+		String	pathname,
+		long[]	crcs,
+		BitSet	present)
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns {@code true} if the zip file at the specified index contains the pathname of this row.
+		 *
+		 * @param  index
+		 *           the index of the zip file of interest.
+		 * @return {@code true} if the zip file at {@code index} contains the pathname of this row.
+		 */
+
+		public boolean isPresent(
+			int	index)
+		{
+			return present.get(index);
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+
+	// RECORD: DIFFERENCES BETWEEN A PAIR OF ZIP FILES
+
+
+	/**
+	 * This record encapsulates the differences between a pair of zip files of a matrix comparison.
+	 *
+	 * @param index1
+	 *          the index of the first zip file.
+	 * @param index2
+	 *          the index of the second zip file.
+	 * @param differences
+	 *          the differences between the zip files.
+	 */
+
+	public record PairDifferences(
+		int									index1,
+		int									index2,
+		List<ZipFileComparison.Difference>	differences)
+	{ }
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member classes : non-inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: INDEX OF ZIP FILE
+
+
+	/**
+	 * This class implements an index of the filtered entries of a zip file.  The fields of the entries are held in
+	 * arrays that are ordered by pathname.
+	 */
+
+	private static class Index
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		private	String[]	pathnames;
+		private	long[]		timestamps;
+		private	long[]		sizes;
+		private	long[]		crcs;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private Index(
+			int	numEntries)
+		{
+			// Initialise instance variables
+			pathnames = new String[numEntries];
+			timestamps = new long[numEntries];
+			sizes = new long[numEntries];
+			crcs = new long[numEntries];
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Class methods
+	////////////////////////////////////////////////////////////////////
+
+		private static Index of(
+			ZipFileModel		zipFile,
+			LocationFilterSet	filterSet,
+			FileSystem			fileSystem)
+		{
+			List<ZipFileEntry> entries = zipFile.getEntries().stream()
+					.filter(entry -> accept(entry.getPathname(), filterSet, fileSystem))
+					.sorted((entry1, entry2) -> entry1.getPathname().compareTo(entry2.getPathname()))
+					.toList();
+			Index index = new Index(entries.size());
+			for (int i = 0; i < entries.size(); i++)
+			{
+				ZipFileEntry entry = entries.get(i);
+				index.pathnames[i] = entry.getPathname();
+				index.timestamps[i] = entry.getTimestamp();
+				index.sizes[i] = entry.getSize();
+				index.crcs[i] = entry.getCrc();
+			}
+			return index;
+		}
+
+		//--------------------------------------------------------------
+
+		private static Index read(
+			Path				location,
+			LocationFilterSet	filterSet,
+			FileSystem			fileSystem)
+			throws BaseException
+		{
+			// Read entries of zip file
+			InputZipFile zipFile = new InputZipFile(location);
+			List<ZipEntry> entries = null;
+			try
+			{
+				zipFile.open();
+				entries = zipFile.getEntries();
+				zipFile.close();
+			}
+			catch (BaseException e)
+			{
+				zipFile.closeIgnoreException();
+				throw e;
+			}
+
+			// Filter and sort entries
+			ZipEntry[] filteredEntries = entries.stream()
+					.filter(entry -> !entry.isDirectory() && accept(entry.getName(), filterSet, fileSystem))
+					.toArray(ZipEntry[]::new);
+			Arrays.sort(filteredEntries, (entry1, entry2) -> entry1.getName().compareTo(entry2.getName()));
+
+			// Create index
+			Index index = new Index(filteredEntries.length);
+			for (int i = 0; i < filteredEntries.length; i++)
+			{
+				ZipEntry entry = filteredEntries[i];
+				index.pathnames[i] = entry.getName();
+				index.timestamps[i] = entry.getTime();
+				index.sizes[i] = entry.getSize();
+				index.crcs[i] = entry.getCrc();
+			}
+			return index;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,733 @@
+/*====================================================================*\
+
+ContentDiff.java
+
+Class: difference between the contents of two zip-file entries.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.unzip;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import java.util.concurrent.Semaphore;
+
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import uk.blankaspect.common.zip.InputZipFile;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: DIFFERENCE BETWEEN THE CONTENTS OF TWO ZIP-FILE ENTRIES
+
+
+/**
+ * This class encapsulates the difference between the contents of two zip-file entries.  The contents of the entries
+ * are inflated in tandem and compared block by block; neither entry is written to a file.  If both entries are small
+ * enough and appear to contain text, a line-based difference is also computed, from which a summary of the changed
+ * hunks is derived.
+ * <p>
+ * The memory that is used by a line-based difference is bounded: the contents of both entries are retained only if
+ * each is no longer than 1 MiB, the search for the shortest edit script stops after 512 edits, and no more than two
+ * line-based differences are computed at the same time; the comparison of any other pair of entries that are
+ * candidates for a line-based difference waits until one of the computations has finished.  (The trace of the search
+ * grows with the square of the number of edits, so the limit on edits bounds it to about 1 MB.)
+ * </p>
+ */
+
+public class ContentDiff
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The length of the buffers that are used to compare the contents of entries. */
+	private static final	int		BUFFER_LENGTH	= 1 << 16;  // 65536
+
+	/** The maximum length of an entry for which a line-based difference will be computed. */
+	private static final	long	MAX_TEXT_LENGTH	= 1 << 20;  // 1048576
+
+	/** The maximum number of line edits that will be considered when computing a line-based difference. */
+	private static final	int		MAX_EDIT_DISTANCE	= 512;
+
+	/** The maximum number of line-based differences that may be computed concurrently. */
+	private static final	int		MAX_NUM_CONCURRENT_LINE_DIFFS	= 2;
+
+	/** Miscellaneous strings. */
+	private static final	String	IDENTICAL_STR	= "Identical";
+	private static final	String	OFFSET_STR		= "First difference at offset %s";
+	private static final	String	SUMMARY_STR		= "%d %s from line %s: -%s +%s";
+	private static final	String	HUNK_STR		= "hunk";
+	private static final	String	HUNKS_STR		= "hunks";
+
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	FAILED_TO_READ_ZIP_ENTRY =
+				"Failed to read an entry of the file.";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Class variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The permits to retain the contents of a pair of entries and compute a line-based difference from them. */
+	private static final	Semaphore	lineDiffPermits	= new Semaphore(MAX_NUM_CONCURRENT_LINE_DIFFS);
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The offset of the first byte at which the contents of the entries differ, or -1 if they are identical. */
+	private	long	offset;
+
+	/** Flag: if {@code true}, a line-based difference was computed for the entries. */
+	private	boolean	text;
+
+	/** The one-based index of the first line at which the contents of the entries differ. */
+	private	int		firstLine;
+
+	/** The number of contiguous blocks of changed lines. */
+	private	int		numHunks;
+
+	/** The number of lines that are present only in the first entry. */
+	private	int		numLinesRemoved;
+
+	/** The number of lines that are present only in the second entry. */
+	private	int		numLinesAdded;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	private ContentDiff(
+		long	offset)
+	{
+		// Initialise instance variables
+		this.offset = offset;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Compares the contents of the specified zip-file entries and returns the result.  This method may be called
+	 * concurrently on different pairs of entries of the same zip files.
+	 *
+	 * @param  zipFile1
+	 *           the zip file that contains {@code entry1}.
+	 * @param  entry1
+	 *           the first entry.
+	 * @param  zipFile2
+	 *           the zip file that contains {@code entry2}.
+	 * @param  entry2
+	 *           the second entry.
+	 * @return the difference between the contents of {@code entry1} and {@code entry2}.
+	 * @throws InputZipFile.ZipEntryException
+	 *           if an error occurs when reading either of the entries.
+	 */
+
+	public static ContentDiff compare(
+		ZipFile		zipFile1,
+		ZipEntry	entry1,
+		ZipFile		zipFile2,
+		ZipEntry	entry2)
+		throws InputZipFile.ZipEntryException
+	{
+		// Open input stream for first entry
+		EntryInputStream inStream1 = new EntryInputStream(zipFile1, entry1);
+		try
+		{
+			// Open input stream for second entry
+			EntryInputStream inStream2 = new EntryInputStream(zipFile2, entry2);
+			try
+			{
+				// Compare contents of entries
+				return compare(inStream1, entry1.getSize(), inStream2, entry2.getSize());
+			}
+			catch (IOException e)
+			{
+				// Report error against entry whose stream failed
+				throw (inStream1.failed ? inStream1 : inStream2).exception(e);
+			}
+			finally
+			{
+				inStream2.close();
+			}
+		}
+		finally
+		{
+			inStream1.close();
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Compares the contents of the specified input streams and returns the result.  The streams are not closed by this
+	 * method.  If the contents are candidates for a line-based difference, this method blocks until fewer than the
+	 * maximum number of such differences are being computed.
+	 *
+	 * @param  inStream1
+	 *           the first input stream.
+	 * @param  size1
+	 *           the length of the content of {@code inStream1}, or -1 if it is not known.
+	 * @param  inStream2
+	 *           the second input stream.
+	 * @param  size2
+	 *           the length of the content of {@code inStream2}, or -1 if it is not known.
+	 * @return the difference between the contents of {@code inStream1} and {@code inStream2}.
+	 * @throws IOException
+	 *           if an error occurs when reading either of the streams.
+	 */
+
+	public static ContentDiff compare(
+		InputStream	inStream1,
+		long		size1,
+		InputStream	inStream2,
+		long		size2)
+		throws IOException
+	{
+		// Decide whether to retain the contents of the streams for a line-based comparison
+		boolean retain = isTextCandidate(size1) && isTextCandidate(size2);
+
+		// If contents are to be retained, wait for permit
+		if (retain)
+		{
+			try
+			{
+				lineDiffPermits.acquire();
+			}
+			catch (InterruptedException e)
+			{
+				throw new InterruptedIOException();
+			}
+		}
+
+		// Compare contents, releasing permit afterwards
+		try
+		{
+			return compare(inStream1, size1, inStream2, size2, retain);
+		}
+		finally
+		{
+			if (retain)
+				lineDiffPermits.release();
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	private static ContentDiff compare(
+		InputStream	inStream1,
+		long		size1,
+		InputStream	inStream2,
+		long		size2,
+		boolean		retain)
+		throws IOException
+	{
+		// Allocate buffers for retained contents
+		ByteArrayOutputStream content1 = retain ? new ByteArrayOutputStream((int)size1) : null;
+		ByteArrayOutputStream content2 = retain ? new ByteArrayOutputStream((int)size2) : null;
+
+		// Compare contents of streams block by block
+		long offset = -1;
+		byte[] buffer1 = new byte[BUFFER_LENGTH];
+		byte[] buffer2 = new byte[BUFFER_LENGTH];
+		long position = 0;
+		while (true)
+		{
+			// Read next block of each stream
+			int length1 = inStream1.readNBytes(buffer1, 0, buffer1.length);
+			int length2 = inStream2.readNBytes(buffer2, 0, buffer2.length);
+
+			// Find first difference in blocks
+			if (offset < 0)
+			{
+				int index = Arrays.mismatch(buffer1, 0, length1, buffer2, 0, length2);
+				if (index >= 0)
+					offset = position + index;
+			}
+
+			// Retain blocks; abandon line-based comparison if either block contains a NUL
+			if (retain)
+			{
+				if (containsNul(buffer1, length1) || containsNul(buffer2, length2))
+				{
+					retain = false;
+					content1 = null;
+					content2 = null;
+				}
+				else
+				{
+					content1.write(buffer1, 0, length1);
+					content2.write(buffer2, 0, length2);
+				}
+			}
+
+			// Stop at end of both streams, or at first difference if contents are not retained
+			if (((length1 == 0) && (length2 == 0)) || ((offset >= 0) && !retain))
+				break;
+
+			// Increment position
+			position += Math.min(length1, length2);
+		}
+
+		// Create result
+		ContentDiff diff = new ContentDiff(offset);
+
+		// If contents differ and were retained, compute line-based difference
+		if ((offset >= 0) && retain)
+			diff.diffLines(toLines(content1.toByteArray()), toLines(content2.toByteArray()));
+
+		// Return result
+		return diff;
+	}
+
+	//------------------------------------------------------------------
+
+	private static boolean isTextCandidate(
+		long	size)
+	{
+		return (size >= 0) && (size <= MAX_TEXT_LENGTH);
+	}
+
+	//------------------------------------------------------------------
+
+	private static boolean containsNul(
+		byte[]	buffer,
+		int		length)
+	{
+		for (int i = 0; i < length; i++)
+		{
+			if (buffer[i] == 0)
+				return true;
+		}
+		return false;
+	}
+
+	//------------------------------------------------------------------
+
+	private static List<String> toLines(
+		byte[]	content)
+	{
+		return new String(content, StandardCharsets.UTF_8).lines().toList();
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns {@code true} if the contents of the entries are identical.
+	 *
+	 * @return {@code true} if the contents of the entries are identical.
+	 */
+
+	public boolean isIdentical()
+	{
+		return (offset < 0);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the offset of the first byte at which the contents of the entries differ.
+	 *
+	 * @return the offset of the first byte at which the contents of the entries differ, or -1 if the contents are
+	 *         identical.
+	 */
+
+	public long getOffset()
+	{
+		return offset;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns {@code true} if a line-based difference was computed for the entries.
+	 *
+	 * @return {@code true} if a line-based difference was computed for the entries.
+	 */
+
+	public boolean isText()
+	{
+		return text;
+	}
+
+	//------------------------------------------------------------------
+
+	public int getFirstLine()
+	{
+		return firstLine;
+	}
+
+	//------------------------------------------------------------------
+
+	public int getNumHunks()
+	{
+		return numHunks;
+	}
+
+	//------------------------------------------------------------------
+
+	public int getNumLinesRemoved()
+	{
+		return numLinesRemoved;
+	}
+
+	//------------------------------------------------------------------
+
+	public int getNumLinesAdded()
+	{
+		return numLinesAdded;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns a summary of this difference.
+	 *
+	 * @return a summary of this difference.
+	 */
+
+	public String getSummary()
+	{
+		if (isIdentical())
+			return IDENTICAL_STR;
+		if (text)
+		{
+			return String.format(SUMMARY_STR, numHunks, (numHunks == 1) ? HUNK_STR : HUNKS_STR,
+								 Utils.formatDecimal(firstLine), Utils.formatDecimal(numLinesRemoved),
+								 Utils.formatDecimal(numLinesAdded));
+		}
+		return String.format(OFFSET_STR, Utils.formatDecimal(offset));
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Computes a line-based difference between the specified lists of lines with Myers's algorithm, and sets the
+	 * instance variables of this object from the result.  If the number of edits exceeds a limit, the differing regions
+	 * are treated as a single hunk.
+	 *
+	 * @param lines1
+	 *          the lines of the first entry.
+	 * @param lines2
+	 *          the lines of the second entry.
+	 */
+
+	private void diffLines(
+		List<String>	lines1,
+		List<String>	lines2)
+	{
+		// Skip common prefix
+		int start = 0;
+		int end1 = lines1.size();
+		int end2 = lines2.size();
+		while ((start < end1) && (start < end2) && lines1.get(start).equals(lines2.get(start)))
+			++start;
+
+		// Skip common suffix
+		while ((end1 > start) && (end2 > start) && lines1.get(end1 - 1).equals(lines2.get(end2 - 1)))
+		{
+			--end1;
+			--end2;
+		}
+
+		// Update instance variables
+		text = true;
+		firstLine = start + 1;
+
+		// Get lengths of differing regions
+		int n = end1 - start;
+		int m = end2 - start;
+
+		// Case: contents differ only in line terminators
+		if ((n == 0) && (m == 0))
+			return;
+
+		// Case: one region is empty
+		if ((n == 0) || (m == 0))
+		{
+			numHunks = 1;
+			numLinesRemoved = n;
+			numLinesAdded = m;
+			return;
+		}
+
+		// Find shortest edit script, recording the furthest-reaching x coordinate of each diagonal before each step
+		List<String> a = lines1.subList(start, end1);
+		List<String> b = lines2.subList(start, end2);
+		int maxD = Math.min(n + m, MAX_EDIT_DISTANCE);
+		int[] v = new int[2 * maxD + 3];
+		int vOffset = maxD + 1;
+		List<int[]> trace = new ArrayList<>();
+		int numEdits = -1;
+		for (int d = 0; d <= maxD; d++)
+		{
+			// Record diagonals [-d, d] before this step
+			trace.add(Arrays.copyOfRange(v, vOffset - d, vOffset + d + 1));
+
+			// Extend each diagonal
+			for (int k = -d; k <= d; k += 2)
+			{
+				boolean down = (k == -d) || ((k != d) && (v[vOffset + k - 1] < v[vOffset + k + 1]));
+				int x = down ? v[vOffset + k + 1] : v[vOffset + k - 1] + 1;
+				int y = x - k;
+				while ((x < n) && (y < m) && a.get(x).equals(b.get(y)))
+				{
+					++x;
+					++y;
+				}
+				v[vOffset + k] = x;
+				if ((x >= n) && (y >= m))
+				{
+					numEdits = d;
+					break;
+				}
+			}
+			if (numEdits >= 0)
+				break;
+		}
+
+		// Case: too many edits
+		if (numEdits < 0)
+		{
+			numHunks = 1;
+			numLinesRemoved = n;
+			numLinesAdded = m;
+			return;
+		}
+
+		// Trace edit path backwards, counting hunks and lines
+		numHunks = 1;
+		int x = n;
+		int y = m;
+		for (int d = numEdits; d > 0; d--)
+		{
+			int[] prevV = trace.get(d);
+			int k = x - y;
+			boolean down = (k == -d) || ((k != d) && (prevV[k - 1 + d] < prevV[k + 1 + d]));
+			int prevK = down ? k + 1 : k - 1;
+			int prevX = prevV[prevK + d];
+			int prevY = prevX - prevK;
+			int startX = down ? prevX : prevX + 1;
+
+			// A snake between two edits separates two hunks
+			if ((d < numEdits) && (x > startX))
+				++numHunks;
+
+			// Count edit
+			if (down)
+				++numLinesAdded;
+			else
+				++numLinesRemoved;
+
+			// Move to start of edit
+			x = prevX;
+			y = prevY;
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Member classes : non-inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: INPUT STREAM OF A ZIP-FILE ENTRY
+
+
+	/**
+	 * This class implements an input stream of the content of a zip-file entry that records whether an error has
+	 * occurred when reading from it, so that the error can be reported against the zip file and entry from which the
+	 * stream was opened.
+	 */
+
+	private static class EntryInputStream
+		extends FilterInputStream
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** The zip file that contains the entry. */
+		private	ZipFile		zipFile;
+
+		/** The entry. */
+		private	ZipEntry	entry;
+
+		/** Flag: if {@code true}, an error has occurred when reading from this stream. */
+		private	boolean		failed;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Creates a new instance of an input stream of the content of the specified entry of the specified zip file.
+		 *
+		 * @param  zipFile
+		 *           the zip file that contains {@code entry}.
+		 * @param  entry
+		 *           the entry.
+		 * @throws InputZipFile.ZipEntryException
+		 *           if an input stream cannot be opened for {@code entry}.
+		 */
+
+		private EntryInputStream(
+			ZipFile		zipFile,
+			ZipEntry	entry)
+			throws InputZipFile.ZipEntryException
+		{
+			// Call superclass constructor
+			super(null);
+
+			// Initialise instance variables
+			this.zipFile = zipFile;
+			this.entry = entry;
+
+			// Open input stream for entry
+			try
+			{
+				in = zipFile.getInputStream(entry);
+			}
+			catch (IOException e)
+			{
+				throw exception(e);
+			}
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : overriding methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public int read()
+			throws IOException
+		{
+			try
+			{
+				return super.read();
+			}
+			catch (IOException e)
+			{
+				failed = true;
+				throw e;
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public int read(
+			byte[]	buffer,
+			int		offset,
+			int		length)
+			throws IOException
+		{
+			try
+			{
+				return super.read(buffer, offset, length);
+			}
+			catch (IOException e)
+			{
+				failed = true;
+				throw e;
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Closes this stream.  Any error is ignored, because the content of the entry has already been read.
+		 */
+
+		@Override
+		public void close()
+		{
+			try
+			{
+				super.close();
+			}
+			catch (IOException e)
+			{
+				// ignore
+			}
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns an exception that reports that the entry of this stream could not be read, with the specified
+		 * cause.
+		 *
+		 * @param  cause
+		 *           the cause of the exception.
+		 * @return an exception for a failure to read the entry of this stream.
+		 */
+
+		private InputZipFile.ZipEntryException exception(
+			IOException	cause)
+		{
+			return new InputZipFile.ZipEntryException(ErrorMsg.FAILED_TO_READ_ZIP_ENTRY, cause,
+													  Path.of(zipFile.getName()), entry);
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,354 @@
+/*====================================================================*\
+
+CrcCache.java
+
+Class: persistent cache of the CRCs of files.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.unzip;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import java.util.Map;
+import java.util.Set;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import java.util.zip.CRC32;
+
+import uk.blankaspect.common.exception2.FileException;
+
+import uk.blankaspect.common.filesystem.FilenameUtils;
+import uk.blankaspect.common.filesystem.PathUtils;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: PERSISTENT CACHE OF THE CRCS OF FILES
+
+
+/**
+ * This class implements a cache of the CRC-32 values of files that may be stored between sessions.  An item of the
+ * cache is keyed by the absolute pathname of a file and is valid only while the size and last-modified time of the
+ * file are unchanged.  The methods that access the items of the cache may be called concurrently.
+ */
+
+public class CrcCache
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The identifier at the start of a cache file. */
+	private static final	int		FILE_ID	= 0x55435243;  // "UCRC"
+
+	/** The version of the format of a cache file. */
+	private static final	int		VERSION	= 0;
+
+	/** The maximum number of items that will be written to a cache file. */
+	private static final	int		MAX_NUM_ITEMS	= 1 << 20;  // 1048576
+
+	/** The length of the buffer that is used to read a file when computing its CRC. */
+	private static final	int		BUFFER_LENGTH	= 1 << 16;  // 65536
+
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	ERROR_READING_FILE =
+				"An error occurred when reading the file.";
+
+		String	ERROR_WRITING_FILE =
+				"An error occurred when writing the file.";
+
+		String	NOT_A_CACHE_FILE =
+				"The file is not a CRC cache file.";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The location of the file to which the cache is written. */
+	private	Path				location;
+
+	/** A map from the pathname of a file to the item for the file. */
+	private	Map<String, Item>	items;
+
+	/** The keys of the items that have been accessed or added in the current session. */
+	private	Set<String>			usedKeys;
+
+	/** Flag: if {@code true}, the cache has been modified since it was read or written. */
+	private	volatile boolean	modified;
+
+	/** Buffers for the threads that compute CRCs. */
+	private	ThreadLocal<byte[]>	buffers;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of an empty CRC cache that is associated with the specified file.
+	 *
+	 * @param location
+	 *          the location of the file to which the cache will be written, which may be {@code null}.
+	 */
+
+	public CrcCache(
+		Path	location)
+	{
+		// Initialise instance variables
+		this.location = location;
+		items = new ConcurrentHashMap<>();
+		usedKeys = ConcurrentHashMap.newKeySet();
+		buffers = ThreadLocal.withInitial(() -> new byte[BUFFER_LENGTH]);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	private static String key(
+		Path	file)
+	{
+		return PathUtils.absString(file);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the CRC of the specified file.  If the cache contains a valid item for the file, the CRC of the item is
+	 * returned; otherwise, the CRC is computed from the contents of the file and added to the cache.
+	 *
+	 * @param  file
+	 *           the file whose CRC is required.
+	 * @param  size
+	 *           the size of {@code file}.
+	 * @param  timestamp
+	 *           the last-modified time of {@code file}.
+	 * @return the CRC-32 value of {@code file}.
+	 * @throws FileException
+	 *           if an error occurs when reading {@code file}.
+	 */
+
+	public long getCrc(
+		Path	file,
+		long	size,
+		long	timestamp)
+		throws FileException
+	{
+		// Look up item; return its CRC if it is valid
+		String key = key(file);
+		Item item = items.get(key);
+		if ((item != null) && (item.size == size) && (item.timestamp == timestamp))
+		{
+			usedKeys.add(key);
+			return item.crc;
+		}
+
+		// Compute CRC from contents of file
+		CRC32 crc = new CRC32();
+		byte[] buffer = buffers.get();
+		try (InputStream inStream = Files.newInputStream(file, LinkOption.NOFOLLOW_LINKS))
+		{
+			while (true)
+			{
+				int length = inStream.read(buffer);
+				if (length < 0)
+					break;
+				crc.update(buffer, 0, length);
+			}
+		}
+		catch (IOException e)
+		{
+			throw new FileException(ErrorMsg.ERROR_READING_FILE, e, file);
+		}
+
+		// Add item to cache
+		item = new Item(size, timestamp, crc.getValue());
+		items.put(key, item);
+		usedKeys.add(key);
+		modified = true;
+
+		// Return CRC
+		return item.crc;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Reads the items of this cache from its associated file, replacing any existing items.  If the file does not
+	 * exist, the cache is cleared.
+	 *
+	 * @throws FileException
+	 *           if an error occurs when reading the file.
+	 */
+
+	public void read()
+		throws FileException
+	{
+		// Clear cache
+		items.clear();
+		usedKeys.clear();
+		modified = false;
+
+		// Test for file
+		if ((location == null) || !Files.isRegularFile(location, LinkOption.NOFOLLOW_LINKS))
+			return;
+
+		// Read file
+		try (DataInputStream inStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(location))))
+		{
+			// Test identifier and version
+			if ((inStream.readInt() != FILE_ID) || (inStream.readInt() != VERSION))
+				throw new FileException(ErrorMsg.NOT_A_CACHE_FILE, location);
+
+			// Read items
+			int numItems = inStream.readInt();
+			for (int i = 0; i < numItems; i++)
+			{
+				String key = inStream.readUTF();
+				items.put(key, new Item(inStream.readLong(), inStream.readLong(), inStream.readLong()));
+			}
+		}
+		catch (IOException e)
+		{
+			items.clear();
+			throw new FileException(ErrorMsg.ERROR_READING_FILE, e, location);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Writes the items of this cache to its associated file if the cache has been modified since it was last read or
+	 * written.  If the cache contains more than a maximum number of items, only the items that have been used in the
+	 * current session are written.
+	 *
+	 * @throws FileException
+	 *           if an error occurs when writing the file.
+	 */
+
+	public void write()
+		throws FileException
+	{
+		// Test whether cache needs to be written
+		if ((location == null) || !modified)
+			return;
+
+		// Discard unused items if there are too many
+		if (items.size() > MAX_NUM_ITEMS)
+			items.keySet().retainAll(usedKeys);
+
+		// Write cache to temporary file
+		Path tempFile = FilenameUtils.tempLocation(location);
+		try
+		{
+			Files.createDirectories(PathUtils.absParent(location));
+			try (DataOutputStream outStream =
+					new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile))))
+			{
+				// Write identifier and version
+				outStream.writeInt(FILE_ID);
+				outStream.writeInt(VERSION);
+
+				// Write items
+				Map<String, Item> items0 = Map.copyOf(items);
+				int numItems = Math.min(items0.size(), MAX_NUM_ITEMS);
+				outStream.writeInt(numItems);
+				int index = 0;
+				for (Map.Entry<String, Item> entry : items0.entrySet())
+				{
+					if (index++ >= numItems)
+						break;
+					Item item = entry.getValue();
+					outStream.writeUTF(entry.getKey());
+					outStream.writeLong(item.size);
+					outStream.writeLong(item.timestamp);
+					outStream.writeLong(item.crc);
+				}
+			}
+
+			// Replace cache file with temporary file
+			Files.move(tempFile, location, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+			// Clear 'modified' flag
+			modified = false;
+		}
+		catch (IOException e)
+		{
+			// Delete temporary file
+			try
+			{
+				Files.deleteIfExists(tempFile);
+			}
+			catch (IOException e0)
+			{
+				// ignore
+			}
+
+			// Rethrow exception
+			throw new FileException(ErrorMsg.ERROR_WRITING_FILE, e, location);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: CACHE ITEM
+
+
+	/**
+	 * This record encapsulates an item of a CRC cache.
+	 *
+	 * @param size
+	 *          the size of the file when its CRC was computed.
+	 * @param timestamp
+	 *          the last-modified time of the file when its CRC was computed.
+	 * @param crc
+	 *          the CRC-32 value of the file.
+	 */
+
+	private record Item(
+		long	size,
+		long	timestamp,
+		long	crc)
+	{ }
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,489 @@
+/*====================================================================*\
+
+DirectoryIndex.java
+
+Class: index of the directories of a list of zip-file entries.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.unzip;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: INDEX OF THE DIRECTORIES OF A LIST OF ZIP-FILE ENTRIES
+
+
+/**
+ * This class implements an index of the directory hierarchy of a list of zip-file entries.  The entries must be in the
+ * order of {@link ZipFileEntry#DIRECTORY_FILENAME_PATHNAME_COMPARATOR}, which compares the elements of directory
+ * pathnames before filenames.  In that order, the entries of each directory and its subdirectories are contiguous, and
+ * the files that are directly in a directory precede the files of its subdirectories, so a directory is represented by
+ * a range of indices of the list of entries.
+ * <p>
+ * The directories are numbered in the order in which they are first encountered, which is a preorder traversal of the
+ * hierarchy; directory 0 is the root.  The number of files and the total sizes of each directory, including its
+ * subdirectories, are computed with a single pass over the directories in reverse order, which visits every directory
+ * after all its descendants.
+ * </p>
+ * <p>
+ * Only directories that contain at least one file, directly or in a subdirectory, are represented: the directory
+ * entries of a zip file are not included in the list of entries.
+ * </p>
+ */
+
+public class DirectoryIndex
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The index of the root directory. */
+	public static final		int	ROOT	= 0;
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The number of directories. */
+	private	int			numDirectories;
+
+	/** The names of the directories. */
+	private	String[]	names;
+
+	/** The parents of the directories. */
+	private	int[]		parents;
+
+	/** The start of the range of the children of each directory in {@link #children}. */
+	private	int[]		childStarts;
+
+	/** The children of the directories, grouped by parent. */
+	private	int[]		children;
+
+	/** The index of the first entry of each directory. */
+	private	int[]		startIndices;
+
+	/** The index after the last entry that is directly in each directory. */
+	private	int[]		fileEndIndices;
+
+	/** The index after the last entry of each directory, including its subdirectories. */
+	private	int[]		endIndices;
+
+	/** The total uncompressed size of the entries of each directory, including its subdirectories. */
+	private	long[]		sizes;
+
+	/** The total compressed size of the entries of each directory, including its subdirectories. */
+	private	long[]		compressedSizes;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	private DirectoryIndex()
+	{
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates and returns an index of the directories of the specified entries.
+	 *
+	 * @param  entries
+	 *           the entries, which must be in the order of {@link ZipFileEntry#DIRECTORY_FILENAME_PATHNAME_COMPARATOR}.
+	 * @return an index of the directories of {@code entries}.
+	 */
+
+	public static DirectoryIndex create(
+		List<ZipFileEntry>	entries)
+	{
+		// Initialise lists of properties of directories
+		List<String> names = new ArrayList<>();
+		int[] parents = new int[16];
+		int[] startIndices = new int[16];
+		int[] endIndices = new int[16];
+		long[] sizes = new long[16];
+		long[] compressedSizes = new long[16];
+
+		// Add root directory
+		names.add("");
+		parents[ROOT] = -1;
+
+		// Create directories from the directory pathnames of the entries; the stack holds the current directory and its
+		// ancestors
+		int[] stack = new int[16];
+		int depth = 0;
+		String[] stackNames = new String[16];
+		int numEntries = entries.size();
+		for (int i = 0; i < numEntries; i++)
+		{
+			// Split directory pathname of entry into its elements
+			ZipFileEntry entry = entries.get(i);
+			String pathname = entry.getPathname();
+			int separatorIndex = entry.getSeparatorIndex();
+			List<String> elements = new ArrayList<>();
+			int start = 0;
+			while (start <= separatorIndex)
+			{
+				int end = pathname.indexOf(ZipFileEntry.SEPARATOR_CHAR, start);
+				elements.add(pathname.substring(start, end));
+				start = end + 1;
+			}
+
+			// Find number of elements in common with current directory
+			int numCommon = 0;
+			while ((numCommon < depth) && (numCommon < elements.size())
+					&& stackNames[numCommon + 1].equals(elements.get(numCommon)))
+				++numCommon;
+
+			// Close directories that do not contain entry
+			while (depth > numCommon)
+				endIndices[stack[depth--]] = i;
+
+			// Open directories of remaining elements
+			for (int j = numCommon; j < elements.size(); j++)
+			{
+				int directory = names.size();
+				if (directory == parents.length)
+				{
+					int length = 2 * directory;
+					parents = Arrays.copyOf(parents, length);
+					startIndices = Arrays.copyOf(startIndices, length);
+					endIndices = Arrays.copyOf(endIndices, length);
+					sizes = Arrays.copyOf(sizes, length);
+					compressedSizes = Arrays.copyOf(compressedSizes, length);
+				}
+				names.add(elements.get(j));
+				parents[directory] = stack[depth];
+				startIndices[directory] = i;
+				if (++depth == stack.length)
+				{
+					stack = Arrays.copyOf(stack, 2 * depth);
+					stackNames = Arrays.copyOf(stackNames, 2 * depth);
+				}
+				stack[depth] = directory;
+				stackNames[depth] = elements.get(j);
+			}
+
+			// Add size of entry to its directory
+			int directory = stack[depth];
+			sizes[directory] += Math.max(0, entry.getSize());
+			compressedSizes[directory] += Math.max(0, entry.getCompressedSize());
+		}
+
+		// Close remaining directories
+		while (depth >= 0)
+			endIndices[stack[depth--]] = numEntries;
+
+		// Create index
+		int numDirectories = names.size();
+		DirectoryIndex index = new DirectoryIndex();
+		index.numDirectories = numDirectories;
+		index.names = names.toArray(String[]::new);
+		index.parents = Arrays.copyOf(parents, numDirectories);
+		index.startIndices = Arrays.copyOf(startIndices, numDirectories);
+		index.endIndices = Arrays.copyOf(endIndices, numDirectories);
+		index.sizes = Arrays.copyOf(sizes, numDirectories);
+		index.compressedSizes = Arrays.copyOf(compressedSizes, numDirectories);
+
+		// Group children by parent; because directories are numbered in preorder, the children of each directory are in
+		// order of name
+		index.childStarts = new int[numDirectories + 1];
+		for (int directory = 1; directory < numDirectories; directory++)
+			++index.childStarts[index.parents[directory] + 1];
+		for (int directory = 0; directory < numDirectories; directory++)
+			index.childStarts[directory + 1] += index.childStarts[directory];
+		index.children = new int[Math.max(0, numDirectories - 1)];
+		int[] offsets = Arrays.copyOf(index.childStarts, numDirectories);
+		for (int directory = 1; directory < numDirectories; directory++)
+			index.children[offsets[index.parents[directory]]++] = directory;
+
+		// Find end of files that are directly in each directory: the files of the first subdirectory follow them
+		index.fileEndIndices = new int[numDirectories];
+		for (int directory = 0; directory < numDirectories; directory++)
+		{
+			index.fileEndIndices[directory] = (index.getNumChildren(directory) == 0)
+													? index.endIndices[directory]
+													: index.startIndices[index.getChild(directory, 0)];
+		}
+
+		// Aggregate sizes bottom-up: each directory follows its parent in preorder, so visiting the directories in
+		// reverse order adds the total of each directory to its parent after the totals of all its descendants
+		for (int directory = numDirectories - 1; directory > ROOT; directory--)
+		{
+			int parent = index.parents[directory];
+			index.sizes[parent] += index.sizes[directory];
+			index.compressedSizes[parent] += index.compressedSizes[directory];
+		}
+
+		// Return index
+		return index;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns an estimate of the memory that is occupied by this index.
+	 *
+	 * @return an estimate of the size (in bytes) of this index.
+	 */
+
+	public long getMemorySize()
+	{
+		long size = Utils.objectMemorySize(Integer.BYTES + 9 * Utils.REFERENCE_SIZE)
+				+ Utils.arrayMemorySize(names.length, Utils.REFERENCE_SIZE)
+				+ 5 * Utils.arrayMemorySize(numDirectories, Integer.BYTES)
+				+ Utils.arrayMemorySize(children.length, Integer.BYTES)
+				+ 2 * Utils.arrayMemorySize(numDirectories, Long.BYTES);
+		for (String name : names)
+			size += Utils.stringMemorySize(name);
+		return size;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the number of directories in this index, including the root.
+	 *
+	 * @return the number of directories in this index.
+	 */
+
+	public int getNumDirectories()
+	{
+		return numDirectories;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the name of the specified directory.
+	 *
+	 * @param  directory
+	 *           the index of the directory.
+	 * @return the name of {@code directory}, which is empty for the root.
+	 */
+
+	public String getName(
+		int	directory)
+	{
+		return names[directory];
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the pathname of the specified directory.
+	 *
+	 * @param  directory
+	 *           the index of the directory.
+	 * @return the pathname of {@code directory}, which is empty for the root.
+	 */
+
+	public String getPathname(
+		int	directory)
+	{
+		StringBuilder buffer = new StringBuilder();
+		while (directory > ROOT)
+		{
+			if (!buffer.isEmpty())
+				buffer.insert(0, ZipFileEntry.SEPARATOR_CHAR);
+			buffer.insert(0, names[directory]);
+			directory = parents[directory];
+		}
+		return buffer.toString();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the parent of the specified directory.
+	 *
+	 * @param  directory
+	 *           the index of the directory.
+	 * @return the index of the parent of {@code directory}, or -1 if it is the root.
+	 */
+
+	public int getParent(
+		int	directory)
+	{
+		return parents[directory];
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the number of subdirectories that are directly in the specified directory.
+	 *
+	 * @param  directory
+	 *           the index of the directory.
+	 * @return the number of subdirectories that are directly in {@code directory}.
+	 */
+
+	public int getNumChildren(
+		int	directory)
+	{
+		return childStarts[directory + 1] - childStarts[directory];
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the subdirectory of the specified directory at the specified index.  The subdirectories are in order of
+	 * name.
+	 *
+	 * @param  directory
+	 *           the index of the directory.
+	 * @param  index
+	 *           the index of the subdirectory within {@code directory}.
+	 * @return the index of the subdirectory of {@code directory} at {@code index}.
+	 */
+
+	public int getChild(
+		int	directory,
+		int	index)
+	{
+		return children[childStarts[directory] + index];
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the index of the first entry of the specified directory.  The entries that are directly in the directory
+	 * are followed by the entries of its subdirectories.
+	 *
+	 * @param  directory
+	 *           the index of the directory.
+	 * @return the index of the first entry of {@code directory}.
+	 */
+
+	public int getStartIndex(
+		int	directory)
+	{
+		return startIndices[directory];
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the index after the last entry that is directly in the specified directory.
+	 *
+	 * @param  directory
+	 *           the index of the directory.
+	 * @return the index after the last entry that is directly in {@code directory}.
+	 */
+
+	public int getFileEndIndex(
+		int	directory)
+	{
+		return fileEndIndices[directory];
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the index after the last entry of the specified directory, including its subdirectories.
+	 *
+	 * @param  directory
+	 *           the index of the directory.
+	 * @return the index after the last entry of {@code directory}, including its subdirectories.
+	 */
+
+	public int getEndIndex(
+		int	directory)
+	{
+		return endIndices[directory];
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the number of files that are directly in the specified directory.
+	 *
+	 * @param  directory
+	 *           the index of the directory.
+	 * @return the number of files that are directly in {@code directory}.
+	 */
+
+	public int getNumDirectFiles(
+		int	directory)
+	{
+		return fileEndIndices[directory] - startIndices[directory];
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the number of files in the specified directory, including its subdirectories.
+	 *
+	 * @param  directory
+	 *           the index of the directory.
+	 * @return the number of files in {@code directory}, including its subdirectories.
+	 */
+
+	public int getNumFiles(
+		int	directory)
+	{
+		return endIndices[directory] - startIndices[directory];
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the total uncompressed size of the files in the specified directory, including its subdirectories.  Files
+	 * whose size is not known are ignored.
+	 *
+	 * @param  directory
+	 *           the index of the directory.
+	 * @return the total uncompressed size of the files in {@code directory}.
+	 */
+
+	public long getSize(
+		int	directory)
+	{
+		return sizes[directory];
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the total compressed size of the files in the specified directory, including its subdirectories.  Files
+	 * whose compressed size is not known are ignored.
+	 *
+	 * @param  directory
+	 *           the index of the directory.
+	 * @return the total compressed size of the files in {@code directory}.
+	 */
+
+	public long getCompressedSize(
+		int	directory)
+	{
+		return compressedSizes[directory];
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
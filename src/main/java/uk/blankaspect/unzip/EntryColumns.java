@@ -0,0 +1,226 @@
+/*====================================================================*\
+
+EntryColumns.java
+
+Class: columns of the properties of zip-file entries.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.unzip;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.util.List;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: COLUMNS OF THE PROPERTIES OF ZIP-FILE ENTRIES
+
+
+/**
+ * This class implements a column-oriented snapshot of the properties of a list of zip-file entries.  Each property is
+ * held in an array of primitive values that is indexed by the {@linkplain ZipFileEntry#getIndex() index} of an entry,
+ * so that a property of all the entries can be scanned without accessing the entries themselves.  Because directories
+ * are not represented by entries, some indices may not correspond to an entry; the indices that do are marked in a
+ * bit mask.
+ */
+
+public class EntryColumns
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The length of each column. */
+	private	int			length;
+
+	/** The bit mask of the indices that correspond to an entry, in the format of {@code BitSet.toLongArray()}. */
+	private	long[]		present;
+
+	/** The pathnames of the entries. */
+	private	String[]	pathnames;
+
+	/** The indices of the last separator in the pathnames of the entries. */
+	private	int[]		separatorIndices;
+
+	/** The timestamps of the entries. */
+	private	long[]		timestamps;
+
+	/** The uncompressed sizes of the entries. */
+	private	long[]		sizes;
+
+	/** The compressed sizes of the entries. */
+	private	long[]		compressedSizes;
+
+	/** The CRCs of the entries. */
+	private	long[]		crcs;
+
+	/** The compression ratios of the entries as percentages, or NaN if the sizes of an entry are not known. */
+	private	double[]	ratios;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	private EntryColumns(
+		int	length)
+	{
+		// Initialise instance variables
+		this.length = length;
+		present = new long[(length + 63) >>> 6];
+		pathnames = new String[length];
+		separatorIndices = new int[length];
+		timestamps = new long[length];
+		sizes = new long[length];
+		compressedSizes = new long[length];
+		crcs = new long[length];
+		ratios = new double[length];
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates and returns the columns of the properties of the specified entries.
+	 *
+	 * @param  entries
+	 *           the entries whose properties will be copied to the columns.
+	 * @return the columns of the properties of {@code entries}.
+	 */
+
+	public static EntryColumns create(
+		List<ZipFileEntry>	entries)
+	{
+		// Get length of columns
+		int length = 0;
+		for (ZipFileEntry entry : entries)
+			length = Math.max(length, entry.getIndex() + 1);
+
+		// Copy properties of entries to columns
+		EntryColumns columns = new EntryColumns(length);
+		for (ZipFileEntry entry : entries)
+		{
+			int index = entry.getIndex();
+			long size = entry.getSize();
+			long compressedSize = entry.getCompressedSize();
+
+			columns.present[index >>> 6] |= 1L << index;
+			columns.pathnames[index] = entry.getPathname();
+			columns.separatorIndices[index] = entry.getSeparatorIndex();
+			columns.timestamps[index] = entry.getTimestamp();
+			columns.sizes[index] = size;
+			columns.compressedSizes[index] = compressedSize;
+			columns.crcs[index] = entry.getCrc();
+			columns.ratios[index] = (size < 0) || (compressedSize < 0)
+										? Double.NaN
+										: (size == 0)
+												? 100.0
+												: 100.0 * (double)compressedSize / (double)size;
+		}
+		return columns;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns an estimate of the memory that is occupied by these columns.  The pathnames are shared with the entries
+	 * from which the columns were created, so only the references to them are included.
+	 *
+	 * @return an estimate of the size (in bytes) of these columns.
+	 */
+
+	public long getMemorySize()
+	{
+		return Utils.objectMemorySize(Integer.BYTES + 8 * Utils.REFERENCE_SIZE)
+				+ Utils.arrayMemorySize(present.length, Long.BYTES)
+				+ Utils.arrayMemorySize(length, Utils.REFERENCE_SIZE)
+				+ Utils.arrayMemorySize(length, Integer.BYTES)
+				+ 4 * Utils.arrayMemorySize(length, Long.BYTES)
+				+ Utils.arrayMemorySize(length, Double.BYTES);
+	}
+
+	//------------------------------------------------------------------
+
+	public int getLength()
+	{
+		return length;
+	}
+
+	//------------------------------------------------------------------
+
+	public long[] getPresent()
+	{
+		return present;
+	}
+
+	//------------------------------------------------------------------
+
+	public String[] getPathnames()
+	{
+		return pathnames;
+	}
+
+	//------------------------------------------------------------------
+
+	public int[] getSeparatorIndices()
+	{
+		return separatorIndices;
+	}
+
+	//------------------------------------------------------------------
+
+	public long[] getTimestamps()
+	{
+		return timestamps;
+	}
+
+	//------------------------------------------------------------------
+
+	public long[] getSizes()
+	{
+		return sizes;
+	}
+
+	//------------------------------------------------------------------
+
+	public long[] getCompressedSizes()
+	{
+		return compressedSizes;
+	}
+
+	//------------------------------------------------------------------
+
+	public long[] getCrcs()
+	{
+		return crcs;
+	}
+
+	//------------------------------------------------------------------
+
+	public double[] getRatios()
+	{
+		return ratios;
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,380 @@
+/*====================================================================*\
+
+EntryIndexCache.java
+
+Class: persistent cache of the entries of zip files.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.unzip;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import java.nio.file.attribute.FileTime;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.time.Instant;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+import java.util.stream.Stream;
+
+import uk.blankaspect.common.exception2.FileException;
+import uk.blankaspect.common.exception2.UnexpectedRuntimeException;
+
+import uk.blankaspect.common.filesystem.FilenameUtils;
+import uk.blankaspect.common.filesystem.PathUtils;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: PERSISTENT CACHE OF THE ENTRIES OF ZIP FILES
+
+
+/**
+ * This class implements a cache of the entries of zip files that may be stored between sessions, so that the entries
+ * of a zip file can be restored without parsing the file again.  The entries of each zip file are stored in a separate
+ * file in the directory of the cache; an index file is keyed by the absolute pathname of a zip file and is valid only
+ * while the size and last-modified time of the zip file are unchanged.  The number of index files in the directory is
+ * limited: when an index file is written, the least recently written files in excess of the limit are deleted.
+ */
+
+public class EntryIndexCache
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The identifier at the start of an index file. */
+	private static final	int		FILE_ID	= 0x55494458;  // "UIDX"
+
+	/** The version of the format of an index file. */
+	private static final	int		VERSION	= 0;
+
+	/** The maximum number of index files in the directory of the cache. */
+	private static final	int		MAX_NUM_FILES	= 64;
+
+	/** The filename extension of an index file. */
+	private static final	String	FILENAME_EXTENSION	= ".idx";
+
+	/** The algorithm of the hash function that is applied to the pathname of a zip file to name its index file. */
+	private static final	String	HASH_ALGORITHM	= "SHA-256";
+
+	/** The number of bytes of the hash of a pathname that are used in the name of an index file. */
+	private static final	int		HASH_LENGTH	= 16;
+
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	ERROR_READING_FILE =
+				"An error occurred when reading the file.";
+
+		String	ERROR_WRITING_FILE =
+				"An error occurred when writing the file.";
+
+		String	NOT_AN_INDEX_FILE =
+				"The file is not an index of the entries of a zip file.";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The directory that contains the index files of the cache. */
+	private	Path	directory;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a cache of the entries of zip files whose index files are stored in the specified
+	 * directory.
+	 *
+	 * @param directory
+	 *          the directory in which index files will be stored, which may be {@code null}, in which case nothing is
+	 *          stored.
+	 */
+
+	public EntryIndexCache(
+		Path	directory)
+	{
+		// Initialise instance variables
+		this.directory = directory;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns {@code true} if this cache has a directory in which index files can be stored.
+	 *
+	 * @return {@code true} if this cache has a directory in which index files can be stored.
+	 */
+
+	public boolean isEnabled()
+	{
+		return (directory != null);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Writes the entries of the specified zip file to an index file in the directory of this cache, replacing any
+	 * existing index of the zip file.
+	 *
+	 * @param  zipFile
+	 *           the zip file whose entries will be written.
+	 * @throws FileException
+	 *           if an error occurs when writing the index file.
+	 */
+
+	public void write(
+		ZipFileModel	zipFile)
+		throws FileException
+	{
+		// Test for directory and timestamp of zip file
+		if ((directory == null) || (zipFile.getTimestamp() == null))
+			return;
+
+		// Get location of index file
+		Path location = zipFile.getLocation();
+		Path indexFile = indexFile(location);
+
+		// Write index to temporary file
+		Path tempFile = FilenameUtils.tempLocation(indexFile);
+		try
+		{
+			Files.createDirectories(directory);
+			try (DataOutputStream outStream =
+					new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile))))
+			{
+				// Write identifier and version
+				outStream.writeInt(FILE_ID);
+				outStream.writeInt(VERSION);
+
+				// Write key and attributes of zip file
+				Instant timestamp = zipFile.getTimestamp().toInstant();
+				outStream.writeUTF(PathUtils.absString(location));
+				outStream.writeLong(Files.size(location));
+				outStream.writeLong(timestamp.getEpochSecond());
+				outStream.writeInt(timestamp.getNano());
+				outStream.writeInt(zipFile.getNumDirectories());
+
+				// Write entries
+				List<ZipFileEntry> entries = zipFile.getEntries();
+				outStream.writeInt(entries.size());
+				for (ZipFileEntry entry : entries)
+				{
+					outStream.writeInt(entry.getIndex());
+					outStream.writeUTF(entry.getPathname());
+					outStream.writeLong(entry.getTimestamp());
+					outStream.writeLong(entry.getSize());
+					outStream.writeLong(entry.getCompressedSize());
+					outStream.writeLong(entry.getCrc());
+				}
+			}
+
+			// Replace index file with temporary file
+			Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e)
+		{
+			// Delete temporary file
+			try
+			{
+				Files.deleteIfExists(tempFile);
+			}
+			catch (IOException e0)
+			{
+				// ignore
+			}
+
+			// Rethrow exception
+			throw new FileException(ErrorMsg.ERROR_WRITING_FILE, e, indexFile);
+		}
+
+		// Delete excess index files
+		deleteExcessFiles();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Reads the entries of the specified zip file from its index file in the directory of this cache.
+	 *
+	 * @param  location
+	 *           the location of the zip file.
+	 * @return a zip-file model that contains the entries of {@code location}, or {@code null} if there is no index of
+	 *         {@code location} or the size or last-modified time of the file has changed since the index was written.
+	 * @throws FileException
+	 *           if an error occurs when reading the index file.
+	 */
+
+	public ZipFileModel read(
+		Path	location)
+		throws FileException
+	{
+		// Test for index file
+		if (directory == null)
+			return null;
+		Path indexFile = indexFile(location);
+		if (!Files.isRegularFile(indexFile, LinkOption.NOFOLLOW_LINKS))
+			return null;
+
+		// Get size and last-modified time of zip file
+		long size = 0;
+		FileTime timestamp = null;
+		try
+		{
+			size = Files.size(location);
+			timestamp = Files.getLastModifiedTime(location, LinkOption.NOFOLLOW_LINKS);
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+
+		// Read index file
+		try (DataInputStream inStream = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile))))
+		{
+			// Test identifier and version
+			if ((inStream.readInt() != FILE_ID) || (inStream.readInt() != VERSION))
+				throw new FileException(ErrorMsg.NOT_AN_INDEX_FILE, indexFile);
+
+			// Read key and attributes of zip file; test whether zip file has changed since index was written
+			if (!inStream.readUTF().equals(PathUtils.absString(location)) || (inStream.readLong() != size)
+					|| !FileTime.from(Instant.ofEpochSecond(inStream.readLong(), inStream.readInt())).equals(timestamp))
+				return null;
+			int numDirectories = inStream.readInt();
+
+			// Read entries
+			int numEntries = inStream.readInt();
+			List<ZipFileEntry> entries = new ArrayList<>(numEntries);
+			for (int i = 0; i < numEntries; i++)
+			{
+				entries.add(new ZipFileEntry(inStream.readInt(), inStream.readUTF(), inStream.readLong(),
+											 inStream.readLong(), inStream.readLong(), inStream.readLong()));
+			}
+
+			// Create zip-file model and return it
+			ZipFileModel zipFile = new ZipFileModel();
+			zipFile.setEntries(location, timestamp, numDirectories, entries);
+			return zipFile;
+		}
+		catch (IOException e)
+		{
+			throw new FileException(ErrorMsg.ERROR_READING_FILE, e, indexFile);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the location of the index file of the specified zip file.
+	 *
+	 * @param  location
+	 *           the location of the zip file.
+	 * @return the location of the index file of {@code location}.
+	 */
+
+	private Path indexFile(
+		Path	location)
+	{
+		try
+		{
+			byte[] hash = MessageDigest.getInstance(HASH_ALGORITHM)
+					.digest(PathUtils.absString(location).getBytes(StandardCharsets.UTF_8));
+			return directory.resolve(HexFormat.of().formatHex(hash, 0, HASH_LENGTH) + FILENAME_EXTENSION);
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new UnexpectedRuntimeException(e);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Deletes the least recently written index files in the directory of this cache if there are more than the maximum
+	 * number of files.  Errors are ignored.
+	 */
+
+	private void deleteExcessFiles()
+	{
+		// Get index files
+		List<Path> files = null;
+		try (Stream<Path> stream = Files.list(directory))
+		{
+			files = stream.filter(file -> file.getFileName().toString().endsWith(FILENAME_EXTENSION)).toList();
+		}
+		catch (IOException e)
+		{
+			return;
+		}
+		if (files.size() <= MAX_NUM_FILES)
+			return;
+
+		// Sort index files by last-modified time, most recent first
+		List<Path> sortedFiles = new ArrayList<>(files);
+		sortedFiles.sort(Comparator.comparing((Path file) ->
+		{
+			try
+			{
+				return Files.getLastModifiedTime(file, LinkOption.NOFOLLOW_LINKS);
+			}
+			catch (IOException e)
+			{
+				return FileTime.fromMillis(0);
+			}
+		}).reversed());
+
+		// Delete excess index files
+		for (Path file : sortedFiles.subList(MAX_NUM_FILES, sortedFiles.size()))
+		{
+			try
+			{
+				Files.deleteIfExists(file);
+			}
+			catch (IOException e)
+			{
+				// ignore
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
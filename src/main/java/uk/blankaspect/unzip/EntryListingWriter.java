@@ -0,0 +1,764 @@
+/*====================================================================*\
+
+EntryListingWriter.java
+
+Class: writer of a listing of zip-file entries.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.unzip;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.IOException;
+import java.io.Writer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.BitSet;
+import java.util.List;
+
+import java.util.function.ToLongFunction;
+
+import uk.blankaspect.common.basictree.NullNode;
+import uk.blankaspect.common.basictree.StringNode;
+
+import uk.blankaspect.common.exception2.FileException;
+
+import uk.blankaspect.common.filesystem.PathUtils;
+
+import uk.blankaspect.common.function.IFunction1;
+
+import uk.blankaspect.common.task.ITaskStatus;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: WRITER OF A LISTING OF ZIP-FILE ENTRIES
+
+
+/**
+ * This class provides a method that writes a listing of selected zip-file entries to a file in one of several
+ * {@linkplain Format formats}.
+ * <p>
+ * The rows of the listing are formatted and written one at a time, so the memory that is used does not depend on the
+ * number of entries.  When the listing is written as aligned text, the widths of the columns are computed in a first
+ * pass over the entries that retains only the maximum width of each column.
+ * </p>
+ */
+
+public class EntryListingWriter
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The number of spaces between adjacent columns of aligned text. */
+	private static final	int		TEXT_COLUMN_GAP	= 2;
+
+	/** The number of rows between updates of the progress of a task. */
+	private static final	int		PROGRESS_INTERVAL	= 1024;
+
+	/** Miscellaneous strings. */
+	private static final	String	MEASURING_STR	= "Measuring columns";
+	private static final	String	WRITING_STR		= "Writing";
+
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	ERROR_WRITING_FILE =
+				"An error occurred when writing the file.";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Prevents this class from being instantiated externally.
+	 */
+
+	private EntryListingWriter()
+	{
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Writes a listing of the selected entries of the specified list to the specified file in the specified format.
+	 * If the task that is associated with {@code taskStatus} is cancelled, the partially written file is deleted.
+	 *
+	 * @param  file
+	 *           the file to which the listing will be written.
+	 * @param  format
+	 *           the format of the listing.
+	 * @param  fields
+	 *           the fields of an entry that will be written, in order.
+	 * @param  includeHeader
+	 *           if {@code true}, the names of the fields will be written before the first entry.  This flag is ignored
+	 *           for {@link Format#JSON_LINES}.
+	 * @param  entries
+	 *           the list of entries.
+	 * @param  selection
+	 *           the indices of the entries of {@code entries} that will be written.
+	 * @param  taskStatus
+	 *           the status of the task that is writing the listing.
+	 * @return the number of entries that were written.
+	 * @throws FileException
+	 *           if an error occurred when writing the file.
+	 */
+
+	public static int write(
+		Path				file,
+		Format				format,
+		List<Field>			fields,
+		boolean				includeHeader,
+		List<ZipFileEntry>	entries,
+		BitSet				selection,
+		ITaskStatus			taskStatus)
+		throws FileException
+	{
+		// Write file
+		int count = 0;
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+		{
+			count = write(writer, PathUtils.absString(file), format, fields, includeHeader, entries, selection,
+						  taskStatus);
+		}
+		catch (IOException e)
+		{
+			throw new FileException(ErrorMsg.ERROR_WRITING_FILE, e, file);
+		}
+
+		// If task was cancelled, delete partially written file
+		if (taskStatus.isCancelled())
+		{
+			try
+			{
+				Files.deleteIfExists(file);
+			}
+			catch (IOException e)
+			{
+				// ignore
+			}
+		}
+
+		// Return number of entries that were written
+		return count;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Writes a listing of the selected entries of the specified list to the specified writer in the specified format.
+	 * The writer is not closed.
+	 *
+	 * @param  writer
+	 *           the writer to which the listing will be written.
+	 * @param  format
+	 *           the format of the listing.
+	 * @param  fields
+	 *           the fields of an entry that will be written, in order.
+	 * @param  includeHeader
+	 *           if {@code true}, the names of the fields will be written before the first entry.  This flag is ignored
+	 *           for {@link Format#JSON_LINES}.
+	 * @param  entries
+	 *           the list of entries.
+	 * @param  selection
+	 *           the indices of the entries of {@code entries} that will be written.
+	 * @param  taskStatus
+	 *           the status of the task that is writing the listing.
+	 * @return the number of entries that were written.
+	 * @throws IOException
+	 *           if an error occurred when writing to {@code writer}.
+	 */
+
+	public static int write(
+		Writer				writer,
+		Format				format,
+		List<Field>			fields,
+		boolean				includeHeader,
+		List<ZipFileEntry>	entries,
+		BitSet				selection,
+		ITaskStatus			taskStatus)
+		throws IOException
+	{
+		return write(writer, null, format, fields, includeHeader, entries, selection, taskStatus);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Writes a listing of the selected entries of the specified list to the specified writer in the specified format.
+	 *
+	 * @param  writer
+	 *           the writer to which the listing will be written.
+	 * @param  target
+	 *           a description of the destination of {@code writer} for the message of the task, which may be {@code
+	 *           null}.
+	 * @param  format
+	 *           the format of the listing.
+	 * @param  fields
+	 *           the fields of an entry that will be written, in order.
+	 * @param  includeHeader
+	 *           if {@code true}, the names of the fields will be written before the first entry.
+	 * @param  entries
+	 *           the list of entries.
+	 * @param  selection
+	 *           the indices of the entries of {@code entries} that will be written.
+	 * @param  taskStatus
+	 *           the status of the task that is writing the listing.
+	 * @return the number of entries that were written.
+	 * @throws IOException
+	 *           if an error occurred when writing to {@code writer}.
+	 */
+
+	private static int write(
+		Writer				writer,
+		String				target,
+		Format				format,
+		List<Field>			fields,
+		boolean				includeHeader,
+		List<ZipFileEntry>	entries,
+		BitSet				selection,
+		ITaskStatus			taskStatus)
+		throws IOException
+	{
+		// Get number of entries and fields
+		int numEntries = selection.cardinality();
+		int numFields = fields.size();
+
+		// If text is aligned, calculate widths of columns
+		int[] widths = null;
+		if (format == Format.TEXT)
+		{
+			// Set message and initial progress
+			taskStatus.setMessage(MEASURING_STR);
+			taskStatus.setProgress(0.0);
+
+			// Initialise widths from names of fields
+			widths = new int[numFields];
+			if (includeHeader)
+			{
+				for (int i = 0; i < numFields; i++)
+					widths[i] = fields.get(i).name.length();
+			}
+
+			// Update widths from values of fields
+			int count = 0;
+			for (int index = selection.nextSetBit(0); index >= 0; index = selection.nextSetBit(index + 1))
+			{
+				// Test whether task has been cancelled
+				if (taskStatus.isCancelled())
+					return 0;
+
+				// Update widths
+				ZipFileEntry entry = entries.get(index);
+				for (int i = 0; i < numFields; i++)
+					widths[i] = Math.max(widths[i], fields.get(i).getValue(entry).length());
+
+				// Update progress
+				if (++count % PROGRESS_INTERVAL == 0)
+					taskStatus.setProgress((double)count / (double)numEntries);
+			}
+		}
+
+		// Set message and initial progress
+		if (target == null)
+			taskStatus.setMessage(WRITING_STR);
+		else
+			taskStatus.setSpacedMessage(WRITING_STR, target);
+		taskStatus.setProgress(0.0);
+
+		// Write rows
+		int count = 0;
+		// Initialise buffer for a row
+		StringBuilder buffer = new StringBuilder(256);
+
+		// Write header
+		if (includeHeader && (format != Format.JSON_LINES))
+		{
+			String[] names = new String[numFields];
+			for (int i = 0; i < numFields; i++)
+				names[i] = fields.get(i).name;
+			format.appendRow(buffer, fields, names, widths);
+			writer.append(buffer);
+
+			// If text is aligned, underline header
+			if (format == Format.TEXT)
+			{
+				int length = 0;
+				for (int i = 0; i < numFields; i++)
+					length += widths[i] + ((i > 0) ? TEXT_COLUMN_GAP : 0);
+				writer.append("-".repeat(length)).append('\n');
+			}
+		}
+
+		// Write entries
+		String[] values = new String[numFields];
+		for (int index = selection.nextSetBit(0); index >= 0; index = selection.nextSetBit(index + 1))
+		{
+			// Test whether task has been cancelled
+			if (taskStatus.isCancelled())
+				break;
+
+			// Write row
+			ZipFileEntry entry = entries.get(index);
+			for (int i = 0; i < numFields; i++)
+			{
+				Field field = fields.get(i);
+				values[i] = (format == Format.JSON_LINES) ? field.getJsonValue(entry) : field.getValue(entry);
+			}
+			format.appendRow(buffer, fields, values, widths);
+			writer.append(buffer);
+
+			// Update progress
+			if (++count % PROGRESS_INTERVAL == 0)
+				taskStatus.setProgress((double)count / (double)numEntries);
+		}
+
+		// Return number of entries that were written
+		return count;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Appends the specified value to the specified buffer as a field of a row of comma-separated values.  If the value
+	 * contains a comma, a quotation mark or a line break, it is enclosed in quotation marks, and each quotation mark
+	 * within it is doubled.
+	 *
+	 * @param buffer
+	 *          the buffer to which the value will be appended.
+	 * @param value
+	 *          the value that will be appended.
+	 */
+
+	private static void appendCsvValue(
+		StringBuilder	buffer,
+		String			value)
+	{
+		boolean quote = false;
+		for (int i = 0; i < value.length(); i++)
+		{
+			char ch = value.charAt(i);
+			if ((ch == ',') || (ch == '"') || (ch == '\n') || (ch == '\r'))
+			{
+				quote = true;
+				break;
+			}
+		}
+
+		if (quote)
+			buffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+		else
+			buffer.append(value);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Appends the specified value to the specified buffer as a field of a row of tab-separated values.  Each tab, line
+	 * feed, carriage return and backslash in the value is replaced by the escape sequence {@code \t}, {@code \n},
+	 * {@code \r} or {@code \\} respectively, so that the value cannot break the structure of rows and columns.
+	 *
+	 * @param buffer
+	 *          the buffer to which the value will be appended.
+	 * @param value
+	 *          the value that will be appended.
+	 */
+
+	private static void appendTsvValue(
+		StringBuilder	buffer,
+		String			value)
+	{
+		for (int i = 0; i < value.length(); i++)
+		{
+			char ch = value.charAt(i);
+			switch (ch)
+			{
+				case '\t' -> buffer.append("\\t");
+				case '\n' -> buffer.append("\\n");
+				case '\r' -> buffer.append("\\r");
+				case '\\' -> buffer.append("\\\\");
+				default   -> buffer.append(ch);
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Enumerated types
+////////////////////////////////////////////////////////////////////////
+
+
+	// ENUMERATION: FORMAT OF LISTING
+
+
+	/**
+	 * This is an enumeration of the formats of a listing of zip-file entries.
+	 */
+
+	public enum Format
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Constants
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Text that is aligned in columns that are separated by spaces.
+		 */
+
+		TEXT
+		(
+			"Text",
+			".txt"
+		)
+		{
+			@Override
+			protected void appendFields(
+				StringBuilder	buffer,
+				List<Field>		fields,
+				String[]		values,
+				int[]			widths)
+			{
+				for (int i = 0; i < values.length; i++)
+				{
+					if (i > 0)
+						buffer.append(" ".repeat(TEXT_COLUMN_GAP));
+					String value = values[i];
+					int padding = widths[i] - value.length();
+					if (fields.get(i).rightAligned)
+						buffer.append(" ".repeat(padding)).append(value);
+					else
+						buffer.append(value).append(" ".repeat(padding));
+				}
+
+				// Remove trailing spaces
+				int length = buffer.length();
+				while ((length > 0) && (buffer.charAt(length - 1) == ' '))
+					--length;
+				buffer.setLength(length);
+			}
+		},
+
+		/**
+		 * Tab-separated values.  A tab, line feed, carriage return or backslash in a value is written as the escape
+		 * sequence {@code \t}, {@code \n}, {@code \r} or {@code \\} respectively.
+		 */
+
+		TSV
+		(
+			"Tab-separated values",
+			".tsv"
+		)
+		{
+			@Override
+			protected void appendFields(
+				StringBuilder	buffer,
+				List<Field>		fields,
+				String[]		values,
+				int[]			widths)
+			{
+				for (int i = 0; i < values.length; i++)
+				{
+					if (i > 0)
+						buffer.append('\t');
+					appendTsvValue(buffer, values[i]);
+				}
+			}
+		},
+
+		/**
+		 * Comma-separated values, quoted where necessary.
+		 */
+
+		CSV
+		(
+			"Comma-separated values",
+			".csv"
+		)
+		{
+			@Override
+			protected void appendFields(
+				StringBuilder	buffer,
+				List<Field>		fields,
+				String[]		values,
+				int[]			widths)
+			{
+				for (int i = 0; i < values.length; i++)
+				{
+					if (i > 0)
+						buffer.append(',');
+					appendCsvValue(buffer, values[i]);
+				}
+			}
+		},
+
+		/**
+		 * A JSON object on each line whose properties are the fields of an entry.  The value of a field that has a
+		 * {@linkplain Field#numberFunction() number function} is a JSON number, or {@code null} if it is unknown; the
+		 * value of any other field, including the timestamp, is a JSON string of the text of the field.
+		 */
+
+		JSON_LINES
+		(
+			"JSON Lines",
+			".jsonl"
+		)
+		{
+			@Override
+			protected void appendFields(
+				StringBuilder	buffer,
+				List<Field>		fields,
+				String[]		values,
+				int[]			widths)
+			{
+				buffer.append('{');
+				for (int i = 0; i < values.length; i++)
+				{
+					if (i > 0)
+						buffer.append(',');
+					buffer.append(StringNode.escapeAndQuote(fields.get(i).key, false));
+					buffer.append(':');
+					buffer.append(values[i]);
+				}
+				buffer.append('}');
+			}
+		};
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		private	String	text;
+		private	String	filenameSuffix;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private Format(
+			String	text,
+			String	filenameSuffix)
+		{
+			// Initialise instance variables
+			this.text = text;
+			this.filenameSuffix = filenameSuffix;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Abstract methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Appends the specified values of the fields of a row to the specified buffer.
+		 *
+		 * @param buffer
+		 *          the buffer to which the values will be appended.
+		 * @param fields
+		 *          the fields of the row.
+		 * @param values
+		 *          the values of the fields.  For {@link #JSON_LINES}, each value is the JSON text of a field.
+		 * @param widths
+		 *          the widths of the columns, which are used only by {@link #TEXT}.
+		 */
+
+		protected abstract void appendFields(
+			StringBuilder	buffer,
+			List<Field>		fields,
+			String[]		values,
+			int[]			widths);
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : overriding methods
+	////////////////////////////////////////////////////////////////////
+
+		@Override
+		public String toString()
+		{
+			return text;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns the conventional filename suffix of files of this format.
+		 *
+		 * @return the conventional filename suffix of files of this format.
+		 */
+
+		public String getFilenameSuffix()
+		{
+			return filenameSuffix;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Replaces the content of the specified buffer with a row that consists of the specified values, followed by
+		 * a line feed.
+		 *
+		 * @param buffer
+		 *          the buffer in which the row will be created.
+		 * @param fields
+		 *          the fields of the row.
+		 * @param values
+		 *          the values of the fields.
+		 * @param widths
+		 *          the widths of the columns, which are used only by {@link #TEXT}.
+		 */
+
+		private void appendRow(
+			StringBuilder	buffer,
+			List<Field>		fields,
+			String[]		values,
+			int[]			widths)
+		{
+			buffer.setLength(0);
+			appendFields(buffer, fields, values, widths);
+			buffer.append('\n');
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: FIELD OF LISTING
+
+
+	/**
+	 * This record encapsulates a field of a listing of zip-file entries.
+	 *
+	 * @param key
+	 *          the key of the field in a JSON object.
+	 * @param name
+	 *          the name of the field in the header of the listing.
+	 * @param rightAligned
+	 *          if {@code true}, the values of the field are right-aligned in aligned text.
+	 * @param valueFunction
+	 *          the function that returns the value of the field for an entry.
+	 * @param numberFunction
+	 *          the function that returns the numeric value of the field for an entry, which is written as a JSON
+	 *          number by {@link Format#JSON_LINES}, or {@code null} if the value is written as a JSON string.  A
+	 *          negative value denotes an unknown value, which is written as {@code null}.
+	 */
+
+	public record Field(
+		String								key,
+		String								name,
+		boolean								rightAligned,
+		IFunction1<String, ZipFileEntry>	valueFunction,
+		ToLongFunction<ZipFileEntry>		numberFunction)
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Creates a new instance of a field whose value is written as a JSON string by {@link Format#JSON_LINES}.
+		 *
+		 * @param key
+		 *          the key of the field in a JSON object.
+		 * @param name
+		 *          the name of the field in the header of the listing.
+		 * @param rightAligned
+		 *          if {@code true}, the values of the field are right-aligned in aligned text.
+		 * @param valueFunction
+		 *          the function that returns the value of the field for an entry.
+		 */
+
+		public Field(
+			String								key,
+			String								name,
+			boolean								rightAligned,
+			IFunction1<String, ZipFileEntry>	valueFunction)
+		{
+			// Call alternative constructor
+			this(key, name, rightAligned, valueFunction, null);
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns the value of this field for the specified entry.
+		 *
+		 * @param  entry
+		 *           the entry.
+		 * @return the value of this field for {@code entry}, or an empty string if the value is {@code null}.
+		 */
+
+		private String getValue(
+			ZipFileEntry	entry)
+		{
+			String value = valueFunction.invoke(entry);
+			return (value == null) ? "" : value;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the JSON text of the value of this field for the specified entry.
+		 *
+		 * @param  entry
+		 *           the entry.
+		 * @return the JSON text of the value of this field for {@code entry}.
+		 */
+
+		private String getJsonValue(
+			ZipFileEntry	entry)
+		{
+			if (numberFunction == null)
+				return StringNode.escapeAndQuote(getValue(entry), false);
+
+			long value = numberFunction.applyAsLong(entry);
+			return (value < 0) ? NullNode.VALUE : Long.toString(value);
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
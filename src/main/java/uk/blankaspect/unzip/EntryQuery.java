@@ -0,0 +1,1136 @@
+/*====================================================================*\
+
+EntryQuery.java
+
+Class: query on the properties of zip-file entries.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.unzip;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+import java.time.format.DateTimeParseException;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import java.util.stream.IntStream;
+
+import uk.blankaspect.common.exception2.BaseException;
+
+import uk.blankaspect.common.matcher.SimpleWildcardPathnameMatcher;
+import uk.blankaspect.common.matcher.WildcardMatcher;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: QUERY ON THE PROPERTIES OF ZIP-FILE ENTRIES
+
+
+/**
+ * This class implements a query on the properties of zip-file entries.  A query is parsed from an expression such as
+ * <pre>
+ *   *.log &amp; (size &gt; 50 MB | ratio &lt; 5%) &amp; !(modified &lt; 2024-01-01)</pre>
+ * <p>
+ * An expression is a combination of terms with the operators {@code !} (or {@code not}), {@code &amp;} (or {@code
+ * and}) and {@code |} (or {@code or}), in decreasing order of precedence, and parentheses.  Terms that are separated
+ * only by whitespace are combined with <i>and</i>.  A term has one of the following forms:
+ * </p>
+ * <ul>
+ *   <li>
+ *     <i>pattern</i>: the filename matches a wildcard pattern.
+ *   </li>
+ *   <li>
+ *     <i>field operator value</i>: the value of a field of an entry is compared with a literal value.  The operators
+ *     are {@code <}, {@code <=}, {@code >}, {@code >=}, {@code =} and {@code !=}.
+ *   </li>
+ * </ul>
+ * <p>
+ * The fields are:
+ * </p>
+ * <ul>
+ *   <li>
+ *     {@code name}, {@code dir} and {@code path}: the filename, the directory pathname and the pathname of an entry,
+ *     which are compared with a wildcard pattern by the {@code =} and {@code !=} operators.  Letter case is ignored.
+ *   </li>
+ *   <li>
+ *     {@code size} and {@code csize}: the uncompressed and compressed sizes, in bytes, optionally followed by a unit
+ *     ({@code KB}, {@code MB}, {@code GB} or {@code TB}, which are powers of 1024).  A size that does not fit in a
+ *     {@code long} is an invalid value.
+ *   </li>
+ *   <li>
+ *     {@code time} (or {@code modified}): the timestamp, as an ISO 8601 local date ({@code 2024-01-01}) or date and
+ *     time ({@code 2024-01-01T12:30} or {@code 2024-01-01 12:30:45}).  A date or time denotes an interval of a day,
+ *     minute or second; for example, {@code time > 2024-01-01} is satisfied by timestamps after the end of that day.
+ *   </li>
+ *   <li>
+ *     {@code crc}: the CRC, in hexadecimal.
+ *   </li>
+ *   <li>
+ *     {@code ratio}: the compressed size as a percentage of the uncompressed size.
+ *   </li>
+ * </ul>
+ * <p>
+ * A field whose value is not known for an entry does not satisfy any comparison.
+ * </p>
+ * <p>
+ * A query is compiled into a tree of nodes, each of which scans the {@linkplain EntryColumns primitive columns} of the
+ * entries of a zip file over a block of indices and sets a bit for each matching entry.  The blocks are evaluated in
+ * parallel, and the values of the entries are neither boxed nor converted to date-time objects.
+ * </p>
+ */
+
+public class EntryQuery
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The number of indices in a block that is evaluated by a single task.  It must be a multiple of 64. */
+	private static final	int		BLOCK_LENGTH	= 1 << 12;
+
+	/** The number of words of a bit set that hold the bits of a block. */
+	private static final	int		BLOCK_NUM_WORDS	= BLOCK_LENGTH >>> 6;
+
+	/** The characters that end a word of an expression. */
+	private static final	String	DELIMITER_CHARS	= "()&|!<>=\"";
+
+	/** The character that delimits a quoted string. */
+	private static final	char	QUOTE_CHAR	= '"';
+
+	/** The units of size, which are powers of 1024. */
+	private static final	String[]	SIZE_UNITS	= { "B", "KB", "MB", "GB", "TB" };
+
+	/** The alternative units of size. */
+	private static final	String[]	ALT_SIZE_UNITS	= { "", "K", "M", "G", "T" };
+
+	/** The length of a time of day with a resolution of one minute. */
+	private static final	int		MINUTE_TIME_LENGTH	= 5;
+
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	EMPTY_QUERY =
+				"The query is empty.";
+
+		String	UNEXPECTED_END_OF_QUERY =
+				"The query ended unexpectedly.";
+
+		String	UNEXPECTED_TOKEN =
+				"Token: %s\nThe token was not expected.";
+
+		String	UNTERMINATED_STRING =
+				"A quoted string is not terminated.";
+
+		String	UNRECOGNISED_FIELD =
+				"Field: %s\nThe field is not recognised.";
+
+		String	INVALID_OPERATOR =
+				"Field: %s\nThe operator %s cannot be applied to the field.";
+
+		String	INVALID_VALUE =
+				"Field: %s\nValue: %s\nThe value is not valid for the field.";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The expression from which this query was parsed. */
+	private	String	expression;
+
+	/** The root node of this query. */
+	private	Node	root;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	private EntryQuery(
+		String	expression,
+		Node	root)
+	{
+		// Initialise instance variables
+		this.expression = expression;
+		this.root = root;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Parses the specified expression and returns the resulting query.
+	 *
+	 * @param  expression
+	 *           the expression that will be parsed.
+	 * @return the query that results from parsing {@code expression}.
+	 * @throws BaseException
+	 *           if {@code expression} is not a valid query.
+	 */
+
+	public static EntryQuery parse(
+		String	expression)
+		throws BaseException
+	{
+		return new EntryQuery(expression, new Parser(expression).parse());
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods : overriding methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * {@inheritDoc}
+	 */
+
+	@Override
+	public String toString()
+	{
+		return expression;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Evaluates this query on the specified columns and returns the {@linkplain ZipFileEntry#getIndex() indices} of the
+	 * entries that satisfy it.
+	 *
+	 * @param  columns
+	 *           the columns of the properties of the entries.
+	 * @return the indices of the entries that satisfy this query.
+	 */
+
+	public BitSet evaluate(
+		EntryColumns	columns)
+	{
+		// Evaluate blocks of indices in parallel
+		int length = columns.getLength();
+		long[] present = columns.getPresent();
+		long[] words = new long[present.length];
+		int numBlocks = (length + BLOCK_LENGTH - 1) / BLOCK_LENGTH;
+		IntStream.range(0, numBlocks).parallel().forEach(block ->
+		{
+			int start = block * BLOCK_LENGTH;
+			int end = Math.min(start + BLOCK_LENGTH, length);
+			long[] blockWords = new long[BLOCK_NUM_WORDS];
+			root.evaluate(columns, start, end, blockWords);
+
+			// Copy bits of entries to result; the words of distinct blocks are disjoint
+			int offset = start >>> 6;
+			int numWords = (end - start + 63) >>> 6;
+			for (int i = 0; i < numWords; i++)
+				words[offset + i] = blockWords[i] & present[offset + i];
+		});
+
+		// Return indices of matching entries
+		return BitSet.valueOf(words);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Evaluates this query on the specified columns and returns a filter that accepts the entries that satisfy it.
+	 *
+	 * @param  columns
+	 *           the columns of the properties of the entries.
+	 * @return a filter that accepts the entries that satisfy this query.
+	 */
+
+	public Predicate<ZipFileEntry> createFilter(
+		EntryColumns	columns)
+	{
+		BitSet indices = evaluate(columns);
+		return entry -> indices.get(entry.getIndex());
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Enumerated types
+////////////////////////////////////////////////////////////////////////
+
+
+	// ENUMERATION: KINDS OF FIELD
+
+
+	private enum FieldKind
+	{
+		NAME,
+		SIZE,
+		TIME,
+		CRC,
+		RATIO
+	}
+
+	//==================================================================
+
+
+	// ENUMERATION: FIELDS
+
+
+	private enum Field
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Constants
+	////////////////////////////////////////////////////////////////////
+
+		NAME            (FieldKind.NAME,  null,                             "name", "filename"),
+		DIRECTORY       (FieldKind.NAME,  null,                             "dir", "directory"),
+		PATHNAME        (FieldKind.NAME,  null,                             "path", "pathname"),
+		SIZE            (FieldKind.SIZE,  EntryColumns::getSizes,           "size"),
+		COMPRESSED_SIZE (FieldKind.SIZE,  EntryColumns::getCompressedSizes, "csize", "compressed"),
+		TIMESTAMP       (FieldKind.TIME,  EntryColumns::getTimestamps,      "time", "modified", "timestamp"),
+		CRC             (FieldKind.CRC,   EntryColumns::getCrcs,            "crc"),
+		RATIO           (FieldKind.RATIO, null,                             "ratio");
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		private	FieldKind						kind;
+		private	Function<EntryColumns, long[]>	column;
+		private	String[]						keys;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private Field(
+			FieldKind						kind,
+			Function<EntryColumns, long[]>	column,
+			String...						keys)
+		{
+			// Initialise instance variables
+			this.kind = kind;
+			this.column = column;
+			this.keys = keys;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Class methods
+	////////////////////////////////////////////////////////////////////
+
+		private static Field forKey(
+			String	key)
+		{
+			for (Field value : values())
+			{
+				for (String k : value.keys)
+				{
+					if (k.equalsIgnoreCase(key))
+						return value;
+				}
+			}
+			return null;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+
+	// ENUMERATION: COMPARISON OPERATORS
+
+
+	private enum Operator
+	{
+		LESS_THAN,
+		LESS_THAN_OR_EQUAL_TO,
+		GREATER_THAN,
+		GREATER_THAN_OR_EQUAL_TO,
+		EQUAL_TO,
+		NOT_EQUAL_TO;
+
+		//--------------------------------------------------------------
+
+		private static Operator forSymbol(
+			String	symbol)
+		{
+			return switch (symbol)
+			{
+				case "<"       -> LESS_THAN;
+				case "<="      -> LESS_THAN_OR_EQUAL_TO;
+				case ">"       -> GREATER_THAN;
+				case ">="      -> GREATER_THAN_OR_EQUAL_TO;
+				case "=", "==" -> EQUAL_TO;
+				case "!="      -> NOT_EQUAL_TO;
+				default        -> null;
+			};
+		}
+
+		//--------------------------------------------------------------
+	}
+
+	//==================================================================
+
+
+	// ENUMERATION: KINDS OF TOKEN
+
+
+	private enum TokenKind
+	{
+		WORD,
+		STRING,
+		OPERATOR,
+		LEFT_PARENTHESIS,
+		RIGHT_PARENTHESIS,
+		AND,
+		OR,
+		NOT
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member interfaces
+////////////////////////////////////////////////////////////////////////
+
+
+	// INTERFACE: NODE OF QUERY
+
+
+	private interface Node
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Sets the bits of the specified words that correspond to the entries in the specified range of indices that
+		 * satisfy this node.  Bit 0 of the first word corresponds to {@code start}; the words are initially clear.
+		 * Bits that do not correspond to an entry may be set to any value.
+		 *
+		 * @param columns
+		 *          the columns of the properties of the entries.
+		 * @param start
+		 *          the start index of the range, inclusive.
+		 * @param end
+		 *          the end index of the range, exclusive.
+		 * @param words
+		 *          the words whose bits will be set.
+		 */
+
+		void evaluate(
+			EntryColumns	columns,
+			int				start,
+			int				end,
+			long[]			words);
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: TOKEN
+
+
+	private record Token(
+		TokenKind	kind,
+		String		text)
+	{ }
+
+	//==================================================================
+
+
+	// RECORD: 'AND' NODE
+
+
+	private record AndNode(
+		List<Node>	operands)
+		implements Node
+	{
+		@Override
+		public void evaluate(
+			EntryColumns	columns,
+			int				start,
+			int				end,
+			long[]			words)
+		{
+			operands.get(0).evaluate(columns, start, end, words);
+			long[] operandWords = new long[words.length];
+			for (int i = 1; (i < operands.size()) && !isClear(words); i++)
+			{
+				operands.get(i).evaluate(columns, start, end, operandWords);
+				for (int j = 0; j < words.length; j++)
+				{
+					words[j] &= operandWords[j];
+					operandWords[j] = 0;
+				}
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		private static boolean isClear(
+			long[]	words)
+		{
+			for (long word : words)
+			{
+				if (word != 0)
+					return false;
+			}
+			return true;
+		}
+
+		//--------------------------------------------------------------
+	}
+
+	//==================================================================
+
+
+	// RECORD: 'OR' NODE
+
+
+	private record OrNode(
+		List<Node>	operands)
+		implements Node
+	{
+		@Override
+		public void evaluate(
+			EntryColumns	columns,
+			int				start,
+			int				end,
+			long[]			words)
+		{
+			operands.get(0).evaluate(columns, start, end, words);
+			long[] operandWords = new long[words.length];
+			for (int i = 1; i < operands.size(); i++)
+			{
+				operands.get(i).evaluate(columns, start, end, operandWords);
+				for (int j = 0; j < words.length; j++)
+				{
+					words[j] |= operandWords[j];
+					operandWords[j] = 0;
+				}
+			}
+		}
+
+		//--------------------------------------------------------------
+	}
+
+	//==================================================================
+
+
+	// RECORD: 'NOT' NODE
+
+
+	private record NotNode(
+		Node	operand)
+		implements Node
+	{
+		@Override
+		public void evaluate(
+			EntryColumns	columns,
+			int				start,
+			int				end,
+			long[]			words)
+		{
+			operand.evaluate(columns, start, end, words);
+			for (int i = 0; i < words.length; i++)
+				words[i] = ~words[i];
+		}
+
+		//--------------------------------------------------------------
+	}
+
+	//==================================================================
+
+
+	// RECORD: FILENAME NODE
+
+
+	private record FilenameNode(
+		WildcardMatcher	matcher)
+		implements Node
+	{
+		@Override
+		public void evaluate(
+			EntryColumns	columns,
+			int				start,
+			int				end,
+			long[]			words)
+		{
+			String[] pathnames = columns.getPathnames();
+			int[] separatorIndices = columns.getSeparatorIndices();
+			for (int i = start; i < end; i++)
+			{
+				String pathname = pathnames[i];
+				if ((pathname != null) && matcher.match(pathname, separatorIndices[i] + 1, pathname.length()))
+					words[(i - start) >>> 6] |= 1L << (i - start);
+			}
+		}
+
+		//--------------------------------------------------------------
+	}
+
+	//==================================================================
+
+
+	// RECORD: PATHNAME NODE
+
+
+	private record PathnameNode(
+		SimpleWildcardPathnameMatcher	matcher,
+		boolean							directory)
+		implements Node
+	{
+		@Override
+		public void evaluate(
+			EntryColumns	columns,
+			int				start,
+			int				end,
+			long[]			words)
+		{
+			String[] pathnames = columns.getPathnames();
+			int[] separatorIndices = columns.getSeparatorIndices();
+			for (int i = start; i < end; i++)
+			{
+				String pathname = pathnames[i];
+				if (pathname != null)
+				{
+					int endIndex = directory ? Math.max(separatorIndices[i], 0) : pathname.length();
+					if (matcher.match(pathname, 0, endIndex))
+						words[(i - start) >>> 6] |= 1L << (i - start);
+				}
+			}
+		}
+
+		//--------------------------------------------------------------
+	}
+
+	//==================================================================
+
+
+	// RECORD: NODE THAT TESTS A COLUMN OF LONG VALUES AGAINST A RANGE
+
+
+	/**
+	 * A node that is satisfied by the entries whose value in a column of {@code long} values is known (ie, not
+	 * negative) and lies within an inclusive range, or outside it if the node is negated.
+	 */
+
+	private record LongRangeNode(
+		Function<EntryColumns, long[]>	column,
+		long							lowerBound,
+		long							upperBound,
+		boolean							negated)
+		implements Node
+	{
+		@Override
+		public void evaluate(
+			EntryColumns	columns,
+			int				start,
+			int				end,
+			long[]			words)
+		{
+			long[] values = column.apply(columns);
+			for (int i = start; i < end; i++)
+			{
+				long value = values[i];
+				if ((value >= 0) && (((value >= lowerBound) && (value <= upperBound)) != negated))
+					words[(i - start) >>> 6] |= 1L << (i - start);
+			}
+		}
+
+		//--------------------------------------------------------------
+	}
+
+	//==================================================================
+
+
+	// RECORD: NODE THAT TESTS THE COMPRESSION RATIO AGAINST A RANGE
+
+
+	/**
+	 * A node that is satisfied by the entries whose compression ratio is known and lies within an inclusive range, or
+	 * outside it if the node is negated.
+	 */
+
+	private record RatioRangeNode(
+		double	lowerBound,
+		double	upperBound,
+		boolean	negated)
+		implements Node
+	{
+		@Override
+		public void evaluate(
+			EntryColumns	columns,
+			int				start,
+			int				end,
+			long[]			words)
+		{
+			double[] values = columns.getRatios();
+			for (int i = start; i < end; i++)
+			{
+				double value = values[i];
+				if (!Double.isNaN(value) && (((value >= lowerBound) && (value <= upperBound)) != negated))
+					words[(i - start) >>> 6] |= 1L << (i - start);
+			}
+		}
+
+		//--------------------------------------------------------------
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member classes : non-inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: PARSER
+
+
+	/**
+	 * This class implements a recursive-descent parser of query expressions.
+	 */
+
+	private static class Parser
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		private	String	expression;
+		private	int		index;
+		private	Token	token;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private Parser(
+			String	expression)
+		{
+			// Initialise instance variables
+			this.expression = expression;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Class methods
+	////////////////////////////////////////////////////////////////////
+
+		private static boolean isWordChar(
+			char	ch)
+		{
+			return !Character.isWhitespace(ch) && (DELIMITER_CHARS.indexOf(ch) < 0);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the index of the specified unit of size, or -1 if the unit is not recognised.
+		 */
+
+		private static int sizeUnitIndex(
+			String	unit)
+		{
+			for (int i = 0; i < SIZE_UNITS.length; i++)
+			{
+				if (unit.equalsIgnoreCase(SIZE_UNITS[i]) || unit.equalsIgnoreCase(ALT_SIZE_UNITS[i])
+						|| unit.equalsIgnoreCase(ALT_SIZE_UNITS[i] + "iB"))
+					return i;
+			}
+			return -1;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Converts the bounds of a literal value to the inclusive range of values that satisfy a comparison with the
+		 * value.  A strict comparison with a bound that is the minimum or maximum {@code long} value yields an empty
+		 * range, whose lower bound is greater than its upper bound.
+		 */
+
+		private static long[] toRange(
+			Operator	operator,
+			long		lower,
+			long		upper)
+		{
+			return switch (operator)
+			{
+				case LESS_THAN                -> (lower == Long.MIN_VALUE)
+														? new long[] { Long.MAX_VALUE, Long.MIN_VALUE }
+														: new long[] { Long.MIN_VALUE, lower - 1 };
+				case LESS_THAN_OR_EQUAL_TO    -> new long[] { Long.MIN_VALUE, upper };
+				case GREATER_THAN             -> (upper == Long.MAX_VALUE)
+														? new long[] { Long.MAX_VALUE, Long.MIN_VALUE }
+														: new long[] { upper + 1, Long.MAX_VALUE };
+				case GREATER_THAN_OR_EQUAL_TO -> new long[] { lower, Long.MAX_VALUE };
+				case EQUAL_TO, NOT_EQUAL_TO   -> new long[] { lower, upper };
+			};
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		private Node parse()
+			throws BaseException
+		{
+			// Read first token
+			nextToken();
+			if (token == null)
+				throw new BaseException(ErrorMsg.EMPTY_QUERY);
+
+			// Parse expression
+			Node node = parseOr();
+
+			// Test for trailing tokens
+			if (token != null)
+				throw new BaseException(ErrorMsg.UNEXPECTED_TOKEN, token.text);
+
+			// Return root node
+			return node;
+		}
+
+		//--------------------------------------------------------------
+
+		private Node parseOr()
+			throws BaseException
+		{
+			List<Node> operands = new ArrayList<>();
+			operands.add(parseAnd());
+			while ((token != null) && (token.kind == TokenKind.OR))
+			{
+				nextToken();
+				operands.add(parseAnd());
+			}
+			return (operands.size() == 1) ? operands.get(0) : new OrNode(operands);
+		}
+
+		//--------------------------------------------------------------
+
+		private Node parseAnd()
+			throws BaseException
+		{
+			List<Node> operands = new ArrayList<>();
+			operands.add(parseUnary());
+			while ((token != null) && (token.kind != TokenKind.OR) && (token.kind != TokenKind.RIGHT_PARENTHESIS))
+			{
+				if (token.kind == TokenKind.AND)
+					nextToken();
+				operands.add(parseUnary());
+			}
+			return (operands.size() == 1) ? operands.get(0) : new AndNode(operands);
+		}
+
+		//--------------------------------------------------------------
+
+		private Node parseUnary()
+			throws BaseException
+		{
+			// Test for end of expression
+			if (token == null)
+				throw new BaseException(ErrorMsg.UNEXPECTED_END_OF_QUERY);
+
+			// Parse unary expression
+			switch (token.kind)
+			{
+				case NOT:
+				{
+					nextToken();
+					return new NotNode(parseUnary());
+				}
+
+				case LEFT_PARENTHESIS:
+				{
+					nextToken();
+					Node node = parseOr();
+					if (token == null)
+						throw new BaseException(ErrorMsg.UNEXPECTED_END_OF_QUERY);
+					if (token.kind != TokenKind.RIGHT_PARENTHESIS)
+						throw new BaseException(ErrorMsg.UNEXPECTED_TOKEN, token.text);
+					nextToken();
+					return node;
+				}
+
+				case WORD:
+				case STRING:
+				{
+					// Get operand
+					Token operand = token;
+					nextToken();
+
+					// If there is no operator, operand is a filename pattern
+					if ((token == null) || (token.kind != TokenKind.OPERATOR))
+						return new FilenameNode(WildcardMatcher.allIgnoreCase(operand.text));
+
+					// Parse comparison
+					return parseComparison(operand);
+				}
+
+				default:
+					throw new BaseException(ErrorMsg.UNEXPECTED_TOKEN, token.text);
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		private Node parseComparison(
+			Token	fieldToken)
+			throws BaseException
+		{
+			// Get field
+			Field field = (fieldToken.kind == TokenKind.WORD) ? Field.forKey(fieldToken.text) : null;
+			if (field == null)
+				throw new BaseException(ErrorMsg.UNRECOGNISED_FIELD, fieldToken.text);
+
+			// Get operator
+			Operator operator = Operator.forSymbol(token.text);
+			if (operator == null)
+				throw new BaseException(ErrorMsg.UNEXPECTED_TOKEN, token.text);
+			if ((field.kind == FieldKind.NAME) && (operator != Operator.EQUAL_TO)
+					&& (operator != Operator.NOT_EQUAL_TO))
+				throw new BaseException(ErrorMsg.INVALID_OPERATOR, fieldToken.text, token.text);
+			nextToken();
+
+			// Get value
+			if ((token == null) || ((token.kind != TokenKind.WORD) && (token.kind != TokenKind.STRING)))
+				throw new BaseException(ErrorMsg.UNEXPECTED_END_OF_QUERY);
+			String value = token.text;
+			nextToken();
+
+			// Create node
+			boolean negated = (operator == Operator.NOT_EQUAL_TO);
+			try
+			{
+				switch (field.kind)
+				{
+					case NAME:
+					{
+						Node node = switch (field)
+						{
+							case NAME      -> new FilenameNode(WildcardMatcher.allIgnoreCase(value));
+							case DIRECTORY -> new PathnameNode(SimpleWildcardPathnameMatcher.ignoreCase(value), true);
+							default        -> new PathnameNode(SimpleWildcardPathnameMatcher.ignoreCase(value), false);
+						};
+						return negated ? new NotNode(node) : node;
+					}
+
+					case SIZE:
+					{
+						// Parse number and optional unit, which may be a separate word
+						int unitStart = 0;
+						while ((unitStart < value.length())
+								&& (Character.isDigit(value.charAt(unitStart)) || (value.charAt(unitStart) == '.')))
+							++unitStart;
+						String unit = value.substring(unitStart);
+						if (unit.isEmpty() && (token != null) && (token.kind == TokenKind.WORD)
+								&& (sizeUnitIndex(token.text) >= 0))
+						{
+							unit = token.text;
+							value += " " + unit;
+							nextToken();
+						}
+						int unitIndex = unit.isEmpty() ? 0 : sizeUnitIndex(unit);
+						if ((unitStart == 0) || (unitIndex < 0))
+							throw new NumberFormatException();
+						double number = Double.parseDouble(value.substring(0, unitStart));
+						double scaledNumber = number * (double)(1L << (10 * unitIndex));
+						if (scaledNumber >= (double)Long.MAX_VALUE)
+							throw new NumberFormatException();
+						long size = Math.round(scaledNumber);
+						long[] range = toRange(operator, size, size);
+						return new LongRangeNode(field.column, range[0], range[1], negated);
+					}
+
+					case TIME:
+					{
+						// Parse date and optional time of day, which may be a separate word
+						String dateStr = value;
+						String timeStr = null;
+						int timeIndex = value.indexOf('T');
+						if (timeIndex >= 0)
+						{
+							dateStr = value.substring(0, timeIndex);
+							timeStr = value.substring(timeIndex + 1);
+						}
+						else if ((token != null) && (token.kind == TokenKind.WORD) && (token.text.indexOf(':') > 0))
+						{
+							timeStr = token.text;
+							value += " " + timeStr;
+							nextToken();
+						}
+						LocalDateTime dateTime = LocalDate.parse(dateStr).atStartOfDay();
+						LocalDateTime endDateTime = dateTime.plusDays(1);
+						if (timeStr != null)
+						{
+							LocalTime time = LocalTime.parse(timeStr);
+							dateTime = dateTime.with(time);
+							endDateTime = (timeStr.length() == MINUTE_TIME_LENGTH) ? dateTime.plusMinutes(1)
+																					: dateTime.plusSeconds(1);
+						}
+						ZoneId zone = ZoneId.systemDefault();
+						long lower = dateTime.atZone(zone).toInstant().toEpochMilli();
+						long upper = endDateTime.atZone(zone).toInstant().toEpochMilli() - 1;
+						long[] range = toRange(operator, lower, upper);
+						return new LongRangeNode(field.column, range[0], range[1], negated);
+					}
+
+					case CRC:
+					{
+						String hex = value.regionMatches(true, 0, "0x", 0, 2) ? value.substring(2) : value;
+						if (hex.length() > 8)
+							throw new NumberFormatException();
+						long crc = Long.parseLong(hex, 16);
+						long[] range = toRange(operator, crc, crc);
+						return new LongRangeNode(field.column, range[0], range[1], negated);
+					}
+
+					case RATIO:
+					{
+						double ratio = Double.parseDouble(value.endsWith("%") ? value.substring(0, value.length() - 1)
+																			   : value);
+						if (!Double.isFinite(ratio))
+							throw new NumberFormatException();
+						return switch (operator)
+						{
+							case LESS_THAN                -> new RatioRangeNode(Double.NEGATIVE_INFINITY,
+																				Math.nextDown(ratio), false);
+							case LESS_THAN_OR_EQUAL_TO    -> new RatioRangeNode(Double.NEGATIVE_INFINITY, ratio, false);
+							case GREATER_THAN             -> new RatioRangeNode(Math.nextUp(ratio),
+																				Double.POSITIVE_INFINITY, false);
+							case GREATER_THAN_OR_EQUAL_TO -> new RatioRangeNode(ratio, Double.POSITIVE_INFINITY, false);
+							case EQUAL_TO, NOT_EQUAL_TO   -> new RatioRangeNode(ratio, ratio, negated);
+						};
+					}
+				}
+			}
+			catch (NumberFormatException | DateTimeParseException e)
+			{
+				throw new BaseException(ErrorMsg.INVALID_VALUE, fieldToken.text, value);
+			}
+			throw new BaseException(ErrorMsg.UNRECOGNISED_FIELD, fieldToken.text);
+		}
+
+		//--------------------------------------------------------------
+
+		private void nextToken()
+			throws BaseException
+		{
+			// Skip whitespace
+			int length = expression.length();
+			while ((index < length) && Character.isWhitespace(expression.charAt(index)))
+				++index;
+
+			// Test for end of expression
+			if (index >= length)
+			{
+				token = null;
+				return;
+			}
+
+			// Read token
+			int start = index;
+			char ch = expression.charAt(index++);
+			char nextCh = (index < length) ? expression.charAt(index) : '\0';
+			switch (ch)
+			{
+				case '(':
+					token = new Token(TokenKind.LEFT_PARENTHESIS, "(");
+					break;
+
+				case ')':
+					token = new Token(TokenKind.RIGHT_PARENTHESIS, ")");
+					break;
+
+				case '&':
+				case '|':
+					if (nextCh == ch)
+						++index;
+					token = new Token((ch == '&') ? TokenKind.AND : TokenKind.OR, expression.substring(start, index));
+					break;
+
+				case '<':
+				case '>':
+				case '=':
+				case '!':
+					if (nextCh == '=')
+						++index;
+					String symbol = expression.substring(start, index);
+					token = new Token(symbol.equals("!") ? TokenKind.NOT : TokenKind.OPERATOR, symbol);
+					break;
+
+				case QUOTE_CHAR:
+				{
+					int end = expression.indexOf(QUOTE_CHAR, index);
+					if (end < 0)
+						throw new BaseException(ErrorMsg.UNTERMINATED_STRING);
+					token = new Token(TokenKind.STRING, expression.substring(index, end));
+					index = end + 1;
+					break;
+				}
+
+				default:
+				{
+					while ((index < length) && isWordChar(expression.charAt(index)))
+						++index;
+					String word = expression.substring(start, index);
+					TokenKind kind = switch (word.toLowerCase())
+					{
+						case "and" -> TokenKind.AND;
+						case "or"  -> TokenKind.OR;
+						case "not" -> TokenKind.NOT;
+						default    -> TokenKind.WORD;
+					};
+					token = new Token(kind, word);
+					break;
+				}
+			}
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
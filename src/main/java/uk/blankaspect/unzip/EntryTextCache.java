@@ -0,0 +1,373 @@
+/*====================================================================*\
+
+EntryTextCache.java
+
+Class: cache of the formatted properties of zip-file entries.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.unzip;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.time.Instant;
+import java.time.ZoneId;
+
+import java.util.List;
+import java.util.Locale;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: CACHE OF THE FORMATTED PROPERTIES OF ZIP-FILE ENTRIES
+
+
+/**
+ * This class implements a cache of the text representations of the properties of a list of zip-file entries.  For each
+ * {@linkplain Field field}, the text of an entry is held in an array that is indexed by the {@linkplain
+ * ZipFileEntry#getIndex() index} of the entry, so that the same value is formatted only once however often it is
+ * displayed.
+ * <p>
+ * The texts depend on the default locale for formatting and on the default time zone.  The locale and time zone are
+ * compared with those from which the cached texts were created whenever a text is requested; if either has changed,
+ * the cache is discarded.
+ * </p>
+ * <p>
+ * The formatting of the fields is thread-safe, and the texts are immutable, so the cache may be accessed from more than
+ * one thread.  In particular, it may be {@linkplain #prewarm(List) filled} on a background thread while it is read on
+ * the JavaFX application thread.
+ * </p>
+ */
+
+public class EntryTextCache
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The fields of an entry whose texts are cached. */
+	private static final	Field[]	FIELDS	= Field.values();
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The number of texts of each field. */
+	private	int				length;
+
+	/** The texts of the current locale and time zone. */
+	private	volatile Texts	texts;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a cache of the texts of the specified entries.
+	 *
+	 * @param entries
+	 *          the entries whose texts will be cached.
+	 */
+
+	public EntryTextCache(
+		List<ZipFileEntry>	entries)
+	{
+		// Initialise instance variables
+		for (ZipFileEntry entry : entries)
+			length = Math.max(length, entry.getIndex() + 1);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns an estimate of the memory that is occupied by this cache, including the texts that it contains.
+	 *
+	 * @return an estimate of the size (in bytes) of this cache.
+	 */
+
+	public long getMemorySize()
+	{
+		long size = Utils.objectMemorySize(Integer.BYTES + Utils.REFERENCE_SIZE);
+		Texts texts = this.texts;
+		if (texts != null)
+		{
+			size += Utils.arrayMemorySize(texts.texts.length, Utils.REFERENCE_SIZE);
+			for (String[] fieldTexts : texts.texts)
+			{
+				size += Utils.arrayMemorySize(fieldTexts.length, Utils.REFERENCE_SIZE);
+				for (String text : fieldTexts)
+					size += Utils.stringMemorySize(text);
+			}
+		}
+		return size;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the text of the specified field of the specified entry.  The text is formatted and added to this cache if
+	 * it is not already present.
+	 *
+	 * @param  field
+	 *           the field.
+	 * @param  entry
+	 *           the entry.
+	 * @return the text of {@code field} of {@code entry}.
+	 */
+
+	public String get(
+		Field			field,
+		ZipFileEntry	entry)
+	{
+		// Get texts of field for current locale and time zone
+		Texts texts = getTexts();
+		String[] fieldTexts = texts.texts[field.ordinal()];
+
+		// Entries that were not known when cache was created are not cached
+		int index = entry.getIndex();
+		if (index >= fieldTexts.length)
+			return field.format(entry, texts.zoneId);
+
+		// Get cached text; if there is none, format it
+		String text = fieldTexts[index];
+		if (text == null)
+		{
+			text = field.format(entry, texts.zoneId);
+			fieldTexts[index] = text;
+		}
+		return text;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Formats all the fields of the specified entries and adds the texts to this cache.  This method is intended to be
+	 * called on a background thread; it stops if the cache is discarded because the locale or time zone has changed.
+	 *
+	 * @param entries
+	 *          the entries whose fields will be formatted.
+	 */
+
+	public void prewarm(
+		List<ZipFileEntry>	entries)
+	{
+		Texts texts = getTexts();
+		for (Field field : FIELDS)
+		{
+			String[] fieldTexts = texts.texts[field.ordinal()];
+			for (ZipFileEntry entry : entries)
+			{
+				// Stop if cache has been discarded
+				if (this.texts != texts)
+					return;
+
+				// Format field of entry
+				int index = entry.getIndex();
+				if ((index < fieldTexts.length) && (fieldTexts[index] == null))
+					fieldTexts[index] = field.format(entry, texts.zoneId);
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the texts of this cache for the current locale and time zone, discarding the current texts and creating
+	 * new ones if either has changed.
+	 *
+	 * @return the texts of this cache for the current locale and time zone.
+	 */
+
+	private Texts getTexts()
+	{
+		Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+		ZoneId zoneId = ZoneId.systemDefault();
+		Texts result = texts;
+		if ((result == null) || !result.locale.equals(locale) || !result.zoneId.equals(zoneId))
+		{
+			result = new Texts(locale, zoneId, new String[FIELDS.length][length]);
+			texts = result;
+		}
+		return result;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Enumerated types
+////////////////////////////////////////////////////////////////////////
+
+
+	// ENUMERATION: FIELD OF AN ENTRY
+
+
+	/**
+	 * This is an enumeration of the fields of a zip-file entry whose texts may be cached.
+	 */
+
+	public enum Field
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Constants
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * The timestamp of an entry.
+		 */
+
+		TIMESTAMP
+		{
+			@Override
+			protected String format(
+				ZipFileEntry	entry,
+				ZoneId			zoneId)
+			{
+				long timestamp = entry.getTimestamp();
+				return (timestamp < 0)
+						? ""
+						: Constants.TIMESTAMP_FORMATTER.format(Instant.ofEpochMilli(timestamp).atZone(zoneId));
+			}
+
+			//----------------------------------------------------------
+		},
+
+		/**
+		 * The uncompressed size of an entry.
+		 */
+
+		SIZE
+		{
+			@Override
+			protected String format(
+				ZipFileEntry	entry,
+				ZoneId			zoneId)
+			{
+				long size = entry.getSize();
+				return (size < 0) ? "" : Utils.formatDecimal(size);
+			}
+
+			//----------------------------------------------------------
+		},
+
+		/**
+		 * The compressed size of an entry.
+		 */
+
+		COMPRESSED_SIZE
+		{
+			@Override
+			protected String format(
+				ZipFileEntry	entry,
+				ZoneId			zoneId)
+			{
+				long size = entry.getCompressedSize();
+				return (size < 0) ? "" : Utils.formatDecimal(size);
+			}
+
+			//----------------------------------------------------------
+		},
+
+		/**
+		 * The CRC of an entry.
+		 */
+
+		CRC
+		{
+			@Override
+			protected String format(
+				ZipFileEntry	entry,
+				ZoneId			zoneId)
+			{
+				long crc = entry.getCrc();
+				return (crc < 0) ? "" : Utils.crcToString(crc);
+			}
+
+			//----------------------------------------------------------
+		};
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns the text of this field of the specified entry in the default time zone, or an empty string if the
+		 * value of the field is not known.  The text is not cached.
+		 *
+		 * @param  entry
+		 *           the entry.
+		 * @return the text of this field of {@code entry}.
+		 */
+
+		public String format(
+			ZipFileEntry	entry)
+		{
+			return format(entry, ZoneId.systemDefault());
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the text of this field of the specified entry in the specified time zone, or an empty string if the
+		 * value of the field is not known.
+		 *
+		 * @param  entry
+		 *           the entry.
+		 * @param  zoneId
+		 *           the time zone in which a timestamp will be formatted.
+		 * @return the text of this field of {@code entry}.
+		 */
+
+		protected abstract String format(
+			ZipFileEntry	entry,
+			ZoneId			zoneId);
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: TEXTS OF FIELDS
+
+
+	/**
+	 * This record encapsulates the texts of the fields of the entries for a locale and time zone.
+	 *
+	 * @param locale
+	 *          the locale for formatting.
+	 * @param zoneId
+	 *          the time zone.
+	 * @param texts
+	 *          the texts of the fields, indexed by the ordinal of the field and then by the index of the entry.
+	 */
+
+	private record Texts(
+		Locale		locale,
+		ZoneId		zoneId,
+		String[][]	texts)
+	{ }
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
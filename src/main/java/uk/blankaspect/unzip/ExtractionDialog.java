@@ -507,7 +507,7 @@ public class ExtractionDialog
 			if (!StringUtils.isNullOrBlank(pathname))
 			{
 				// Ask whether to save directory
-				Boolean save = Utils.askSaveBeyondSession(this, ADD_DIRECTORY_STR, DIRECTORY_STR);
+				Boolean save = UiUtils.askSaveBeyondSession(this, ADD_DIRECTORY_STR, DIRECTORY_STR);
 
 				// If not cancelled, add directory to list
 				if (save != null)
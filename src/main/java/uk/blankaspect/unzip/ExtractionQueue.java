@@ -0,0 +1,779 @@
+/*====================================================================*\
+
+ExtractionQueue.java
+
+Class: queue of jobs that extract zip files.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.unzip;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import uk.blankaspect.common.string.StringUtils;
+
+import uk.blankaspect.common.task.ITaskStatus;
+
+import uk.blankaspect.common.thread.TaskScheduler;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: QUEUE OF JOBS THAT EXTRACT ZIP FILES
+
+
+/**
+ * This class implements a queue of jobs, each of which extracts all the entries of a zip file to a subdirectory of an
+ * output directory.  The subdirectory is named after the zip file.
+ * <p>
+ * Jobs are run on the I/O pool of the {@linkplain TaskScheduler task scheduler} of the application.  The number of jobs
+ * that run concurrently is limited to one more than the number of available processors (up to a fixed maximum), so
+ * that the inflation of entries by one job may overlap with the writing of files by another without the queue taking
+ * over the processor or the disk.  A job that fails does not affect the other jobs of the queue.
+ * </p>
+ * <p>
+ * The state of a queue may be read from any thread.  The throughput and remaining time of each job, and of the queue
+ * as a whole, are estimated from the number of bytes that have been extracted since extraction started.
+ * </p>
+ */
+
+public class ExtractionQueue
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The maximum number of jobs that may run concurrently. */
+	private static final	int		MAX_NUM_RUNNING_JOBS	= 4;
+
+	/** The suffix that is appended to the name of a zip file that has no filename extension to form the name of the
+		output directory of a job. */
+	private static final	String	OUTPUT_DIRECTORY_SUFFIX	= "_";
+
+	/** The number of nanoseconds in a second. */
+	private static final	double	NANOSECONDS_PER_SECOND	= 1.0e9;
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The maximum number of jobs of this queue that may run concurrently. */
+	private	int			maxNumRunningJobs;
+
+	/** The jobs of this queue, in the order in which they were added. */
+	private	List<Job>	jobs;
+
+	/** The number of jobs of this queue that are running. */
+	private	int			numRunningJobs;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of an empty queue of extraction jobs.
+	 */
+
+	public ExtractionQueue()
+	{
+		// Initialise instance variables
+		maxNumRunningJobs = Math.min(MAX_NUM_RUNNING_JOBS, Runtime.getRuntime().availableProcessors() + 1);
+		jobs = new ArrayList<>();
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Adds a job to this queue for each of the specified zip files, and starts as many of the pending jobs as the
+	 * limit on concurrent jobs allows.
+	 *
+	 * @param locations
+	 *          the locations of the zip files that will be extracted.
+	 * @param directory
+	 *          the directory in whose subdirectories the zip files will be extracted.
+	 * @param flatten
+	 *          if {@code true}, the entries of each zip file will be extracted to its output directory without their
+	 *          parent directories.
+	 */
+
+	public synchronized void add(
+		List<Path>	locations,
+		Path		directory,
+		boolean		flatten)
+	{
+		// Create jobs
+		for (Path location : locations)
+			jobs.add(new Job(location, directory.resolve(outputDirectoryName(location)), flatten));
+
+		// Start pending jobs
+		startJobs();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns a list of the jobs of this queue, in the order in which they were added.
+	 *
+	 * @return a list of the jobs of this queue.
+	 */
+
+	public synchronized List<Job> getJobs()
+	{
+		return new ArrayList<>(jobs);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Cancels all the unfinished jobs of this queue.  Pending jobs are cancelled immediately; running jobs are
+	 * cancelled when they next test for cancellation.
+	 */
+
+	public synchronized void cancelAll()
+	{
+		for (Job job : jobs)
+			job.cancel();
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Removes the finished jobs from this queue.
+	 */
+
+	public synchronized void removeFinished()
+	{
+		jobs.removeIf(Job::isFinished);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns a summary of the current state of the jobs of this queue.
+	 *
+	 * @return a summary of the current state of the jobs of this queue.
+	 */
+
+	public synchronized Summary getSummary()
+	{
+		// Count jobs in each state and accumulate sizes
+		int[] counts = new int[State.values().length];
+		long extractedSize = 0;
+		long remainingSize = 0;
+		long totalSizeOfRead = 0;
+		long fileSizeOfRead = 0;
+		long fileSizeOfUnread = 0;
+		long startTime = Long.MAX_VALUE;
+		for (Job job : jobs)
+		{
+			State state = job.state;
+			++counts[state.ordinal()];
+			extractedSize += job.extractedSize;
+			if (job.extractionStartTime != 0)
+				startTime = Math.min(startTime, job.extractionStartTime);
+			if (!state.isFinished())
+			{
+				if (job.totalSize < 0)
+					fileSizeOfUnread += job.fileSize;
+				else
+				{
+					remainingSize += job.totalSize - job.extractedSize;
+					totalSizeOfRead += job.totalSize;
+					fileSizeOfRead += job.fileSize;
+				}
+			}
+		}
+
+		// Estimate remaining size of jobs whose entries have not been read from the ratio of the total size of the
+		// entries of a zip file to the size of the file
+		if ((fileSizeOfUnread > 0) && (fileSizeOfRead > 0))
+			remainingSize += (long)((double)fileSizeOfUnread * (double)totalSizeOfRead / (double)fileSizeOfRead);
+
+		// Calculate throughput and remaining time
+		int numActive = counts[State.READING.ordinal()] + counts[State.EXTRACTING.ordinal()];
+		double throughput = ((numActive == 0) || (startTime == Long.MAX_VALUE))
+									? 0.0
+									: throughput(extractedSize, System.nanoTime() - startTime);
+		double remainingTime = ((throughput > 0.0) && ((fileSizeOfUnread == 0) || (fileSizeOfRead > 0)))
+									? (double)remainingSize / throughput
+									: -1.0;
+
+		// Return summary
+		return new Summary(jobs.size(), counts[State.PENDING.ordinal()], numActive, counts[State.DONE.ordinal()],
+						   counts[State.FAILED.ordinal()], counts[State.CANCELLED.ordinal()], extractedSize, throughput,
+						   remainingTime);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Starts as many of the pending jobs of this queue as the limit on concurrent jobs allows.
+	 */
+
+	private synchronized void startJobs()
+	{
+		for (Job job : jobs)
+		{
+			if (numRunningJobs >= maxNumRunningJobs)
+				break;
+			if (job.state == State.PENDING)
+			{
+				job.state = State.READING;
+				++numRunningJobs;
+				TaskScheduler.INSTANCE.execute(TaskScheduler.Kind.IO, () -> runJob(job));
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Runs the specified job, and starts the next pending job when it has finished.
+	 *
+	 * @param job
+	 *          the job that will be run.
+	 */
+
+	private void runJob(
+		Job	job)
+	{
+		try
+		{
+			job.run();
+		}
+		finally
+		{
+			synchronized (this)
+			{
+				--numRunningJobs;
+				startJobs();
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns the name of the directory to which the entries of the specified zip file are extracted.
+	 *
+	 * @param  location
+	 *           the location of the zip file.
+	 * @return the name of the output directory of {@code location}.
+	 */
+
+	private static String outputDirectoryName(
+		Path	location)
+	{
+		String filename = location.getFileName().toString();
+		String name = StringUtils.getPrefixLast(filename, '.');
+		return (name.isEmpty() || name.equals(filename)) ? filename + OUTPUT_DIRECTORY_SUFFIX : name;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the throughput (in bytes per second) that corresponds to the specified size and time.
+	 *
+	 * @param  size
+	 *           the number of bytes.
+	 * @param  time
+	 *           the time (in nanoseconds).
+	 * @return the throughput that corresponds to {@code size} and {@code time}.
+	 */
+
+	private static double throughput(
+		long	size,
+		long	time)
+	{
+		return (time <= 0) ? 0.0 : (double)size * NANOSECONDS_PER_SECOND / (double)time;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Enumerated types
+////////////////////////////////////////////////////////////////////////
+
+
+	// ENUMERATION: STATE OF A JOB
+
+
+	/**
+	 * This is an enumeration of the states of an extraction job.
+	 */
+
+	public enum State
+	{
+		PENDING		("Pending"),
+		READING		("Reading"),
+		EXTRACTING	("Extracting"),
+		DONE		("Done"),
+		FAILED		("Failed"),
+		CANCELLED	("Cancelled");
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** The text that represents this state. */
+		private	String	text;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private State(
+			String	text)
+		{
+			this.text = text;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : overriding methods
+	////////////////////////////////////////////////////////////////////
+
+		@Override
+		public String toString()
+		{
+			return text;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns {@code true} if a job in this state has finished.
+		 *
+		 * @return {@code true} if a job in this state has finished.
+		 */
+
+		public boolean isFinished()
+		{
+			return (this == DONE) || (this == FAILED) || (this == CANCELLED);
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: SUMMARY OF A QUEUE
+
+
+	/**
+	 * This record encapsulates a snapshot of the state of the jobs of an {@link ExtractionQueue}.
+	 *
+	 * @param numJobs
+	 *          the number of jobs in the queue.
+	 * @param numPending
+	 *          the number of jobs that are waiting to start.
+	 * @param numRunning
+	 *          the number of jobs that are running.
+	 * @param numDone
+	 *          the number of jobs that finished successfully.
+	 * @param numFailed
+	 *          the number of jobs that failed.
+	 * @param numCancelled
+	 *          the number of jobs that were cancelled.
+	 * @param extractedSize
+	 *          the number of bytes that have been extracted by the jobs.
+	 * @param throughput
+	 *          the aggregate throughput (in bytes per second) of the running jobs, or 0 if no job is running.
+	 * @param remainingTime
+	 *          the estimated time (in seconds) until all the jobs have finished, or -1 if it is not known.
+	 */
+
+	public record Summary(
+		int		numJobs,
+		int		numPending,
+		int		numRunning,
+		int		numDone,
+		int		numFailed,
+		int		numCancelled,
+		long	extractedSize,
+		double	throughput,
+		double	remainingTime)
+	{ }
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member classes : non-inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: EXTRACTION JOB
+
+
+	/**
+	 * This class implements a job that extracts all the entries of a zip file to a directory.
+	 */
+
+	public static class Job
+		implements ITaskStatus
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** The location of the zip file. */
+		private				Path	location;
+
+		/** The directory to which the entries of the zip file are extracted. */
+		private				Path	outDirectory;
+
+		/** Flag: if {@code true}, entries are extracted without their parent directories. */
+		private				boolean	flatten;
+
+		/** The size of the zip file, or 0 if it could not be determined. */
+		private				long	fileSize;
+
+		/** The state of this job. */
+		private volatile	State	state;
+
+		/** Flag: if {@code true}, this job has been cancelled. */
+		private volatile	boolean	cancelled;
+
+		/** The number of entries of the zip file, or -1 if the entries have not been read. */
+		private volatile	int		numEntries;
+
+		/** The total size of the entries of the zip file, or -1 if the entries have not been read. */
+		private volatile	long	totalSize;
+
+		/** The number of bytes that have been extracted. */
+		private volatile	long	extractedSize;
+
+		/** The time (in nanoseconds) at which extraction started, or 0 if it has not started. */
+		private volatile	long	extractionStartTime;
+
+		/** The time (in nanoseconds) at which this job finished, or 0 if it has not finished. */
+		private volatile	long	endTime;
+
+		/** The message of the error that caused this job to fail. */
+		private volatile	String	errorMessage;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Creates a new instance of a pending extraction job.
+		 *
+		 * @param location
+		 *          the location of the zip file.
+		 * @param outDirectory
+		 *          the directory to which the entries of the zip file will be extracted.
+		 * @param flatten
+		 *          if {@code true}, the entries will be extracted without their parent directories.
+		 */
+
+		private Job(
+			Path	location,
+			Path	outDirectory,
+			boolean	flatten)
+		{
+			// Initialise instance variables
+			this.location = location;
+			this.outDirectory = outDirectory;
+			this.flatten = flatten;
+			state = State.PENDING;
+			numEntries = -1;
+			totalSize = -1;
+
+			// Get size of file
+			try
+			{
+				fileSize = Files.size(location);
+			}
+			catch (IOException e)
+			{
+				// ignore
+			}
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : ITaskStatus interface
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public boolean isCancelled()
+		{
+			return cancelled;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void setMessage(
+			String	message)
+		{
+			// do nothing
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public void setProgress(
+			double	progress)
+		{
+			if ((state == State.EXTRACTING) && (progress >= 0.0))
+				extractedSize = Math.round(progress * (double)totalSize);
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns the location of the zip file of this job.
+		 *
+		 * @return the location of the zip file of this job.
+		 */
+
+		public Path getLocation()
+		{
+			return location;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the directory to which the entries of the zip file of this job are extracted.
+		 *
+		 * @return the output directory of this job.
+		 */
+
+		public Path getOutDirectory()
+		{
+			return outDirectory;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the state of this job.
+		 *
+		 * @return the state of this job.
+		 */
+
+		public State getState()
+		{
+			return state;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns {@code true} if this job has finished.
+		 *
+		 * @return {@code true} if this job has finished.
+		 */
+
+		public boolean isFinished()
+		{
+			return state.isFinished();
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the number of entries of the zip file of this job.
+		 *
+		 * @return the number of entries of the zip file of this job, or -1 if they have not been read.
+		 */
+
+		public int getNumEntries()
+		{
+			return numEntries;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the fraction of the total size of the entries of the zip file of this job that has been extracted.
+		 *
+		 * @return the fraction of the entries of the zip file of this job that has been extracted, in the interval
+		 *         [0, 1], or -1 if the entries have not been read.
+		 */
+
+		public double getProgress()
+		{
+			long total = totalSize;
+			return (total < 0) ? -1.0 : (total == 0) ? 1.0 : (double)extractedSize / (double)total;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the throughput of this job since extraction started.
+		 *
+		 * @return the throughput (in bytes per second) of this job, or 0 if extraction has not started.
+		 */
+
+		public double getThroughput()
+		{
+			long startTime = extractionStartTime;
+			if (startTime == 0)
+				return 0.0;
+			long time = endTime;
+			return throughput(extractedSize, ((time == 0) ? System.nanoTime() : time) - startTime);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the estimated time until this job finishes.
+		 *
+		 * @return the estimated time (in seconds) until this job finishes, or -1 if it is not known or the job is not
+		 *         extracting entries.
+		 */
+
+		public double getRemainingTime()
+		{
+			if (state != State.EXTRACTING)
+				return -1.0;
+			double throughput = getThroughput();
+			return (throughput > 0.0) ? (double)(totalSize - extractedSize) / throughput : -1.0;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the message of the error that caused this job to fail.
+		 *
+		 * @return the message of the error that caused this job to fail, or {@code null} if the job has not failed.
+		 */
+
+		public String getErrorMessage()
+		{
+			return errorMessage;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Cancels this job if it has not finished.
+		 */
+
+		private void cancel()
+		{
+			if (state == State.PENDING)
+				state = State.CANCELLED;
+			else if (!state.isFinished())
+				cancelled = true;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Reads the entries of the zip file of this job and extracts all of them to the output directory of the job.
+		 * Any error is recorded in the job.
+		 */
+
+		private void run()
+		{
+			try
+			{
+				// Read entries of zip file
+				ZipFileModel zipFile = new ZipFileModel();
+				zipFile.readEntries(location, this);
+				List<ZipFileEntry> entries = zipFile.getEntries();
+
+				// Get total size of entries
+				long size = 0;
+				for (ZipFileEntry entry : entries)
+					size += entry.getSize();
+				numEntries = entries.size();
+				totalSize = size;
+
+				// Extract entries
+				if (!cancelled)
+				{
+					BitSet selection = new BitSet(entries.size());
+					selection.set(0, entries.size());
+					extractionStartTime = System.nanoTime();
+					state = State.EXTRACTING;
+					zipFile.extractEntries(entries, selection, outDirectory, flatten, this);
+				}
+
+				// Update state
+				state = cancelled ? State.CANCELLED : State.DONE;
+			}
+			catch (Exception e)
+			{
+				// Record error
+				String message = e.getMessage();
+				errorMessage = (message == null) ? e.toString() : message;
+
+				// Update state
+				state = State.FAILED;
+			}
+			finally
+			{
+				endTime = System.nanoTime();
+			}
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
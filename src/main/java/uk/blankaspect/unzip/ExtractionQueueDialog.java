@@ -0,0 +1,404 @@
+/*====================================================================*\
+
+ExtractionQueueDialog.java
+
+Class: extraction-queue dialog.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.unzip;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.util.List;
+
+import java.util.function.Function;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+
+import javafx.geometry.HPos;
+import javafx.geometry.Insets;
+
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import javafx.stage.Window;
+
+import javafx.util.Duration;
+
+import uk.blankaspect.common.basictree.MapNode;
+
+import uk.blankaspect.common.function.IProcedure0;
+
+import uk.blankaspect.ui.jfx.button.Buttons;
+
+import uk.blankaspect.ui.jfx.dialog.DialogState;
+import uk.blankaspect.ui.jfx.dialog.SimpleModelessDialog;
+
+import uk.blankaspect.ui.jfx.tableview.SimpleTableView;
+
+import uk.blankaspect.ui.jfx.text.TextUtils;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: EXTRACTION-QUEUE DIALOG
+
+
+/**
+ * This class implements a modeless dialog that displays the jobs of an {@link ExtractionQueue}, with the progress,
+ * throughput and estimated remaining time of each job and of the queue as a whole.  The display is updated at a fixed
+ * interval while the dialog is showing.
+ */
+
+public class ExtractionQueueDialog
+	extends SimpleModelessDialog
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The interval (in milliseconds) between successive updates of the display. */
+	private static final	double	UPDATE_INTERVAL	= 500.0;
+
+	/** The preferred height of the table view. */
+	private static final	double	TABLE_VIEW_HEIGHT	= 320.0;
+
+	/** The padding around the summary label. */
+	private static final	Insets	SUMMARY_LABEL_PADDING	= new Insets(4.0, 6.0, 4.0, 6.0);
+
+	/** The padding around the content pane. */
+	private static final	Insets	CONTENT_PANE_PADDING	= new Insets(2.0, 2.0, 0.0, 2.0);
+
+	/** The number of bytes in a mebibyte. */
+	private static final	double	BYTES_PER_MEBIBYTE	= 1024.0 * 1024.0;
+
+	/** Miscellaneous strings. */
+	private static final	String	EXTRACTION_QUEUE_STR	= "Extraction queue";
+	private static final	String	ARCHIVE_STR				= "Archive";
+	private static final	String	STATE_STR				= "State";
+	private static final	String	PROGRESS_STR			= "Progress";
+	private static final	String	FILES_STR				= "Files";
+	private static final	String	THROUGHPUT_STR			= "Throughput";
+	private static final	String	REMAINING_STR			= "Remaining";
+	private static final	String	ERROR_STR				= "Error";
+	private static final	String	CANCEL_ALL_STR			= "Cancel all";
+	private static final	String	REMOVE_FINISHED_STR		= "Remove finished";
+	private static final	String	PROGRESS_FORMAT			= "%.1f%%";
+	private static final	String	SIZE_FORMAT				= "%.1f MiB";
+	private static final	String	THROUGHPUT_FORMAT		= "%.1f MiB/s";
+	private static final	String	SUMMARY_FORMAT			=
+			"Jobs: %d  |  Running: %d  |  Pending: %d  |  Done: %d  |  Failed: %d  |  Cancelled: %d  |  "
+				+ "Extracted: %s  |  %s  |  Remaining: %s";
+	private static final	String	UNKNOWN_STR				= "-";
+	private static final	String	LINE_SEPARATOR			= " : ";
+
+	/** Identifiers of columns. */
+	private interface ColumnId
+	{
+		String	ARCHIVE		= "archive";
+		String	ERROR		= "error";
+		String	FILES		= "files";
+		String	PROGRESS	= "progress";
+		String	REMAINING	= "remaining";
+		String	STATE		= "state";
+		String	THROUGHPUT	= "throughput";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Class variables
+////////////////////////////////////////////////////////////////////////
+
+	private static	DialogState	state	= new DialogState(true, true);
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a dialog that displays the jobs of the specified extraction queue.
+	 *
+	 * @param owner
+	 *          the window that will own the dialog, or {@code null} for a top-level dialog.
+	 * @param queue
+	 *          the extraction queue whose jobs will be displayed.
+	 */
+
+	public ExtractionQueueDialog(
+		Window			owner,
+		ExtractionQueue	queue)
+	{
+		// Call superclass constructor
+		super(owner, EXTRACTION_QUEUE_STR, state.locator(), state.getSize());
+
+		// Set properties
+		setResizable(true);
+
+		// Create table view
+		List<SimpleTableView.IColumn<ExtractionQueue.Job, ?>> columns = List.of
+		(
+			column(ColumnId.ARCHIVE, ARCHIVE_STR, HPos.LEFT, 16.0,
+				   job -> job.getLocation().getFileName().toString()),
+			column(ColumnId.STATE, STATE_STR, HPos.LEFT, 6.0, job -> job.getState().toString()),
+			column(ColumnId.PROGRESS, PROGRESS_STR, HPos.RIGHT, 5.0, job ->
+			{
+				double progress = job.getProgress();
+				return (progress < 0.0) ? UNKNOWN_STR : String.format(PROGRESS_FORMAT, 100.0 * progress);
+			}),
+			column(ColumnId.FILES, FILES_STR, HPos.RIGHT, 5.0, job ->
+			{
+				int numEntries = job.getNumEntries();
+				return (numEntries < 0) ? UNKNOWN_STR : Utils.formatDecimal(numEntries);
+			}),
+			column(ColumnId.THROUGHPUT, THROUGHPUT_STR, HPos.RIGHT, 7.0, job ->
+					(job.getState() == ExtractionQueue.State.PENDING) ? UNKNOWN_STR
+																	 : throughputText(job.getThroughput())),
+			column(ColumnId.REMAINING, REMAINING_STR, HPos.RIGHT, 5.0, job -> timeText(job.getRemainingTime())),
+			column(ColumnId.ERROR, ERROR_STR, HPos.LEFT, 24.0, job ->
+			{
+				String message = job.getErrorMessage();
+				return (message == null) ? null : message.strip().replace("\n", LINE_SEPARATOR);
+			})
+		);
+		SimpleTableView<ExtractionQueue.Job> tableView = new SimpleTableView<>(columns, false);
+		tableView.setPrefHeight(TABLE_VIEW_HEIGHT);
+		VBox.setVgrow(tableView, Priority.ALWAYS);
+
+		// Create summary label
+		Label summaryLabel = new Label();
+		summaryLabel.setPadding(SUMMARY_LABEL_PADDING);
+
+		// Add table view and summary label to content pane
+		addContent(new VBox(tableView, summaryLabel));
+
+		// Adjust padding around content pane
+		getContentPane().setPadding(CONTENT_PANE_PADDING);
+
+		// Create procedure to update display
+		IProcedure0 update = () ->
+		{
+			// Update items of table view; redraw cells
+			List<ExtractionQueue.Job> jobs = queue.getJobs();
+			if (!tableView.getItemList().equals(jobs))
+				tableView.setItems(jobs);
+			tableView.refresh();
+
+			// Update summary
+			ExtractionQueue.Summary summary = queue.getSummary();
+			summaryLabel.setText(String.format(SUMMARY_FORMAT, summary.numJobs(), summary.numRunning(),
+											   summary.numPending(), summary.numDone(), summary.numFailed(),
+											   summary.numCancelled(), sizeText(summary.extractedSize()),
+											   throughputText(summary.throughput()),
+											   timeText(summary.remainingTime())));
+		};
+
+		// Create timer to update display
+		Timeline updateTimer = new Timeline(new KeyFrame(Duration.millis(UPDATE_INTERVAL), event -> update.invoke()));
+		updateTimer.setCycleCount(Animation.INDEFINITE);
+
+		// Create button: cancel all
+		Button cancelAllButton = Buttons.hNoShrink(CANCEL_ALL_STR);
+		cancelAllButton.getProperties().put(BUTTON_GROUP_KEY, BUTTON_GROUP1);
+		cancelAllButton.setOnAction(event ->
+		{
+			queue.cancelAll();
+			update.invoke();
+		});
+		addButton(cancelAllButton, HPos.LEFT);
+
+		// Create button: remove finished
+		Button removeFinishedButton = Buttons.hNoShrink(REMOVE_FINISHED_STR);
+		removeFinishedButton.getProperties().put(BUTTON_GROUP_KEY, BUTTON_GROUP1);
+		removeFinishedButton.setOnAction(event ->
+		{
+			queue.removeFinished();
+			update.invoke();
+		});
+		addButton(removeFinishedButton, HPos.LEFT);
+
+		// Create button: close
+		Button closeButton = Buttons.hNoShrink(CLOSE_STR);
+		closeButton.getProperties().put(BUTTON_GROUP_KEY, BUTTON_GROUP1);
+		closeButton.setOnAction(event -> requestClose());
+		addButton(closeButton, HPos.RIGHT);
+
+		// Fire 'close' button if Escape key is pressed
+		setKeyFireButton(closeButton, null);
+
+		// When dialog is shown, update display and start timer
+		setOnShown(event ->
+		{
+			update.invoke();
+			updateTimer.play();
+		});
+
+		// When dialog is closed, stop timer and save dialog state
+		setOnHiding(event ->
+		{
+			updateTimer.stop();
+			state.restoreAndUpdate(this, true);
+		});
+
+		// Apply style sheet to scene
+		applyStyleSheet();
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	public static MapNode encodeState()
+	{
+		return state.encodeTree();
+	}
+
+	//------------------------------------------------------------------
+
+	public static void decodeState(
+		MapNode	rootNode)
+	{
+		state.decodeTree(rootNode);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns a column of text for the table view of jobs.
+	 *
+	 * @param  id
+	 *           the identifier of the column.
+	 * @param  title
+	 *           the title of the column.
+	 * @param  hAlignment
+	 *           the horizontal alignment of the cells of the column.
+	 * @param  width
+	 *           the preferred width of the column, as a multiple of the height of text.
+	 * @param  textFunction
+	 *           the function that returns the text of a cell of the column for a job.
+	 * @return a column of text for the table view of jobs.
+	 */
+
+	private static SimpleTableView.IColumn<ExtractionQueue.Job, String> column(
+		String									id,
+		String									title,
+		HPos									hAlignment,
+		double									width,
+		Function<ExtractionQueue.Job, String>	textFunction)
+	{
+		return new SimpleTableView.IColumn<>()
+		{
+			@Override
+			public String getId()
+			{
+				return id;
+			}
+
+			@Override
+			public String getTitle()
+			{
+				return title;
+			}
+
+			@Override
+			public HPos getHAlignment()
+			{
+				return hAlignment;
+			}
+
+			@Override
+			public double getPrefWidth()
+			{
+				return TextUtils.textHeightCeil(width);
+			}
+
+			@Override
+			public String getValue(
+				ExtractionQueue.Job	item)
+			{
+				return textFunction.apply(item);
+			}
+
+			@Override
+			public String getText(
+				String	text)
+			{
+				return text;
+			}
+		};
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns a string representation of the specified number of bytes in mebibytes.
+	 *
+	 * @param  size
+	 *           the number of bytes.
+	 * @return a string representation of {@code size} in mebibytes.
+	 */
+
+	private static String sizeText(
+		long	size)
+	{
+		return String.format(SIZE_FORMAT, (double)size / BYTES_PER_MEBIBYTE);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns a string representation of the specified throughput.
+	 *
+	 * @param  throughput
+	 *           the throughput (in bytes per second).
+	 * @return a string representation of {@code throughput} in mebibytes per second.
+	 */
+
+	private static String throughputText(
+		double	throughput)
+	{
+		return String.format(THROUGHPUT_FORMAT, throughput / BYTES_PER_MEBIBYTE);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns a string representation of the specified time in the form <i>m</i>:<i>ss</i> or
+	 * <i>h</i>:<i>mm</i>:<i>ss</i>.
+	 *
+	 * @param  time
+	 *           the time (in seconds).  If it is negative, the time is unknown.
+	 * @return a string representation of {@code time}.
+	 */
+
+	private static String timeText(
+		double	time)
+	{
+		if (time < 0.0)
+			return UNKNOWN_STR;
+		long seconds = Math.round(Math.ceil(time));
+		long hours = seconds / 3600;
+		return (hours > 0) ? String.format("%d:%02d:%02d", hours, seconds / 60 % 60, seconds % 60)
+						   : String.format("%d:%02d", seconds / 60, seconds % 60);
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
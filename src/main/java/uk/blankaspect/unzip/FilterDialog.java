@@ -22,6 +22,7 @@ import java.lang.invoke.MethodHandles;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
 
@@ -56,13 +57,14 @@ import javafx.stage.Window;
 import uk.blankaspect.common.basictree.ListNode;
 import uk.blankaspect.common.basictree.MapNode;
 
+import uk.blankaspect.common.exception2.BaseException;
 import uk.blankaspect.common.exception2.UnexpectedRuntimeException;
 
 import uk.blankaspect.common.function.IProcedure0;
 import uk.blankaspect.common.function.IProcedure1;
 
 import uk.blankaspect.common.matcher.SimpleWildcardPathnameMatcher;
-import uk.blankaspect.common.matcher.SimpleWildcardPatternMatcher;
+import uk.blankaspect.common.matcher.WildcardMatcher;
 
 import uk.blankaspect.common.message.MessageConstants;
 
@@ -75,6 +77,7 @@ import uk.blankaspect.ui.jfx.combobox.SimpleComboBox;
 
 import uk.blankaspect.ui.jfx.dialog.ConfirmationDialog;
 import uk.blankaspect.ui.jfx.dialog.DialogState;
+import uk.blankaspect.ui.jfx.dialog.ErrorDialog;
 import uk.blankaspect.ui.jfx.dialog.SimpleModalDialog;
 import uk.blankaspect.ui.jfx.dialog.SimpleModelessDialog;
 
@@ -139,6 +142,7 @@ public class FilterDialog
 	private	SimpleComboBox<Filter>		filterComboBox;
 	private	CollectionSpinner<Scope>	scopeSpinner;
 	private	boolean						updatingFilter;
+	private	Filter						appliedFilter;
 
 ////////////////////////////////////////////////////////////////////////
 //  Constructors
@@ -178,20 +182,8 @@ public class FilterDialog
 		// Create procedure to apply filter to table view
 		IProcedure1<Filter> applyFilter = filter ->
 		{
-			// Create zip-entry filter
-			String pattern = (filter == null) ? null : filter.pattern;
-			Predicate<ZipFileEntry> zipFilter = StringUtils.isNullOrBlank(pattern) ? null : switch (filter.scope)
-			{
-				case FILENAME  ->
-						entry -> SimpleWildcardPatternMatcher.allIgnoreCase(pattern).match(entry.getFilename());
-				case DIRECTORY ->
-						entry -> SimpleWildcardPathnameMatcher.ignoreCase(pattern).match(entry.getDirectoryPathname());
-				case PATHNAME  ->
-						entry -> SimpleWildcardPathnameMatcher.ignoreCase(pattern).match(entry.getPathname());
-			};
-
-			// Set zip-entry filter on table view
-			UnzipApp.instance().getTableView().setFilter(zipFilter);
+			appliedFilter = filter;
+			UnzipApp.instance().getTableView().setFilter(createEntryFilter(filter));
 		};
 
 		// Create combo box: filter
@@ -259,7 +251,7 @@ public class FilterDialog
 			if (!StringUtils.isNullOrBlank(pattern))
 			{
 				// Ask whether to save filter
-				Boolean save = Utils.askSaveBeyondSession(this, ADD_FILTER_STR, FILTER_STR);
+				Boolean save = UiUtils.askSaveBeyondSession(this, ADD_FILTER_STR, FILTER_STR);
 
 				// If not cancelled, add filter to list
 				if (save != null)
@@ -443,6 +435,96 @@ public class FilterDialog
 
 	//------------------------------------------------------------------
 
+	/**
+	 * Returns a zip-entry filter for the filter that was most recently applied to the table view, created for the
+	 * current zip file.  The filter is recreated when a zip file is reloaded, because it may depend on indices that
+	 * are specific to a zip file.
+	 *
+	 * @return a zip-entry filter for the filter that was most recently applied, or {@code null} if no filter has been
+	 *         applied.
+	 */
+
+	public Predicate<ZipFileEntry> getEntryFilter()
+	{
+		return createEntryFilter(appliedFilter);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns a zip-entry filter for the specified filter and the current zip file.
+	 *
+	 * @param  filter
+	 *           the filter, which may be {@code null}.
+	 * @return a zip-entry filter for {@code filter}, or {@code null} if {@code filter} is {@code null} or its pattern
+	 *         is blank.
+	 */
+
+	private Predicate<ZipFileEntry> createEntryFilter(
+		Filter	filter)
+	{
+		// Create zip-entry filter; the matcher is compiled once and shared by all evaluations of the filter
+		String pattern = (filter == null) ? null : filter.pattern;
+		Predicate<ZipFileEntry> zipFilter = null;
+		if (!StringUtils.isNullOrBlank(pattern))
+		{
+			switch (filter.scope)
+			{
+				case FILENAME ->
+				{
+					WildcardMatcher matcher = WildcardMatcher.allIgnoreCase(pattern);
+					zipFilter = entry ->
+					{
+						String pathname = entry.getPathname();
+						return matcher.match(pathname, entry.getSeparatorIndex() + 1, pathname.length());
+					};
+				}
+				case DIRECTORY ->
+				{
+					SimpleWildcardPathnameMatcher matcher = SimpleWildcardPathnameMatcher.ignoreCase(pattern);
+					zipFilter = entry ->
+							matcher.match(entry.getPathname(), 0, Math.max(entry.getSeparatorIndex(), 0));
+				}
+				case PATHNAME ->
+				{
+					SimpleWildcardPathnameMatcher matcher = SimpleWildcardPathnameMatcher.ignoreCase(pattern);
+					zipFilter = entry -> matcher.match(entry.getPathname());
+				}
+				case QUERY ->
+				{
+					ZipFileModel zipFile = UnzipApp.instance().getZipFile();
+					if (zipFile != null)
+					{
+						try
+						{
+							zipFilter = EntryQuery.parse(pattern).createFilter(zipFile.getColumns());
+						}
+						catch (BaseException e)
+						{
+							ErrorDialog.show(this, ENTRY_FILTER_STR, e);
+						}
+					}
+				}
+			}
+
+			// If the trigram index of the zip file is available, restrict name filter to candidate entries
+			ZipFileModel zipFile = UnzipApp.instance().getZipFile();
+			TrigramIndex index = ((zipFile == null) || (filter.scope == Scope.QUERY)) ? null
+																					  : zipFile.getTrigramIndex();
+			BitSet candidates = (index == null) ? null : index.getCandidates(pattern);
+			if ((candidates != null) && (zipFilter != null))
+			{
+				Predicate<ZipFileEntry> matcher = zipFilter;
+				zipFilter = entry -> candidates.get(entry.getIndex()) && matcher.test(entry);
+			}
+		}
+
+		// Return zip-entry filter
+		return zipFilter;
+	}
+
+	//------------------------------------------------------------------
+
 ////////////////////////////////////////////////////////////////////////
 //  Enumerated types
 ////////////////////////////////////////////////////////////////////////
@@ -471,6 +553,11 @@ public class FilterDialog
 		PATHNAME
 		(
 			"Full pathname"
+		),
+
+		QUERY
+		(
+			"Query"
 		);
 
 	////////////////////////////////////////////////////////////////////
@@ -0,0 +1,436 @@
+/*====================================================================*\
+
+OpenZipFiles.java
+
+Class: open zip files.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.unzip;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import uk.blankaspect.common.exception2.FileException;
+
+import uk.blankaspect.common.logging.Logger;
+
+import uk.blankaspect.common.task.ITaskStatus;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: OPEN ZIP FILES
+
+
+/**
+ * This class implements a collection of open zip files whose entries are held in memory subject to a common budget.
+ * The memory that is occupied by the entries of each zip file and by their indices and caches is estimated; when the
+ * total exceeds the budget, the models of the least recently accessed inactive zip files are written to a {@linkplain
+ * EntryIndexCache persistent cache of entries} and released.  The model of a released zip file is restored from the
+ * cache when the file is next activated, so that the file is parsed again only if it has changed in the meantime.
+ */
+
+public class OpenZipFiles
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The persistent cache of the entries of zip files. */
+	private	EntryIndexCache	indexCache;
+
+	/** The maximum amount of memory (in bytes) that may be occupied by the models of inactive zip files. */
+	private	long			memoryBudget;
+
+	/** The open zip files. */
+	private	List<Item>		items;
+
+	/** The counter from which the time of last access of an open zip file is obtained. */
+	private	long			accessCounter;
+
+	/** The open zip file that is currently active. */
+	private	Item			activeItem;
+
+	/** The lock that guards the state of this collection. */
+	private	Object			lock;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates a new instance of a collection of open zip files.
+	 *
+	 * @param indexCache
+	 *          the persistent cache to which the entries of zip files will be written when they are released.
+	 * @param memoryBudget
+	 *          the amount of memory (in bytes) that may be occupied by the models of the open zip files before the
+	 *          models of inactive files are released.
+	 */
+
+	public OpenZipFiles(
+		EntryIndexCache	indexCache,
+		long			memoryBudget)
+	{
+		// Initialise instance variables
+		this.indexCache = indexCache;
+		this.memoryBudget = memoryBudget;
+		items = new ArrayList<>();
+		lock = new Object();
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Sets the amount of memory that may be occupied by the models of the open zip files to the specified value.
+	 *
+	 * @param memoryBudget
+	 *          the amount of memory (in bytes) that will be allowed for the models of the open zip files.
+	 */
+
+	public void setMemoryBudget(
+		long	memoryBudget)
+	{
+		synchronized (lock)
+		{
+			this.memoryBudget = memoryBudget;
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Adds the specified zip file to this collection and returns the item that represents it.
+	 *
+	 * @param  zipFile
+	 *           the zip file that will be added.
+	 * @return the item that represents {@code zipFile}.
+	 */
+
+	public Item add(
+		ZipFileModel	zipFile)
+	{
+		Item item = new Item(zipFile);
+		synchronized (lock)
+		{
+			item.lastAccess = ++accessCounter;
+			items.add(item);
+		}
+		return item;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the item of this collection for the zip file at the specified location.
+	 *
+	 * @param  location
+	 *           the location of the zip file.
+	 * @return the item for the zip file at {@code location}, or {@code null} if there is no such item.
+	 */
+
+	public Item find(
+		Path	location)
+	{
+		synchronized (lock)
+		{
+			for (Item item : items)
+			{
+				if (item.location.equals(location))
+					return item;
+			}
+			return null;
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Removes the specified item from this collection.
+	 *
+	 * @param item
+	 *          the item that will be removed.
+	 */
+
+	public void remove(
+		Item	item)
+	{
+		synchronized (lock)
+		{
+			items.remove(item);
+			if (activeItem == item)
+				activeItem = null;
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Replaces the model of the zip file of the specified item with the specified model, as when the file has been
+	 * reloaded.
+	 *
+	 * @param item
+	 *          the item whose model will be replaced.
+	 * @param zipFile
+	 *          the new model of the zip file.
+	 */
+
+	public void replace(
+		Item			item,
+		ZipFileModel	zipFile)
+	{
+		synchronized (lock)
+		{
+			item.zipFile = zipFile;
+			item.indexed = false;
+			item.lastAccess = ++accessCounter;
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Makes the specified item the active item of this collection, and returns the model of its zip file if the model
+	 * is held in memory.
+	 *
+	 * @param  item
+	 *           the item that will be activated.
+	 * @return the model of the zip file of {@code item}, or {@code null} if the model has been released and must be
+	 *         {@linkplain #restore(Item, ITaskStatus) restored}.
+	 */
+
+	public ZipFileModel activate(
+		Item	item)
+	{
+		synchronized (lock)
+		{
+			activeItem = item;
+			item.lastAccess = ++accessCounter;
+			return item.zipFile;
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Restores the model of the zip file of the specified item from the persistent cache of entries or, if the cache
+	 * does not contain a valid index of the file, by reading the file.  This method should be called on a background
+	 * thread.
+	 *
+	 * @param  item
+	 *           the item whose model will be restored.
+	 * @param  taskStatus
+	 *           the status of the task that reads the zip file if it cannot be restored from the cache.
+	 * @return the restored model of the zip file of {@code item}.
+	 * @throws FileException
+	 *           if an error occurs when reading the zip file.
+	 */
+
+	public ZipFileModel restore(
+		Item		item,
+		ITaskStatus	taskStatus)
+		throws FileException
+	{
+		// Read entries from index cache
+		ZipFileModel zipFile = null;
+		boolean indexed = false;
+		try
+		{
+			zipFile = indexCache.read(item.location);
+			indexed = (zipFile != null);
+		}
+		catch (FileException e)
+		{
+			Logger.INSTANCE.error(e);
+		}
+
+		// If there is no valid index of zip file, read entries from file
+		if (zipFile == null)
+		{
+			zipFile = new ZipFileModel();
+			zipFile.readEntries(item.location, taskStatus);
+		}
+
+		// Update item
+		synchronized (lock)
+		{
+			item.zipFile = zipFile;
+			item.indexed = indexed;
+			item.lastAccess = ++accessCounter;
+		}
+
+		// Return model
+		return zipFile;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Releases the models of the least recently accessed inactive zip files of this collection while the estimated
+	 * memory that is occupied by all models exceeds the budget.  The entries of a zip file are written to the
+	 * persistent cache before its model is released; if they cannot be written, the model is kept, and the write is
+	 * attempted again at the next eviction.  This method should be called on a background thread.
+	 */
+
+	public void evict()
+	{
+		// Select items whose models will be released
+		List<Item> victims = new ArrayList<>();
+		synchronized (lock)
+		{
+			// Sort items that have a model by time of last access, most recent first
+			List<Item> resident = new ArrayList<>();
+			for (Item item : items)
+			{
+				if (item.zipFile != null)
+					resident.add(item);
+			}
+			resident.sort(Comparator.comparingLong((Item item) -> item.lastAccess).reversed());
+
+			// Select inactive items that exceed memory budget
+			long memorySize = 0;
+			for (Item item : resident)
+			{
+				memorySize += item.zipFile.getMemorySize();
+				if ((memorySize > memoryBudget) && (item != activeItem))
+					victims.add(item);
+			}
+		}
+
+		// Release models of selected items
+		for (Item item : victims)
+		{
+			// Get model of zip file
+			ZipFileModel zipFile = null;
+			boolean indexed = false;
+			synchronized (lock)
+			{
+				zipFile = item.zipFile;
+				indexed = item.indexed;
+			}
+			if (zipFile == null)
+				continue;
+
+			// Write entries of zip file to index cache; if they cannot be written, keep model
+			if (!indexed)
+			{
+				try
+				{
+					indexCache.write(zipFile);
+				}
+				catch (FileException e)
+				{
+					Logger.INSTANCE.error(e);
+					continue;
+				}
+			}
+
+			// Release model if item has not been activated or reloaded in the meantime
+			synchronized (lock)
+			{
+				if ((item != activeItem) && (item.zipFile == zipFile))
+				{
+					item.zipFile = null;
+					item.indexed = true;
+				}
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Member classes : non-inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: OPEN ZIP FILE
+
+
+	/**
+	 * This class implements an item of a collection of open zip files.
+	 */
+
+	public static class Item
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** The location of the zip file. */
+		private	Path			location;
+
+		/** The model of the zip file, which is {@code null} if the model has been released. */
+		private	ZipFileModel	zipFile;
+
+		/** The time of the last access to the zip file, as a value of the access counter of the collection. */
+		private	long			lastAccess;
+
+		/** Flag: if {@code true}, the entries of the zip file have been written to the persistent cache. */
+		private	boolean			indexed;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Creates a new instance of an item for the specified zip file.
+		 *
+		 * @param zipFile
+		 *          the model of the zip file.
+		 */
+
+		private Item(
+			ZipFileModel	zipFile)
+		{
+			// Initialise instance variables
+			location = zipFile.getLocation();
+			this.zipFile = zipFile;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns the location of the zip file.
+		 *
+		 * @return the location of the zip file.
+		 */
+
+		public Path getLocation()
+		{
+			return location;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
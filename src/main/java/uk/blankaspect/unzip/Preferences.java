@@ -58,6 +58,8 @@ public class Preferences
 
 	private static final	int		DEFAULT_CELL_VERTICAL_PADDING	= 2;
 
+	public static final		int		DEFAULT_OPEN_FILE_MEMORY_BUDGET	= 256;
+
 	private static final	boolean		DEFAULT_COMBO_BOX_COMMIT_ON_FOCUS_LOST	= true;
 
 	private static final	List<String>	DEFAULT_FILENAME_SUFFIXES	= List.of
@@ -85,6 +87,7 @@ public class Preferences
 
 	private	int					cellVerticalPadding;
 	private	int					columnHeaderPopUpDelay;
+	private	int					openFileMemoryBudget;
 	private	boolean				comboBoxCommitOnFocusLost;
 	private	List<String>		zipFilenameSuffixes;
 	private	FileMatcher			zipFileFilter;
@@ -101,8 +104,8 @@ public class Preferences
 	{
 		// Call alternative constructor
 		this(DEFAULT_CELL_VERTICAL_PADDING, ZipFileTableView.DEFAULT_HEADER_CELL_POP_UP_DELAY,
-			 DEFAULT_COMBO_BOX_COMMIT_ON_FOCUS_LOST, DEFAULT_FILENAME_SUFFIXES, SystemUtils.userHomeDirectoryPathname(),
-			 null, Collections.emptyList());
+			 DEFAULT_OPEN_FILE_MEMORY_BUDGET, DEFAULT_COMBO_BOX_COMMIT_ON_FOCUS_LOST, DEFAULT_FILENAME_SUFFIXES,
+			 SystemUtils.userHomeDirectoryPathname(), null, Collections.emptyList());
 	}
 
 	//------------------------------------------------------------------
@@ -110,6 +113,7 @@ public class Preferences
 	public Preferences(
 		int									cellVerticalPadding,
 		int									columnHeaderPopUpDelay,
+		int									openFileMemoryBudget,
 		boolean								comboBoxCommitOnFocusLost,
 		Collection<String>					zipFilenameSuffixes,
 		String								defaultExtractionDirectory,
@@ -119,6 +123,7 @@ public class Preferences
 		// Initialise instance variables
 		this.cellVerticalPadding = cellVerticalPadding;
 		this.columnHeaderPopUpDelay = columnHeaderPopUpDelay;
+		this.openFileMemoryBudget = openFileMemoryBudget;
 		this.comboBoxCommitOnFocusLost = comboBoxCommitOnFocusLost;
 		this.zipFilenameSuffixes = new ArrayList<>(zipFilenameSuffixes);
 		this.defaultExtractionDirectory = defaultExtractionDirectory;
@@ -165,6 +170,21 @@ public class Preferences
 
 	//------------------------------------------------------------------
 
+	public int getOpenFileMemoryBudget()
+	{
+		return openFileMemoryBudget;
+	}
+
+	//------------------------------------------------------------------
+
+	public void setOpenFileMemoryBudget(
+		int	budget)
+	{
+		openFileMemoryBudget = budget;
+	}
+
+	//------------------------------------------------------------------
+
 	public boolean isComboBoxCommitOnFocusLost()
 	{
 		return comboBoxCommitOnFocusLost;
@@ -132,8 +132,12 @@ public class PreferencesDialog
 	private static final	int		MIN_COLUMN_HEADER_POP_UP_DELAY	= 0;
 	private static final	int		MAX_COLUMN_HEADER_POP_UP_DELAY	= 5000;
 
+	private static final	int		MIN_OPEN_FILE_MEMORY_BUDGET	= 16;
+	private static final	int		MAX_OPEN_FILE_MEMORY_BUDGET	= 8192;
+
 	private static final	int		CELL_VERTICAL_PADDING_SPINNER_NUM_DIGITS	= 1;
 	private static final	int		COLUMN_HEADER_POP_UP_DELAY_SPINNER_NUM_DIGITS	= 4;
+	private static final	int		OPEN_FILE_MEMORY_BUDGET_SPINNER_NUM_DIGITS		= 4;
 
 	private static final	double	FILENAME_EXT_LIST_VIEW_WIDTH	= 160.0;
 	private static final	double	FILENAME_EXT_LIST_VIEW_HEIGHT	= 240.0;
@@ -163,6 +167,8 @@ public class PreferencesDialog
 	private static final	String	VERTICAL_PADDING_STR					= "Vertical padding of table row";
 	private static final	String	COLUMN_HEADER_POP_UP_DELAY_STR			= "Table-column header pop-up delay";
 	private static final	String	MS_STR									= "ms";
+	private static final	String	OPEN_FILE_MEMORY_BUDGET_STR				= "Memory for open zip files";
+	private static final	String	MIB_STR									= "MiB";
 	private static final	String	REMOVE_FILENAME_SUFFIX_STR				= "Remove filename suffix";
 	private static final	String	REMOVE_FILENAME_SUFFIX_QUESTION_STR		= "Do you want to remove the '%s' suffix?";
 	private static final	String	DEFAULT_EXTRACTION_DIR_STR				= "Default extraction directory";
@@ -343,6 +349,17 @@ public class PreferencesDialog
 		columnHeaderPopUpDelayPane.setAlignment(Pos.CENTER_LEFT);
 		viewPane.addRow(row++, new Label(COLUMN_HEADER_POP_UP_DELAY_STR), columnHeaderPopUpDelayPane);
 
+		// Spinner: memory budget of open files
+		Spinner<Integer> openFileMemoryBudgetSpinner =
+				SpinnerFactory.integerSpinner(MIN_OPEN_FILE_MEMORY_BUDGET, MAX_OPEN_FILE_MEMORY_BUDGET,
+											  preferences.getOpenFileMemoryBudget(),
+											  OPEN_FILE_MEMORY_BUDGET_SPINNER_NUM_DIGITS);
+
+		// Pane: memory budget of open files
+		HBox openFileMemoryBudgetPane = new HBox(4.0, openFileMemoryBudgetSpinner, Labels.hNoShrink(MIB_STR));
+		openFileMemoryBudgetPane.setAlignment(Pos.CENTER_LEFT);
+		viewPane.addRow(row++, new Label(OPEN_FILE_MEMORY_BUDGET_STR), openFileMemoryBudgetPane);
+
 		// Set content of tab
 		getTab(TabId.VIEW).setContent(viewPane);
 
@@ -596,6 +613,7 @@ public class PreferencesDialog
 			result = new Preferences(
 				cellVerticalPaddingSpinner.getValue(),
 				columnHeaderPopUpDelaySpinner.getValue(),
+				openFileMemoryBudgetSpinner.getValue(),
 				commitOnFocusLostCheckBox.isSelected(),
 				filenameSuffixListViewEditor.getItems(),
 				defaultExtDirectory,
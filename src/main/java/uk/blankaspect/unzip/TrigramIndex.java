@@ -0,0 +1,318 @@
+/*====================================================================*\
+
+TrigramIndex.java
+
+Class: trigram index of the pathnames of zip-file entries.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.unzip;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+import uk.blankaspect.common.matcher.SimpleWildcardPatternMatcher;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: TRIGRAM INDEX OF THE PATHNAMES OF ZIP-FILE ENTRIES
+
+
+/**
+ * This class implements an index of the sequences of three consecutive characters (<i>trigrams</i>) of the pathnames
+ * of a list of zip-file entries.  The index is used to find a small set of candidate entries that may match a wildcard
+ * pattern before the pattern is matched against each candidate.
+ * <p>
+ * Each trigram is hashed to one of a fixed number of buckets, and the index holds, for each bucket, a sorted posting
+ * list of the {@linkplain ZipFileEntry#getIndex() indices} of the entries whose pathnames contain a trigram that hashes
+ * to the bucket.  The posting lists are stored contiguously in a single {@code int} array.  Because distinct trigrams
+ * may share a bucket, the candidates for a pattern are a superset of the entries that match it.
+ * </p>
+ * <p>
+ * Characters are case-folded before they are indexed, so the index supports case-insensitive matching.  The separator
+ * between the elements of a pathname is treated as a boundary, because a path wildcard in a pathname pattern may match
+ * zero elements.
+ * </p>
+ */
+
+public class TrigramIndex
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The number of buckets to which trigrams are hashed. */
+	private static final	int		NUM_BUCKETS	= 1 << 18;  // 262144
+
+	/** The length of an n-gram. */
+	private static final	int		GRAM_LENGTH	= 3;
+
+	/** The maximum total length of the posting lists of an index. */
+	private static final	int		MAX_NUM_POSTINGS	= 1 << 25;  // 33554432
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The offsets of the posting lists of the buckets in {@link #postings}. */
+	private	int[]	offsets;
+
+	/** The lengths of the posting lists of the buckets. */
+	private	int[]	lengths;
+
+	/** The posting lists of all buckets. */
+	private	int[]	postings;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	private TrigramIndex(
+		int[]	offsets,
+		int[]	lengths,
+		int[]	postings)
+	{
+		// Initialise instance variables
+		this.offsets = offsets;
+		this.lengths = lengths;
+		this.postings = postings;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Creates and returns a trigram index of the pathnames of the specified entries.
+	 *
+	 * @param  entries
+	 *           the entries whose pathnames will be indexed.
+	 * @return a trigram index of the pathnames of {@code entries}, or {@code null} if the index would be too large.
+	 */
+
+	public static TrigramIndex create(
+		List<ZipFileEntry>	entries)
+	{
+		// Sort entries by index so that posting lists are sorted
+		ZipFileEntry[] sortedEntries = entries.toArray(ZipFileEntry[]::new);
+		Arrays.sort(sortedEntries, Comparator.comparingInt(ZipFileEntry::getIndex));
+
+		// Count distinct entries in each bucket
+		int[] counts = new int[NUM_BUCKETS];
+		int[] lastIndices = new int[NUM_BUCKETS];
+		Arrays.fill(lastIndices, -1);
+		long numPostings = 0;
+		for (ZipFileEntry entry : sortedEntries)
+		{
+			int index = entry.getIndex();
+			String pathname = entry.getPathname();
+			for (int i = 0; i <= pathname.length() - GRAM_LENGTH; i++)
+			{
+				int bucket = bucket(pathname, i);
+				if ((bucket >= 0) && (lastIndices[bucket] != index))
+				{
+					lastIndices[bucket] = index;
+					++counts[bucket];
+					++numPostings;
+				}
+			}
+		}
+
+		// Test total length of posting lists
+		if (numPostings > MAX_NUM_POSTINGS)
+			return null;
+
+		// Set offsets of posting lists
+		int[] offsets = new int[NUM_BUCKETS];
+		int offset = 0;
+		for (int i = 0; i < NUM_BUCKETS; i++)
+		{
+			offsets[i] = offset;
+			offset += counts[i];
+		}
+
+		// Fill posting lists, ignoring repeated entries
+		int[] lengths = new int[NUM_BUCKETS];
+		int[] postings = new int[offset];
+		for (ZipFileEntry entry : sortedEntries)
+		{
+			int index = entry.getIndex();
+			String pathname = entry.getPathname();
+			for (int i = 0; i <= pathname.length() - GRAM_LENGTH; i++)
+			{
+				int bucket = bucket(pathname, i);
+				if (bucket >= 0)
+				{
+					int length = lengths[bucket];
+					if ((length == 0) || (postings[offsets[bucket] + length - 1] != index))
+					{
+						postings[offsets[bucket] + length] = index;
+						lengths[bucket] = length + 1;
+					}
+				}
+			}
+		}
+
+		// Create index
+		return new TrigramIndex(offsets, lengths, postings);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the case-folded form of the specified character.
+	 *
+	 * @param  ch
+	 *           the character.
+	 * @return the case-folded form of {@code ch}.
+	 */
+
+	private static char fold(
+		char	ch)
+	{
+		return Character.toLowerCase(Character.toUpperCase(ch));
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the bucket of the trigram that starts at the specified index of the specified text, or -1 if the trigram
+	 * contains a pathname separator.
+	 *
+	 * @param  text
+	 *           the text.
+	 * @param  index
+	 *           the index of the start of the trigram in {@code text}.
+	 * @return the bucket of the trigram at {@code index} in {@code text}, or -1 if the trigram contains a separator.
+	 */
+
+	private static int bucket(
+		CharSequence	text,
+		int				index)
+	{
+		long key = 0;
+		for (int i = index; i < index + GRAM_LENGTH; i++)
+		{
+			char ch = text.charAt(i);
+			if (ch == ZipFileEntry.SEPARATOR_CHAR)
+				return -1;
+			key = key << 16 | fold(ch);
+		}
+		key *= 0x9E3779B97F4A7C15L;
+		return (int)(key >>> 32) & (NUM_BUCKETS - 1);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Returns an estimate of the memory that is occupied by this index.
+	 *
+	 * @return an estimate of the size (in bytes) of this index.
+	 */
+
+	public long getMemorySize()
+	{
+		return Utils.objectMemorySize(3 * Utils.REFERENCE_SIZE) + Utils.arrayMemorySize(offsets.length, Integer.BYTES)
+				+ Utils.arrayMemorySize(lengths.length, Integer.BYTES)
+				+ Utils.arrayMemorySize(postings.length, Integer.BYTES);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the {@linkplain ZipFileEntry#getIndex() indices} of the entries that may match the specified wildcard
+	 * pattern.  The posting lists of the trigrams of the literal parts of the pattern are intersected, starting with
+	 * the shortest.
+	 *
+	 * @param  pattern
+	 *           the wildcard pattern.
+	 * @return the indices of the entries that may match {@code pattern}, or {@code null} if the pattern contains no
+	 *         trigrams and so every entry is a candidate.
+	 */
+
+	public BitSet getCandidates(
+		String	pattern)
+	{
+		// Get buckets of trigrams of literal runs of pattern
+		int[] buckets = new int[pattern.length()];
+		int numBuckets = 0;
+		int runStart = 0;
+		for (int i = 0; i <= pattern.length(); i++)
+		{
+			char ch = (i < pattern.length()) ? pattern.charAt(i) : SimpleWildcardPatternMatcher.MULTIPLE_WILDCARD_CHAR;
+			if ((ch == SimpleWildcardPatternMatcher.MULTIPLE_WILDCARD_CHAR)
+					|| (ch == SimpleWildcardPatternMatcher.SINGLE_WILDCARD_CHAR)
+					|| (ch == ZipFileEntry.SEPARATOR_CHAR) || (ch == '\\'))
+			{
+				for (int j = runStart; j <= i - GRAM_LENGTH; j++)
+					buckets[numBuckets++] = bucket(pattern, j);
+				runStart = i + 1;
+			}
+		}
+		if (numBuckets == 0)
+			return null;
+
+		// Sort buckets by length of posting list: the length of the posting list of each bucket is combined with the
+		// bucket in a single key, so that the keys can be sorted without boxing them
+		long[] keys = new long[numBuckets];
+		for (int i = 0; i < numBuckets; i++)
+			keys[i] = (long)lengths[buckets[i]] << 32 | buckets[i];
+		Arrays.sort(keys);
+
+		// Intersect posting lists, starting with the shortest; duplicate buckets are adjacent and are ignored
+		int bucket = (int)keys[0];
+		int[] result = Arrays.copyOfRange(postings, offsets[bucket], offsets[bucket] + lengths[bucket]);
+		int resultLength = result.length;
+		for (int i = 1; (i < numBuckets) && (resultLength > 0); i++)
+		{
+			if (keys[i] == keys[i - 1])
+				continue;
+			bucket = (int)keys[i];
+			int offset = offsets[bucket];
+			int endOffset = offset + lengths[bucket];
+			int length = 0;
+			for (int j = 0; j < resultLength; j++)
+			{
+				int index = result[j];
+				while ((offset < endOffset) && (postings[offset] < index))
+					++offset;
+				if (offset >= endOffset)
+					break;
+				if (postings[offset] == index)
+					result[length++] = index;
+			}
+			resultLength = length;
+		}
+
+		// Convert result to bit set
+		BitSet candidates = new BitSet();
+		for (int i = 0; i < resultLength; i++)
+			candidates.set(result[i]);
+		return candidates;
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
@@ -0,0 +1,130 @@
+/*====================================================================*\
+
+UiUtils.java
+
+Class: user-interface utility methods.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.unzip;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import javafx.stage.Window;
+
+import uk.blankaspect.common.logging.Logger;
+
+import uk.blankaspect.ui.jfx.dialog.ButtonInfo;
+import uk.blankaspect.ui.jfx.dialog.ErrorDialog;
+import uk.blankaspect.ui.jfx.dialog.MessageDialog;
+
+import uk.blankaspect.ui.jfx.image.MessageIcon32;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: USER-INTERFACE UTILITY METHODS
+
+
+/**
+ * This class contains utility methods that display dialogs.
+ */
+
+public class UiUtils
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** Miscellaneous strings. */
+	private static final	String	SAVE_BEYOND_SESSION_STR	= "Do you want to save the %s beyond the current session?";
+	private static final	String	SAVE_STR				= "Save";
+	private static final	String	DONT_SAVE_STR			= "Don't save";
+	private static final	String	CANCEL_STR				= "Cancel";
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	private UiUtils()
+	{
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	public static void showErrorMessage(
+		Window	window,
+		String	title,
+		String	message)
+	{
+		// Log error
+		Logger.INSTANCE.error(message);
+
+		// Display error dialog
+		ErrorDialog.show(window, title, message);
+	}
+
+	//------------------------------------------------------------------
+
+	public static void showErrorMessage(
+		Window		window,
+		String		title,
+		Throwable	exception)
+	{
+		// Log error
+		Logger.INSTANCE.error(title, exception);
+
+		// Display error dialog
+		ErrorDialog.show(window, title, exception);
+	}
+
+	//------------------------------------------------------------------
+
+	public static void showErrorMessage(
+		Window		window,
+		String		title,
+		String		message,
+		Throwable	exception)
+	{
+		// Log error
+		Logger.INSTANCE.error(message, exception);
+
+		// Display error dialog
+		ErrorDialog.show(window, title, message, exception);
+	}
+
+	//------------------------------------------------------------------
+
+	public static Boolean askSaveBeyondSession(
+		Window	owner,
+		String	title,
+		String	itemStr)
+	{
+		return switch (MessageDialog.show(owner, title, MessageIcon32.QUESTION.get(),
+										  String.format(SAVE_BEYOND_SESSION_STR, itemStr),
+										  ButtonInfo.allRight(SAVE_STR, DONT_SAVE_STR, CANCEL_STR)))
+		{
+			case 0  -> Boolean.TRUE;
+			case 1  -> Boolean.FALSE;
+			default -> null;
+		};
+	}
+
+	//------------------------------------------------------------------
+
+}
+
+//----------------------------------------------------------------------
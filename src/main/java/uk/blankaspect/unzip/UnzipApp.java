@@ -24,6 +24,7 @@ import java.lang.invoke.MethodHandles;
 
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 
 import java.nio.file.attribute.FileTime;
@@ -35,18 +36,18 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-
 import javafx.application.Application;
 import javafx.application.Platform;
 
 import javafx.beans.InvalidationListener;
 
+import javafx.beans.binding.Bindings;
+
+import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleObjectProperty;
 
+import javafx.collections.ListChangeListener;
+
 import javafx.concurrent.Task;
 
 import javafx.geometry.Dimension2D;
@@ -58,11 +59,17 @@ import javafx.geometry.Pos;
 import javafx.scene.Scene;
 
 import javafx.scene.control.Button;
+import javafx.scene.control.Control;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuBar;
 import javafx.scene.control.MenuItem;
+import javafx.scene.control.RadioMenuItem;
 import javafx.scene.control.SeparatorMenuItem;
+import javafx.scene.control.Tab;
 import javafx.scene.control.TableColumn;
+import javafx.scene.control.TabPane;
+import javafx.scene.control.ToggleGroup;
+import javafx.scene.control.Tooltip;
 
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyCodeCombination;
@@ -71,6 +78,7 @@ import javafx.scene.input.TransferMode;
 
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 
 import javafx.stage.Stage;
@@ -90,6 +98,7 @@ import uk.blankaspect.common.exception2.FileException;
 import uk.blankaspect.common.exception2.LocationException;
 
 import uk.blankaspect.common.filesystem.FileSystemUtils;
+import uk.blankaspect.common.filesystem.FileWatcher;
 import uk.blankaspect.common.filesystem.PathnameUtils;
 import uk.blankaspect.common.filesystem.PathUtils;
 
@@ -108,7 +117,7 @@ import uk.blankaspect.common.resource.ResourceUtils;
 
 import uk.blankaspect.common.string.StringUtils;
 
-import uk.blankaspect.common.thread.DaemonFactory;
+import uk.blankaspect.common.thread.TaskScheduler;
 
 import uk.blankaspect.ui.jfx.button.Buttons;
 import uk.blankaspect.ui.jfx.button.ImageDataButton;
@@ -173,6 +182,15 @@ public class UnzipApp
 	/** The name of the log file. */
 	private static final	String	LOG_FILENAME	= NAME_KEY + ".log";
 
+	/** The filename of the CRC cache. */
+	private static final	String	CRC_CACHE_FILENAME	= "crcCache.dat";
+
+	/** The name of the directory of the persistent cache of the entries of zip files. */
+	private static final	String	ENTRY_INDEX_CACHE_DIRECTORY_NAME	= "entryIndexCache";
+
+	/** The number of bytes in a mebibyte. */
+	private static final	long	BYTES_PER_MEBIBYTE	= 1L << 20;
+
 	/** The number of lines of a previous log file that are retained. */
 	private static final	int		LOG_NUM_RETAINED_LINES	= 10000;
 
@@ -194,13 +212,17 @@ public class UnzipApp
 	/** The default initial directory of a file chooser. */
 	private static final	Path	DEFAULT_DIRECTORY	= SystemUtils.userHomeDirectory();
 
-	/** The interval (in milliseconds) between successive checks for a modified file. */
+	/** The interval (in milliseconds) between successive checks for a modified file if the file cannot be watched. */
 	private static final	int		CHECK_MODIFIED_FILE_INTERVAL	= 500;
 
+	/** The delay (in milliseconds) between the last change to a watched file and a check for a modified file. */
+	private static final	int		MODIFIED_FILE_SETTLE_DELAY	= 250;
+
 	/** The suffix of the name of a thread on which a check for a modified file is performed. */
 	private static final	String	CHECK_MODIFIED_FILE_THREAD_NAME_SUFFIX	= "checkModifiedFile";
 
-	private static final	String	EDITOR_THREAD_NAME_SUFFIX	= "editor";
+	/** The maximum time (in milliseconds) to wait for background tasks to finish when the application stops. */
+	private static final	long	TASK_SHUT_DOWN_TIMEOUT	= 2000;
 
 	private static final	String	EXTRACTION_DIRECTORY_NAME	= "blankaspect." + NAME_KEY;
 
@@ -237,6 +259,8 @@ public class UnzipApp
 	private static final	String	ELLIPSIS_STR			= "...";
 	private static final	String	STARTING_STR			= "Starting";
 	private static final	String	TERMINATING_STR			= "Terminating";
+	private static final	String	TASK_SCHEDULER_STR		= "Task scheduler";
+	private static final	String	TASKS_NOT_FINISHED_STR	= "Background tasks did not finish before the timeout";
 	private static final	String	PID_STR					= "PID = ";
 	private static final	String	ARGS1_STR				= "args[";
 	private static final	String	ARGS2_STR				= "] = ";
@@ -258,12 +282,19 @@ public class UnzipApp
 	private static final	String	EXTRACT_STR				= "Extract";
 	private static final	String	OPEN_FILE_STR			= "Open file";
 	private static final	String	EXTRACT_FILES_STR		= "Extract files";
+	private static final	String	EXTRACTION_QUEUE_STR	= "Extraction queue";
 	private static final	String	NUM_FILES_EXTRACTED_STR	= "Number of files extracted : ";
 	private static final	String	MODIFIED_FILE_STR		= "Modified file";
 	private static final	String	MODIFIED_RELOAD_STR	=
 			"The file has been modified externally.\nDo you want to reload the modified file?";
 	private static final	String	RELOAD_STR				= "Reload";
+	private static final	String	MISSING_FILE_STR		= "Missing file";
+	private static final	String	FILE_MISSING_STR		=
+			"The file has been deleted or renamed externally.\nThe displayed entries may no longer be valid.";
 	private static final	String	EDIT_ENTRY_STR			= "Edit entry";
+	private static final	String	VIEW_STR				= "View";
+	private static final	String	TABLE_STR				= "Table";
+	private static final	String	TREE_STR				= "Tree";
 
 	/** Keys of properties. */
 	private interface PropertyKey
@@ -274,9 +305,11 @@ public class UnzipApp
 		String	COLUMN_WIDTHS				= "columnWidths";
 		String	COMPARISON_DIALOG			= "comparisonDialog";
 		String	EXTRACTION_DIALOG			= "extractionDialog";
+		String	EXTRACTION_QUEUE_DIALOG		= "extractionQueueDialog";
 		String	FILTER_DIALOG				= "filterDialog";
 		String	MAIN_WINDOW					= "mainWindow";
 		String	OPEN_FILE_DIRECTORY			= "openFileDirectory";
+		String	OPEN_FILE_MEMORY_BUDGET		= "openFileMemoryBudget";
 		String	REPLACE_FILES_DIALOG		= "replaceFilesDialog";
 		String	THEME						= "theme";
 		String	VIEW						= "view";
@@ -327,9 +360,6 @@ public class UnzipApp
 	/** The single instance of this class. */
 	private static	UnzipApp	instance;
 
-	/** The index of the last thread that was created for a background task. */
-	private static	int			threadIndex;
-
 ////////////////////////////////////////////////////////////////////////
 //  Instance variables
 ////////////////////////////////////////////////////////////////////////
@@ -346,12 +376,18 @@ public class UnzipApp
 	/** The current zip file. */
 	private	SimpleObjectProperty<ZipFileModel>	zipFile;
 
+	/** The open zip files, whose entries are held in memory subject to a common budget. */
+	private	OpenZipFiles						openZipFiles;
+
 	/** The state of the main window. */
 	private	WindowState							mainWindowState;
 
 	/** Flag: if {@code true}, the current zip file may be reloaded in response to an external modification. */
 	private	boolean								reloadPending;
 
+	/** The location of the current zip file if it has been found to be missing and the user has been notified. */
+	private	Path								missingFile;
+
 	/** The widths of the columns of the table view of the main window, read on start-up. */
 	private	Map<String, Double>					tableViewColumnWidths;
 
@@ -367,12 +403,40 @@ public class UnzipApp
 	/** The table view of zip-file entries. */
 	private	ZipFileTableView					tableView;
 
+	/** The tree view of the directories of zip-file entries. */
+	private	ZipFileTreeView						treeView;
+
+	/** Flag: if {@code true}, the tree view is displayed instead of the table view. */
+	private	SimpleBooleanProperty				treeViewActive;
+
+	/** The tabbed pane that contains a tab for each open zip file. */
+	private	TabPane								zipFileTabPane;
+
+	/** Flag: if {@code true}, the tabs of {@link #zipFileTabPane} are being updated programmatically. */
+	private	boolean								updatingTabs;
+
+	/** The pane that contains the menu bar, the tabs of open zip files, the active view of entries and the 'number
+		selected' pane. */
+	private	VBox								mainPane;
+
 	/** The file chooser for opening a zip file. */
 	private	LocationChooser						openFileChooser;
 
 	/** The dialog from which a filter may be applied to the zip-file entries that are displayed in the table view. */
 	private	SimpleObjectProperty<FilterDialog>	filterDialog;
 
+	/** The cache of the CRCs of files that are compared with zip-file entries. */
+	private	CrcCache							crcCache;
+
+	/** The watcher of the current zip file for modification. */
+	private	FileWatcher							fileWatcher;
+
+	/** The queue of jobs that extract zip files that were dropped on the main window. */
+	private	ExtractionQueue						extractionQueue;
+
+	/** The dialog that displays the jobs of the extraction queue. */
+	private	ExtractionQueueDialog				extractionQueueDialog;
+
 ////////////////////////////////////////////////////////////////////////
 //  Static initialiser
 ////////////////////////////////////////////////////////////////////////
@@ -413,13 +477,18 @@ public class UnzipApp
 
 	//------------------------------------------------------------------
 
-	private static void executeTask(
+	/**
+	 * Submits the specified I/O-bound task for execution on a background thread of the {@linkplain TaskScheduler task
+	 * scheduler} of the application.
+	 *
+	 * @param task
+	 *          the task that will be executed.
+	 */
+
+	public static void executeTask(
 		Runnable	task)
 	{
-		ExecutorService executor = Executors.newSingleThreadExecutor(runnable ->
-				new Thread(runnable, NAME_KEY + "-" + ++threadIndex));
-		executor.execute(task);
-		executor.shutdown();
+		TaskScheduler.INSTANCE.execute(TaskScheduler.Kind.IO, task);
 	}
 
 	//------------------------------------------------------------------
@@ -497,6 +566,7 @@ public class UnzipApp
 		locationsForDeletion = new ArrayList<>();
 		this.primaryStage = primaryStage;
 		filterDialog = new SimpleObjectProperty<>();
+		extractionQueue = new ExtractionQueue();
 
 		// Write 'starting' message to log
 		StringBuilder buffer = new StringBuilder(256);
@@ -585,6 +655,35 @@ public class UnzipApp
 			styleManager.setStyleSheetFilename(STYLE_SHEET_FILENAME);
 		}
 
+		// Create collection of open zip files
+		Path indexCacheDirectory = AppAuxDirectory.resolve(NAME_KEY, UnzipApp.class, ENTRY_INDEX_CACHE_DIRECTORY_NAME);
+		openZipFiles = new OpenZipFiles(new EntryIndexCache(indexCacheDirectory),
+										(long)preferences.getOpenFileMemoryBudget() * BYTES_PER_MEBIBYTE);
+
+		// Create tabbed pane for open zip files
+		zipFileTabPane = new TabPane();
+		zipFileTabPane.setTabClosingPolicy(TabPane.TabClosingPolicy.ALL_TABS);
+		zipFileTabPane.setMaxHeight(Region.USE_PREF_SIZE);
+		zipFileTabPane.visibleProperty().bind(Bindings.isNotEmpty(zipFileTabPane.getTabs()));
+		zipFileTabPane.managedProperty().bind(zipFileTabPane.visibleProperty());
+
+		// Display zip file of tab when tab is selected
+		zipFileTabPane.getSelectionModel().selectedItemProperty().addListener((observable, oldTab, tab) ->
+		{
+			if (!updatingTabs && (tab != null))
+				onSelectZipFileTab(tab);
+		});
+
+		// Release zip file of tab when tab is removed
+		zipFileTabPane.getTabs().addListener((ListChangeListener<Tab>) change ->
+		{
+			while (change.next())
+			{
+				for (Tab tab : change.getRemoved())
+					onZipFileTabRemoved(tab);
+			}
+		});
+
 		// Create table view
 		tableView = new ZipFileTableView();
 		tableView.setPrefHeight(TABLE_VIEW_HEIGHT);
@@ -592,14 +691,28 @@ public class UnzipApp
 			tableView.setColumnWidths(tableViewColumnWidths);
 		VBox.setVgrow(tableView, Priority.ALWAYS);
 
+		// Create tree view
+		treeView = new ZipFileTreeView();
+		treeView.setPrefHeight(TABLE_VIEW_HEIGHT);
+		VBox.setVgrow(treeView, Priority.ALWAYS);
+		treeViewActive = new SimpleBooleanProperty();
+
 		// Create 'number selected' pane
 		NumberSelectedPane numSelectedPane = new NumberSelectedPane();
 
 		// Create procedure to update 'number selected' label
 		IProcedure0 updateNumSelected = () ->
 		{
-			numSelectedPane.update(tableView.getItems().size(),
-								   tableView.getSelectionModel().getSelectedIndices().size());
+			if (treeViewActive.get())
+			{
+				numSelectedPane.update(treeView.getEntries().size(),
+									   treeView.getSelectedEntries().cardinality());
+			}
+			else
+			{
+				numSelectedPane.update(tableView.getItems().size(),
+									   tableView.getSelectionModel().getSelectedIndices().size());
+			}
 		};
 
 		// Update 'number selected' label when number of entries changes
@@ -609,11 +722,22 @@ public class UnzipApp
 		tableView.getSelectionModel().getSelectedIndices().addListener((InvalidationListener) observable ->
 				updateNumSelected.invoke());
 
+		// Update 'number selected' label when selected items of tree view change
+		treeView.getSelectionModel().getSelectedItems().addListener((InvalidationListener) observable ->
+				updateNumSelected.invoke());
+
+		// Update 'number selected' label when root of tree view changes
+		treeView.rootProperty().addListener(observable -> updateNumSelected.invoke());
+
+		// Update 'number selected' label when active view changes
+		treeViewActive.addListener(observable -> updateNumSelected.invoke());
+
 		// Update 'number selected' label
 		updateNumSelected.invoke();
 
 		// Create scene
-		Scene scene = new Scene(new VBox(createMenuBar(), tableView, numSelectedPane));
+		mainPane = new VBox(createMenuBar(), zipFileTabPane, tableView, numSelectedPane);
+		Scene scene = new Scene(mainPane);
 
 		// Add accelerators to scene
 		scene.getAccelerators().put(KEY_COMBO_FILTER_DIALOG, () ->
@@ -637,16 +761,18 @@ public class UnzipApp
 		// Set drag-and-drop handler to open zip file
 		scene.setOnDragDropped(event ->
 		{
-			// Get location of first zip file from dragboard
-			Path file = ClipboardUtils.firstMatchingLocation(event.getDragboard(),
-															 preferences.getZipFileDragAndDropFilter());
+			// Get locations of zip files from dragboard
+			List<Path> files = ClipboardUtils.matchingLocations(event.getDragboard(),
+																preferences.getZipFileDragAndDropFilter());
 
 			// Indicate that drag-and-drop is complete
 			event.setDropCompleted(true);
 
-			// Open zip file
-			if (file != null)
-				Platform.runLater(() -> openFile(file));
+			// Open a single zip file; add several zip files to extraction queue
+			if (files.size() == 1)
+				Platform.runLater(() -> openFile(files.get(0)));
+			else if (files.size() > 1)
+				Platform.runLater(() -> onExtractFiles(files));
 
 			// Consume event
 			event.consume();
@@ -738,7 +864,7 @@ public class UnzipApp
 						// Report any configuration error
 						if (vars.configException != null)
 						{
-							Utils.showErrorMessage(primaryStage, SHORT_NAME + " : " + CONFIG_ERROR_STR,
+							UiUtils.showErrorMessage(primaryStage, SHORT_NAME + " : " + CONFIG_ERROR_STR,
 												   vars.configException);
 						}
 
@@ -771,7 +897,7 @@ public class UnzipApp
 					catch (FileException e)
 					{
 						// Display error message in dialog
-						Utils.showErrorMessage(primaryStage, SHORT_NAME + " : " + CONFIG_ERROR_STR, e);
+						UiUtils.showErrorMessage(primaryStage, SHORT_NAME + " : " + CONFIG_ERROR_STR, e);
 					}
 				}
 			});
@@ -790,6 +916,34 @@ public class UnzipApp
 	@Override
 	public void stop()
 	{
+		// Cancel jobs of extraction queue
+		extractionQueue.cancelAll();
+
+		// Shut down task scheduler, allowing background tasks to finish
+		if (!TaskScheduler.INSTANCE.shutDown(TASK_SHUT_DOWN_TIMEOUT))
+			Logger.INSTANCE.warning(TASKS_NOT_FINISHED_STR);
+
+		// Write metrics of task scheduler to log
+		for (TaskScheduler.Kind kind : TaskScheduler.Kind.values())
+			Logger.INSTANCE.info(TASK_SCHEDULER_STR + " (" + kind + ") : " + TaskScheduler.INSTANCE.getMetrics(kind));
+
+		// Stop watching current zip file
+		if (fileWatcher != null)
+			fileWatcher.close();
+
+		// Write CRC cache
+		if (crcCache != null)
+		{
+			try
+			{
+				crcCache.write();
+			}
+			catch (BaseException e)
+			{
+				Logger.INSTANCE.error(e);
+			}
+		}
+
 		// Delete temporary locations
 		for (int i = locationsForDeletion.size() - 1; i >= 0; i--)
 		{
@@ -821,6 +975,13 @@ public class UnzipApp
 
 	//------------------------------------------------------------------
 
+	public ZipFileModel getZipFile()
+	{
+		return zipFile.get();
+	}
+
+	//------------------------------------------------------------------
+
 	public ZipFileTableView getTableView()
 	{
 		return tableView;
@@ -828,6 +989,32 @@ public class UnzipApp
 
 	//------------------------------------------------------------------
 
+	/**
+	 * Returns the cache of the CRCs of files that are compared with zip-file entries.  The cache is read from its file
+	 * when this method is first called.
+	 *
+	 * @return the cache of the CRCs of files.
+	 */
+
+	public CrcCache getCrcCache()
+	{
+		if (crcCache == null)
+		{
+			crcCache = new CrcCache(AppAuxDirectory.resolve(NAME_KEY, UnzipApp.class, CRC_CACHE_FILENAME));
+			try
+			{
+				crcCache.read();
+			}
+			catch (BaseException e)
+			{
+				Logger.INSTANCE.error(e);
+			}
+		}
+		return crcCache;
+	}
+
+	//------------------------------------------------------------------
+
 	public MenuItem createMenuItemExtract()
 	{
 		MenuItem menuItem = new MenuItem(EXTRACT_STR + ELLIPSIS_STR);
@@ -963,7 +1150,7 @@ public class UnzipApp
 					locationsForDeletion.add(file);
 
 					// Execute editor command
-					DaemonFactory.create(NAME_KEY + "-" + EDITOR_THREAD_NAME_SUFFIX + "-" + ++threadIndex, () ->
+					executeTask(() ->
 					{
 						try
 						{
@@ -975,8 +1162,7 @@ public class UnzipApp
 							Platform.runLater(() ->
 									ErrorDialog.show(primaryStage, title, ErrorMsg.FAILED_TO_EXECUTE_EDITOR_COMMAND));
 						}
-					})
-					.start();
+					});
 				}
 
 				@Override
@@ -1001,13 +1187,6 @@ public class UnzipApp
 
 	//------------------------------------------------------------------
 
-	private ZipFileModel getZipFile()
-	{
-		return zipFile.get();
-	}
-
-	//------------------------------------------------------------------
-
 	private void encodeConfig(
 		MapNode	rootNode)
 	{
@@ -1039,6 +1218,9 @@ public class UnzipApp
 		// Encode column-header pop-up delay
 		viewNode.addInt(PropertyKey.COLUMN_HEADER_POP_UP_DELAY, preferences.getColumnHeaderPopUpDelay());
 
+		// Encode memory budget of open files
+		viewNode.addInt(PropertyKey.OPEN_FILE_MEMORY_BUDGET, preferences.getOpenFileMemoryBudget());
+
 		// Encode 'open file' directory
 		Utils.encodeLocation(rootNode, PropertyKey.OPEN_FILE_DIRECTORY, openFileDirectory);
 
@@ -1050,6 +1232,11 @@ public class UnzipApp
 		if (!extractionDialogNode.isEmpty())
 			rootNode.add(PropertyKey.EXTRACTION_DIALOG, extractionDialogNode);
 
+		// Encode state of extraction-queue dialog
+		MapNode extractionQueueDialogNode = ExtractionQueueDialog.encodeState();
+		if (!extractionQueueDialogNode.isEmpty())
+			rootNode.add(PropertyKey.EXTRACTION_QUEUE_DIALOG, extractionQueueDialogNode);
+
 		// Encode state of 'replace files' dialog
 		MapNode replaceFilesDialogNode = ReplaceFilesDialog.encodeState();
 		if (!replaceFilesDialogNode.isEmpty())
@@ -1113,6 +1300,11 @@ public class UnzipApp
 				preferences.setColumnHeaderPopUpDelay(
 						viewNode.getInt(PropertyKey.COLUMN_HEADER_POP_UP_DELAY,
 										ZipFileTableView.DEFAULT_HEADER_CELL_POP_UP_DELAY));
+
+				// Decode memory budget of open files
+				preferences.setOpenFileMemoryBudget(
+						viewNode.getInt(PropertyKey.OPEN_FILE_MEMORY_BUDGET,
+										Preferences.DEFAULT_OPEN_FILE_MEMORY_BUDGET));
 			}
 		}
 
@@ -1129,6 +1321,11 @@ public class UnzipApp
 		if (rootNode.hasMap(key))
 			ExtractionDialog.decodeState(rootNode.getMapNode(key));
 
+		// Decode state of extraction-queue dialog
+		key = PropertyKey.EXTRACTION_QUEUE_DIALOG;
+		if (rootNode.hasMap(key))
+			ExtractionQueueDialog.decodeState(rootNode.getMapNode(key));
+
 		// Decode state of 'replace files' dialog
 		key = PropertyKey.REPLACE_FILES_DIALOG;
 		if (rootNode.hasMap(key))
@@ -1165,61 +1362,89 @@ public class UnzipApp
 			}
 		}));
 
+		// Watch current zip file for modification
+		fileWatcher = new FileWatcher(NAME_KEY + "-" + CHECK_MODIFIED_FILE_THREAD_NAME_SUFFIX,
+									  CHECK_MODIFIED_FILE_INTERVAL, MODIFIED_FILE_SETTLE_DELAY,
+									  this::checkModifiedFile);
+		zipFile.addListener(observable ->
+		{
+			ZipFileModel zipFile = getZipFile();
+			fileWatcher.setFile((zipFile == null) ? null : zipFile.getLocation());
+		});
+
 		// Open file that was specified on command line
 		List<String> args = getParameters().getRaw();
 		if (!args.isEmpty())
 			openFile(Path.of(PathnameUtils.parsePathname(args.get(0))));
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Compares the timestamp of the current zip file with the stored timestamp and, if they differ, seeks confirmation
+	 * for reloading the file.  If the file no longer exists, the user is notified once; if it reappears with a
+	 * different timestamp, confirmation for reloading it is sought.  This method is called by the {@linkplain
+	 * FileWatcher watcher} of the current zip file on its own thread.
+	 */
+
+	private void checkModifiedFile()
+	{
+		// Get current zip file
+		ZipFileModel zipFile = getZipFile();
+		if (zipFile == null)
+			return;
 
-		// Start checking for modified file
-		ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable ->
-				DaemonFactory.create(NAME_KEY + "-" + CHECK_MODIFIED_FILE_THREAD_NAME_SUFFIX, runnable));
-		executor.scheduleWithFixedDelay(() ->
+		// Get timestamp of file; reload file if timestamp is different from stored value
+		Path file = zipFile.getLocation();
+		FileTime oldTimestamp = zipFile.getTimestamp();
+		try
 		{
-			// Get current zip file
-			ZipFileModel zipFile = getZipFile();
-			if (zipFile == null)
-				return;
+			// Get timestamp of file
+			FileTime timestamp = Files.getLastModifiedTime(file, LinkOption.NOFOLLOW_LINKS);
+			missingFile = null;
 
-			// Get timestamp of file; reload file if timestamp is different from stored value
-			Path file = zipFile.getLocation();
-			FileTime oldTimestamp = zipFile.getTimestamp();
-			try
+			// If timestamp is different from stored value, reload file
+			if (!timestamp.equals(oldTimestamp))
 			{
-				// Get timestamp of file
-				FileTime timestamp = Files.getLastModifiedTime(file, LinkOption.NOFOLLOW_LINKS);
-
-				// If timestamp is different from stored value, reload file
-				if (!timestamp.equals(oldTimestamp))
-				{
-					// Update stored timestamp
-					zipFile.setTimestamp(timestamp);
+				// Update stored timestamp
+				zipFile.setTimestamp(timestamp);
 
-					// If no timestamp was stored previously, don't reload file
-					if (oldTimestamp == null)
-						return;
+				// If no timestamp was stored previously, don't reload file
+				if (oldTimestamp == null)
+					return;
 
-					// Display dialog to seek confirmation for reloading file; reload file after confirmation
-					Platform.runLater(() ->
+				// Display dialog to seek confirmation for reloading file; reload file after confirmation
+				Platform.runLater(() ->
+				{
+					if (!reloadPending)
 					{
-						if (!reloadPending)
-						{
-							reloadPending = true;
-							String message = PathUtils.abs(file) + MessageConstants.LABEL_SEPARATOR
-									+ MODIFIED_RELOAD_STR;
-							if (ConfirmationDialog.show(primaryStage, MODIFIED_FILE_STR, MessageIcon32.QUESTION.get(),
-														message, RELOAD_STR))
-								openFile(file);
-							reloadPending = false;
-						}
-					});
-				}
+						reloadPending = true;
+						String message = PathUtils.abs(file) + MessageConstants.LABEL_SEPARATOR
+								+ MODIFIED_RELOAD_STR;
+						if (ConfirmationDialog.show(primaryStage, MODIFIED_FILE_STR, MessageIcon32.QUESTION.get(),
+													message, RELOAD_STR))
+							openFile(file);
+						reloadPending = false;
+					}
+				});
 			}
-			catch (IOException e)
+		}
+		catch (NoSuchFileException e)
+		{
+			// If file has been deleted or renamed, notify user once
+			if (!file.equals(missingFile))
 			{
-				// ignore
+				missingFile = file;
+				Platform.runLater(() ->
+						NotificationDialog.show(primaryStage, MISSING_FILE_STR, MessageIcon32.WARNING.get(),
+												PathUtils.abs(file) + MessageConstants.LABEL_SEPARATOR
+														+ FILE_MISSING_STR));
 			}
-		},
-		CHECK_MODIFIED_FILE_INTERVAL, CHECK_MODIFIED_FILE_INTERVAL, TimeUnit.MILLISECONDS);
+		}
+		catch (IOException e)
+		{
+			// ignore
+		}
 	}
 
 	//------------------------------------------------------------------
@@ -1320,13 +1545,37 @@ public class UnzipApp
 		menuItem.setOnAction(event -> onEditPreferences());
 		menu.getItems().add(menuItem);
 
+		// Create menu: view
+		menu = new Menu(VIEW_STR);
+		menuBar.getMenus().add(menu);
+
+		// Add menu items: table, tree
+		ToggleGroup toggleGroup = new ToggleGroup();
+		RadioMenuItem tableMenuItem = new RadioMenuItem(TABLE_STR);
+		tableMenuItem.setToggleGroup(toggleGroup);
+		tableMenuItem.setSelected(true);
+		tableMenuItem.setOnAction(event -> onSetTreeViewActive(false));
+		menu.getItems().add(tableMenuItem);
+
+		RadioMenuItem treeMenuItem = new RadioMenuItem(TREE_STR);
+		treeMenuItem.setToggleGroup(toggleGroup);
+		treeMenuItem.setOnAction(event -> onSetTreeViewActive(true));
+		menu.getItems().add(treeMenuItem);
+
 		// Create menu: actions
 		menu = new Menu(ACTIONS_STR);
 		menuBar.getMenus().add(menu);
 
 		// Add menu item: extract
 		menuItem = createMenuItemExtract();
-		menuItem.disableProperty().bind(tableView.getSelectionModel().selectedItemProperty().isNull());
+		menuItem.disableProperty().bind(
+				treeViewActive.not().and(tableView.getSelectionModel().selectedItemProperty().isNull())
+						.or(treeViewActive.and(treeView.getSelectionModel().selectedItemProperty().isNull())));
+		menu.getItems().add(menuItem);
+
+		// Add menu item: extraction queue
+		menuItem = new MenuItem(EXTRACTION_QUEUE_STR);
+		menuItem.setOnAction(event -> onShowExtractionQueue());
 		menu.getItems().add(menuItem);
 
 		// Return menu bar
@@ -1362,6 +1611,14 @@ public class UnzipApp
 	private void openFile(
 		Path	location)
 	{
+		// If file is open in a tab that is not selected, select tab
+		Tab existingTab = findZipFileTab(openZipFiles.find(location));
+		if ((existingTab != null) && (existingTab != zipFileTabPane.getSelectionModel().getSelectedItem()))
+		{
+			zipFileTabPane.getSelectionModel().select(existingTab);
+			return;
+		}
+
 		// Log title of task
 		String title = OPEN_FILE_STR;
 		Logger.INSTANCE.info(title + " : " + PathUtils.abs(location));
@@ -1418,27 +1675,180 @@ public class UnzipApp
 				// Get result
 				ZipFileModel result = getValue();
 
-				// Update instance variable
-				zipFile.set(result);
+				// If file is already open, replace model of its item ...
+				OpenZipFiles.Item item = openZipFiles.find(location);
+				Tab tab = findZipFileTab(item);
+				boolean reloaded = (tab != null) && (tab == zipFileTabPane.getSelectionModel().getSelectedItem());
+				if (tab != null)
+					openZipFiles.replace(item, result);
+
+				// ... otherwise, add file to open files and create tab for it
+				else
+				{
+					item = openZipFiles.add(result);
+					tab = createZipFileTab(item);
+					updatingTabs = true;
+					zipFileTabPane.getTabs().add(tab);
+					updatingTabs = false;
+				}
 
-				// Update title
-				UnzipApp.this.updateTitle();
+				// Select tab of file
+				updatingTabs = true;
+				zipFileTabPane.getSelectionModel().select(tab);
+				updatingTabs = false;
 
-				// Set result on table view
-				tableView.setZipFile(result);
+				// Display file
+				openZipFiles.activate(item);
+				showZipFile(result, reloaded);
+			}
 
-				// WORKAROUND for bug in JavaFX
-				tableView.setFocusTraversable(false);
-				Platform.runLater(() ->
-				{
-					tableView.setFocusTraversable(true);
-					tableView.requestFocus();
-				});
+			@Override
+			protected void failed()
+			{
+				// Display error message in dialog
+				showErrorMessage(primaryStage);
+			}
+		};
+
+		// Show progress of task in dialog
+		new SimpleProgressDialog(primaryStage, task, SimpleProgressDialog.CancelMode.NO_INTERRUPT);
+
+		// Execute task on background thread
+		executeTask(task);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Displays the specified zip file in the table view and tree view, and releases the models of inactive zip files
+	 * if the memory budget of open files is exceeded.
+	 *
+	 * @param zipFile
+	 *          the zip file that will be displayed.
+	 * @param reloaded
+	 *          if {@code true}, {@code zipFile} is a reloaded version of the current zip file.
+	 */
+
+	private void showZipFile(
+		ZipFileModel	zipFile,
+		boolean			reloaded)
+	{
+		// Update instance variable
+		this.zipFile.set(zipFile);
+
+		// Update title
+		updateTitle();
+
+		// If current file has been reloaded, update only changed rows of table view, retaining filter of filter dialog
+		// ...
+		FilterDialog dialog = filterDialog.get();
+		if (reloaded)
+			tableView.reloadZipFile(zipFile, (dialog == null) ? null : dialog.getEntryFilter());
+
+		// ... otherwise, set zip file on table view
+		else
+			tableView.setZipFile(zipFile);
+
+		// Set zip file on tree view
+		treeView.setZipFile(zipFile);
 
-				// Clear filter of filter dialog
-				FilterDialog dialog = filterDialog.get();
-				if (dialog != null)
-					dialog.clearFilter();
+		// Build trigram index of pathnames of entries in background
+		TaskScheduler.INSTANCE.execute(TaskScheduler.Kind.CPU, zipFile::buildTrigramIndex);
+
+		// Format properties of entries for table view in background
+		TaskScheduler.INSTANCE.execute(TaskScheduler.Kind.CPU, zipFile::prewarmTextCache);
+
+		// If a different file is displayed, focus table view and clear filter of filter dialog
+		if (!reloaded)
+		{
+			// WORKAROUND for bug in JavaFX
+			tableView.setFocusTraversable(false);
+			Platform.runLater(() ->
+			{
+				tableView.setFocusTraversable(true);
+				tableView.requestFocus();
+			});
+
+			// Clear filter of filter dialog
+			if (dialog != null)
+				dialog.clearFilter();
+		}
+
+		// Release models of inactive zip files in background
+		executeTask(openZipFiles::evict);
+	}
+
+	//------------------------------------------------------------------
+
+	private Tab createZipFileTab(
+		OpenZipFiles.Item	item)
+	{
+		Path location = item.getLocation();
+		Tab tab = new Tab(location.getFileName().toString());
+		tab.setTooltip(new Tooltip(PathUtils.absString(location)));
+		tab.setUserData(item);
+		return tab;
+	}
+
+	//------------------------------------------------------------------
+
+	private Tab findZipFileTab(
+		OpenZipFiles.Item	item)
+	{
+		if (item != null)
+		{
+			for (Tab tab : zipFileTabPane.getTabs())
+			{
+				if (tab.getUserData() == item)
+					return tab;
+			}
+		}
+		return null;
+	}
+
+	//------------------------------------------------------------------
+
+	private void onSelectZipFileTab(
+		Tab	tab)
+	{
+		// If model of zip file is in memory, display it
+		OpenZipFiles.Item item = (OpenZipFiles.Item)tab.getUserData();
+		ZipFileModel model = openZipFiles.activate(item);
+		if (model != null)
+		{
+			showZipFile(model, false);
+			return;
+		}
+
+		// Create task to restore model of zip file
+		String title = OPEN_FILE_STR;
+		Task<ZipFileModel> task = new AbstractTask<>()
+		{
+			{
+				// Initialise task
+				updateTitle(title);
+			}
+
+			@Override
+			protected ZipFileModel call()
+				throws Exception
+			{
+				// Restore model from index cache or zip file
+				ZipFileModel zipFile = openZipFiles.restore(item, createTaskStatus());
+
+				// If task has been cancelled, change state to 'cancelled'
+				hardCancel(false);
+
+				// Return zip file
+				return zipFile;
+			}
+
+			@Override
+			protected void succeeded()
+			{
+				// Display zip file if its tab is still selected
+				if (zipFileTabPane.getSelectionModel().getSelectedItem() == tab)
+					showZipFile(getValue(), false);
 			}
 
 			@Override
@@ -1446,6 +1856,16 @@ public class UnzipApp
 			{
 				// Display error message in dialog
 				showErrorMessage(primaryStage);
+
+				// Close tab
+				zipFileTabPane.getTabs().remove(tab);
+			}
+
+			@Override
+			protected void cancelled()
+			{
+				// Close tab
+				zipFileTabPane.getTabs().remove(tab);
 			}
 		};
 
@@ -1458,6 +1878,32 @@ public class UnzipApp
 
 	//------------------------------------------------------------------
 
+	private void onZipFileTabRemoved(
+		Tab	tab)
+	{
+		// Remove zip file of tab from open files
+		openZipFiles.remove((OpenZipFiles.Item)tab.getUserData());
+
+		// If no tabs remain, clear views
+		if (zipFileTabPane.getTabs().isEmpty())
+		{
+			// Invalidate zip file
+			zipFile.set(null);
+
+			// Close search dialog
+			closeFilterDialog();
+
+			// Clear table view and tree view
+			tableView.setZipFile(null);
+			treeView.setZipFile(null);
+
+			// Update title
+			updateTitle();
+		}
+	}
+
+	//------------------------------------------------------------------
+
 	private void onOpenFile()
 	{
 		// Initialise file chooser
@@ -1494,17 +1940,10 @@ public class UnzipApp
 
 	private void onCloseFile()
 	{
-		// Invalidate zip file
-		zipFile.set(null);
-
-		// Close search dialog
-		closeFilterDialog();
-
-		// Clear table view
-		tableView.setZipFile(null);
-
-		// Update title
-		updateTitle();
+		// Close tab of current zip file
+		Tab tab = zipFileTabPane.getSelectionModel().getSelectedItem();
+		if (tab != null)
+			zipFileTabPane.getTabs().remove(tab);
 	}
 
 	//------------------------------------------------------------------
@@ -1534,21 +1973,47 @@ public class UnzipApp
 
 	private void onSelectAll()
 	{
-		tableView.getSelectionModel().selectAll();
+		if (treeViewActive.get())
+			treeView.getSelectionModel().selectAll();
+		else
+			tableView.getSelectionModel().selectAll();
 	}
 
 	//------------------------------------------------------------------
 
 	private void onDeselectAll()
 	{
-		tableView.getSelectionModel().clearSelection();
+		if (treeViewActive.get())
+			treeView.getSelectionModel().clearSelection();
+		else
+			tableView.getSelectionModel().clearSelection();
 	}
 
 	//------------------------------------------------------------------
 
 	private void onInvertSelection()
 	{
-		SelectionModelUtils.invertSelection(tableView.getSelectionModel(), tableView.getItems().size());
+		if (treeViewActive.get())
+			SelectionModelUtils.invertSelection(treeView.getSelectionModel(), treeView.getExpandedItemCount());
+		else
+			SelectionModelUtils.invertSelection(tableView.getSelectionModel(), tableView.getItems().size());
+	}
+
+	//------------------------------------------------------------------
+
+	private void onSetTreeViewActive(
+		boolean	active)
+	{
+		if (treeViewActive.get() != active)
+		{
+			// Update flag
+			treeViewActive.set(active);
+
+			// Replace view of entries
+			Control view = active ? treeView : tableView;
+			mainPane.getChildren().set(2, view);
+			view.requestFocus();
+		}
 	}
 
 	//------------------------------------------------------------------
@@ -1585,6 +2050,10 @@ public class UnzipApp
 
 			// Update header-cell pop-up delay
 			tableView.setHeaderCellPopUpDelay(result.getColumnHeaderPopUpDelay());
+
+			// Update memory budget of open files, and release models of inactive zip files if necessary
+			openZipFiles.setMemoryBudget((long)result.getOpenFileMemoryBudget() * BYTES_PER_MEBIBYTE);
+			executeTask(openZipFiles::evict);
 		}
 	}
 
@@ -1593,7 +2062,8 @@ public class UnzipApp
 	private void onExtract()
 	{
 		// Test for selected entries
-		if (tableView.getSelectionModel().isEmpty())
+		boolean treeMode = treeViewActive.get();
+		if (treeMode ? treeView.getSelectionModel().isEmpty() : tableView.getSelectionModel().isEmpty())
 			return;
 
 		// Display dialog for extraction location
@@ -1604,12 +2074,11 @@ public class UnzipApp
 			return;
 
 		// Create bit arrays of selected entries and selected entries whose output file exists
-		List<ZipFileEntry> entries = tableView.getItems();
-		int numEntries = entries.size();
-		BitSet selection = new BitSet(numEntries);
-		BitSet conflicts = new BitSet(numEntries);
+		List<ZipFileEntry> entries = treeMode ? treeView.getEntries() : tableView.getItems();
+		BitSet selection = treeMode ? treeView.getSelectedEntries() : tableView.getSelectedRows();
+		BitSet conflicts = new BitSet(entries.size());
 		int numConflicts = 0;
-		for (int index : tableView.getSelectionModel().getSelectedIndices())
+		for (int index = selection.nextSetBit(0); index >= 0; index = selection.nextSetBit(index + 1))
 		{
 			Path file = entries.get(index).getOutputFile(result.directory(), result.flatten());
 			if (Files.exists(file, LinkOption.NOFOLLOW_LINKS))
@@ -1617,9 +2086,8 @@ public class UnzipApp
 				conflicts.set(index);
 				++numConflicts;
 			}
-			else
-				selection.set(index);
 		}
+		selection.andNot(conflicts);
 
 		// If there are selected entries whose output file exists, display dialog to resolve conflicts
 		if (numConflicts > 0)
@@ -1679,6 +2147,38 @@ public class UnzipApp
 
 	//------------------------------------------------------------------
 
+	private void onExtractFiles(
+		List<Path>	files)
+	{
+		// Display dialog for extraction location
+		ExtractionDialog.Result result = new ExtractionDialog(primaryStage, files.get(0).getParent()).showDialog();
+		if (result == null)
+			return;
+
+		// Add zip files to extraction queue
+		Logger.INSTANCE.info(EXTRACTION_QUEUE_STR + " : " + files.size() + " : " + PathUtils.abs(result.directory()));
+		extractionQueue.add(files, result.directory(), result.flatten());
+
+		// Display extraction queue
+		onShowExtractionQueue();
+	}
+
+	//------------------------------------------------------------------
+
+	private void onShowExtractionQueue()
+	{
+		if (extractionQueueDialog == null)
+		{
+			extractionQueueDialog = new ExtractionQueueDialog(primaryStage, extractionQueue);
+			extractionQueueDialog.setOnHidden(event -> extractionQueueDialog = null);
+			extractionQueueDialog.show();
+		}
+		else
+			extractionQueueDialog.requestFocus();
+	}
+
+	//------------------------------------------------------------------
+
 ////////////////////////////////////////////////////////////////////////
 //  Member classes : non-inner classes
 ////////////////////////////////////////////////////////////////////////
@@ -0,0 +1,1110 @@
+/*====================================================================*\
+
+UnzipCli.java
+
+Class: command-line interface to the zip-file extractor.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.unzip;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import uk.blankaspect.common.exception2.BaseException;
+
+import uk.blankaspect.common.filesystem.PathnameUtils;
+
+import uk.blankaspect.common.namefilter.LocationFilter;
+import uk.blankaspect.common.namefilter.LocationFilterSet;
+import uk.blankaspect.common.namefilter.PatternKind;
+
+import uk.blankaspect.common.task.ITaskStatus;
+
+import uk.blankaspect.common.thread.DaemonFactory;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: COMMAND-LINE INTERFACE TO THE ZIP-FILE EXTRACTOR
+
+
+/**
+ * This class provides a command-line interface to the zip-file extractor that runs without a display.  It uses the
+ * same {@linkplain ZipFileModel model of a zip file} and {@linkplain ZipFileComparison comparison} as the graphical
+ * application, but it does not refer to any JavaFX classes, so that it starts quickly and can run on a server.
+ * <p>
+ * The first argument is a command, which is followed by options and operands:
+ * </p>
+ * <ul>
+ *   <li>{@code list [--format text|tsv|csv|json] [--no-header] [--include P] [--exclude P] ZIP}</li>
+ *   <li>{@code extract [--threads N] [--flatten] [--include P] [--exclude P] ZIP DIRECTORY}</li>
+ *   <li>{@code test [--threads N] [--include P] [--exclude P] ZIP}</li>
+ *   <li>{@code compare [--fields F,...] [--include P] [--exclude P] ZIP ZIP|DIRECTORY}</li>
+ * </ul>
+ * <p>
+ * An {@code --include} or {@code --exclude} option may be repeated.  Its pattern is a glob pattern that is matched
+ * against the filename of an entry or, if the pattern contains a '/', against the pathname of the entry.
+ * </p>
+ * <p>
+ * The exit code is {@link #EXIT_SUCCESS 0} if the command succeeded, {@link #EXIT_FAILURE 1} if {@code test} found
+ * corrupt entries or {@code compare} found differences, and {@link #EXIT_ERROR 2} if an error occurred.
+ * </p>
+ */
+
+public class UnzipCli
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The exit code that indicates that a command succeeded. */
+	public static final		int		EXIT_SUCCESS	= 0;
+
+	/** The exit code that indicates that corrupt entries or differences were found. */
+	public static final		int		EXIT_FAILURE	= 1;
+
+	/** The exit code that indicates that an error occurred. */
+	public static final		int		EXIT_ERROR		= 2;
+
+	/** The name of the program in messages. */
+	private static final	String	PROGRAM_NAME	= "unzip";
+
+	/** The prefix of an option. */
+	private static final	String	OPTION_PREFIX	= "--";
+
+	/** The separator of the elements of a list-valued option. */
+	private static final	char	LIST_SEPARATOR	= ',';
+
+	/** The separator of a pathname of a zip-file entry. */
+	private static final	char	PATHNAME_SEPARATOR	= '/';
+
+	/** The fields of an entry that are compared by default. */
+	private static final	Set<ZipFileComparison.Field>	DEFAULT_COMPARISON_FIELDS	=
+			EnumSet.of(ZipFileComparison.Field.TIMESTAMP, ZipFileComparison.Field.SIZE, ZipFileComparison.Field.CRC);
+
+	/** The fields of a listing of entries. */
+	private static final	List<EntryListingWriter.Field>	LISTING_FIELDS	= List.of
+	(
+		new EntryListingWriter.Field("pathname", "Pathname", false, ZipFileEntry::getPathname),
+		new EntryListingWriter.Field("timestamp", "Timestamp", false, EntryTextCache.Field.TIMESTAMP::format),
+		new EntryListingWriter.Field("size", "Size", true, entry -> Long.toString(entry.getSize()),
+									 ZipFileEntry::getSize),
+		new EntryListingWriter.Field("compressedSize", "Compressed size", true,
+									 entry -> Long.toString(entry.getCompressedSize()),
+									 ZipFileEntry::getCompressedSize),
+		new EntryListingWriter.Field("crc", "CRC", true, EntryTextCache.Field.CRC::format)
+	);
+
+	/** Miscellaneous strings. */
+	private static final	String	USAGE_STR				= "Usage:\n"
+			+ "  " + PROGRAM_NAME + " list [--format text|tsv|csv|json] [--no-header] [--include P] [--exclude P] ZIP\n"
+			+ "  " + PROGRAM_NAME + " extract [--threads N] [--flatten] [--include P] [--exclude P] ZIP DIRECTORY\n"
+			+ "  " + PROGRAM_NAME + " test [--threads N] [--include P] [--exclude P] ZIP\n"
+			+ "  " + PROGRAM_NAME + " compare [--fields timestamp,size,crc,content] [--include P] [--exclude P] "
+				+ "ZIP ZIP|DIRECTORY";
+	private static final	String	FILES_EXTRACTED_STR		= "%d files extracted";
+	private static final	String	FILES_TESTED_STR		= "%d files tested, %d faulty";
+	private static final	String	MOVED_FROM_STR			= "  <- ";
+
+	/** Error messages. */
+	private interface ErrorMsg
+	{
+		String	NO_COMMAND =
+				"No command was specified.";
+
+		String	UNKNOWN_COMMAND =
+				"Command: %s\nThe command is not recognised.";
+
+		String	UNKNOWN_OPTION =
+				"Option: %s\nThe option is not recognised by the command.";
+
+		String	NO_OPTION_VALUE =
+				"Option: %s\nNo value was specified for the option.";
+
+		String	WRONG_NUMBER_OF_OPERANDS =
+				"The command requires %d operand(s).";
+
+		String	INVALID_PATHNAME =
+				"Pathname: %s\nThe pathname is invalid.";
+
+		String	UNKNOWN_FORMAT =
+				"Format: %s\nThe format is not recognised.";
+
+		String	UNKNOWN_FIELD =
+				"Field: %s\nThe field is not recognised.";
+
+		String	INVALID_NUMBER_OF_THREADS =
+				"Number of threads: %s\nThe number of threads must be a positive integer.";
+
+		String	TASK_INTERRUPTED =
+				"The task was interrupted.";
+
+		String	UNEXPECTED_ERROR =
+				"An unexpected error occurred.";
+
+		String	ERROR_WRITING_OUTPUT =
+				"An error occurred when writing to the standard output.";
+	}
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Prevents this class from being instantiated externally.
+	 */
+
+	private UnzipCli()
+	{
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Runs the command that is specified by the arguments and exits with the code that results from it.
+	 *
+	 * @param args
+	 *          the command-line arguments.
+	 */
+
+	public static void main(
+		String[]	args)
+	{
+		System.exit(run(args));
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Runs the command that is specified by the arguments, and returns the exit code that results from it.  Errors are
+	 * reported on the standard error stream.
+	 *
+	 * @param  args
+	 *           the command-line arguments.
+	 * @return the exit code.
+	 */
+
+	public static int run(
+		String[]	args)
+	{
+		try
+		{
+			// Get command
+			if (args.length == 0)
+				throw new UsageException(ErrorMsg.NO_COMMAND);
+			Command command = Command.forKey(args[0]);
+			if (command == null)
+				throw new UsageException(ErrorMsg.UNKNOWN_COMMAND, args[0]);
+
+			// Parse options and operands
+			Arguments arguments = new Arguments(command, Arrays.asList(args).subList(1, args.length));
+
+			// Perform command
+			return switch (command)
+			{
+				case LIST    -> list(arguments);
+				case EXTRACT -> extract(arguments);
+				case TEST    -> test(arguments);
+				case COMPARE -> compare(arguments);
+			};
+		}
+		catch (BaseException e)
+		{
+			// Write message to standard error
+			System.err.println(PROGRAM_NAME + ": " + e.getMessage().replace("\n", " : "));
+			if (e.getCause() != null)
+				System.err.println("  " + e.getCause());
+
+			// Write usage to standard error
+			if (e instanceof UsageException)
+				System.err.println(USAGE_STR);
+
+			return EXIT_ERROR;
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Writes a listing of the filtered entries of a zip file to the standard output.
+	 *
+	 * @param  arguments
+	 *           the arguments of the command.
+	 * @return the exit code.
+	 * @throws BaseException
+	 *           if an error occurs.
+	 */
+
+	private static int list(
+		Arguments	arguments)
+		throws BaseException
+	{
+		// Get format
+		String formatKey = arguments.getValue(Option.FORMAT);
+		EntryListingWriter.Format format = EntryListingWriter.Format.TEXT;
+		if (formatKey != null)
+		{
+			format = switch (formatKey)
+			{
+				case "text" -> EntryListingWriter.Format.TEXT;
+				case "tsv"  -> EntryListingWriter.Format.TSV;
+				case "csv"  -> EntryListingWriter.Format.CSV;
+				case "json" -> EntryListingWriter.Format.JSON_LINES;
+				default     -> throw new UsageException(ErrorMsg.UNKNOWN_FORMAT, formatKey);
+			};
+		}
+
+		// Read zip file
+		ZipFileModel zipFile = readZipFile(arguments.getLocation(0));
+		BitSet selection = filterEntries(zipFile.getEntries(), arguments.getFilters());
+
+		// Write listing
+		try
+		{
+			Writer writer = createOutputWriter();
+			EntryListingWriter.write(writer, format, LISTING_FIELDS, !arguments.hasFlag(Option.NO_HEADER),
+									 zipFile.getEntries(), selection, ITaskStatus.VOID);
+			writer.flush();
+		}
+		catch (IOException e)
+		{
+			throw new BaseException(ErrorMsg.ERROR_WRITING_OUTPUT, e);
+		}
+
+		return EXIT_SUCCESS;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Extracts the filtered entries of a zip file to a directory on several threads.
+	 *
+	 * @param  arguments
+	 *           the arguments of the command.
+	 * @return the exit code.
+	 * @throws BaseException
+	 *           if an error occurs.
+	 */
+
+	private static int extract(
+		Arguments	arguments)
+		throws BaseException
+	{
+		// Read zip file
+		ZipFileModel zipFile = readZipFile(arguments.getLocation(0));
+		List<ZipFileEntry> entries = zipFile.getEntries();
+		BitSet selection = filterEntries(entries, arguments.getFilters());
+
+		// Extract entries
+		Path outDirectory = arguments.getLocation(1);
+		boolean flatten = arguments.hasFlag(Option.FLATTEN);
+		List<Integer> counts = runInParallel(entries, selection, arguments.getNumThreads(), part ->
+				zipFile.extractEntries(entries, part, outDirectory, flatten, ITaskStatus.VOID));
+
+		// Write summary
+		int numExtracted = counts.stream().mapToInt(Integer::intValue).sum();
+		System.out.println(String.format(FILES_EXTRACTED_STR, numExtracted));
+
+		return EXIT_SUCCESS;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Tests the integrity of the filtered entries of a zip file on several threads, and writes the faults that are
+	 * found to the standard output.
+	 *
+	 * @param  arguments
+	 *           the arguments of the command.
+	 * @return the exit code.
+	 * @throws BaseException
+	 *           if an error occurs.
+	 */
+
+	private static int test(
+		Arguments	arguments)
+		throws BaseException
+	{
+		// Read zip file
+		ZipFileModel zipFile = readZipFile(arguments.getLocation(0));
+		List<ZipFileEntry> entries = zipFile.getEntries();
+		BitSet selection = filterEntries(entries, arguments.getFilters());
+
+		// Test entries
+		List<List<ZipFileModel.EntryFault>> partFaults = runInParallel(entries, selection, arguments.getNumThreads(),
+				part -> zipFile.testEntries(entries, part, ITaskStatus.VOID));
+
+		// Write faults in order of entries
+		List<ZipFileModel.EntryFault> faults = new ArrayList<>();
+		partFaults.forEach(faults::addAll);
+		faults.sort(Comparator.comparing(fault -> fault.entry().getPathname(),
+										 ZipFileEntry.DIRECTORY_FILENAME_PATHNAME_COMPARATOR));
+		for (ZipFileModel.EntryFault fault : faults)
+			System.out.println(fault.entry().getPathname() + " : " + fault.message());
+
+		// Write summary
+		System.out.println(String.format(FILES_TESTED_STR, selection.cardinality(), faults.size()));
+
+		return faults.isEmpty() ? EXIT_SUCCESS : EXIT_FAILURE;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Compares the filtered entries of a zip file with those of another zip file or a directory, and writes the
+	 * differences to the standard output.
+	 *
+	 * @param  arguments
+	 *           the arguments of the command.
+	 * @return the exit code.
+	 * @throws BaseException
+	 *           if an error occurs.
+	 */
+
+	private static int compare(
+		Arguments	arguments)
+		throws BaseException
+	{
+		// Get fields
+		Set<ZipFileComparison.Field> fields = DEFAULT_COMPARISON_FIELDS;
+		String fieldKeys = arguments.getValue(Option.FIELDS);
+		if (fieldKeys != null)
+		{
+			fields = EnumSet.noneOf(ZipFileComparison.Field.class);
+			for (String key : fieldKeys.split(Character.toString(LIST_SEPARATOR)))
+			{
+				ZipFileComparison.Field field = ZipFileComparison.Field.forKey(key.strip());
+				if (field == null)
+					throw new UsageException(ErrorMsg.UNKNOWN_FIELD, key);
+				fields.add(field);
+			}
+		}
+
+		// Read zip file
+		ZipFileModel zipFile = readZipFile(arguments.getLocation(0));
+
+		// Compare zip file with comparand
+		List<ZipFileComparison.Difference> differences =
+				ZipFileComparison.compare(zipFile, arguments.getLocation(1), arguments.getFilters(), fields);
+
+		// Write differences
+		for (ZipFileComparison.Difference difference : differences)
+		{
+			StringBuilder buffer = new StringBuilder();
+			buffer.append(ZipFileComparison.DiffKind.diffKindsToString(difference.diffKinds()));
+			buffer.append("  ");
+			buffer.append(difference.pathname());
+			if (difference.movedFrom() != null)
+				buffer.append(MOVED_FROM_STR).append(difference.movedFrom());
+			System.out.println(buffer);
+		}
+
+		return differences.isEmpty() ? EXIT_SUCCESS : EXIT_FAILURE;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Reads the entries of the zip file at the specified location.
+	 *
+	 * @param  location
+	 *           the location of the zip file.
+	 * @return a model of the zip file.
+	 * @throws BaseException
+	 *           if an error occurs when reading the zip file.
+	 */
+
+	private static ZipFileModel readZipFile(
+		Path	location)
+		throws BaseException
+	{
+		ZipFileModel zipFile = new ZipFileModel();
+		zipFile.readEntries(location, ITaskStatus.VOID);
+		return zipFile;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the indices of the entries of the specified list whose pathnames are accepted by the specified filters.
+	 *
+	 * @param  entries
+	 *           the list of entries.
+	 * @param  filters
+	 *           the filters that will be applied to the pathnames of the entries.
+	 * @return the indices of the entries of {@code entries} that are accepted by {@code filters}.
+	 */
+
+	private static BitSet filterEntries(
+		List<ZipFileEntry>		entries,
+		List<LocationFilter>	filters)
+	{
+		LocationFilterSet filterSet = new LocationFilterSet(filters);
+		BitSet selection = new BitSet();
+		for (int i = 0; i < entries.size(); i++)
+		{
+			try
+			{
+				if (filterSet.accept(Path.of(entries.get(i).getPathname())))
+					selection.set(i);
+			}
+			catch (InvalidPathException e)
+			{
+				// ignore entry
+			}
+		}
+		return selection;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Divides the selected entries of the specified list into parts of approximately equal total size, performs the
+	 * specified operation on each part on its own thread, and returns the results in the order of the parts.
+	 *
+	 * @param  <T>
+	 *           the type of the result of the operation.
+	 * @param  entries
+	 *           the list of entries.
+	 * @param  selection
+	 *           the indices of the entries of {@code entries} on which the operation will be performed.
+	 * @param  numThreads
+	 *           the maximum number of threads.
+	 * @param  operation
+	 *           the operation that will be performed on each part of {@code selection}.
+	 * @return a list of the results of the operation.
+	 * @throws BaseException
+	 *           if the operation throws an exception for any part.
+	 */
+
+	private static <T> List<T> runInParallel(
+		List<ZipFileEntry>	entries,
+		BitSet				selection,
+		int					numThreads,
+		PartOperation<T>	operation)
+		throws BaseException
+	{
+		// Assign each entry to the part with the smallest total size
+		int numParts = Math.max(1, Math.min(numThreads, selection.cardinality()));
+		List<BitSet> parts = new ArrayList<>();
+		long[] partSizes = new long[numParts];
+		for (int i = 0; i < numParts; i++)
+			parts.add(new BitSet());
+		for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1))
+		{
+			int part = 0;
+			for (int j = 1; j < numParts; j++)
+			{
+				if (partSizes[j] < partSizes[part])
+					part = j;
+			}
+			parts.get(part).set(i);
+			partSizes[part] += Math.max(entries.get(i).getSize(), 1);
+		}
+
+		// If there is only one part, perform operation on current thread
+		if (numParts == 1)
+			return Collections.singletonList(operation.invoke(parts.get(0)));
+
+		// Perform operation on each part on its own thread
+		ExecutorService executor = Executors.newFixedThreadPool(numParts, DaemonFactory::create);
+		try
+		{
+			List<Callable<T>> tasks = new ArrayList<>();
+			for (BitSet part : parts)
+				tasks.add(() -> operation.invoke(part));
+			List<T> results = new ArrayList<>();
+			for (Future<T> future : executor.invokeAll(tasks))
+				results.add(future.get());
+			return results;
+		}
+		catch (InterruptedException e)
+		{
+			throw new BaseException(ErrorMsg.TASK_INTERRUPTED);
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof BaseException be)
+				throw be;
+			throw new BaseException(ErrorMsg.UNEXPECTED_ERROR, e.getCause());
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Creates and returns a buffered writer on the standard output that encodes characters as UTF-8.
+	 *
+	 * @return a buffered writer on the standard output.
+	 */
+
+	private static Writer createOutputWriter()
+	{
+		return new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Enumerated types
+////////////////////////////////////////////////////////////////////////
+
+
+	// ENUMERATION: COMMANDS
+
+
+	/**
+	 * This is an enumeration of the commands of the command-line interface.
+	 */
+
+	private enum Command
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Constants
+	////////////////////////////////////////////////////////////////////
+
+		LIST
+		(
+			1,
+			EnumSet.of(Option.FORMAT, Option.NO_HEADER, Option.INCLUDE, Option.EXCLUDE)
+		),
+
+		EXTRACT
+		(
+			2,
+			EnumSet.of(Option.THREADS, Option.FLATTEN, Option.INCLUDE, Option.EXCLUDE)
+		),
+
+		TEST
+		(
+			1,
+			EnumSet.of(Option.THREADS, Option.INCLUDE, Option.EXCLUDE)
+		),
+
+		COMPARE
+		(
+			2,
+			EnumSet.of(Option.FIELDS, Option.INCLUDE, Option.EXCLUDE)
+		);
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** The number of operands of this command. */
+		private	int			numOperands;
+
+		/** The options that are recognised by this command. */
+		private	Set<Option>	options;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Creates a new instance of an enumeration constant for a command.
+		 *
+		 * @param numOperands
+		 *          the number of operands of the command.
+		 * @param options
+		 *          the options that are recognised by the command.
+		 */
+
+		private Command(
+			int			numOperands,
+			Set<Option>	options)
+		{
+			// Initialise instance variables
+			this.numOperands = numOperands;
+			this.options = options;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Class methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns the command that is associated with the specified key.
+		 *
+		 * @param  key
+		 *           the key whose associated command is desired.
+		 * @return the command that is associated with {@code key}, or {@code null} if there is no such command.
+		 */
+
+		private static Command forKey(
+			String	key)
+		{
+			return Arrays.stream(values()).filter(value -> value.name().equalsIgnoreCase(key)).findFirst()
+					.orElse(null);
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+
+	// ENUMERATION: OPTIONS
+
+
+	/**
+	 * This is an enumeration of the options of the commands of the command-line interface.
+	 */
+
+	private enum Option
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Constants
+	////////////////////////////////////////////////////////////////////
+
+		FORMAT
+		(
+			"format",
+			true
+		),
+
+		NO_HEADER
+		(
+			"no-header",
+			false
+		),
+
+		INCLUDE
+		(
+			"include",
+			true
+		),
+
+		EXCLUDE
+		(
+			"exclude",
+			true
+		),
+
+		THREADS
+		(
+			"threads",
+			true
+		),
+
+		FLATTEN
+		(
+			"flatten",
+			false
+		),
+
+		FIELDS
+		(
+			"fields",
+			true
+		);
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** The key of this option. */
+		private	String	key;
+
+		/** Flag: if {@code true}, this option has a value. */
+		private	boolean	hasValue;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Creates a new instance of an enumeration constant for an option.
+		 *
+		 * @param key
+		 *          the key of the option.
+		 * @param hasValue
+		 *          if {@code true}, the option has a value.
+		 */
+
+		private Option(
+			String	key,
+			boolean	hasValue)
+		{
+			// Initialise instance variables
+			this.key = key;
+			this.hasValue = hasValue;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Class methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns the option that is associated with the specified key.
+		 *
+		 * @param  key
+		 *           the key whose associated option is desired.
+		 * @return the option that is associated with {@code key}, or {@code null} if there is no such option.
+		 */
+
+		private static Option forKey(
+			String	key)
+		{
+			return Arrays.stream(values()).filter(value -> value.key.equals(key)).findFirst().orElse(null);
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member interfaces
+////////////////////////////////////////////////////////////////////////
+
+
+	// INTERFACE: OPERATION ON A PART OF A SELECTION OF ENTRIES
+
+
+	/**
+	 * This functional interface defines the method that performs an operation on a part of a selection of the entries
+	 * of a zip file.
+	 *
+	 * @param <T>
+	 *          the type of the result of the operation.
+	 */
+
+	@FunctionalInterface
+	private interface PartOperation<T>
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Performs this operation on the specified part of a selection of entries.
+		 *
+		 * @param  part
+		 *           the indices of the entries of the part.
+		 * @return the result of the operation.
+		 * @throws BaseException
+		 *           if an error occurs.
+		 */
+
+		T invoke(
+			BitSet	part)
+			throws BaseException;
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member classes : non-inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: EXCEPTION IN THE USAGE OF THE COMMAND-LINE INTERFACE
+
+
+	/**
+	 * This class implements an exception that is thrown when the arguments of the command-line interface are invalid.
+	 */
+
+	private static class UsageException
+		extends BaseException
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Creates a new instance of an exception in the usage of the command-line interface.
+		 *
+		 * @param message
+		 *          the message of the exception.
+		 * @param replacements
+		 *          the objects that will replace placeholders in {@code message}.
+		 */
+
+		private UsageException(
+			String		message,
+			Object...	replacements)
+		{
+			// Call superclass constructor
+			super(message, replacements);
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+
+	// CLASS: ARGUMENTS OF A COMMAND
+
+
+	/**
+	 * This class implements the parsed options and operands of a command.
+	 */
+
+	private static class Arguments
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** A map from the options that were specified to their values. */
+		private	Map<Option, List<String>>	options;
+
+		/** The operands. */
+		private	List<String>				operands;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Creates a new instance of the arguments of the specified command by parsing the specified arguments.
+		 *
+		 * @param  command
+		 *           the command.
+		 * @param  args
+		 *           the arguments that follow the command on the command line.
+		 * @throws UsageException
+		 *           if an option is not recognised or has no value, or if the number of operands is wrong.
+		 */
+
+		private Arguments(
+			Command			command,
+			List<String>	args)
+			throws UsageException
+		{
+			// Initialise instance variables
+			options = new EnumMap<>(Option.class);
+			operands = new ArrayList<>();
+
+			// Parse arguments
+			for (int i = 0; i < args.size(); i++)
+			{
+				String arg = args.get(i);
+				if (arg.startsWith(OPTION_PREFIX) && (arg.length() > OPTION_PREFIX.length()))
+				{
+					Option option = Option.forKey(arg.substring(OPTION_PREFIX.length()));
+					if ((option == null) || !command.options.contains(option))
+						throw new UsageException(ErrorMsg.UNKNOWN_OPTION, arg);
+					List<String> values = options.computeIfAbsent(option, key -> new ArrayList<>());
+					if (option.hasValue)
+					{
+						if (++i >= args.size())
+							throw new UsageException(ErrorMsg.NO_OPTION_VALUE, arg);
+						values.add(args.get(i));
+					}
+				}
+				else
+					operands.add(arg);
+			}
+
+			// Validate number of operands
+			if (operands.size() != command.numOperands)
+				throw new UsageException(ErrorMsg.WRONG_NUMBER_OF_OPERANDS, command.numOperands);
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns {@code true} if the specified option was specified.
+		 *
+		 * @param  option
+		 *           the option of interest.
+		 * @return {@code true} if {@code option} was specified.
+		 */
+
+		private boolean hasFlag(
+			Option	option)
+		{
+			return options.containsKey(option);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the last value of the specified option.
+		 *
+		 * @param  option
+		 *           the option of interest.
+		 * @return the last value of {@code option}, or {@code null} if the option was not specified.
+		 */
+
+		private String getValue(
+			Option	option)
+		{
+			List<String> values = options.get(option);
+			return ((values == null) || values.isEmpty()) ? null : values.get(values.size() - 1);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the location that is denoted by the operand at the specified index.
+		 *
+		 * @param  index
+		 *           the index of the operand.
+		 * @return the location that is denoted by the operand at {@code index}.
+		 * @throws UsageException
+		 *           if the operand is not a valid pathname.
+		 */
+
+		private Path getLocation(
+			int	index)
+			throws UsageException
+		{
+			String pathname = operands.get(index);
+			try
+			{
+				return Path.of(PathnameUtils.parsePathname(pathname));
+			}
+			catch (InvalidPathException e)
+			{
+				throw new UsageException(ErrorMsg.INVALID_PATHNAME, pathname);
+			}
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the number of threads that was specified, or the number of available processors if none was
+		 * specified.
+		 *
+		 * @return the number of threads on which entries will be processed.
+		 * @throws UsageException
+		 *           if the value of the option is not a positive integer.
+		 */
+
+		private int getNumThreads()
+			throws UsageException
+		{
+			String value = getValue(Option.THREADS);
+			if (value == null)
+				return Runtime.getRuntime().availableProcessors();
+			try
+			{
+				int numThreads = Integer.parseInt(value);
+				if (numThreads > 0)
+					return numThreads;
+			}
+			catch (NumberFormatException e)
+			{
+				// fall through
+			}
+			throw new UsageException(ErrorMsg.INVALID_NUMBER_OF_THREADS, value);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns a list of the location filters that correspond to the {@code --include} and {@code --exclude}
+		 * options.  If no inclusion filter was specified, all entries are included.
+		 *
+		 * @return a list of the location filters that correspond to the options.
+		 * @throws BaseException
+		 *           if a pattern is invalid.
+		 */
+
+		private List<LocationFilter> getFilters()
+			throws BaseException
+		{
+			List<LocationFilter> filters = new ArrayList<>();
+			for (String pattern : options.getOrDefault(Option.INCLUDE, List.of()))
+				filters.add(LocationFilter.include(getPatternKind(pattern), pattern));
+			if (filters.isEmpty())
+				filters.add(LocationFilter.INCLUDE_ALL);
+			for (String pattern : options.getOrDefault(Option.EXCLUDE, List.of()))
+				filters.add(LocationFilter.exclude(getPatternKind(pattern), pattern));
+			return filters;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the kind of the specified glob pattern: a pathname pattern if it contains a separator, otherwise a
+		 * filename pattern.
+		 *
+		 * @param  pattern
+		 *           the pattern.
+		 * @return the kind of {@code pattern}.
+		 */
+
+		private static PatternKind getPatternKind(
+			String	pattern)
+		{
+			return (pattern.indexOf(PATHNAME_SEPARATOR) < 0) ? PatternKind.GLOB_FILENAME : PatternKind.GLOB_PATHNAME;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------
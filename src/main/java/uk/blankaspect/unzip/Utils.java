@@ -24,26 +24,23 @@ import java.nio.file.Path;
 
 import java.text.DecimalFormat;
 
-import javafx.stage.Window;
+import java.util.Locale;
 
 import uk.blankaspect.common.basictree.MapNode;
 
 import uk.blankaspect.common.filesystem.PathUtils;
 
-import uk.blankaspect.common.logging.Logger;
-
-import uk.blankaspect.ui.jfx.dialog.ButtonInfo;
-import uk.blankaspect.ui.jfx.dialog.ErrorDialog;
-import uk.blankaspect.ui.jfx.dialog.MessageDialog;
-
-import uk.blankaspect.ui.jfx.image.MessageIcon32;
-
 //----------------------------------------------------------------------
 
 
 // CLASS: UTILITY METHODS
 
 
+/**
+ * This class contains utility methods that do not depend on JavaFX, so that they may be used by the {@linkplain
+ * UnzipCli command-line interface}.  Utility methods that display dialogs are in {@link UiUtils}.
+ */
+
 public class Utils
 {
 
@@ -51,14 +48,29 @@ public class Utils
 //  Constants
 ////////////////////////////////////////////////////////////////////////
 
-	/** The formatter that is applied to integer values to group digits in threes. */
+	/**
+	 * The formatter that is applied to integer values to group digits in threes.  A {@code DecimalFormat} is not
+	 * thread-safe, so this formatter must be used only on the JavaFX application thread.
+	 */
 	public static final	DecimalFormat	INTEGER_FORMATTER;
 
-	/** Miscellaneous strings. */
-	private static final	String	SAVE_BEYOND_SESSION_STR	= "Do you want to save the %s beyond the current session?";
-	private static final	String	SAVE_STR				= "Save";
-	private static final	String	DONT_SAVE_STR			= "Don't save";
-	private static final	String	CANCEL_STR				= "Cancel";
+	/** The formatters that are used by {@link #formatDecimal(long)}, one for each thread. */
+	private static final	ThreadLocal<IntegerFormatter>	INTEGER_FORMATTERS	= new ThreadLocal<>();
+
+	/** The estimated size (in bytes) of a reference to an object. */
+	public static final		int		REFERENCE_SIZE	= 4;
+
+	/** The estimated size (in bytes) of the header of an object. */
+	private static final	int		OBJECT_HEADER_SIZE	= 12;
+
+	/** The estimated size (in bytes) of the header of an array. */
+	private static final	int		ARRAY_HEADER_SIZE	= 16;
+
+	/** The estimated size (in bytes) of a string, excluding its array of characters. */
+	private static final	int		STRING_SIZE	= 24;
+
+	/** The alignment (in bytes) of objects in memory. */
+	private static final	int		OBJECT_ALIGNMENT	= 8;
 
 ////////////////////////////////////////////////////////////////////////
 //  Static initialiser
@@ -84,61 +96,105 @@ public class Utils
 //  Class methods
 ////////////////////////////////////////////////////////////////////////
 
+	/**
+	 * Returns a string representation of the specified integer value with its digits grouped in threes.  This method
+	 * is thread-safe: each thread has its own formatter, which is replaced if the default locale for formatting
+	 * changes.
+	 *
+	 * @param  value
+	 *           the value that will be formatted.
+	 * @return a string representation of {@code value} with its digits grouped in threes.
+	 */
+
 	public static String formatDecimal(
 		long	value)
 	{
-		return INTEGER_FORMATTER.format(value);
+		Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+		IntegerFormatter formatter = INTEGER_FORMATTERS.get();
+		if ((formatter == null) || !formatter.locale.equals(locale))
+		{
+			DecimalFormat format = new DecimalFormat();
+			format.setGroupingSize(3);
+			formatter = new IntegerFormatter(locale, format);
+			INTEGER_FORMATTERS.set(formatter);
+		}
+		return formatter.format.format(value);
 	}
 
 	//------------------------------------------------------------------
 
-	public static String crcToString(
-		long	crc)
+	/**
+	 * Returns an estimate of the memory that is occupied by an object whose fields have the specified total size.
+	 *
+	 * @param  fieldsSize
+	 *           the total size (in bytes) of the fields of the object.
+	 * @return an estimate of the size (in bytes) of the object.
+	 */
+
+	public static long objectMemorySize(
+		long	fieldsSize)
 	{
-		return Long.toHexString(crc).toUpperCase();
+		return align(OBJECT_HEADER_SIZE + fieldsSize);
 	}
 
 	//------------------------------------------------------------------
 
-	public static void showErrorMessage(
-		Window	window,
-		String	title,
-		String	message)
+	/**
+	 * Returns an estimate of the memory that is occupied by an array with the specified length and size of element.
+	 *
+	 * @param  length
+	 *           the length of the array.
+	 * @param  elementSize
+	 *           the size (in bytes) of an element of the array.
+	 * @return an estimate of the size (in bytes) of the array.
+	 */
+
+	public static long arrayMemorySize(
+		int	length,
+		int	elementSize)
 	{
-		// Log error
-		Logger.INSTANCE.error(message);
-
-		// Display error dialog
-		ErrorDialog.show(window, title, message);
+		return align(ARRAY_HEADER_SIZE + (long)length * (long)elementSize);
 	}
 
 	//------------------------------------------------------------------
 
-	public static void showErrorMessage(
-		Window		window,
-		String		title,
-		Throwable	exception)
+	/**
+	 * Returns an estimate of the memory that is occupied by the specified string, assuming that its characters are
+	 * stored in one byte each.
+	 *
+	 * @param  str
+	 *           the string.
+	 * @return an estimate of the size (in bytes) of {@code str}, or 0 if {@code str} is {@code null}.
+	 */
+
+	public static long stringMemorySize(
+		String	str)
 	{
-		// Log error
-		Logger.INSTANCE.error(title, exception);
-
-		// Display error dialog
-		ErrorDialog.show(window, title, exception);
+		return (str == null) ? 0 : STRING_SIZE + arrayMemorySize(str.length(), 1);
 	}
 
 	//------------------------------------------------------------------
 
-	public static void showErrorMessage(
-		Window		window,
-		String		title,
-		String		message,
-		Throwable	exception)
+	/**
+	 * Rounds the specified size up to the alignment of objects in memory.
+	 *
+	 * @param  size
+	 *           the size (in bytes).
+	 * @return {@code size} rounded up to a multiple of the alignment of objects.
+	 */
+
+	private static long align(
+		long	size)
 	{
-		// Log error
-		Logger.INSTANCE.error(message, exception);
+		return (size + OBJECT_ALIGNMENT - 1) / OBJECT_ALIGNMENT * OBJECT_ALIGNMENT;
+	}
+
+	//------------------------------------------------------------------
 
-		// Display error dialog
-		ErrorDialog.show(window, title, message, exception);
+	public static String crcToString(
+		long	crc)
+	{
+		return Long.toHexString(crc).toUpperCase(Locale.ROOT);
 	}
 
 	//------------------------------------------------------------------
@@ -179,22 +235,29 @@ public class Utils
 
 	//------------------------------------------------------------------
 
-	public static Boolean askSaveBeyondSession(
-		Window	owner,
-		String	title,
-		String	itemStr)
-	{
-		return switch (MessageDialog.show(owner, title, MessageIcon32.QUESTION.get(),
-										  String.format(SAVE_BEYOND_SESSION_STR, itemStr),
-										  ButtonInfo.allRight(SAVE_STR, DONT_SAVE_STR, CANCEL_STR)))
-		{
-			case 0  -> Boolean.TRUE;
-			case 1  -> Boolean.FALSE;
-			default -> null;
-		};
-	}
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
 
-	//------------------------------------------------------------------
+
+	// RECORD: INTEGER FORMATTER
+
+
+	/**
+	 * This record encapsulates a formatter for integer values and the locale for which it was created.
+	 *
+	 * @param locale
+	 *          the locale for which the formatter was created.
+	 * @param format
+	 *          the formatter.
+	 */
+
+	private record IntegerFormatter(
+		Locale			locale,
+		DecimalFormat	format)
+	{ }
+
+	//==================================================================
 
 }
 
@@ -18,26 +18,41 @@ package uk.blankaspect.unzip;
 // IMPORTS
 
 
+import java.io.InputStream;
 import java.io.IOException;
 
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 
+import java.nio.file.attribute.BasicFileAttributes;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import uk.blankaspect.common.exception2.BaseException;
 import uk.blankaspect.common.exception2.FileException;
 
 import uk.blankaspect.common.namefilter.LocationFilter;
+import uk.blankaspect.common.namefilter.LocationFilterSet;
 
 import uk.blankaspect.common.string.StringUtils;
 
@@ -60,11 +75,25 @@ public class ZipFileComparison
 //  Constants
 ////////////////////////////////////////////////////////////////////////
 
+	/** The maximum difference (in milliseconds) between the timestamp of a zip entry and the last-modified time of a
+		file for which the two are deemed to be equal.  The timestamp of an entry has a precision of two seconds (DOS
+		date and time) or one second (extended timestamp), whereas that of a file is usually much finer. */
+	private static final	long	FILE_TIMESTAMP_TOLERANCE	= 2000;
+
 	/** Error messages. */
 	private interface ErrorMsg
 	{
 		String	FAILED_TO_CREATE_FILE_SYSTEM =
 				"Failed to create a file system for the file.";
+
+		String	ZIP_FILE_CHANGED =
+				"The zip file has changed since it was first read.";
+
+		String	FAILED_TO_LIST_DIRECTORY =
+				"Failed to get a list of the entries of the directory.";
+
+		String	ERROR_READING_FILE =
+				"An error occurred when reading the file.";
 	}
 
 ////////////////////////////////////////////////////////////////////////
@@ -88,15 +117,71 @@ public class ZipFileComparison
 		Set<Field>				fields)
 		throws BaseException
 	{
+		return compare(zipFile, file, filters, fields, null);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Compares the filtered entries of the specified zip file with the filtered entries of the specified comparand, and
+	 * returns a list of the differences between them.  The comparand may be a zip file or a directory; in the latter
+	 * case, the regular files in the tree rooted at the directory are compared with the entries of the zip file, and
+	 * the timestamp of an entry is deemed to be equal to the last-modified time of a file if they differ by no more
+	 * than two seconds, the precision of a DOS timestamp.
+	 *
+	 * @param  zipFile
+	 *           the zip file.
+	 * @param  file
+	 *           the location of the comparand, which may be a zip file or a directory.
+	 * @param  filters
+	 *           the filters that will be applied to the pathnames of entries.
+	 * @param  fields
+	 *           the fields that will be compared.
+	 * @param  crcCache
+	 *           the cache of the CRCs of files that will be used when the comparand is a directory, which may be {@code
+	 *           null}.
+	 * @return a list of the differences between the entries of {@code zipFile} and {@code file}.
+	 * @throws BaseException
+	 *           if an error occurs when reading either location.
+	 */
+
+	public static List<Difference> compare(
+		ZipFileModel			zipFile,
+		Path					file,
+		List<LocationFilter>	filters,
+		Set<Field>				fields,
+		CrcCache				crcCache)
+		throws BaseException
+	{
+		// Get pairs of filtered entries
+		List<ZipEntryPair> entryPairs = getZipEntries(zipFile, file, filters, fields, crcCache);
+
+		// Get tolerance of comparison of timestamps
+		long timestampTolerance = Files.isDirectory(file) ? FILE_TIMESTAMP_TOLERANCE : 0;
+
+		// Compare fields of each pair of entries
+		for (ZipEntryPair entryPair : entryPairs)
+			entryPair.updateDifferences(fields, timestampTolerance);
+
+		// Compare contents of pairs of entries whose sizes or CRCs differ
+		if (fields.contains(Field.CONTENT))
+			compareContents(zipFile.getLocation(), file, entryPairs);
+
+		// Detect entries that have been moved
+		if (fields.contains(Field.CRC))
+			detectMoves(entryPairs, fields, timestampTolerance);
+
 		// Initialise list of differences between zip entries
 		List<Difference> differences = new ArrayList<>();
 
 		// Populate list of differences
-		for (ZipEntryPair entryPair : getZipEntries(zipFile, file, filters))
+		for (ZipEntryPair entryPair : entryPairs)
 		{
-			entryPair.updateDifferences(fields);
-			if (!entryPair.diffKinds.isEmpty())
-				differences.add(new Difference(entryPair.diffKinds, entryPair.name));
+			if (!entryPair.diffKinds.isEmpty() && !entryPair.movedAway)
+			{
+				differences.add(new Difference(entryPair.diffKinds, entryPair.name, entryPair.contentDiff,
+											   entryPair.movedFrom));
+			}
 		}
 
 		// Return list of differences
@@ -105,6 +190,202 @@ public class ZipFileComparison
 
 	//------------------------------------------------------------------
 
+	/**
+	 * Compares the contents of each of the specified pairs of entries whose sizes or CRCs differ.  The pairs are
+	 * distributed across worker threads, each of which inflates both entries of a pair in tandem.  The {@linkplain
+	 * DiffKind#CONTENT content} kind of difference is added to a pair whose contents differ.
+	 *
+	 * @param  file1
+	 *           the location of the first zip file.
+	 * @param  file2
+	 *           the location of the second zip file.
+	 * @param  entryPairs
+	 *           the pairs of entries.
+	 * @throws BaseException
+	 *           if an error occurs when reading either zip file.
+	 */
+
+	private static void compareContents(
+		Path				file1,
+		Path				file2,
+		List<ZipEntryPair>	entryPairs)
+		throws BaseException
+	{
+		// Get pairs of entries whose sizes or CRCs differ
+		List<ZipEntryPair> candidates = entryPairs.stream().filter(ZipEntryPair::isContentCandidate).toList();
+		if (candidates.isEmpty())
+			return;
+
+		InputZipFile zipFile1 = new InputZipFile(file1);
+		InputZipFile zipFile2 = Files.isDirectory(file2) ? null : new InputZipFile(file2);
+		try
+		{
+			// Open zip files
+			zipFile1.open();
+			if (zipFile2 != null)
+				zipFile2.open();
+
+			// Compare contents of pairs of entries in parallel
+			ZipFile zf1 = zipFile1.zipFile();
+			ZipFile zf2 = (zipFile2 == null) ? null : zipFile2.zipFile();
+			try
+			{
+				candidates.parallelStream().forEach(entryPair ->
+				{
+					try
+					{
+						// Get entry of first file
+						ZipEntry entry1 = zf1.getEntry(entryPair.name);
+						if (entry1 == null)
+							throw new FileException(ErrorMsg.ZIP_FILE_CHANGED, file1);
+
+						// Compare contents of entries
+						entryPair.contentDiff = (zf2 == null)
+								? compareContents(zf1, entry1, file2.resolve(Utils.denormalisePathname(entryPair.name)),
+												  entryPair.entry2.getSize())
+								: ContentDiff.compare(zf1, entry1, zf2, entryPair.entry2);
+					}
+					catch (FileException e)
+					{
+						throw new RuntimeException(e);
+					}
+				});
+			}
+			catch (RuntimeException e)
+			{
+				FileException.throwCause(e);
+				throw e;
+			}
+
+			// Update kinds of difference
+			for (ZipEntryPair entryPair : candidates)
+			{
+				if (!entryPair.contentDiff.isIdentical())
+					entryPair.diffKinds.add(DiffKind.CONTENT);
+			}
+
+			// Close zip files
+			zipFile1.close();
+			if (zipFile2 != null)
+				zipFile2.close();
+		}
+		catch (BaseException e)
+		{
+			// Close zip files
+			zipFile1.closeIgnoreException();
+			if (zipFile2 != null)
+				zipFile2.closeIgnoreException();
+
+			// Rethrow exception
+			throw e;
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Detects probable moves among the specified pairs of entries.  An entry that is present only in the first zip file
+	 * and an entry that is present only in the comparand are deemed to be the same entry at different locations if
+	 * they have the same CRC and size (their <i>fingerprint</i>), and no other unmatched entry on either side has the
+	 * same fingerprint.  Empty entries are ignored because their fingerprints are not distinctive.
+	 * <p>
+	 * The fingerprints of the unmatched entries are collected in a hash table with primitive keys, so the detection
+	 * takes time that is linear in the number of entries.  The pair of the comparand entry of a move is given the
+	 * {@linkplain DiffKind#MOVED moved} kind of difference and the name of the entry in the first zip file; the pair of
+	 * the entry in the first zip file is marked so that it is not reported separately.
+	 * </p>
+	 *
+	 * @param entryPairs
+	 *          the pairs of entries.
+	 * @param fields
+	 *          the fields that are compared.
+	 * @param timestampTolerance
+	 *          the maximum difference (in milliseconds) between two timestamps that are deemed to be equal.
+	 */
+
+	private static void detectMoves(
+		List<ZipEntryPair>	entryPairs,
+		Set<Field>			fields,
+		long				timestampTolerance)
+	{
+		// Get unmatched entries of each side
+		List<ZipEntryPair> pairs1 = new ArrayList<>();
+		List<ZipEntryPair> pairs2 = new ArrayList<>();
+		for (ZipEntryPair entryPair : entryPairs)
+		{
+			if ((entryPair.entry2 == null) && (entryPair.entry1.getSize() > 0))
+				pairs1.add(entryPair);
+			else if ((entryPair.entry1 == null) && (entryPair.entry2.getSize() > 0))
+				pairs2.add(entryPair);
+		}
+		if (pairs1.isEmpty() || pairs2.isEmpty())
+			return;
+
+		// Add fingerprints of unmatched entries to table
+		FingerprintTable table = new FingerprintTable(pairs1.size() + pairs2.size());
+		for (int i = 0; i < pairs1.size(); i++)
+		{
+			ZipFileEntry entry = pairs1.get(i).entry1;
+			table.add(entry.getCrc(), entry.getSize(), i, true);
+		}
+		for (int i = 0; i < pairs2.size(); i++)
+		{
+			ZipEntry entry = pairs2.get(i).entry2;
+			table.add(entry.getCrc(), entry.getSize(), i, false);
+		}
+
+		// Mark pairs of entries whose fingerprints are unique on both sides
+		for (int slot = 0; slot < table.capacity(); slot++)
+		{
+			int index1 = table.indices1[slot];
+			int index2 = table.indices2[slot];
+			if ((index1 >= 0) && (index2 >= 0))
+			{
+				ZipEntryPair entryPair1 = pairs1.get(index1);
+				ZipEntryPair entryPair2 = pairs2.get(index2);
+				entryPair1.movedAway = true;
+				entryPair2.movedFrom = entryPair1.name;
+				entryPair2.diffKinds = EnumSet.of(DiffKind.MOVED);
+				if (fields.contains(Field.TIMESTAMP)
+						&& timestampsDiffer(entryPair1.entry1.getTimestamp(), entryPair2.entry2.getTime(),
+											timestampTolerance))
+					entryPair2.diffKinds.add(DiffKind.TIMESTAMP);
+			}
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	private static boolean timestampsDiffer(
+		long	timestamp1,
+		long	timestamp2,
+		long	tolerance)
+	{
+		return (Math.abs(timestamp1 - timestamp2) > tolerance);
+	}
+
+	//------------------------------------------------------------------
+
+	private static ContentDiff compareContents(
+		ZipFile		zipFile,
+		ZipEntry	entry,
+		Path		file,
+		long		fileSize)
+		throws FileException
+	{
+		try (InputStream inStream1 = zipFile.getInputStream(entry);
+			 InputStream inStream2 = Files.newInputStream(file, LinkOption.NOFOLLOW_LINKS))
+		{
+			return ContentDiff.compare(inStream1, entry.getSize(), inStream2, fileSize);
+		}
+		catch (IOException e)
+		{
+			throw new FileException(ErrorMsg.ERROR_READING_FILE, e, file);
+		}
+	}
+
+	//------------------------------------------------------------------
+
 	private static void appendZipEntries(
 		ZipFileModel			zipFile,
 		List<LocationFilter>	filters,
@@ -128,6 +409,7 @@ public class ZipFileComparison
 			// Update matchers of location filters
 			for (LocationFilter filter : filters)
 				filter.updateMatcher(fileSystem);
+			LocationFilterSet filterSet = new LocationFilterSet(filters);
 
 			// Create list of filtered entries
 			for (ZipFileEntry entry : zipFile.getEntries())
@@ -136,7 +418,7 @@ public class ZipFileComparison
 				String name = entry.getPathname();
 
 				// If entry is included and not excluded, add it to list
-				if (LocationFilter.accept(fileSystem.getPath(name), filters))
+				if (filterSet.accept(fileSystem.getPath(name)))
 					entryPairs.add(new ZipEntryPair(entry));
 			}
 		}
@@ -184,6 +466,7 @@ public class ZipFileComparison
 			// Update matchers of location filters
 			for (LocationFilter filter : filters)
 				filter.updateMatcher(fileSystem);
+			LocationFilterSet filterSet = new LocationFilterSet(filters);
 
 			// Create list of filtered entries
 			for (ZipEntry entry : zipFile.getEntries())
@@ -195,7 +478,7 @@ public class ZipFileComparison
 					String name = entry.getName();
 
 					// If entry is included and not excluded, add it to list
-					if (LocationFilter.accept(fileSystem.getPath(name), filters))
+					if (filterSet.accept(fileSystem.getPath(name)))
 					{
 						boolean found = false;
 						for (ZipEntryPair entryPair : entryPairs)
@@ -243,10 +526,78 @@ public class ZipFileComparison
 
 	//------------------------------------------------------------------
 
+	/**
+	 * Appends to the specified list the regular files in the tree rooted at the specified directory whose pathnames,
+	 * relative to the directory, are accepted by the specified filters.  Each file is represented by a {@link ZipEntry}
+	 * whose name is the relative pathname of the file, and whose size and timestamp are those of the file.  If CRCs are
+	 * required, they are obtained from the specified cache, which computes the CRC of a file only if it does not hold a
+	 * valid CRC for it.
+	 * <p>
+	 * The tree is traversed in parallel: each directory is processed by a task that lists the directory, reads the
+	 * attributes of its entries, and forks a task for each subdirectory and a task to obtain the CRC of each file, so
+	 * that the files of a single directory are also hashed in parallel.
+	 * </p>
+	 *
+	 * @param  directory
+	 *           the root of the tree of files.
+	 * @param  filters
+	 *           the filters that will be applied to the relative pathnames of files.
+	 * @param  crcCache
+	 *           the cache from which the CRCs of files will be obtained, or {@code null} if CRCs are not required.
+	 * @param  entryPairs
+	 *           the list of zip-entry pairs to which the files will be appended.
+	 * @throws BaseException
+	 *           if an error occurs when traversing the tree or reading a file.
+	 */
+
+	private static void appendDirectoryEntries(
+		Path					directory,
+		List<LocationFilter>	filters,
+		CrcCache				crcCache,
+		List<ZipEntryPair>		entryPairs)
+		throws BaseException
+	{
+		// Update matchers of location filters
+		for (LocationFilter filter : filters)
+			filter.updateMatcher(FileSystems.getDefault());
+		LocationFilterSet filterSet = new LocationFilterSet(filters);
+
+		// Traverse tree of files in parallel
+		Queue<ZipEntry> entries = new ConcurrentLinkedQueue<>();
+		try
+		{
+			ForkJoinPool.commonPool().invoke(new DirectoryTask(directory, directory, filterSet, crcCache, entries));
+		}
+		catch (RuntimeException e)
+		{
+			FileException.throwCause(e);
+			throw e;
+		}
+
+		// Create map of entry pairs
+		Map<String, ZipEntryPair> pairMap = new HashMap<>();
+		for (ZipEntryPair entryPair : entryPairs)
+			pairMap.put(entryPair.name, entryPair);
+
+		// Add files to list of entry pairs
+		for (ZipEntry entry : entries)
+		{
+			ZipEntryPair entryPair = pairMap.get(entry.getName());
+			if (entryPair == null)
+				entryPairs.add(new ZipEntryPair(entry));
+			else
+				entryPair.addSecondEntry(entry);
+		}
+	}
+
+	//------------------------------------------------------------------
+
 	private static List<ZipEntryPair> getZipEntries(
 		ZipFileModel			zipFile,
 		Path					file,
-		List<LocationFilter>	filters)
+		List<LocationFilter>	filters,
+		Set<Field>				fields,
+		CrcCache				crcCache)
 		throws BaseException
 	{
 		// Initialise list of zip-entry pairs
@@ -255,8 +606,20 @@ public class ZipFileComparison
 		// Append entries of first zip file to list
 		appendZipEntries(zipFile, filters, entryPairs);
 
-		// Append entries of second zip file to list
-		appendZipEntries(new InputZipFile(file), filters, entryPairs);
+		// Append entries of comparand to list
+		if (Files.isDirectory(file))
+		{
+			// Get CRC cache if CRCs are required
+			if (!fields.contains(Field.CRC) && !fields.contains(Field.CONTENT))
+				crcCache = null;
+			else if (crcCache == null)
+				crcCache = new CrcCache(null);
+
+			// Append files to list
+			appendDirectoryEntries(file, filters, crcCache, entryPairs);
+		}
+		else
+			appendZipEntries(new InputZipFile(file), filters, entryPairs);
 
 		// Sort zip-entry pairs
 		entryPairs.sort(Comparator.comparing(entry -> entry.name));
@@ -298,6 +661,12 @@ public class ZipFileComparison
 		(
 			"CRC",
 			DiffKind.CRC
+		),
+
+		CONTENT
+		(
+			"Content",
+			DiffKind.CONTENT
 		);
 
 	////////////////////////////////////////////////////////////////////
@@ -370,6 +739,13 @@ public class ZipFileComparison
 
 		//--------------------------------------------------------------
 
+		public DiffKind getDiffKind()
+		{
+			return diffKind;
+		}
+
+		//--------------------------------------------------------------
+
 	}
 
 	//==================================================================
@@ -408,6 +784,16 @@ public class ZipFileComparison
 		CRC
 		(
 			'C'
+		),
+
+		CONTENT
+		(
+			'D'
+		),
+
+		MOVED
+		(
+			'M'
 		);
 
 	////////////////////////////////////////////////////////////////////
@@ -496,10 +882,34 @@ public class ZipFileComparison
 	// RECORD: DIFFERENCE
 
 
+	/**
+	 * This record encapsulates a difference between an entry of a zip file and the corresponding entry of a comparand.
+	 *
+	 * @param diffKinds
+	 *          the kinds of difference.
+	 * @param pathname
+	 *          the pathname of the entry.  If the entry was moved, this is its pathname in the comparand.
+	 * @param contentDiff
+	 *          the result of the comparison of the contents of the entries, or {@code null} if the contents were not
+	 *          compared.
+	 * @param movedFrom
+	 *          the pathname of the entry in the first zip file if the entry was moved, or {@code null} otherwise.
+	 */
+
 	public record Difference(
 		Set<DiffKind>	diffKinds,
-		String			pathname)
-	{ }
+		String			pathname,
+		ContentDiff		contentDiff,
+		String			movedFrom)
+	{
+		public Difference(
+			Set<DiffKind>	diffKinds,
+			String			pathname)
+		{
+			// Call alternative constructor
+			this(diffKinds, pathname, null, null);
+		}
+	}
 
 	//==================================================================
 
@@ -522,6 +932,9 @@ public class ZipFileComparison
 		private	ZipFileEntry	entry1;
 		private	ZipEntry		entry2;
 		private	Set<DiffKind>	diffKinds;
+		private	ContentDiff		contentDiff;
+		private	String			movedFrom;
+		private	boolean			movedAway;
 
 	////////////////////////////////////////////////////////////////////
 	//  Constructors
@@ -584,8 +997,17 @@ public class ZipFileComparison
 
 		//--------------------------------------------------------------
 
+		private boolean isContentCandidate()
+		{
+			return (entry1 != null) && (entry2 != null)
+					&& ((entry1.getSize() != entry2.getSize()) || (entry1.getCrc() != entry2.getCrc()));
+		}
+
+		//--------------------------------------------------------------
+
 		private void updateDifferences(
-			Collection<Field>	fields)
+			Collection<Field>	fields,
+			long				timestampTolerance)
 		{
 			diffKinds = EnumSet.noneOf(DiffKind.class);
 
@@ -597,9 +1019,10 @@ public class ZipFileComparison
 				{
 					boolean different = switch (field)
 					{
-						case TIMESTAMP -> (entry1.getTimestamp() != entry2.getTime());
+						case TIMESTAMP -> timestampsDiffer(entry1.getTimestamp(), entry2.getTime(), timestampTolerance);
 						case SIZE      -> (entry1.getSize() != entry2.getSize());
 						case CRC       -> (entry1.getCrc() != entry2.getCrc());
+						case CONTENT   -> false;  // set by comparison of contents
 					};
 					if (different)
 						diffKinds.add(field.diffKind);
@@ -613,6 +1036,270 @@ public class ZipFileComparison
 
 	//==================================================================
 
+
+	// CLASS: TABLE OF FINGERPRINTS OF ENTRIES
+
+
+	/**
+	 * This class implements an open-addressing hash table whose keys are the fingerprints (CRC and size) of entries and
+	 * whose values are the indices of the entries on each side of a comparison.  The index for a side is {@link
+	 * #NONE} if no entry on that side has the fingerprint, and {@link #MULTIPLE} if more than one entry has it.
+	 */
+
+	private static class FingerprintTable
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Constants
+	////////////////////////////////////////////////////////////////////
+
+		private static final	int		NONE		= -1;
+		private static final	int		MULTIPLE	= -2;
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		private	long[]		crcs;
+		private	long[]		sizes;
+		private	boolean[]	occupied;
+		private	int[]		indices1;
+		private	int[]		indices2;
+		private	int			mask;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private FingerprintTable(
+			int	maxNumKeys)
+		{
+			// Initialise instance variables
+			int capacity = Integer.highestOneBit(Math.max(2 * maxNumKeys - 1, 1)) << 1;
+			crcs = new long[capacity];
+			sizes = new long[capacity];
+			occupied = new boolean[capacity];
+			indices1 = new int[capacity];
+			indices2 = new int[capacity];
+			Arrays.fill(indices1, NONE);
+			Arrays.fill(indices2, NONE);
+			mask = capacity - 1;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		private int capacity()
+		{
+			return occupied.length;
+		}
+
+		//--------------------------------------------------------------
+
+		private void add(
+			long	crc,
+			long	size,
+			int		index,
+			boolean	first)
+		{
+			// Find slot for key
+			long hash = (crc * 0x9E3779B97F4A7C15L) ^ (size * 0xC2B2AE3D27D4EB4FL);
+			int slot = (int)(hash ^ (hash >>> 32)) & mask;
+			while (occupied[slot] && ((crcs[slot] != crc) || (sizes[slot] != size)))
+				slot = (slot + 1) & mask;
+
+			// Set key
+			occupied[slot] = true;
+			crcs[slot] = crc;
+			sizes[slot] = size;
+
+			// Set index
+			int[] indices = first ? indices1 : indices2;
+			indices[slot] = (indices[slot] == NONE) ? index : MULTIPLE;
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+
+	// CLASS: DIRECTORY TASK
+
+
+	/**
+	 * This class implements a task that processes a directory of a tree of files that is compared with a zip file.
+	 */
+
+	private static class DirectoryTask
+		extends RecursiveAction
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		private	Path				root;
+		private	Path				directory;
+		private	LocationFilterSet	filterSet;
+		private	CrcCache			crcCache;
+		private	Queue<ZipEntry>		entries;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private DirectoryTask(
+			Path				root,
+			Path				directory,
+			LocationFilterSet	filterSet,
+			CrcCache			crcCache,
+			Queue<ZipEntry>		entries)
+		{
+			// Initialise instance variables
+			this.root = root;
+			this.directory = directory;
+			this.filterSet = filterSet;
+			this.crcCache = crcCache;
+			this.entries = entries;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : overriding methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		protected void compute()
+		{
+			List<RecursiveAction> subtasks = new ArrayList<>();
+			try (DirectoryStream<Path> locations = Files.newDirectoryStream(directory))
+			{
+				for (Path location : locations)
+				{
+					// Get attributes of location
+					BasicFileAttributes attrs =
+							Files.readAttributes(location, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+
+					// Case: directory
+					if (attrs.isDirectory())
+						subtasks.add(new DirectoryTask(root, location, filterSet, crcCache, entries));
+
+					// Case: regular file
+					else if (attrs.isRegularFile())
+					{
+						// If file is included and not excluded, create entry for it
+						Path relativeLocation = root.relativize(location);
+						if (filterSet.accept(relativeLocation))
+						{
+							ZipEntry entry = new ZipEntry(Utils.normalisePathname(relativeLocation.toString()));
+							entry.setSize(attrs.size());
+							entry.setLastModifiedTime(attrs.lastModifiedTime());
+							if (crcCache != null)
+							{
+								subtasks.add(new CrcTask(location, attrs.size(), attrs.lastModifiedTime().toMillis(),
+														 crcCache, entry));
+							}
+							entries.add(entry);
+						}
+					}
+				}
+			}
+			catch (IOException e)
+			{
+				throw new RuntimeException(new FileException(ErrorMsg.FAILED_TO_LIST_DIRECTORY, e, directory));
+			}
+
+			// Process subdirectories and files
+			invokeAll(subtasks);
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+
+	// CLASS: CRC TASK
+
+
+	/**
+	 * This class implements a task that obtains the CRC of a file of a tree of files that is compared with a zip file,
+	 * and sets it on the zip entry that represents the file.
+	 */
+
+	private static class CrcTask
+		extends RecursiveAction
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		private	Path		file;
+		private	long		size;
+		private	long		timestamp;
+		private	CrcCache	crcCache;
+		private	ZipEntry	entry;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private CrcTask(
+			Path		file,
+			long		size,
+			long		timestamp,
+			CrcCache	crcCache,
+			ZipEntry	entry)
+		{
+			// Initialise instance variables
+			this.file = file;
+			this.size = size;
+			this.timestamp = timestamp;
+			this.crcCache = crcCache;
+			this.entry = entry;
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : overriding methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		protected void compute()
+		{
+			try
+			{
+				entry.setCrc(crcCache.getCrc(file, size, timestamp));
+			}
+			catch (FileException e)
+			{
+				throw new RuntimeException(e);
+			}
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
 }
 
 //----------------------------------------------------------------------
@@ -129,6 +129,25 @@ public class ZipFileEntry
 
 	//------------------------------------------------------------------
 
+	public ZipFileEntry(
+		int		index,
+		String	pathname,
+		long	timestamp,
+		long	size,
+		long	compressedSize,
+		long	crc)
+	{
+		// Initialise instance variables
+		this.index = index;
+		this.pathname = pathname;
+		this.timestamp = timestamp;
+		this.size = size;
+		this.compressedSize = compressedSize;
+		this.crc = crc;
+	}
+
+	//------------------------------------------------------------------
+
 ////////////////////////////////////////////////////////////////////////
 //  Instance methods
 ////////////////////////////////////////////////////////////////////////
@@ -175,9 +194,24 @@ public class ZipFileEntry
 
 	//------------------------------------------------------------------
 
+	/**
+	 * Returns the index of the last separator in the pathname of this entry, which separates the directory pathname
+	 * from the filename, or -1 if the pathname contains no separator.  The regions of the pathname that are delimited
+	 * by this index may be matched without creating substrings.
+	 *
+	 * @return the index of the last separator in the pathname of this entry, or -1 if there is no separator.
+	 */
+
+	public int getSeparatorIndex()
+	{
+		return pathname.lastIndexOf(SEPARATOR_CHAR);
+	}
+
+	//------------------------------------------------------------------
+
 	public String getDirectoryPathname()
 	{
-		int index = pathname.lastIndexOf(SEPARATOR_CHAR);
+		int index = getSeparatorIndex();
 		return (index < 0) ? "" : pathname.substring(0, index);
 	}
 
@@ -185,7 +219,7 @@ public class ZipFileEntry
 
 	public String getFilename()
 	{
-		int index = pathname.lastIndexOf(SEPARATOR_CHAR);
+		int index = getSeparatorIndex();
 		return (index < 0) ? pathname : pathname.substring(index + 1);
 	}
 
@@ -214,6 +248,20 @@ public class ZipFileEntry
 
 	//------------------------------------------------------------------
 
+	/**
+	 * Returns an estimate of the memory that is occupied by this entry, including its pathname.
+	 *
+	 * @return an estimate of the size (in bytes) of this entry.
+	 */
+
+	public long getMemorySize()
+	{
+		return Utils.objectMemorySize(Integer.BYTES + Utils.REFERENCE_SIZE + 4 * Long.BYTES)
+				+ Utils.stringMemorySize(pathname);
+	}
+
+	//------------------------------------------------------------------
+
 	public Map<String, String> getProperties()
 	{
 		return InsertionOrderStringMap
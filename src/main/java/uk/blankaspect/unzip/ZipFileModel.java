@@ -82,6 +82,9 @@ public class ZipFileModel
 
 	private static final	int		EXTRACTION_BUFFER_LENGTH	= 1 << 16;  // 65536
 
+	/** The maximum number of entries whose properties are formatted in advance for the text cache. */
+	private static final	int		MAX_NUM_PREWARMED_ENTRIES	= 1 << 12;  // 4096
+
 	/** Miscellaneous strings. */
 	private static final	String	FILENAME_STR				= "Filename";
 	private static final	String	NUM_DIRECTORIES_STR			= "Number of directories";
@@ -93,6 +96,7 @@ public class ZipFileModel
 	private static final	String	EXTRACTING_FILE_STR			= "Extracting file to";
 	private static final	String	EXTRACTING_FILES_STR		= "Extracting files";
 	private static final	String	WRITING_STR					= "Writing";
+	private static final	String	TESTING_FILES_STR			= "Testing files";
 
 	/** Error messages. */
 	private interface ErrorMsg
@@ -147,6 +151,9 @@ public class ZipFileModel
 
 		String	INCORRECT_CRC =
 				"The CRC value of the file is incorrect.";
+
+		String	INCORRECT_SIZE =
+				"The size of the file is incorrect.";
 	}
 
 ////////////////////////////////////////////////////////////////////////
@@ -159,7 +166,21 @@ public class ZipFileModel
 	private	long				totalSize;
 	private	long				totalCompressedSize;
 	private	List<ZipFileEntry>	entries;
-	private	byte[]				extractionBuffer;
+
+	/** The buffers that are used when extracting entries, one for each thread that extracts entries concurrently. */
+	private	ThreadLocal<byte[]>	extractionBuffers;
+
+	/** The trigram index of the pathnames of the entries, which is {@code null} until it has been built. */
+	private	volatile TrigramIndex	trigramIndex;
+
+	/** The columns of the properties of the entries, which are {@code null} until they are first requested. */
+	private	volatile EntryColumns	columns;
+
+	/** The cache of the texts of the properties of the entries, which is {@code null} until it is first requested. */
+	private	volatile EntryTextCache	textCache;
+
+	/** The index of the directories of the entries, which is created when the entries are read. */
+	private	volatile DirectoryIndex	directoryIndex;
 
 ////////////////////////////////////////////////////////////////////////
 //  Constructors
@@ -169,6 +190,63 @@ public class ZipFileModel
 	{
 		// Initialise instance variables
 		entries = new ArrayList<>();
+		extractionBuffers = ThreadLocal.withInitial(() -> new byte[EXTRACTION_BUFFER_LENGTH]);
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Class methods
+////////////////////////////////////////////////////////////////////////
+
+	/**
+	 * Matches the specified old entries of a zip file with the specified new entries of the same file after it has been
+	 * reloaded.  Both lists must be sorted in the order of the entries of a zip file model.  An old entry is matched
+	 * with a new entry if they have the same pathname, size, compressed size, CRC and timestamp.
+	 *
+	 * @param  oldEntries
+	 *           the old entries.
+	 * @param  newEntries
+	 *           the new entries.
+	 * @return an array whose elements are the indices in {@code newEntries} of the corresponding elements of {@code
+	 *         oldEntries}, or -1 for an old entry that has been removed or changed.
+	 */
+
+	public static int[] matchEntries(
+		List<ZipFileEntry>	oldEntries,
+		List<ZipFileEntry>	newEntries)
+	{
+		int[] indices = new int[oldEntries.size()];
+		int i = 0;
+		int j = 0;
+		while (i < indices.length)
+		{
+			// Assume that old entry has been removed
+			indices[i] = -1;
+
+			// Find new entry with pathname of old entry
+			ZipFileEntry oldEntry = oldEntries.get(i);
+			while (j < newEntries.size())
+			{
+				ZipFileEntry newEntry = newEntries.get(j);
+				int result = ZipFileEntry.DIRECTORY_FILENAME_PATHNAME_COMPARATOR
+												.compare(oldEntry.getPathname(), newEntry.getPathname());
+				if (result < 0)
+					break;
+				++j;
+				if (result == 0)
+				{
+					if ((oldEntry.getSize() == newEntry.getSize())
+							&& (oldEntry.getCompressedSize() == newEntry.getCompressedSize())
+							&& (oldEntry.getCrc() == newEntry.getCrc())
+							&& (oldEntry.getTimestamp() == newEntry.getTimestamp()))
+						indices[i] = j - 1;
+					break;
+				}
+			}
+			++i;
+		}
+		return indices;
 	}
 
 	//------------------------------------------------------------------
@@ -199,6 +277,13 @@ public class ZipFileModel
 
 	//------------------------------------------------------------------
 
+	public int getNumDirectories()
+	{
+		return numDirectories;
+	}
+
+	//------------------------------------------------------------------
+
 	public List<ZipFileEntry> getEntries()
 	{
 		return Collections.unmodifiableList(entries);
@@ -206,6 +291,181 @@ public class ZipFileModel
 
 	//------------------------------------------------------------------
 
+	/**
+	 * Sets the entries of this zip file to the specified entries, which were read from an {@linkplain EntryIndexCache
+	 * index} of the file rather than from the file itself.  The entries must be sorted in the order of the entries of a
+	 * zip file model.  The index of their directories is created, and any other index or cache is discarded.
+	 *
+	 * @param location
+	 *          the location of the zip file.
+	 * @param timestamp
+	 *          the last-modified time of the zip file.
+	 * @param numDirectories
+	 *          the number of directory entries of the zip file.
+	 * @param entries
+	 *          the entries of the zip file that are not directories.
+	 */
+
+	public void setEntries(
+		Path				location,
+		FileTime			timestamp,
+		int					numDirectories,
+		List<ZipFileEntry>	entries)
+	{
+		// Update instance variables
+		this.location = location;
+		this.timestamp = timestamp;
+		this.numDirectories = numDirectories;
+		this.entries.clear();
+		this.entries.addAll(entries);
+		trigramIndex = null;
+		columns = null;
+		textCache = null;
+
+		// Update total sizes
+		totalSize = 0;
+		totalCompressedSize = 0;
+		for (ZipFileEntry entry : entries)
+		{
+			totalSize += entry.getSize();
+			totalCompressedSize += entry.getCompressedSize();
+		}
+
+		// Create index of directories
+		directoryIndex = DirectoryIndex.create(this.entries);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns an estimate of the memory that is occupied by the entries of this zip file and by the indices and caches
+	 * that have been created for them.  The estimate increases as the lazily created indices and caches are filled.
+	 *
+	 * @return an estimate of the size (in bytes) of the entries of this zip file and their indices and caches.
+	 */
+
+	public long getMemorySize()
+	{
+		// Entries
+		long size = Utils.arrayMemorySize(entries.size(), Utils.REFERENCE_SIZE);
+		for (ZipFileEntry entry : entries)
+			size += entry.getMemorySize();
+
+		// Indices and caches
+		TrigramIndex trigramIndex = this.trigramIndex;
+		if (trigramIndex != null)
+			size += trigramIndex.getMemorySize();
+		DirectoryIndex directoryIndex = this.directoryIndex;
+		if (directoryIndex != null)
+			size += directoryIndex.getMemorySize();
+		EntryColumns columns = this.columns;
+		if (columns != null)
+			size += columns.getMemorySize();
+		EntryTextCache textCache = this.textCache;
+		if (textCache != null)
+			size += textCache.getMemorySize();
+
+		// Return estimate
+		return size;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the trigram index of the pathnames of the entries of this zip file.
+	 *
+	 * @return the trigram index of the pathnames of the entries of this zip file, or {@code null} if the index has not
+	 *         been built.
+	 */
+
+	public TrigramIndex getTrigramIndex()
+	{
+		return trigramIndex;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Builds the trigram index of the pathnames of the entries of this zip file.  This method may be called on a
+	 * background thread after the entries have been read; the index becomes available from {@link #getTrigramIndex()}
+	 * when it is complete.
+	 */
+
+	public void buildTrigramIndex()
+	{
+		if (trigramIndex == null)
+			trigramIndex = TrigramIndex.create(entries);
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the index of the directories of the entries of this zip file.  The index refers to the entries by their
+	 * positions in the list that is returned by {@link #getEntries()}.
+	 *
+	 * @return the index of the directories of the entries of this zip file, or {@code null} if the entries have not
+	 *         been read.
+	 */
+
+	public DirectoryIndex getDirectoryIndex()
+	{
+		return directoryIndex;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the columns of the properties of the entries of this zip file, creating them if necessary.
+	 *
+	 * @return the columns of the properties of the entries of this zip file.
+	 */
+
+	public EntryColumns getColumns()
+	{
+		EntryColumns result = columns;
+		if (result == null)
+		{
+			result = EntryColumns.create(entries);
+			columns = result;
+		}
+		return result;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the cache of the texts of the properties of the entries of this zip file, creating it if necessary.
+	 *
+	 * @return the cache of the texts of the properties of the entries of this zip file.
+	 */
+
+	public EntryTextCache getTextCache()
+	{
+		EntryTextCache result = textCache;
+		if (result == null)
+		{
+			result = new EntryTextCache(entries);
+			textCache = result;
+		}
+		return result;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Formats the properties of the first entries of this zip file, which are the ones that are initially displayed in
+	 * a table view, and adds them to the {@linkplain #getTextCache() text cache}.  The properties of the remaining
+	 * entries are formatted when they are first displayed.  This method may be called on a background thread after the
+	 * entries have been read.
+	 */
+
+	public void prewarmTextCache()
+	{
+		getTextCache().prewarm(entries.subList(0, Math.min(entries.size(), MAX_NUM_PREWARMED_ENTRIES)));
+	}
+
+	//------------------------------------------------------------------
+
 	public Map<String, String> getProperties()
 	{
 		return InsertionOrderStringMap
@@ -220,18 +480,6 @@ public class ZipFileModel
 
 	//------------------------------------------------------------------
 
-	public int[] rowIndicesToEntryIndices(
-		int[]	indices)
-	{
-		int[] entryIndices = new int[indices.length];
-		for (int i = 0; i < entryIndices.length; i++)
-			entryIndices[i] = entries.get(indices[i]).getIndex();
-		Arrays.sort(entryIndices);
-		return entryIndices;
-	}
-
-	//------------------------------------------------------------------
-
 	public void readEntries(
 		Path		location,
 		ITaskStatus	taskStatus)
@@ -330,6 +578,10 @@ public class ZipFileModel
 
 			// Collect entries
 			entries.clear();
+			trigramIndex = null;
+			columns = null;
+			textCache = null;
+			directoryIndex = null;
 			List<? extends ZipEntry> zipEntries = Collections.list(zipFile.entries());
 			int numEntries = zipEntries.size();
 			int index = 0;
@@ -365,11 +617,12 @@ public class ZipFileModel
 			taskStatus.setSpacedMessage(SORTING_STR, PathUtils.abs(location));
 			taskStatus.setProgress(-1.0);
 
-			// Sort entries
+			// Sort entries and create index of their directories
 			if (!taskStatus.isCancelled())
 			{
 				entries.sort(Comparator.comparing(ZipFileEntry::getPathname,
 												  ZipFileEntry.DIRECTORY_FILENAME_PATHNAME_COMPARATOR));
+				directoryIndex = DirectoryIndex.create(entries);
 			}
 
 			// Close channel to unlock it
@@ -627,6 +880,123 @@ public class ZipFileModel
 
 	//------------------------------------------------------------------
 
+	/**
+	 * Tests the integrity of the selected entries of the specified list by decompressing each of them and comparing the
+	 * size and CRC of the result with the values that are stored in the zip file.  No files are written.  This method
+	 * may be called concurrently on several threads for disjoint selections.
+	 *
+	 * @param  entries
+	 *           the list of entries.
+	 * @param  selection
+	 *           the indices of the entries of {@code entries} that will be tested.
+	 * @param  taskStatus
+	 *           the status of the task that is testing the entries.
+	 * @return a list of the faults that were found in the selected entries, in the order of {@code entries}.
+	 * @throws FileException
+	 *           if an error occurred when opening or closing the zip file, or if the zip file has changed since its
+	 *           entries were read.
+	 */
+
+	public List<EntryFault> testEntries(
+		List<ZipFileEntry>	entries,
+		BitSet				selection,
+		ITaskStatus			taskStatus)
+		throws FileException
+	{
+		// Set message and initial progress
+		taskStatus.setMessage(TESTING_FILES_STR);
+		taskStatus.setProgress(0.0);
+
+		// Get total size of entries
+		long totalEntrySize = 0;
+		for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1))
+			totalEntrySize += entries.get(i).getSize();
+
+		// Open zip file
+		ZipFile zipFile = null;
+		try
+		{
+			zipFile = new ZipFile(location.toFile(), StandardCharsets.UTF_8);
+		}
+		catch (SecurityException e)
+		{
+			throw new FileException(ErrorMsg.FILE_ACCESS_NOT_PERMITTED, e, location);
+		}
+		catch (Exception e)
+		{
+			throw new FileException(ErrorMsg.FAILED_TO_OPEN_FILE, e, location);
+		}
+
+		// Test entries
+		List<EntryFault> faults = new ArrayList<>();
+		try
+		{
+			byte[] buffer = extractionBuffers.get();
+			List<? extends ZipEntry> zipEntries = Collections.list(zipFile.entries());
+			long totalTestedSize = 0;
+			for (int i = selection.nextSetBit(0); i >= 0; i = selection.nextSetBit(i + 1))
+			{
+				// Test whether task has been cancelled
+				if (taskStatus.isCancelled())
+					break;
+
+				// Test entry from list against entry from file
+				ZipFileEntry entry = entries.get(i);
+				int index = entry.getIndex();
+				if ((index >= zipEntries.size()) || (zipEntries.get(index).getCrc() != entry.getCrc()))
+					throw new FileException(ErrorMsg.ZIP_FILE_CHANGED, location);
+
+				// Decompress entry, calculating its size and CRC
+				ZipEntry zipEntry = zipEntries.get(index);
+				CRC32 crc = new CRC32();
+				long size = 0;
+				try (InputStream inStream = zipFile.getInputStream(zipEntry))
+				{
+					int blockLength = 0;
+					while ((blockLength = inStream.read(buffer)) >= 0)
+					{
+						crc.update(buffer, 0, blockLength);
+						size += blockLength;
+					}
+
+					// Compare size and CRC with stored values
+					if (size != zipEntry.getSize())
+						faults.add(new EntryFault(entry, ErrorMsg.INCORRECT_SIZE));
+					else if (crc.getValue() != zipEntry.getCrc())
+						faults.add(new EntryFault(entry, ErrorMsg.INCORRECT_CRC));
+				}
+				catch (IOException e)
+				{
+					String message = ErrorMsg.ERROR_READING_FILE;
+					if (e.getMessage() != null)
+						message += " (" + e.getMessage() + ")";
+					faults.add(new EntryFault(entry, message));
+				}
+
+				// Update progress
+				totalTestedSize += entry.getSize();
+				taskStatus.setProgress((double)totalTestedSize / (double)Math.max(totalEntrySize, 1));
+			}
+		}
+		finally
+		{
+			// Close zip file
+			try
+			{
+				zipFile.close();
+			}
+			catch (IOException e)
+			{
+				// ignore
+			}
+		}
+
+		// Return faults
+		return faults;
+	}
+
+	//------------------------------------------------------------------
+
 	private void extractEntry(
 		ZipFile		zipFile,
 		ZipEntry	entry,
@@ -715,9 +1085,8 @@ public class ZipFileModel
 				throw new FileException(ErrorMsg.FAILED_TO_LOCK_FILE, e, tempFile);
 			}
 
-			// Allocate buffer
-			if (extractionBuffer == null)
-				extractionBuffer = new byte[EXTRACTION_BUFFER_LENGTH];
+			// Get buffer of current thread
+			byte[] extractionBuffer = extractionBuffers.get();
 
 			// Read from zip entry and write output file
 			CRC32 crc = new CRC32();
@@ -869,6 +1238,30 @@ public class ZipFileModel
 
 	//------------------------------------------------------------------
 
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: FAULT IN AN ENTRY
+
+
+	/**
+	 * This record encapsulates a fault that was found when testing the integrity of an entry of a zip file.
+	 *
+	 * @param entry
+	 *          the entry.
+	 * @param message
+	 *          a description of the fault.
+	 */
+
+	public record EntryFault(
+		ZipFileEntry	entry,
+		String			message)
+	{ }
+
+	//==================================================================
+
 }
 
 //----------------------------------------------------------------------
@@ -20,17 +20,22 @@ package uk.blankaspect.unzip;
 
 import java.lang.invoke.MethodHandles;
 
+import java.nio.file.Path;
+
 import java.time.LocalDateTime;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 
 import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 
 import javafx.application.Platform;
 
@@ -42,6 +47,8 @@ import javafx.beans.property.SimpleSetProperty;
 
 import javafx.collections.FXCollections;
 
+import javafx.concurrent.Task;
+
 import javafx.css.PseudoClass;
 
 import javafx.geometry.HPos;
@@ -69,6 +76,8 @@ import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableRow;
 import javafx.scene.control.TableView;
 
+import javafx.scene.control.skin.VirtualFlow;
+
 import javafx.scene.image.Image;
 
 import javafx.scene.input.ContextMenuEvent;
@@ -104,6 +113,8 @@ import uk.blankaspect.common.geometry.VHPos;
 
 import uk.blankaspect.common.logging.Logger;
 
+import uk.blankaspect.common.misc.SystemUtils;
+
 import uk.blankaspect.common.string.StringUtils;
 
 import uk.blankaspect.common.text.Tabulator;
@@ -118,14 +129,20 @@ import uk.blankaspect.ui.jfx.container.LabelTitledPane;
 import uk.blankaspect.ui.jfx.container.PropertiesPane;
 
 import uk.blankaspect.ui.jfx.dialog.ErrorDialog;
+import uk.blankaspect.ui.jfx.dialog.NotificationDialog;
 import uk.blankaspect.ui.jfx.dialog.SimpleModalDialog;
+import uk.blankaspect.ui.jfx.dialog.SimpleProgressDialog;
 
 import uk.blankaspect.ui.jfx.font.Fonts;
 
 import uk.blankaspect.ui.jfx.image.HatchedImageFactory;
+import uk.blankaspect.ui.jfx.image.MessageIcon32;
 
 import uk.blankaspect.ui.jfx.label.Labels;
 
+import uk.blankaspect.ui.jfx.locationchooser.FileMatcher;
+import uk.blankaspect.ui.jfx.locationchooser.LocationChooser;
+
 import uk.blankaspect.ui.jfx.math.FxGeomUtils;
 
 import uk.blankaspect.ui.jfx.popup.CellPopUpManager;
@@ -134,6 +151,8 @@ import uk.blankaspect.ui.jfx.popup.PopUpUtils;
 
 import uk.blankaspect.ui.jfx.scene.SceneUtils;
 
+import uk.blankaspect.ui.jfx.selectionmodel.BitSetTableSelectionModel;
+
 import uk.blankaspect.ui.jfx.spinner.CollectionSpinner;
 
 import uk.blankaspect.ui.jfx.style.ColourProperty;
@@ -145,7 +164,7 @@ import uk.blankaspect.ui.jfx.style.StyleConstants;
 import uk.blankaspect.ui.jfx.style.StyleManager;
 import uk.blankaspect.ui.jfx.style.StyleSelector;
 
-import uk.blankaspect.ui.jfx.tableview.ElasticFilteredList;
+import uk.blankaspect.ui.jfx.tableview.PermutationList;
 import uk.blankaspect.ui.jfx.tableview.TableViewStyle;
 
 import uk.blankaspect.ui.jfx.text.TextUtils;
@@ -209,7 +228,10 @@ public class ZipFileTableView
 	private static final	String	SELECT_EDITOR_STR	= "Select editor";
 	private static final	String	PROPERTIES_STR		= "Properties";
 	private static final	String	COPY_ENTRY_TEXT_STR	= "Copy text of selected entries";
+	private static final	String	EXPORT_LISTING_STR	= "Export listing of selected entries";
 	private static final	String	PATHNAME_STR		= "Pathname";
+	private static final	String	NUM_ENTRIES_STR		= "Number of entries written : ";
+	private static final	String	FILES_SUFFIX_STR	= " files";
 
 	/** The pseudo-class that is associated with the <i>filtered</i> state. */
 	private static final	PseudoClass	FILTERED_PSEUDO_CLASS	= PseudoClass.getPseudoClass(PseudoClassKey.FILTERED);
@@ -290,33 +312,45 @@ public class ZipFileTableView
 ////////////////////////////////////////////////////////////////////////
 
 	/** The delay (in milliseconds) before a pop-up for a header cell is displayed after it is activated. */
-	private static	int	headerCellPopUpDelay	= DEFAULT_HEADER_CELL_POP_UP_DELAY;
+	private static	int				headerCellPopUpDelay	= DEFAULT_HEADER_CELL_POP_UP_DELAY;
+
+	/** The file chooser for the file to which a listing of entries is exported. */
+	private static	LocationChooser	exportFileChooser;
+
+	/** The directory that is associated with {@link #exportFileChooser}. */
+	private static	Path			exportDirectory;
 
 ////////////////////////////////////////////////////////////////////////
 //  Instance variables
 ////////////////////////////////////////////////////////////////////////
 
 	/** The manager of the pop-up windows that are displayed for the cells of this table view. */
-	private	CellPopUpManager					cellPopUpManager;
+	private	CellPopUpManager						cellPopUpManager;
 
 	/** A list of the items that are represented in this table view. */
-	private	ElasticFilteredList<ZipFileEntry>	itemList;
+	private	PermutationList<ZipFileEntry>			itemList;
+
+	/** The selection model of this table view. */
+	private	BitSetTableSelectionModel<ZipFileEntry>	selectionModel;
+
+	/** The cache of the texts of the properties of the entries, which is {@code null} if there is no zip file. */
+	private	EntryTextCache							textCache;
 
 	/** A list of the cells of this table view. */
-	private	List<Cell<?>>						cells;
+	private	List<Cell<?>>							cells;
 
 	/** The manager of pop-ups for the header cells of this table view. */
-	private	LabelPopUpManager					headerPopUpManager;
+	private	LabelPopUpManager						headerPopUpManager;
 
 	/** Flag: if {@code true}, the header of this table view has been initialised. */
-	private	boolean								headerInitialised;
+	private	boolean									headerInitialised;
 
 	/** The listener that responds to a change of theme. */
-	private	InvalidationListener				themeListener;
+	private	InvalidationListener					themeListener;
 
 	// WORKAROUND for a bug in JavaFX: isFocused() sometimes returns false when the table view has focus
 	/** Flag: if {@code true}, this table view has keyboard focus. */
-	private	boolean								focused;
+	private	boolean									focused;
 
 ////////////////////////////////////////////////////////////////////////
 //  Static initialiser
@@ -343,7 +377,8 @@ public class ZipFileTableView
 	{
 		// Initialise instance variables
 		cellPopUpManager = new CellPopUpManager(Cell.POP_UP_DELAY);
-		itemList = new ElasticFilteredList<>(this);
+		itemList = new PermutationList<>(this);
+		selectionModel = new BitSetTableSelectionModel<>(this);
 		cells = new ArrayList<>();
 
 		// Set properties
@@ -447,6 +482,9 @@ public class ZipFileTableView
 			tableColumn.setId(column.getKey());
 			tableColumn.setPrefWidth(column.prefWidth);
 
+			// Set primitive sort key of table column
+			itemList.setSortKey(tableColumn, column.getSortKey());
+
 			// Add column to list
 			getColumns().add(tableColumn);
 
@@ -550,6 +588,12 @@ public class ZipFileTableView
 			menuItem.setOnAction(event0 -> onCopyEntryText());
 			menu.getItems().add(menuItem);
 
+			// Add menu item: export listing
+			menuItem = new MenuItem(EXPORT_LISTING_STR + ELLIPSIS_STR);
+			menuItem.setDisable(getSelectionModel().isEmpty());
+			menuItem.setOnAction(event0 -> onExportListing());
+			menu.getItems().add(menuItem);
+
 			// Display context menu
 			if (!menu.getItems().isEmpty())
 				menu.show(getWindow(), event.getScreenX(), event.getScreenY());
@@ -697,16 +741,80 @@ public class ZipFileTableView
 	public void setZipFile(
 		ZipFileModel	zipFile)
 	{
-		//
+		// Update items; when they have been set, update cache of texts of entries, redraw cells and display first item
+		itemList.update((zipFile == null) ? Collections.emptyList() : zipFile.getEntries(), () ->
+		{
+			textCache = (zipFile == null) ? null : zipFile.getTextCache();
+			refresh();
+			scrollTo(0);
+		});
+	}
 
-		// Update items
-		itemList.update((zipFile == null) ? Collections.emptyList() : zipFile.getEntries());
+	//------------------------------------------------------------------
 
-		// Redraw cells
-		refresh();
+	/**
+	 * Sets the entries of the specified zip file, which has been reloaded from the location of the current zip file, on
+	 * this table view.  Rather than replacing all the rows, only the rows of entries that have been added, removed or
+	 * changed are updated, so that the selection and the scroll position are preserved.  The changes are computed on
+	 * a background thread.
+	 *
+	 * @param zipFile
+	 *          the reloaded zip file.
+	 * @param filter
+	 *          the filter that will be applied to the entries of {@code zipFile}.  If it is {@code null}, all entries
+	 *          will be included.
+	 */
 
-		// Display first item
-		scrollTo(0);
+	public void reloadZipFile(
+		ZipFileModel			zipFile,
+		Predicate<ZipFileEntry>	filter)
+	{
+		// Get entry of first visible row
+		ZipFileEntry firstEntry = null;
+		if ((lookup(StyleSelector.VIRTUAL_FLOW) instanceof VirtualFlow<?> flow) && (flow.getFirstVisibleCell() != null))
+		{
+			int row = flow.getFirstVisibleCell().getIndex();
+			if ((row >= 0) && (row < itemList.size()))
+				firstEntry = itemList.get(row);
+		}
+
+		// Get index of entry of first visible row in current entries
+		List<ZipFileEntry> oldEntries = itemList.getItems();
+		int firstIndex = -1;
+		for (int i = 0; i < oldEntries.size(); i++)
+		{
+			if (oldEntries.get(i) == firstEntry)
+			{
+				firstIndex = i;
+				break;
+			}
+		}
+
+		// Update rows whose entries have changed
+		List<ZipFileEntry> entries = zipFile.getEntries();
+		int[] newIndices = ZipFileModel.matchEntries(oldEntries, entries);
+		int newFirstIndex = (firstIndex < 0) ? -1 : newIndices[firstIndex];
+		itemList.patch(entries, newIndices, filter, () ->
+		{
+			// Update cache of texts of entries
+			textCache = zipFile.getTextCache();
+
+			// Redraw cells
+			refresh();
+
+			// Restore scroll position
+			if (newFirstIndex >= 0)
+			{
+				for (int row = 0; row < itemList.size(); row++)
+				{
+					if (itemList.getSourceIndex(row) == newFirstIndex)
+					{
+						scrollTo(row);
+						break;
+					}
+				}
+			}
+		});
 	}
 
 	//------------------------------------------------------------------
@@ -727,8 +835,8 @@ public class ZipFileTableView
 	public void setFilter(
 		Predicate<ZipFileEntry>	filter)
 	{
-		// Set filter on list of items
-		itemList.setFilter((filter == null) ? null : filter);
+		// Set filter on list of items; the filter is applied on a background thread
+		itemList.setFilter(filter);
 	}
 
 	//------------------------------------------------------------------
@@ -754,6 +862,19 @@ public class ZipFileTableView
 
 	//------------------------------------------------------------------
 
+	/**
+	 * Returns a bit set of the indices of the selected rows of this table view.
+	 *
+	 * @return a bit set of the indices of the selected rows of this table view.
+	 */
+
+	public BitSet getSelectedRows()
+	{
+		return selectionModel.getSelection();
+	}
+
+	//------------------------------------------------------------------
+
 	private Window getWindow()
 	{
 		return SceneUtils.getWindow(this);
@@ -763,7 +884,7 @@ public class ZipFileTableView
 
 	private boolean isSingleSelection()
 	{
-		return (getSelectionModel().getSelectedIndices().size() == 1);
+		return (selectionModel.getNumSelected() == 1);
 	}
 
 	//------------------------------------------------------------------
@@ -797,7 +918,7 @@ public class ZipFileTableView
 	private void onCopyEntryText()
 	{
 		// Display dialog for selecting columns and field separator
-		CopyEntryTextDialog.State result = new CopyEntryTextDialog(COPY_ENTRY_TEXT_STR).showDialog();
+		EntryTextDialog.State result = new EntryTextDialog(COPY_ENTRY_TEXT_STR, false).showDialog();
 		if (result == null)
 			return;
 
@@ -921,6 +1042,110 @@ public class ZipFileTableView
 
 	//------------------------------------------------------------------
 
+	private void onExportListing()
+	{
+		// Display dialog for selecting columns and format
+		EntryTextDialog.State result = new EntryTextDialog(EXPORT_LISTING_STR, true).showDialog();
+		if (result == null)
+			return;
+
+		// Create file chooser
+		if (exportFileChooser == null)
+		{
+			exportFileChooser = LocationChooser.forFiles();
+			exportFileChooser.setDialogTitle(EXPORT_LISTING_STR);
+			exportFileChooser.setDialogStateKey();
+		}
+
+		// Set filters of file chooser for format
+		exportFileChooser.clearFilters();
+		FileMatcher formatMatcher =
+				new FileMatcher(result.format + FILES_SUFFIX_STR, result.format.getFilenameSuffix());
+		exportFileChooser.addFilters(formatMatcher, FileMatcher.ANY_FILE);
+		exportFileChooser.setInitialFilter(0);
+
+		// Display file chooser
+		exportFileChooser.initDirectory(exportDirectory, SystemUtils.userHomeDirectory());
+		Path file = exportFileChooser.showSaveDialog(getWindow());
+		if (file == null)
+			return;
+		file = exportFileChooser.appendFilenameSuffix(file);
+		exportDirectory = file.toAbsolutePath().getParent();
+
+		// Create list of fields
+		List<EntryListingWriter.Field> fields = new ArrayList<>();
+		for (Column column : result.columns)
+		{
+			if ((column == Column.DIRECTORY) && result.combineDirectoryFilename)
+			{
+				fields.add(new EntryListingWriter.Field(StringUtils.toCamelCase(PATHNAME_STR), PATHNAME_STR, false,
+														ZipFileEntry::getPathname));
+			}
+			else if (!((column == Column.FILENAME) && result.combineDirectoryFilename))
+			{
+				fields.add(new EntryListingWriter.Field(column.getKey(), column.text, (column.hAlignment == HPos.RIGHT),
+														column::getValueString, column.getNumberValue()));
+			}
+		}
+
+		// Take snapshot of entries of selected rows; the list of items may change while the listing is being written
+		BitSet selectedRows = getSelectedRows();
+		List<ZipFileEntry> items = getItems();
+		List<ZipFileEntry> entries = new ArrayList<>(selectedRows.cardinality());
+		for (int row = selectedRows.nextSetBit(0); row >= 0; row = selectedRows.nextSetBit(row + 1))
+			entries.add(items.get(row));
+		BitSet selection = new BitSet(entries.size());
+		selection.set(0, entries.size());
+		Path outFile = file;
+
+		// Create task to write listing
+		Task<Integer> task = new AbstractTask<>()
+		{
+			{
+				// Initialise task
+				updateTitle(EXPORT_LISTING_STR);
+			}
+
+			@Override
+			protected Integer call()
+				throws Exception
+			{
+				// Write listing
+				int numEntries = EntryListingWriter.write(outFile, result.format, fields, result.includeHeader,
+														  entries, selection, createTaskStatus());
+
+				// If task has been cancelled, change state to 'cancelled'
+				hardCancel(false);
+
+				// Return number of entries written
+				return numEntries;
+			}
+
+			@Override
+			protected void succeeded()
+			{
+				// Display number of entries written
+				NotificationDialog.show(getWindow(), getTitle(), MessageIcon32.INFORMATION.get(),
+										NUM_ENTRIES_STR + getValue());
+			}
+
+			@Override
+			protected void failed()
+			{
+				// Display error message in dialog
+				showErrorMessage(getWindow());
+			}
+		};
+
+		// Show progress of task in dialog
+		new SimpleProgressDialog(getWindow(), task, SimpleProgressDialog.CancelMode.NO_INTERRUPT);
+
+		// Execute task on background thread
+		UnzipApp.executeTask(task);
+	}
+
+	//------------------------------------------------------------------
+
 ////////////////////////////////////////////////////////////////////////
 //  Enumerated types
 ////////////////////////////////////////////////////////////////////////
@@ -1014,20 +1239,24 @@ public class ZipFileTableView
 			protected String getValueString(
 				ZipFileEntry	entry)
 			{
-				LocalDateTime dateTime = entry.getDateTime();
-				return (dateTime == null) ? "" : Constants.TIMESTAMP_FORMATTER.format(dateTime);
+				return EntryTextCache.Field.TIMESTAMP.format(entry);
 			}
 
 			//----------------------------------------------------------
 
 			@Override
-			protected TableColumn<ZipFileEntry, LocalDateTime> createColumn(
+			protected TableColumn<ZipFileEntry, ZipFileEntry> createColumn(
 				ZipFileTableView	tableView)
 			{
-				TableColumn<ZipFileEntry, LocalDateTime> column = new TableColumn<>(toString());
-				column.setCellFactory(column0 -> tableView.new TimestampCell(this));
-				column.setCellValueFactory(features -> new ReadOnlyObjectWrapper<>(features.getValue().getDateTime()));
-				return column;
+				return createFormattedColumn(tableView, EntryTextCache.Field.TIMESTAMP, ZipFileEntry::getTimestamp);
+			}
+
+			//----------------------------------------------------------
+
+			@Override
+			protected ToLongFunction<ZipFileEntry> getSortKey()
+			{
+				return ZipFileEntry::getTimestamp;
 			}
 
 			//----------------------------------------------------------
@@ -1046,24 +1275,32 @@ public class ZipFileTableView
 			protected String getValueString(
 				ZipFileEntry	entry)
 			{
-				long size = entry.getSize();
-				return (size < 0) ? "" : Utils.formatDecimal(size);
+				return EntryTextCache.Field.SIZE.format(entry);
 			}
 
 			//----------------------------------------------------------
 
 			@Override
-			protected TableColumn<ZipFileEntry, Long> createColumn(
+			protected TableColumn<ZipFileEntry, ZipFileEntry> createColumn(
 				ZipFileTableView	tableView)
 			{
-				TableColumn<ZipFileEntry, Long> column = new TableColumn<>(toString());
-				column.setCellFactory(column0 -> tableView.new SizeCell(this));
-				column.setCellValueFactory(features ->
-				{
-					long size = features.getValue().getSize();
-					return new ReadOnlyObjectWrapper<>((size < 0) ? null : Long.valueOf(size));
-				});
-				return column;
+				return createFormattedColumn(tableView, EntryTextCache.Field.SIZE, ZipFileEntry::getSize);
+			}
+
+			//----------------------------------------------------------
+
+			@Override
+			protected ToLongFunction<ZipFileEntry> getSortKey()
+			{
+				return ZipFileEntry::getSize;
+			}
+
+			//----------------------------------------------------------
+
+			@Override
+			protected ToLongFunction<ZipFileEntry> getNumberValue()
+			{
+				return ZipFileEntry::getSize;
 			}
 
 			//----------------------------------------------------------
@@ -1082,24 +1319,33 @@ public class ZipFileTableView
 			protected String getValueString(
 				ZipFileEntry	entry)
 			{
-				long size = entry.getCompressedSize();
-				return (size < 0) ? "" : Utils.formatDecimal(size);
+				return EntryTextCache.Field.COMPRESSED_SIZE.format(entry);
 			}
 
 			//----------------------------------------------------------
 
 			@Override
-			protected TableColumn<ZipFileEntry, Long> createColumn(
+			protected TableColumn<ZipFileEntry, ZipFileEntry> createColumn(
 				ZipFileTableView	tableView)
 			{
-				TableColumn<ZipFileEntry, Long> column = new TableColumn<>(toString());
-				column.setCellFactory(column0 -> tableView.new SizeCell(this));
-				column.setCellValueFactory(features ->
-				{
-					long size = features.getValue().getCompressedSize();
-					return new ReadOnlyObjectWrapper<>((size < 0) ? null : Long.valueOf(size));
-				});
-				return column;
+				return createFormattedColumn(tableView, EntryTextCache.Field.COMPRESSED_SIZE,
+											 ZipFileEntry::getCompressedSize);
+			}
+
+			//----------------------------------------------------------
+
+			@Override
+			protected ToLongFunction<ZipFileEntry> getSortKey()
+			{
+				return ZipFileEntry::getCompressedSize;
+			}
+
+			//----------------------------------------------------------
+
+			@Override
+			protected ToLongFunction<ZipFileEntry> getNumberValue()
+			{
+				return ZipFileEntry::getCompressedSize;
 			}
 
 			//----------------------------------------------------------
@@ -1118,24 +1364,24 @@ public class ZipFileTableView
 			protected String getValueString(
 				ZipFileEntry	entry)
 			{
-				long crc = entry.getCrc();
-				return (crc < 0) ? "" : Utils.crcToString(crc);
+				return EntryTextCache.Field.CRC.format(entry);
 			}
 
 			//----------------------------------------------------------
 
 			@Override
-			protected TableColumn<ZipFileEntry, Long> createColumn(
+			protected TableColumn<ZipFileEntry, ZipFileEntry> createColumn(
 				ZipFileTableView	tableView)
 			{
-				TableColumn<ZipFileEntry, Long> column = new TableColumn<>(toString());
-				column.setCellFactory(column0 -> tableView.new CrcCell(this));
-				column.setCellValueFactory(features ->
-				{
-					long crc = features.getValue().getCrc();
-					return new ReadOnlyObjectWrapper<>((crc < 0) ? null : Long.valueOf(crc));
-				});
-				return column;
+				return createFormattedColumn(tableView, EntryTextCache.Field.CRC, ZipFileEntry::getCrc);
+			}
+
+			//----------------------------------------------------------
+
+			@Override
+			protected ToLongFunction<ZipFileEntry> getSortKey()
+			{
+				return ZipFileEntry::getCrc;
 			}
 
 			//----------------------------------------------------------
@@ -1229,6 +1475,68 @@ public class ZipFileTableView
 
 		//--------------------------------------------------------------
 
+		/**
+		 * Returns the function that extracts the primitive sort key of this column from an entry.  The order of the
+		 * keys is the same as the order of the cell values of the column, with unknown values first.
+		 *
+		 * @return the function that extracts the sort key of this column from an entry, or {@code null} if the column
+		 *         is sorted by its comparator.
+		 */
+
+		protected ToLongFunction<ZipFileEntry> getSortKey()
+		{
+			return null;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Returns the function that extracts the numeric value of this column from an entry for a listing of entries
+		 * in which numbers are distinguished from text.  An unknown value is negative.
+		 *
+		 * @return the function that extracts the numeric value of this column from an entry, or {@code null} if the
+		 *         value of the column is text.
+		 */
+
+		protected ToLongFunction<ZipFileEntry> getNumberValue()
+		{
+			return null;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Creates and returns a table column whose cells display the text of the specified field of an entry, which is
+		 * obtained from the text cache of the table view.  The value of a cell is the entry itself, or {@code null} if
+		 * the value of the field is not known (ie, if it is negative).
+		 *
+		 * @param  tableView
+		 *           the table view to which the column will belong.
+		 * @param  field
+		 *           the field of an entry that will be displayed in the column.
+		 * @param  valueFunction
+		 *           the function that extracts the value of {@code field} from an entry.
+		 * @return a table column whose cells display the text of {@code field}.
+		 */
+
+		protected TableColumn<ZipFileEntry, ZipFileEntry> createFormattedColumn(
+			ZipFileTableView				tableView,
+			EntryTextCache.Field			field,
+			ToLongFunction<ZipFileEntry>	valueFunction)
+		{
+			TableColumn<ZipFileEntry, ZipFileEntry> column = new TableColumn<>(toString());
+			column.setCellFactory(column0 -> tableView.new FormattedCell(this, field));
+			column.setCellValueFactory(features ->
+			{
+				ZipFileEntry entry = features.getValue();
+				return new ReadOnlyObjectWrapper<>((valueFunction.applyAsLong(entry) < 0) ? null : entry);
+			});
+			column.setComparator(Comparator.nullsFirst(Comparator.comparingLong(valueFunction)));
+			return column;
+		}
+
+		//--------------------------------------------------------------
+
 	}
 
 	//==================================================================
@@ -1437,7 +1745,7 @@ public class ZipFileTableView
 			if (StyleManager.INSTANCE.notUsingStyleSheet())
 			{
 				int index = getIndex();
-				boolean selected = getSelectionModel().getSelectedIndices().contains(index);
+				boolean selected = getSelectionModel().isSelected(index);
 // WORKAROUND
 //				boolean focused = getTableView().isFocused();
 				Color colour = isEmpty()
@@ -1548,98 +1856,38 @@ public class ZipFileTableView
 	//==================================================================
 
 
-	// CLASS: TIMESTAMP CELL
-
-
-	private class TimestampCell
-		extends Cell<LocalDateTime>
-	{
-
-	////////////////////////////////////////////////////////////////////
-	//  Constructors
-	////////////////////////////////////////////////////////////////////
-
-		private TimestampCell(
-			Column	column)
-		{
-			// Call superclass constructor
-			super(column);
-		}
-
-		//--------------------------------------------------------------
-
-	////////////////////////////////////////////////////////////////////
-	//  Instance methods : overriding methods
-	////////////////////////////////////////////////////////////////////
-
-		@Override
-		protected String getLabelText()
-		{
-			LocalDateTime item = getItem();
-			return (item == null) ? null : Constants.TIMESTAMP_FORMATTER.format(item);
-		}
-
-		//--------------------------------------------------------------
-
-	}
-
-	//==================================================================
-
+	// CLASS: FORMATTED CELL
 
-	// CLASS: SIZE CELL
 
+	/**
+	 * This class implements a cell whose value is a zip-file entry and whose label displays the text of a field of the
+	 * entry.  The text is obtained from the {@linkplain EntryTextCache text cache} of the table view, so a value is not
+	 * formatted each time the cell is updated.
+	 */
 
-	private class SizeCell
-		extends Cell<Long>
+	private class FormattedCell
+		extends Cell<ZipFileEntry>
 	{
 
 	////////////////////////////////////////////////////////////////////
-	//  Constructors
-	////////////////////////////////////////////////////////////////////
-
-		private SizeCell(
-			Column	column)
-		{
-			// Call superclass constructor
-			super(column);
-		}
-
-		//--------------------------------------------------------------
-
-	////////////////////////////////////////////////////////////////////
-	//  Instance methods : overriding methods
+	//  Instance variables
 	////////////////////////////////////////////////////////////////////
 
-		@Override
-		protected String getLabelText()
-		{
-			Long item = getItem();
-			return (item == null) ? null : Utils.formatDecimal(item);
-		}
-
-		//--------------------------------------------------------------
-
-	}
-
-	//==================================================================
-
-
-	// CLASS: CRC CELL
-
-
-	private class CrcCell
-		extends Cell<Long>
-	{
+		private	EntryTextCache.Field	field;
 
 	////////////////////////////////////////////////////////////////////
 	//  Constructors
 	////////////////////////////////////////////////////////////////////
 
-		private CrcCell(
-			Column	column)
+		private FormattedCell(
+			Column					column,
+			EntryTextCache.Field	field)
 		{
 			// Call superclass constructor
 			super(column);
+
+			// Initialise instance variables
+			this.field = field;
 		}
 
 		//--------------------------------------------------------------
@@ -1651,8 +1899,9 @@ public class ZipFileTableView
 		@Override
 		protected String getLabelText()
 		{
-			Long item = getItem();
-			return (item == null) ? null : Utils.crcToString(item);
+			ZipFileEntry item = getItem();
+			return (item == null) ? null
+								  : (textCache == null) ? field.format(item) : textCache.get(field, item);
 		}
 
 		//--------------------------------------------------------------
@@ -1662,11 +1911,16 @@ public class ZipFileTableView
 	//==================================================================
 
 
-	// CLASS: 'COPY ENTRY TEXT' DIALOG
+	// CLASS: 'ENTRY TEXT' DIALOG
 
 
-	private class CopyEntryTextDialog
-		extends SimpleModalDialog<CopyEntryTextDialog.State>
+	/**
+	 * This class implements a dialog in which the columns and format of the text of the selected entries are chosen,
+	 * either for copying to the system clipboard or for exporting to a file.
+	 */
+
+	private class EntryTextDialog
+		extends SimpleModalDialog<EntryTextDialog.State>
 	{
 
 	////////////////////////////////////////////////////////////////////
@@ -1691,13 +1945,16 @@ public class ZipFileTableView
 		private static final	String	ROWS_STR			= "Rows";
 		private static final	String	INCLUDE_HEADER_STR	= "Include header";
 		private static final	String	FIELD_SEPARATOR_STR	= "Field separator";
+		private static final	String	FORMAT_STR			= "Format";
 		private static final	String	COPY_STR			= "Copy";
+		private static final	String	EXPORT_STR			= "Export";
 
 	////////////////////////////////////////////////////////////////////
 	//  Class variables
 	////////////////////////////////////////////////////////////////////
 
-		private static	State	state	= new State(EnumSet.allOf(Column.class), false, false, FieldSeparator.SPACES);
+		private static	State	state	= new State(EnumSet.allOf(Column.class), false, false, FieldSeparator.SPACES,
+													EntryListingWriter.Format.TSV);
 
 	////////////////////////////////////////////////////////////////////
 	//  Instance variables
@@ -1709,8 +1966,9 @@ public class ZipFileTableView
 	//  Constructors
 	////////////////////////////////////////////////////////////////////
 
-		private CopyEntryTextDialog(
-			String	title)
+		private EntryTextDialog(
+			String	title,
+			boolean	export)
 		{
 			// Call superclass constructor
 			super(getWindow(), MethodHandles.lookup().lookupClass().getCanonicalName(), null, title);
@@ -1785,7 +2043,17 @@ public class ZipFileTableView
 			CollectionSpinner<FieldSeparator> fieldSeparatorSpinner =
 					CollectionSpinner.leftRightH(HPos.CENTER, true, FieldSeparator.class, state.fieldSeparator, null,
 												 null);
-			rowsPane.addRow(row++, new Label(FIELD_SEPARATOR_STR), fieldSeparatorSpinner);
+
+			// Create spinner: format
+			CollectionSpinner<EntryListingWriter.Format> formatSpinner =
+					CollectionSpinner.leftRightH(HPos.CENTER, true, EntryListingWriter.Format.class, state.format,
+												 null, null);
+
+			// Add spinner for field separator or format
+			if (export)
+				rowsPane.addRow(row++, new Label(FORMAT_STR), formatSpinner);
+			else
+				rowsPane.addRow(row++, new Label(FIELD_SEPARATOR_STR), fieldSeparatorSpinner);
 
 			// Create titled pane: rows
 			LabelTitledPane titledRowsPane = new LabelTitledPane(ROWS_STR, rowsPane);
@@ -1802,10 +2070,11 @@ public class ZipFileTableView
 			IFunction0<State> getState = () ->
 					new State(EnumSet.copyOf(columns),
 							  !combineDirFilenameCheckBox.isDisabled() && combineDirFilenameCheckBox.isSelected(),
-							  includeHeaderCheckBox.isSelected(), fieldSeparatorSpinner.getItem());
+							  includeHeaderCheckBox.isSelected(), fieldSeparatorSpinner.getItem(),
+							  formatSpinner.getItem());
 
-			// Create button: copy
-			Button copyButton = Buttons.hNoShrink(COPY_STR);
+			// Create button: copy or export
+			Button copyButton = Buttons.hNoShrink(export ? EXPORT_STR : COPY_STR);
 			copyButton.getProperties().put(BUTTON_GROUP_KEY, BUTTON_GROUP1);
 			copyButton.setOnAction(event ->
 			{
@@ -1814,13 +2083,13 @@ public class ZipFileTableView
 			});
 			addButton(copyButton, HPos.RIGHT);
 
-			// Create procedure to update 'copy' button
+			// Create procedure to update 'copy' or 'export' button
 			IProcedure0 updateCopyButton = () -> copyButton.setDisable(columns.isEmpty());
 
-			// Update 'copy' button when set of selected columns changes
+			// Update 'copy' or 'export' button when set of selected columns changes
 			columns.addListener((InvalidationListener) observable -> updateCopyButton.invoke());
 
-			// Update 'copy' button
+			// Update 'copy' or 'export' button
 			updateCopyButton.invoke();
 
 			// Create button: cancel
@@ -1922,10 +2191,11 @@ public class ZipFileTableView
 
 
 		private record State(
-			EnumSet<Column>	columns,
-			boolean			combineDirectoryFilename,
-			boolean			includeHeader,
-			FieldSeparator	fieldSeparator)
+			EnumSet<Column>				columns,
+			boolean						combineDirectoryFilename,
+			boolean						includeHeader,
+			FieldSeparator				fieldSeparator,
+			EntryListingWriter.Format	format)
 		{ }
 
 		//==============================================================
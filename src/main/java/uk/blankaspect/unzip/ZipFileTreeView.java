@@ -0,0 +1,621 @@
+/*====================================================================*\
+
+ZipFileTreeView.java
+
+Class: zip-file tree view.
+
+\*====================================================================*/
+
+
+// PACKAGE
+
+
+package uk.blankaspect.unzip;
+
+//----------------------------------------------------------------------
+
+
+// IMPORTS
+
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import javafx.application.Platform;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+
+import javafx.collections.ObservableList;
+
+import javafx.geometry.HPos;
+import javafx.geometry.VPos;
+
+import javafx.scene.control.Label;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeTableCell;
+import javafx.scene.control.TreeTableColumn;
+import javafx.scene.control.TreeTableView;
+
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+
+import uk.blankaspect.ui.jfx.math.FxGeomUtils;
+
+import uk.blankaspect.ui.jfx.text.TextUtils;
+
+//----------------------------------------------------------------------
+
+
+// CLASS: ZIP-FILE TREE VIEW
+
+
+/**
+ * This class implements a tree view of the directory hierarchy of the entries of a zip file.  It is an alternative to
+ * the flat {@link ZipFileTableView} for archives that have many directories.
+ * <p>
+ * The tree is built from the {@linkplain ZipFileModel#getDirectoryIndex() directory index} of the zip file.  The
+ * children of a directory are created only when the directory is first expanded, and they are created in pages: if a
+ * directory has more children than fit in a page, the last child of the page is a placeholder, and the next page
+ * replaces the placeholder when it is displayed.  The number of files and the total sizes of a directory, including
+ * its subdirectories, are obtained from the index.
+ * </p>
+ * <p>
+ * The selected items are mapped to the indices of entries in the list of entries of the zip file by {@link
+ * #getSelectedEntries()}; a selected directory denotes all the files that it contains.
+ * </p>
+ */
+
+public class ZipFileTreeView
+	extends TreeTableView<ZipFileTreeView.Node>
+{
+
+////////////////////////////////////////////////////////////////////////
+//  Constants
+////////////////////////////////////////////////////////////////////////
+
+	/** The maximum number of children of a directory that are created at one time. */
+	private static final	int		PAGE_LENGTH	= 1000;
+
+	/** Miscellaneous strings. */
+	private static final	String	NO_ENTRIES_STR	= "No entries";
+	private static final	String	MORE_STR		= "%s more ...";
+
+////////////////////////////////////////////////////////////////////////
+//  Instance variables
+////////////////////////////////////////////////////////////////////////
+
+	/** The entries of the zip file. */
+	private	List<ZipFileEntry>	entries;
+
+	/** The index of the directories of the entries. */
+	private	DirectoryIndex		index;
+
+////////////////////////////////////////////////////////////////////////
+//  Constructors
+////////////////////////////////////////////////////////////////////////
+
+	public ZipFileTreeView()
+	{
+		// Initialise instance variables
+		entries = Collections.emptyList();
+
+		// Set properties
+		setShowRoot(false);
+		getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+		setColumnResizePolicy(TreeTableView.CONSTRAINED_RESIZE_POLICY);
+		setPlaceholder(new Label(NO_ENTRIES_STR));
+
+		// Create columns
+		for (Column column : Column.values())
+		{
+			TreeTableColumn<Node, Node> tableColumn = new TreeTableColumn<>(column.text);
+			tableColumn.setCellFactory(column0 -> new Cell(column));
+			tableColumn.setCellValueFactory(features -> new ReadOnlyObjectWrapper<>(features.getValue().getValue()));
+			tableColumn.setPrefWidth(column.prefWidth);
+			tableColumn.setSortable(false);
+			getColumns().add(tableColumn);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Instance methods
+////////////////////////////////////////////////////////////////////////
+
+	public void setZipFile(
+		ZipFileModel	zipFile)
+	{
+		// Update instance variables
+		DirectoryIndex index = (zipFile == null) ? null : zipFile.getDirectoryIndex();
+		entries = (index == null) ? Collections.emptyList() : zipFile.getEntries();
+		this.index = index;
+
+		// Set root of tree
+		if (index == null)
+			setRoot(null);
+		else
+		{
+			DirectoryItem root = new DirectoryItem(DirectoryIndex.ROOT);
+			root.setExpanded(true);
+			setRoot(root);
+		}
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns a bit set of the selected entries, indexed by their positions in the list of entries of the zip file.  A
+	 * selected directory denotes all the files in the directory and its subdirectories.
+	 *
+	 * @return a bit set of the selected entries.
+	 */
+
+	public BitSet getSelectedEntries()
+	{
+		BitSet selection = new BitSet(entries.size());
+		for (TreeItem<Node> item : getSelectionModel().getSelectedItems())
+		{
+			Node node = (item == null) ? null : item.getValue();
+			if (node != null)
+			{
+				switch (node.kind)
+				{
+					case DIRECTORY:
+						selection.set(index.getStartIndex(node.index), index.getEndIndex(node.index));
+						break;
+
+					case FILE:
+						selection.set(node.index);
+						break;
+
+					case MORE:
+						// do nothing
+						break;
+				}
+			}
+		}
+		return selection;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the list of the entries of the zip file to which the indices of {@link #getSelectedEntries()} refer.
+	 *
+	 * @return the list of the entries of the zip file.
+	 */
+
+	public List<ZipFileEntry> getEntries()
+	{
+		return entries;
+	}
+
+	//------------------------------------------------------------------
+
+	/**
+	 * Returns the text of the specified column for the specified node.
+	 *
+	 * @param  column
+	 *           the column.
+	 * @param  node
+	 *           the node.
+	 * @return the text of {@code column} for {@code node}.
+	 */
+
+	private String getCellText(
+		Column	column,
+		Node	node)
+	{
+		switch (node.kind)
+		{
+			case DIRECTORY:
+			{
+				int directory = node.index;
+				return switch (column)
+				{
+					case NAME            -> index.getName(directory);
+					case NUM_FILES       -> Utils.formatDecimal(index.getNumFiles(directory));
+					case SIZE            -> Utils.formatDecimal(index.getSize(directory));
+					case COMPRESSED_SIZE -> Utils.formatDecimal(index.getCompressedSize(directory));
+				};
+			}
+
+			case FILE:
+			{
+				ZipFileEntry entry = entries.get(node.index);
+				return switch (column)
+				{
+					case NAME            -> entry.getFilename();
+					case NUM_FILES       -> "";
+					case SIZE            -> EntryTextCache.Field.SIZE.format(entry);
+					case COMPRESSED_SIZE -> EntryTextCache.Field.COMPRESSED_SIZE.format(entry);
+				};
+			}
+
+			case MORE:
+				return (column == Column.NAME) ? String.format(MORE_STR, Utils.formatDecimal(node.count)) : "";
+		}
+		return null;
+	}
+
+	//------------------------------------------------------------------
+
+////////////////////////////////////////////////////////////////////////
+//  Enumerated types
+////////////////////////////////////////////////////////////////////////
+
+
+	// ENUMERATION: KIND OF NODE
+
+
+	/**
+	 * This is an enumeration of the kinds of node of the tree.
+	 */
+
+	public enum NodeKind
+	{
+		/**
+		 * A directory.
+		 */
+		DIRECTORY,
+
+		/**
+		 * A file.
+		 */
+		FILE,
+
+		/**
+		 * A placeholder for the children of a directory that have not been created.
+		 */
+		MORE
+	}
+
+	//==================================================================
+
+
+	// ENUMERATION: COLUMN OF TREE VIEW
+
+
+	private enum Column
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Constants
+	////////////////////////////////////////////////////////////////////
+
+		NAME
+		(
+			"Name",
+			HPos.LEFT,
+			TextUtils.textHeightCeil(20.0)
+		),
+
+		NUM_FILES
+		(
+			"Files",
+			HPos.RIGHT,
+			TextUtils.textWidth(Utils.formatDecimal(9_999_999L))
+		),
+
+		SIZE
+		(
+			"Size",
+			HPos.RIGHT,
+			TextUtils.textWidth(Utils.formatDecimal(0xFF_FFFF_FFFFL))
+		),
+
+		COMPRESSED_SIZE
+		(
+			"Comp size",
+			HPos.RIGHT,
+			TextUtils.textWidth(Utils.formatDecimal(0xFF_FFFF_FFFFL))
+		);
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		private	String	text;
+		private	HPos	hAlignment;
+		private	double	prefWidth;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private Column(
+			String	text,
+			HPos	hAlignment,
+			double	textWidth)
+		{
+			// Initialise instance variables
+			this.text = text;
+			this.hAlignment = hAlignment;
+			prefWidth = Math.ceil(textWidth + 16.0);
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member records
+////////////////////////////////////////////////////////////////////////
+
+
+	// RECORD: NODE OF TREE
+
+
+	/**
+	 * This record encapsulates the value of an item of the tree.
+	 *
+	 * @param kind
+	 *          the kind of node.
+	 * @param index
+	 *          the index of the directory in the directory index if the node is a directory; the index of the entry in
+	 *          the list of entries if the node is a file; or the position of the first child that has not been created
+	 *          if the node is a placeholder.
+	 * @param count
+	 *          the number of children that have not been created if the node is a placeholder; otherwise, zero.
+	 */
+
+	public record Node(
+		NodeKind	kind,
+		int			index,
+		int			count)
+	{ }
+
+	//==================================================================
+
+////////////////////////////////////////////////////////////////////////
+//  Member classes : inner classes
+////////////////////////////////////////////////////////////////////////
+
+
+	// CLASS: DIRECTORY ITEM
+
+
+	/**
+	 * This class implements a tree item for a directory.  The children of the directory are its subdirectories, in
+	 * order of name, followed by the files that are directly in it; they are created in pages when they are first
+	 * requested.
+	 */
+
+	private class DirectoryItem
+		extends TreeItem<Node>
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		/** Flag: if {@code true}, the first page of children of this item has been created. */
+		private	boolean	childListInitialised;
+
+		/** Flag: if {@code true}, the creation of the next page of children has been requested. */
+		private	boolean	nextPageRequested;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private DirectoryItem(
+			int	directory)
+		{
+			// Call superclass constructor
+			super(new Node(NodeKind.DIRECTORY, directory, 0));
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : overriding methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public ObservableList<TreeItem<Node>> getChildren()
+		{
+			// Get list of children
+			ObservableList<TreeItem<Node>> children = super.getChildren();
+
+			// If list of children is not initialised, create first page of children
+			if (!childListInitialised)
+			{
+				childListInitialised = true;
+				children.setAll(createPage(0));
+			}
+
+			// Return list of children
+			return children;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * {@inheritDoc}
+		 */
+
+		@Override
+		public boolean isLeaf()
+		{
+			return (getNumChildren() == 0);
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods
+	////////////////////////////////////////////////////////////////////
+
+		/**
+		 * Returns the number of children of this item: the number of subdirectories and files that are directly in
+		 * its directory.
+		 *
+		 * @return the number of children of this item.
+		 */
+
+		private int getNumChildren()
+		{
+			int directory = getValue().index;
+			return index.getNumChildren(directory) + index.getNumDirectFiles(directory);
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Creates and returns the page of children of this item that starts at the specified position.  If there are
+		 * children after the page, a placeholder for them is added to the end of the page.
+		 *
+		 * @param  start
+		 *           the position of the first child of the page.
+		 * @return the page of children that starts at {@code start}.
+		 */
+
+		private List<TreeItem<Node>> createPage(
+			int	start)
+		{
+			// Get number of subdirectories and children
+			int directory = getValue().index;
+			int numSubdirectories = index.getNumChildren(directory);
+			int numChildren = getNumChildren();
+
+			// Create children
+			int end = Math.min(start + PAGE_LENGTH, numChildren);
+			List<TreeItem<Node>> items = new ArrayList<>(end - start + 1);
+			for (int i = start; i < end; i++)
+			{
+				items.add((i < numSubdirectories)
+								? new DirectoryItem(index.getChild(directory, i))
+								: new TreeItem<>(new Node(NodeKind.FILE,
+														  index.getStartIndex(directory) + i - numSubdirectories, 0)));
+			}
+
+			// Add placeholder for remaining children
+			if (end < numChildren)
+				items.add(new TreeItem<>(new Node(NodeKind.MORE, end, numChildren - end)));
+
+			// Return page of children
+			return items;
+		}
+
+		//--------------------------------------------------------------
+
+		/**
+		 * Requests the creation of the next page of children of this item, which replaces the placeholder at the end
+		 * of the current children.  The page is created on a later pulse, because this method is called while a cell
+		 * is being updated.
+		 */
+
+		private void requestNextPage()
+		{
+			if (!nextPageRequested)
+			{
+				nextPageRequested = true;
+				Platform.runLater(() ->
+				{
+					ObservableList<TreeItem<Node>> children = getChildren();
+					int last = children.size() - 1;
+					Node node = children.get(last).getValue();
+					if (node.kind == NodeKind.MORE)
+					{
+						List<TreeItem<Node>> items = createPage(node.index);
+						children.remove(last);
+						children.addAll(items);
+					}
+					nextPageRequested = false;
+				});
+			}
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+
+	// CLASS: CELL
+
+
+	/**
+	 * This class implements a cell of the enclosing tree view.
+	 */
+
+	private class Cell
+		extends TreeTableCell<Node, Node>
+	{
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance variables
+	////////////////////////////////////////////////////////////////////
+
+		private	Column	column;
+
+	////////////////////////////////////////////////////////////////////
+	//  Constructors
+	////////////////////////////////////////////////////////////////////
+
+		private Cell(
+			Column	column)
+		{
+			// Initialise instance variables
+			this.column = column;
+
+			// Set properties
+			setAlignment(FxGeomUtils.getPos(VPos.CENTER, column.hAlignment));
+
+			// If mouse is double-clicked on file, edit entry
+			addEventHandler(MouseEvent.MOUSE_CLICKED, event ->
+			{
+				if ((event.getButton() == MouseButton.PRIMARY) && (event.getClickCount() == 2))
+				{
+					Node node = getItem();
+					if ((node != null) && (node.kind == NodeKind.FILE))
+						UnzipApp.instance().editFile(entries.get(node.index), false);
+				}
+			});
+		}
+
+		//--------------------------------------------------------------
+
+	////////////////////////////////////////////////////////////////////
+	//  Instance methods : overriding methods
+	////////////////////////////////////////////////////////////////////
+
+		@Override
+		protected void updateItem(
+			Node	node,
+			boolean	empty)
+		{
+			// Call superclass method
+			super.updateItem(node, empty);
+
+			// Set text
+			setText((empty || (node == null)) ? null : getCellText(column, node));
+
+			// If cell displays placeholder for more children, request next page of children of parent
+			if (!empty && (node != null) && (node.kind == NodeKind.MORE) && (column == Column.NAME)
+					&& (getTableRow() != null) && (getTableRow().getTreeItem() != null)
+					&& (getTableRow().getTreeItem().getParent() instanceof DirectoryItem parent))
+				parent.requestNextPage();
+		}
+
+		//--------------------------------------------------------------
+
+	}
+
+	//==================================================================
+
+}
+
+//----------------------------------------------------------------------